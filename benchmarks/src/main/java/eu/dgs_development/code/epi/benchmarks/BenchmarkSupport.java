@@ -0,0 +1,123 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi.benchmarks;
+
+import eu.dgs_development.code.epi.FlushPolicy;
+import eu.dgs_development.code.epi.InputWriter;
+import eu.dgs_development.code.epi.IoEngine;
+import eu.dgs_development.code.epi.ProcessOptions;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Helper class to create the processes and options of all benchmarks.
+ */
+final class BenchmarkSupport {
+    static final String THREAD_PER_STREAM_ENGINE = "threadPerStream";
+    static final String SHARED_ENGINE = "shared";
+
+    static final String DIRECT_WRITER = "direct";
+    static final String DEDICATED_WRITER = "dedicated";
+
+    private static final long AWAIT_TIMEOUT_SECONDS = 60;
+
+    private BenchmarkSupport() {
+        //Ignore...
+    }
+
+    /**
+     * Creates the engine with the given name. The benchmarks close the engine after their trial, because every shared
+     * engine starts its own worker threads.
+     * @param engineName The name of the engine, either "threadPerStream" or "shared".
+     * @return The created {@link IoEngine}.
+     */
+    static IoEngine createIoEngine(String engineName) {
+        if(THREAD_PER_STREAM_ENGINE.equals(engineName))
+            return IoEngine.threadPerStream();
+
+        if(SHARED_ENGINE.equals(engineName))
+            return IoEngine.shared(Runtime.getRuntime().availableProcessors());
+
+        throw new IllegalArgumentException("Unknown engine \"" + engineName + "\".");
+    }
+
+    /**
+     * Creates the writer with the given name.
+     * @param writerName The name of the writer, either "direct" or "dedicated".
+     * @return The created {@link InputWriter}.
+     */
+    static InputWriter createInputWriter(String writerName) {
+        if(DIRECT_WRITER.equals(writerName))
+            return InputWriter.direct();
+
+        if(DEDICATED_WRITER.equals(writerName))
+            return InputWriter.dedicated(1024, FlushPolicy.immediate());
+
+        throw new IllegalArgumentException("Unknown writer \"" + writerName + "\".");
+    }
+
+    /**
+     * Creates the options of a benchmarked process, whose error output stream is discarded.
+     * @param ioEngine The engine to read the process with.
+     * @return The created {@link ProcessOptions}.
+     */
+    static ProcessOptions createProcessOptions(IoEngine ioEngine) {
+        return new ProcessOptions()
+                .setIoEngine(ioEngine)
+                .setErrorOutputRedirect(ProcessOptions.DISCARD);
+    }
+
+    /**
+     * Searches an executable in the common binary directories of Linux.
+     * @param name The name of the executable.
+     * @return The executable file.
+     */
+    static File findExecutable(String name) {
+        for(String directory : new String[] {"/bin", "/usr/bin"}) {
+            File file = new File(directory, name);
+
+            if(file.canExecute())
+                return file;
+        }
+
+        throw new IllegalStateException("The executable \"" + name + "\" wasn't found.");
+    }
+
+    /**
+     * Waits for the completion of a future, which is completed by a process handler.
+     * @param future The future to wait for.
+     * @param <T> The type of the result.
+     * @return The result of the future.
+     * @throws Exception Exception if the future failed or wasn't completed in time.
+     */
+    static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get(AWAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+        catch (ExecutionException executionException) {
+            Throwable cause = executionException.getCause();
+
+            throw cause instanceof Exception ? (Exception) cause : executionException;
+        }
+        catch (TimeoutException timeoutException) {
+            throw new IllegalStateException("The process didn't respond in time.", timeoutException);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi.benchmarks;
+
+import eu.dgs_development.code.epi.IoEngine;
+import eu.dgs_development.code.epi.ProcessCreator;
+import eu.dgs_development.code.epi.ProcessOptions;
+import eu.dgs_development.code.epi.handlers.binary.BinaryProcessCallback;
+import eu.dgs_development.code.epi.handlers.binary.BinaryProcessHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the latency between starting "/bin/true" and the notification of the handler.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class SpawnBenchmark {
+    @Param({BenchmarkSupport.THREAD_PER_STREAM_ENGINE, BenchmarkSupport.SHARED_ENGINE})
+    public String engine;
+
+    private File trueFile;
+    private IoEngine ioEngine;
+    private ProcessOptions processOptions;
+    private final List<CompletableFuture<Integer>> pendingExits = Collections.synchronizedList(new ArrayList<>());
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ioEngine = BenchmarkSupport.createIoEngine(engine);
+
+        trueFile = BenchmarkSupport.findExecutable("true");
+        processOptions = BenchmarkSupport.createProcessOptions(ioEngine);
+    }
+
+    @TearDown(Level.Iteration)
+    public void awaitPendingExits() throws Exception {
+        //The exits of processes, whose initialization was measured, are awaited outside the measured time.
+        synchronized (pendingExits) {
+            for(CompletableFuture<Integer> pendingExit : pendingExits)
+                BenchmarkSupport.await(pendingExit);
+
+            pendingExits.clear();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ioEngine.close();
+    }
+
+    /**
+     * Measures the time between the start of the process and the call of "onInitialized".
+     * @return The callback passed to the handler.
+     * @throws Exception Exception if the process couldn't be started.
+     */
+    @Benchmark
+    public BinaryProcessCallback spawnToInitialized() throws Exception {
+        CompletableFuture<BinaryProcessCallback> initialized = new CompletableFuture<>();
+
+        pendingExits.add(startProcess(initialized));
+
+        return BenchmarkSupport.await(initialized);
+    }
+
+    /**
+     * Measures the time between the start of the process and the call of "onProcessExited".
+     * @return The exit code of the process.
+     * @throws Exception Exception if the process couldn't be started.
+     */
+    @Benchmark
+    public int spawnToExit() throws Exception {
+        return BenchmarkSupport.await(startProcess(new CompletableFuture<>()));
+    }
+
+    private CompletableFuture<Integer> startProcess(CompletableFuture<BinaryProcessCallback> initialized) {
+        CompletableFuture<Integer> exited = new CompletableFuture<>();
+
+        ProcessCreator.startProcess(trueFile, null, null, processOptions, new BinaryProcessHandler() {
+            @Override
+            public void onInitialized(BinaryProcessCallback binaryProcessCallback) {
+                initialized.complete(binaryProcessCallback);
+            }
+
+            @Override
+            public void onStdBytesRead(BinaryProcessCallback binaryProcessCallback, int readBytes, byte[] byteArray) {
+                //Ignore...
+            }
+
+            @Override
+            public void onErrorBytesRead(BinaryProcessCallback binaryProcessCallback, int readBytes,
+                                         byte[] byteArray) {
+                //Ignore...
+            }
+
+            @Override
+            public void onProcessExited(int exitCode) {
+                exited.complete(exitCode);
+            }
+
+            @Override
+            public void onIOException(IOException ioException) {
+                initialized.completeExceptionally(ioException);
+                exited.completeExceptionally(ioException);
+            }
+        });
+
+        return exited;
+    }
+}
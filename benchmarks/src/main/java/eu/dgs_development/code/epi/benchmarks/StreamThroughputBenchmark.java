@@ -0,0 +1,175 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi.benchmarks;
+
+import eu.dgs_development.code.epi.IoEngine;
+import eu.dgs_development.code.epi.ProcessCreator;
+import eu.dgs_development.code.epi.ProcessOptions;
+import eu.dgs_development.code.epi.handlers.binary.BinaryProcessCallback;
+import eu.dgs_development.code.epi.handlers.binary.BinaryProcessHandler;
+import eu.dgs_development.code.epi.handlers.text.TextProcessCallback;
+import eu.dgs_development.code.epi.handlers.text.TextProcessHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the read throughput of the output streams. The text benchmark reports lines per second and the binary
+ * benchmark reports MiB per second, because every invocation counts as the amount of read lines or MiB.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(2)
+public class StreamThroughputBenchmark {
+    private static final int LINE_COUNT = 1000000;
+    private static final int MEBIBYTE_COUNT = 256;
+
+    /**
+     * The engine and the executables of a trial. The engine gets closed after the trial.
+     */
+    @State(Scope.Benchmark)
+    public static class ReadState {
+        @Param({BenchmarkSupport.THREAD_PER_STREAM_ENGINE, BenchmarkSupport.SHARED_ENGINE})
+        public String engine;
+
+        File seqFile;
+        File headFile;
+        IoEngine ioEngine;
+        ProcessOptions processOptions;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            seqFile = BenchmarkSupport.findExecutable("seq");
+            headFile = BenchmarkSupport.findExecutable("head");
+            ioEngine = BenchmarkSupport.createIoEngine(engine);
+            processOptions = BenchmarkSupport.createProcessOptions(ioEngine);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            ioEngine.close();
+        }
+    }
+
+    /**
+     * The state of the binary benchmark, which is additionally run for every buffer size. Text handlers don't use a
+     * buffer size, so the text benchmark only uses the {@link ReadState}.
+     */
+    @State(Scope.Benchmark)
+    public static class BufferedReadState extends ReadState {
+        @Param({"2048", "8192", "65536"})
+        public int bufferSize;
+    }
+
+    /**
+     * Reads the lines printed by "seq".
+     * @param readState The state of the trial.
+     * @return The amount of read lines.
+     * @throws Exception Exception if the process couldn't be started or read.
+     */
+    @Benchmark
+    @OperationsPerInvocation(LINE_COUNT)
+    public long textLines(ReadState readState) throws Exception {
+        CompletableFuture<Long> exited = new CompletableFuture<>();
+        long[] readLines = {0};
+
+        ProcessCreator.startProcess(readState.seqFile, null, Arrays.asList("1", String.valueOf(LINE_COUNT)),
+                readState.processOptions, new TextProcessHandler() {
+            @Override
+            public void onInitialized(TextProcessCallback textProcessCallback) {
+                //Ignore...
+            }
+
+            @Override
+            public void onStdLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                readLines[0]++;
+            }
+
+            @Override
+            public void onErrorLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                //Ignore...
+            }
+
+            @Override
+            public void onProcessExited(int exitCode) {
+                exited.complete(readLines[0]);
+            }
+
+            @Override
+            public void onIOException(IOException ioException) {
+                exited.completeExceptionally(ioException);
+            }
+        });
+
+        return BenchmarkSupport.await(exited);
+    }
+
+    /**
+     * Reads the zero bytes printed by "head", with the configured buffer size.
+     * @param readState The state of the trial.
+     * @return The amount of read bytes.
+     * @throws Exception Exception if the process couldn't be started or read.
+     */
+    @Benchmark
+    @OperationsPerInvocation(MEBIBYTE_COUNT)
+    public long binaryBytes(BufferedReadState readState) throws Exception {
+        CompletableFuture<Long> exited = new CompletableFuture<>();
+        long[] readBytesTotal = {0};
+
+        ProcessCreator.startProcess(readState.headFile, null, Arrays.asList("-c",
+                String.valueOf(MEBIBYTE_COUNT * 1048576L), "/dev/zero"), readState.processOptions,
+                new BinaryProcessHandler() {
+            @Override
+            public void onInitialized(BinaryProcessCallback binaryProcessCallback) {
+                //Ignore...
+            }
+
+            @Override
+            public void onStdBytesRead(BinaryProcessCallback binaryProcessCallback, int readBytes, byte[] byteArray) {
+                readBytesTotal[0] += readBytes;
+            }
+
+            @Override
+            public void onErrorBytesRead(BinaryProcessCallback binaryProcessCallback, int readBytes,
+                                         byte[] byteArray) {
+                //Ignore...
+            }
+
+            @Override
+            public void onProcessExited(int exitCode) {
+                exited.complete(readBytesTotal[0]);
+            }
+
+            @Override
+            public void onIOException(IOException ioException) {
+                exited.completeExceptionally(ioException);
+            }
+
+            @Override
+            public int getBufferSize() {
+                return readState.bufferSize;
+            }
+        });
+
+        return BenchmarkSupport.await(exited);
+    }
+}
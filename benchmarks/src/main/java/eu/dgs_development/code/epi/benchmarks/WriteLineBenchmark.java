@@ -0,0 +1,117 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi.benchmarks;
+
+import eu.dgs_development.code.epi.IoEngine;
+import eu.dgs_development.code.epi.ProcessCreator;
+import eu.dgs_development.code.epi.ProcessOptions;
+import eu.dgs_development.code.epi.handlers.text.TextProcessCallback;
+import eu.dgs_development.code.epi.handlers.text.TextProcessHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the round-trip latency of a line, which is written to "cat" and read back from its standard output
+ * stream. A single "cat" process is started for every trial.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class WriteLineBenchmark {
+    private static final String LINE = "The quick brown fox jumps over the lazy dog";
+    private static final String LINE_WITH_SEPARATOR = LINE + "\n";
+
+    @Param({BenchmarkSupport.THREAD_PER_STREAM_ENGINE, BenchmarkSupport.SHARED_ENGINE})
+    public String engine;
+
+    @Param({BenchmarkSupport.DIRECT_WRITER, BenchmarkSupport.DEDICATED_WRITER})
+    public String writer;
+
+    private final BlockingQueue<String> echoedLines = new ArrayBlockingQueue<>(1);
+    private final CompletableFuture<Integer> exited = new CompletableFuture<>();
+    private IoEngine ioEngine;
+    private TextProcessCallback textProcessCallback;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        ioEngine = BenchmarkSupport.createIoEngine(engine);
+
+        ProcessOptions processOptions = BenchmarkSupport.createProcessOptions(ioEngine)
+                .setInputWriter(BenchmarkSupport.createInputWriter(writer));
+
+        CompletableFuture<TextProcessCallback> initialized = new CompletableFuture<>();
+
+        ProcessCreator.startProcess(BenchmarkSupport.findExecutable("cat"), null, null, processOptions,
+                new TextProcessHandler() {
+            @Override
+            public void onInitialized(TextProcessCallback textProcessCallback) {
+                initialized.complete(textProcessCallback);
+            }
+
+            @Override
+            public void onStdLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                echoedLines.add(readLine);
+            }
+
+            @Override
+            public void onErrorLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                //Ignore...
+            }
+
+            @Override
+            public void onProcessExited(int exitCode) {
+                exited.complete(exitCode);
+            }
+
+            @Override
+            public void onIOException(IOException ioException) {
+                initialized.completeExceptionally(ioException);
+                exited.completeExceptionally(ioException);
+            }
+        });
+
+        textProcessCallback = BenchmarkSupport.await(initialized);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        textProcessCallback.destroyForcibly();
+
+        BenchmarkSupport.await(exited);
+
+        ioEngine.close();
+    }
+
+    /**
+     * Writes a line to "cat" and waits until the echoed line was read.
+     * @return The echoed line.
+     * @throws Exception Exception if the line couldn't be written.
+     */
+    @Benchmark
+    public String writeLineRoundTrip() throws Exception {
+        textProcessCallback.writeLine(LINE_WITH_SEPARATOR);
+
+        return echoedLines.take();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import org.junit.jupiter.api.*;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.net.URL;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class MultiReleaseTest {
+    @Test
+    @Order(1)
+    public void versionedClassesTest() {
+        //The newest variant, which isn't newer than the running Java version, gets loaded from the JAR.
+        assertLoadedVariant(ExitWatcher.class, 9);
+        assertLoadedVariant(PipelineLauncher.class, 9);
+        assertLoadedVariant(InputPump.class, 9);
+        assertLoadedVariant(ProcessPublisher.class, 9);
+        assertLoadedVariant(ProcessEvents.class, 11);
+
+        if(Runtime.version().feature() >= 21)
+            assertLoadedVariant(DefaultThreadFactory.class, 21);
+        else
+            assertLoadedVariant(DefaultThreadFactory.class, 0);
+    }
+
+    @Test
+    @Order(2)
+    public void defaultThreadFactoryTest() throws Exception {
+        Thread thread = DefaultThreadFactory.INSTANCE.newThread(() -> {
+            //Ignore...
+        });
+
+        boolean virtualThreads = Runtime.version().feature() >= 21 &&
+                Boolean.parseBoolean(System.getProperty(DefaultThreadFactory.VIRTUAL_THREADS_PROPERTY, "true"));
+
+        Assertions.assertEquals(virtualThreads, isVirtual(thread), "Unexpected thread type.");
+    }
+
+    @Test
+    @Order(3)
+    public void defaultThreadFactoryPropertyTest() throws Exception {
+        Assumptions.assumeTrue(Runtime.version().feature() >= 21, "Virtual threads require Java 21 or newer.");
+
+        String previousValue = System.getProperty(DefaultThreadFactory.VIRTUAL_THREADS_PROPERTY);
+
+        try {
+            System.setProperty(DefaultThreadFactory.VIRTUAL_THREADS_PROPERTY, "false");
+
+            //The property is read when the factory is created.
+            Constructor<DefaultThreadFactory> constructor = DefaultThreadFactory.class.getDeclaredConstructor();
+            constructor.setAccessible(true);
+
+            Thread thread = constructor.newInstance().newThread(() -> {
+                //Ignore...
+            });
+
+            Assertions.assertFalse(isVirtual(thread), "Unexpected virtual thread.");
+        }
+        finally {
+            if(previousValue == null)
+                System.clearProperty(DefaultThreadFactory.VIRTUAL_THREADS_PROPERTY);
+            else
+                System.setProperty(DefaultThreadFactory.VIRTUAL_THREADS_PROPERTY, previousValue);
+        }
+    }
+
+    private static void assertLoadedVariant(Class<?> variantClass, int version) {
+        URL classUrl = variantClass.getResource(variantClass.getSimpleName() + ".class");
+
+        Assertions.assertNotNull(classUrl, "Unable to find the class file.");
+        Assertions.assertEquals("jar", classUrl.getProtocol(), "The class wasn't loaded from the JAR.");
+
+        String versionDirectory = "!/META-INF/versions/" + version + "/";
+
+        if(version == 0) {
+            Assertions.assertFalse(classUrl.toString().contains("!/META-INF/versions/"),
+                    "Unexpected variant: " + classUrl);
+        }
+        else {
+            Assertions.assertTrue(classUrl.toString().contains(versionDirectory), "Unexpected variant: " + classUrl);
+        }
+    }
+
+    private static boolean isVirtual(Thread thread) throws Exception {
+        if(Runtime.version().feature() < 21)
+            return false;
+
+        Method isVirtualMethod = Thread.class.getMethod("isVirtual");
+
+        return (boolean) isVirtualMethod.invoke(thread);
+    }
+}
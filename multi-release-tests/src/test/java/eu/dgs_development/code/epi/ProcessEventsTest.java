@@ -0,0 +1,226 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+import eu.dgs_development.code.epi.handlers.text.TextProcessCallback;
+import eu.dgs_development.code.epi.handlers.text.TextProcessHandler;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ProcessEventsTest {
+    private static final String START_EVENT = "eu.dgs_development.code.epi.ProcessStart";
+    private static final String EXIT_EVENT = "eu.dgs_development.code.epi.ProcessExit";
+    private static final String LINE_BATCH_EVENT = "eu.dgs_development.code.epi.LineBatch";
+    private static final String STDIN_WRITE_EVENT = "eu.dgs_development.code.epi.StdinWrite";
+
+    private static File executableFile;
+
+    private static String getExecutablePathOrNull() {
+        String osName = System.getProperty("os.name").toLowerCase();
+
+        if(osName.contains("win")) {
+            return "go-echo/bin/go-echo-amd64.exe";
+        }
+        else if(osName.contains("nix") || osName.contains("nux") || osName.contains("aix")) {
+            return "go-echo/bin/go-echo-amd64-linux";
+        }
+        else if(osName.contains("mac")) {
+            return "go-echo/bin/go-echo-amd64-darwin";
+        }
+
+        return null;
+    }
+
+    @BeforeAll
+    public static void setup(){
+        //Check if native tests should be performed.
+        File testTriggerFile = new File("TRIGGER_TESTS");
+
+        Assumptions.assumeTrue(testTriggerFile.isFile(), "Unable to find test trigger file: Invalid path \"" +
+                testTriggerFile.getAbsolutePath() + "\".");
+
+        //Try to set the correct executable.
+        String executablePath = getExecutablePathOrNull();
+
+        if(executablePath == null) {
+            Assertions.fail("Unknown OS: Unable to detect the correct executable.");
+        }
+
+        executableFile = new File(getExecutablePathOrNull());
+
+        Assumptions.assumeTrue(executableFile.isFile(), "Unable to find test executable: Invalid path \"" +
+                executableFile.getAbsolutePath() + "\".");
+    }
+
+    @Test
+    @Order(1)
+    public void processEventsTest() throws Exception {
+        List<RecordedEvent> events;
+
+        try (Recording recording = new Recording()) {
+            recording.enable(START_EVENT).withThreshold(Duration.ZERO);
+            recording.enable(EXIT_EVENT).withThreshold(Duration.ZERO);
+            recording.enable(LINE_BATCH_EVENT).withThreshold(Duration.ZERO);
+            recording.enable(STDIN_WRITE_EVENT).withThreshold(Duration.ZERO);
+
+            events = recordEchoProcess(recording);
+        }
+
+        String expectedCommand = executableFile.getAbsolutePath() + " echo-string";
+
+        RecordedEvent startEvent = getSingleEvent(events, START_EVENT);
+
+        Assertions.assertEquals(expectedCommand, startEvent.getString("command"), "Unexpected command.");
+        Assertions.assertEquals(executableFile.getParentFile().getAbsolutePath(),
+                startEvent.getString("workingDirectory"), "Unexpected working directory.");
+        Assertions.assertTrue(startEvent.getDuration().toNanos() > 0, "The spawn wasn't timed.");
+
+        RecordedEvent exitEvent = getSingleEvent(events, EXIT_EVENT);
+
+        Assertions.assertEquals(expectedCommand, exitEvent.getString("command"), "Unexpected command.");
+        Assertions.assertEquals(0, exitEvent.getInt("exitCode"), "Unexpected exit code.");
+        Assertions.assertTrue(exitEvent.getDuration().toNanos() > 0, "The lifetime wasn't timed.");
+        Assertions.assertFalse(exitEvent.getStartTime().isBefore(startEvent.getEndTime()),
+                "The lifetime started before the process was spawned.");
+
+        //The echoed line is read as a single batch with its bytes and both written lines are counted.
+        RecordedEvent lineBatchEvent = getSingleEvent(events, LINE_BATCH_EVENT);
+
+        Assertions.assertFalse(lineBatchEvent.getBoolean("errorStream"), "Unexpected stream.");
+        Assertions.assertEquals(1, lineBatchEvent.getInt("lines"), "Unexpected amount of lines.");
+        Assertions.assertEquals("Hello\n".length(), lineBatchEvent.getLong("bytes"), "Unexpected amount of bytes.");
+
+        int writtenBytes = getEvents(events, STDIN_WRITE_EVENT).stream()
+                .mapToInt(event -> event.getInt("bytes"))
+                .sum();
+
+        Assertions.assertEquals("Hello\nEXIT\n".length(), writtenBytes, "Unexpected amount of written bytes.");
+    }
+
+    @Test
+    @Order(2)
+    public void eventThresholdTest() throws Exception {
+        List<RecordedEvent> events;
+
+        //The threshold is applied to the timing of the events. No spawn takes an hour, but every process lives longer
+        //than a millisecond.
+        try (Recording recording = new Recording()) {
+            recording.enable(START_EVENT).withThreshold(Duration.ofHours(1));
+            recording.enable(EXIT_EVENT).withThreshold(Duration.ofMillis(1));
+
+            events = recordEchoProcess(recording);
+        }
+
+        Assertions.assertEquals(Collections.emptyList(), getEvents(events, START_EVENT), "Unexpected start events.");
+
+        RecordedEvent exitEvent = getSingleEvent(events, EXIT_EVENT);
+
+        Assertions.assertTrue(exitEvent.getDuration().compareTo(Duration.ofMillis(1)) >= 0, "Unexpected lifetime.");
+    }
+
+    private static List<RecordedEvent> recordEchoProcess(Recording recording) throws Exception {
+        recording.start();
+
+        //The recording state is passed to the library by a listener.
+        while (!ProcessEvents.isRecording())
+            Thread.sleep(10);
+
+        CountDownLatch exited = new CountDownLatch(1);
+
+        final Throwable[] throwable = {null};
+
+        ProcessCreator.startProcess(executableFile, executableFile.getParentFile(),
+                Collections.singletonList("echo-string"), new ProcessOptions(), new TextProcessHandler() {
+            @Override
+            public void onInitialized(TextProcessCallback textProcessCallback) {
+                try {
+                    textProcessCallback.writeLine("Hello\n");
+                    textProcessCallback.writeLine("EXIT\n");
+                }
+                catch (IOException ioException) {
+                    throwable[0] = ioException;
+                }
+            }
+
+            @Override
+            public void onStdLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                //Ignore...
+            }
+
+            @Override
+            public void onErrorLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                throwable[0] = new AssertionError("Read unexpected line from stderr.");
+            }
+
+            @Override
+            public void onProcessExited(int exitCode) {
+                exited.countDown();
+            }
+
+            @Override
+            public void onIOException(IOException ioException) {
+                throwable[0] = ioException;
+            }
+        });
+
+        Assertions.assertTrue(exited.await(30, TimeUnit.SECONDS), "The process didn't exit.");
+
+        if(throwable[0] != null) {
+            Assertions.fail("Unexpected assertion-exception.", throwable[0]);
+        }
+
+        recording.stop();
+
+        Path recordingFile = Files.createTempFile("epi-events", ".jfr");
+
+        try {
+            recording.dump(recordingFile);
+
+            return RecordingFile.readAllEvents(recordingFile);
+        }
+        finally {
+            Files.delete(recordingFile);
+        }
+    }
+
+    private static List<RecordedEvent> getEvents(List<RecordedEvent> events, String eventName) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(eventName))
+                .collect(Collectors.toList());
+    }
+
+    private static RecordedEvent getSingleEvent(List<RecordedEvent> events, String eventName) {
+        List<RecordedEvent> namedEvents = getEvents(events, eventName);
+
+        Assertions.assertEquals(1, namedEvents.size(), "Unexpected amount of \"" + eventName + "\" events.");
+
+        return namedEvents.get(0);
+    }
+}
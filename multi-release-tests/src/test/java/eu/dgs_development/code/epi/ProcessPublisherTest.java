@@ -0,0 +1,321 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ProcessPublisherTest {
+    private static final int LINE_COUNT = 100;
+
+    private static File executableFile;
+
+    private static String getExecutablePathOrNull() {
+        String osName = System.getProperty("os.name").toLowerCase();
+
+        if(osName.contains("win")) {
+            return "go-echo/bin/go-echo-amd64.exe";
+        }
+        else if(osName.contains("nix") || osName.contains("nux") || osName.contains("aix")) {
+            return "go-echo/bin/go-echo-amd64-linux";
+        }
+        else if(osName.contains("mac")) {
+            return "go-echo/bin/go-echo-amd64-darwin";
+        }
+
+        return null;
+    }
+
+    @BeforeAll
+    public static void setup(){
+        //Check if native tests should be performed.
+        File testTriggerFile = new File("TRIGGER_TESTS");
+
+        Assumptions.assumeTrue(testTriggerFile.isFile(), "Unable to find test trigger file: Invalid path \"" +
+                testTriggerFile.getAbsolutePath() + "\".");
+
+        //Try to set the correct executable.
+        String executablePath = getExecutablePathOrNull();
+
+        if(executablePath == null) {
+            Assertions.fail("Unknown OS: Unable to detect the correct executable.");
+        }
+
+        executableFile = new File(getExecutablePathOrNull());
+
+        Assumptions.assumeTrue(executableFile.isFile(), "Unable to find test executable: Invalid path \"" +
+                executableFile.getAbsolutePath() + "\".");
+    }
+
+    @Test
+    @Order(1)
+    public void standardOutputLinesTest() throws Exception {
+        ProcessPublisher processPublisher = startEchoString();
+
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(true);
+        processPublisher.getStandardOutputLines().subscribe(subscriber);
+
+        subscriber.subscription.request(1);
+
+        subscriber.awaitTermination();
+
+        Assertions.assertNull(subscriber.throwable, "Unexpected error.");
+        Assertions.assertEquals(createLines(), subscriber.items, "Unexpected lines.");
+    }
+
+    @Test
+    @Order(2)
+    public void standardOutputBytesTest() throws Exception {
+        final byte[] testBytes = {2, 4, 6, 8};
+        final byte[] exitBytes = {69, 88, 73, 84};
+        final int blockCount = 1000;
+
+        ByteArrayOutputStream inputBytes = new ByteArrayOutputStream();
+
+        for(int i = 0; i < blockCount; i++)
+            inputBytes.write(testBytes);
+
+        inputBytes.write(exitBytes);
+
+        ProcessOptions processOptions = new ProcessOptions()
+                .setErrorOutputRedirect(ProcessOptions.DISCARD)
+                .setInputSource(InputSource.stream(new ByteArrayInputStream(inputBytes.toByteArray())));
+
+        ProcessPublisher processPublisher = ProcessPublisher.start(executableFile, executableFile.getParentFile(),
+                Collections.singletonList("echo-bytes"), processOptions, 16);
+
+        RecordingSubscriber<ByteBuffer> subscriber = new RecordingSubscriber<>(true);
+        processPublisher.getStandardOutput().subscribe(subscriber);
+
+        subscriber.subscription.request(1);
+
+        subscriber.awaitTermination();
+
+        Assertions.assertNull(subscriber.throwable, "Unexpected error.");
+
+        ByteArrayOutputStream receivedBytes = new ByteArrayOutputStream();
+
+        for(ByteBuffer buffer : subscriber.items) {
+            Assertions.assertTrue(buffer.remaining() <= 16, "The buffer exceeds the buffer size.");
+
+            byte[] bufferBytes = new byte[buffer.remaining()];
+            buffer.get(bufferBytes);
+
+            receivedBytes.write(bufferBytes);
+        }
+
+        Assertions.assertEquals(testBytes.length * blockCount, receivedBytes.size(), "Unexpected amount of bytes.");
+
+        byte[] receivedArray = receivedBytes.toByteArray();
+
+        for(int i = 0; i < receivedArray.length; i++)
+            Assertions.assertEquals(testBytes[i % testBytes.length], receivedArray[i], "Unexpected byte.");
+    }
+
+    @Test
+    @Order(3)
+    public void zeroDemandTest() throws Exception {
+        ProcessPublisher processPublisher = startEchoString();
+
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(false);
+        processPublisher.getStandardOutputLines().subscribe(subscriber);
+
+        //The stream isn't read before the first request.
+        Thread.sleep(1000);
+
+        Assertions.assertTrue(subscriber.items.isEmpty(), "Received lines without demand.");
+
+        subscriber.subscription.request(2);
+
+        Thread.sleep(1000);
+
+        //The reader stops once the demand is exhausted, although the process wrote more lines.
+        Assertions.assertEquals(createLines().subList(0, 2), subscriber.items, "Unexpected lines.");
+        Assertions.assertEquals(1, subscriber.terminated.getCount(), "The subscription was terminated.");
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        subscriber.awaitTermination();
+
+        Assertions.assertNull(subscriber.throwable, "Unexpected error.");
+        Assertions.assertEquals(createLines(), subscriber.items, "Unexpected lines.");
+    }
+
+    @Test
+    @Order(4)
+    public void invalidRequestTest() throws Exception {
+        ProcessPublisher processPublisher = startEchoString();
+
+        try {
+            RecordingSubscriber<ByteBuffer> subscriber = new RecordingSubscriber<>(false);
+            processPublisher.getStandardOutput().subscribe(subscriber);
+
+            subscriber.subscription.request(0);
+
+            subscriber.awaitTermination();
+
+            Assertions.assertTrue(subscriber.throwable instanceof IllegalArgumentException, "Unexpected error.");
+            Assertions.assertTrue(subscriber.items.isEmpty(), "Unexpected items.");
+        }
+        finally {
+            processPublisher.getProcess().destroyForcibly();
+        }
+    }
+
+    @Test
+    @Order(5)
+    public void secondSubscriberTest() throws Exception {
+        ProcessPublisher processPublisher = startEchoString();
+
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(true);
+        processPublisher.getStandardOutputLines().subscribe(subscriber);
+
+        //Every output stream can only be subscribed once, either as bytes or as lines.
+        RecordingSubscriber<String> lineSubscriber = new RecordingSubscriber<>(false);
+        processPublisher.getStandardOutputLines().subscribe(lineSubscriber);
+
+        RecordingSubscriber<ByteBuffer> bufferSubscriber = new RecordingSubscriber<>(false);
+        processPublisher.getStandardOutput().subscribe(bufferSubscriber);
+
+        Assertions.assertEquals(0, lineSubscriber.terminated.getCount(), "The second subscriber was accepted.");
+        Assertions.assertTrue(lineSubscriber.throwable instanceof IllegalStateException, "Unexpected error.");
+        Assertions.assertEquals(0, bufferSubscriber.terminated.getCount(), "The second subscriber was accepted.");
+        Assertions.assertTrue(bufferSubscriber.throwable instanceof IllegalStateException, "Unexpected error.");
+
+        subscriber.subscription.request(1);
+
+        subscriber.awaitTermination();
+
+        Assertions.assertNull(subscriber.throwable, "Unexpected error.");
+        Assertions.assertEquals(createLines(), subscriber.items, "Unexpected lines.");
+    }
+
+    @Test
+    @Order(6)
+    public void cancelTest() throws Exception {
+        ProcessPublisher processPublisher = startEchoString();
+
+        try {
+            RecordingSubscriber<String> subscriber = new RecordingSubscriber<String>(true) {
+                @Override
+                public void onNext(String item) {
+                    super.onNext(item);
+
+                    if(items.size() == 2)
+                        subscription.cancel();
+                }
+            };
+
+            processPublisher.getStandardOutputLines().subscribe(subscriber);
+
+            subscriber.subscription.request(1);
+
+            Thread.sleep(1000);
+
+            //No further items, completion or error are signalled after the cancellation.
+            Assertions.assertEquals(createLines().subList(0, 2), subscriber.items, "Unexpected lines.");
+            Assertions.assertEquals(1, subscriber.terminated.getCount(), "The subscription was terminated.");
+        }
+        finally {
+            processPublisher.getProcess().destroyForcibly();
+        }
+    }
+
+    private static ProcessPublisher startEchoString() throws IOException {
+        StringBuilder inputText = new StringBuilder();
+
+        for(String line : createLines())
+            inputText.append(line).append('\n');
+
+        inputText.append("EXIT\n");
+
+        ProcessOptions processOptions = new ProcessOptions()
+                .setErrorOutputRedirect(ProcessOptions.DISCARD)
+                .setInputSource(InputSource.stream(new ByteArrayInputStream(
+                        inputText.toString().getBytes(StandardCharsets.UTF_8))));
+
+        return ProcessPublisher.start(executableFile, executableFile.getParentFile(),
+                Collections.singletonList("echo-string"), processOptions);
+    }
+
+    private static List<String> createLines() {
+        List<String> lines = new ArrayList<>();
+
+        for(int i = 0; i < LINE_COUNT; i++)
+            lines.add("Line " + i);
+
+        return lines;
+    }
+
+    /**
+     * Subscriber which records the received items and optionally requests the next item after every received item.
+     * @param <T> The type of the received items.
+     */
+    private static class RecordingSubscriber<T> implements Flow.Subscriber<T> {
+        final List<T> items = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch terminated = new CountDownLatch(1);
+        private final boolean requestNext;
+
+        volatile Flow.Subscription subscription;
+        volatile Throwable throwable;
+
+        private RecordingSubscriber(boolean requestNext) {
+            this.requestNext = requestNext;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+
+            if(requestNext)
+                subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            this.throwable = throwable;
+
+            terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            terminated.countDown();
+        }
+
+        private void awaitTermination() throws InterruptedException {
+            Assertions.assertTrue(terminated.await(30, TimeUnit.SECONDS), "The subscription wasn't terminated.");
+        }
+    }
+}
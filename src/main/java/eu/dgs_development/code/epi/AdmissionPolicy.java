@@ -0,0 +1,36 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+/**
+ * Policies of a {@link ProcessScheduler}, which decide what happens to a process that can't be started immediately,
+ * because a concurrency limit is reached.
+ */
+public enum AdmissionPolicy {
+    /**
+     * The process waits in the queue. If the queue is full, the process gets rejected.
+     */
+    QUEUE,
+    /**
+     * The process gets rejected, without waiting.
+     */
+    REJECT,
+    /**
+     * The process waits in the queue. If the queue is full, it displaces the waiting process with the lowest priority,
+     * which gets rejected. If no waiting process has a lower priority, the new process gets rejected.
+     */
+    DISPLACE_LOWEST_PRIORITY
+}
@@ -0,0 +1,89 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import eu.dgs_development.code.epi.handlers.binary.BufferPool;
+import eu.dgs_development.code.epi.handlers.binary.PooledBuffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Helper class to read the bytes of a process stream into buffers leased from a {@link BufferPool}. Every filled
+ * buffer gets passed to a {@link LeaseCallback}, which takes over its ownership. Unused buffers are released.
+ */
+final class BufferLeaser implements StreamBufferReader.StreamCallback {
+    /**
+     * A callback to notify a listener about filled buffers or an occurred {@link IOException}.
+     */
+    public interface LeaseCallback {
+        /**
+         * Function which is called if a process-exception occurs.
+         * @param ioException The {@link IOException} that occurred.
+         */
+        void onIOException(IOException ioException);
+
+        /**
+         * Function which is called if bytes from a process were read.
+         * @param pooledBuffer The leased buffer containing the read bytes. The listener has to release it.
+         */
+        void onBufferRead(PooledBuffer pooledBuffer);
+    }
+
+    private final BufferPool bufferPool;
+    private final LeaseCallback leaseCallback;
+
+    //Only accessed by the thread reading the stream.
+    private PooledBuffer pooledBuffer;
+
+    /**
+     * Creates a new {@link BufferLeaser} instance.
+     * @param bufferPool The pool to lease the buffers from.
+     * @param leaseCallback The {@link LeaseCallback} to notify if a buffer was filled or an error occurs.
+     */
+    BufferLeaser(BufferPool bufferPool, LeaseCallback leaseCallback) {
+        this.bufferPool = bufferPool;
+        this.leaseCallback = leaseCallback;
+    }
+
+    @Override
+    public void onIOException(IOException ioException) {
+        leaseCallback.onIOException(ioException);
+    }
+
+    @Override
+    public ByteBuffer acquireBuffer() {
+        pooledBuffer = bufferPool.acquire();
+
+        return pooledBuffer.getByteBuffer();
+    }
+
+    @Override
+    public void onBufferRead(ByteBuffer buffer) {
+        PooledBuffer readBuffer = pooledBuffer;
+        pooledBuffer = null;
+
+        leaseCallback.onBufferRead(readBuffer);
+    }
+
+    @Override
+    public void onBufferUnused(ByteBuffer buffer) {
+        PooledBuffer unusedBuffer = pooledBuffer;
+        pooledBuffer = null;
+
+        unusedBuffer.release();
+    }
+}
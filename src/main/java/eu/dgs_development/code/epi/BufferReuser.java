@@ -0,0 +1,77 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Helper class to read the bytes of a process stream into a single reused buffer. Every filled buffer gets passed to a
+ * {@link ReadCallback}, which may only access it during the notification.
+ */
+final class BufferReuser implements StreamBufferReader.StreamCallback {
+    /**
+     * A callback to notify a listener about a filled buffer or an occurred {@link IOException}.
+     */
+    public interface ReadCallback {
+        /**
+         * Function which is called if a process-exception occurs.
+         * @param ioException The {@link IOException} that occurred.
+         */
+        void onIOException(IOException ioException);
+
+        /**
+         * Function which is called if bytes from a process were read.
+         * @param buffer The buffer containing the read bytes. The buffer is only valid during the call.
+         */
+        void onBufferRead(ByteBuffer buffer);
+    }
+
+    private final ByteBuffer buffer;
+    private final ReadCallback readCallback;
+
+    /**
+     * Creates a new {@link BufferReuser} instance.
+     * @param buffer The buffer to read all bytes into.
+     * @param readCallback The {@link ReadCallback} to notify if the buffer was filled or an error occurs.
+     */
+    BufferReuser(ByteBuffer buffer, ReadCallback readCallback) {
+        this.buffer = buffer;
+        this.readCallback = readCallback;
+    }
+
+    @Override
+    public void onIOException(IOException ioException) {
+        readCallback.onIOException(ioException);
+    }
+
+    @Override
+    public ByteBuffer acquireBuffer() {
+        buffer.clear();
+
+        return buffer;
+    }
+
+    @Override
+    public void onBufferRead(ByteBuffer buffer) {
+        readCallback.onBufferRead(buffer);
+    }
+
+    @Override
+    public void onBufferUnused(ByteBuffer buffer) {
+        //Ignore...
+    }
+}
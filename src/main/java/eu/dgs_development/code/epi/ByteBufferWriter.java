@@ -0,0 +1,108 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Helper class to write {@link ByteBuffer} instances to the {@link InputSink} of a process. The JDK doesn't expose a
+ * channel for process pipes, therefore heap buffers are written from their backing array and direct buffers are
+ * copied through a small transfer array. Gathering writes of small buffers are copied into the transfer array as
+ * well, so they reach the sink and the process as a single block.
+ */
+final class ByteBufferWriter {
+    private static final int TRANSFER_ARRAY_SIZE = 8192;
+
+    private final InputSink inputSink;
+
+    private byte[] transferArray;
+
+    /**
+     * Creates a new {@link ByteBufferWriter} instance.
+     * @param inputSink The sink of the standard input stream to write to.
+     */
+    ByteBufferWriter(InputSink inputSink) {
+        this.inputSink = inputSink;
+    }
+
+    synchronized void write(ByteBuffer source) throws IOException {
+        writeBuffer(source);
+    }
+
+    synchronized void write(ByteBuffer[] sources) throws IOException {
+        long remainingBytes = 0;
+
+        for(ByteBuffer source : sources)
+            remainingBytes += source.remaining();
+
+        if(sources.length < 2 || remainingBytes > TRANSFER_ARRAY_SIZE) {
+            for(ByteBuffer source : sources)
+                writeBuffer(source);
+
+            return;
+        }
+
+        byte[] transferArray = getTransferArray();
+        int transferBytes = 0;
+
+        for(ByteBuffer source : sources) {
+            int sourceBytes = source.remaining();
+
+            source.get(transferArray, transferBytes, sourceBytes);
+            transferBytes += sourceBytes;
+        }
+
+        inputSink.write(transferArray, 0, transferBytes);
+    }
+
+    synchronized void write(byte[] bytes, int offset, int length) throws IOException {
+        inputSink.write(bytes, offset, length);
+    }
+
+    synchronized void flush() throws IOException {
+        inputSink.flush();
+    }
+
+    synchronized void close() throws IOException {
+        inputSink.close();
+    }
+
+    private void writeBuffer(ByteBuffer source) throws IOException {
+        if(source.hasArray()) {
+            inputSink.write(source.array(), source.arrayOffset() + source.position(), source.remaining());
+            source.position(source.limit());
+
+            return;
+        }
+
+        byte[] transferArray = getTransferArray();
+
+        while (source.hasRemaining()) {
+            int transferBytes = Math.min(source.remaining(), transferArray.length);
+
+            source.get(transferArray, 0, transferBytes);
+            inputSink.write(transferArray, 0, transferBytes);
+        }
+    }
+
+    private byte[] getTransferArray() {
+        if(transferArray == null)
+            transferArray = new byte[TRANSFER_ARRAY_SIZE];
+
+        return transferArray;
+    }
+}
@@ -16,11 +16,14 @@ limitations under the License.
 package eu.dgs_development.code.epi;
 
 import eu.dgs_development.code.epi.handlers.binary.BinaryProcessHandler;
+import eu.dgs_development.code.epi.handlers.binary.PooledBinaryProcessHandler;
+import eu.dgs_development.code.epi.handlers.nio.ByteBufferProcessHandler;
 import eu.dgs_development.code.epi.handlers.text.TextProcessHandler;
 
 import java.io.File;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Class to execute commands from a native command line process.
@@ -117,8 +120,7 @@ public final class CommandLineExecutor {
      */
     public static void startWithArguments(CommandLineType commandLineType, File workingDirectory,
                                           List<String> arguments, TextProcessHandler textProcessHandler) {
-        ProcessCreator.startProcess(commandLineType.getProcessFile(), workingDirectory,
-                arguments, textProcessHandler);
+        startWithArguments(commandLineType, workingDirectory, arguments, null, textProcessHandler);
     }
 
     /**
@@ -130,8 +132,67 @@ public final class CommandLineExecutor {
      */
     public static void startWithArguments(CommandLineType commandLineType, File workingDirectory,
                                           List<String> arguments, BinaryProcessHandler binaryProcessHandler) {
+        startWithArguments(commandLineType, workingDirectory, arguments, null, binaryProcessHandler);
+    }
+
+    /**
+     * Starts a command line and passes a list of arguments to it.
+     * @param commandLineType The command line type.
+     * @param workingDirectory The working directory for the command line.
+     * @param arguments The arguments to start the command line with.
+     * @param processOptions The options to start the command line with, or null to use the default options.
+     * @param textProcessHandler The handler to handle the command line interactions.
+     */
+    public static void startWithArguments(CommandLineType commandLineType, File workingDirectory,
+                                          List<String> arguments, ProcessOptions processOptions,
+                                          TextProcessHandler textProcessHandler) {
+        ProcessCreator.startProcess(commandLineType.getProcessFile(), workingDirectory,
+                arguments, processOptions, textProcessHandler);
+    }
+
+    /**
+     * Starts a command line and passes a list of arguments to it.
+     * @param commandLineType The command line type.
+     * @param workingDirectory The working directory for the command line.
+     * @param arguments The arguments to start the command line with.
+     * @param processOptions The options to start the command line with, or null to use the default options.
+     * @param binaryProcessHandler The handler to handle the command line interactions.
+     */
+    public static void startWithArguments(CommandLineType commandLineType, File workingDirectory,
+                                          List<String> arguments, ProcessOptions processOptions,
+                                          BinaryProcessHandler binaryProcessHandler) {
+        ProcessCreator.startProcess(commandLineType.getProcessFile(), workingDirectory,
+                arguments, processOptions, binaryProcessHandler);
+    }
+
+    /**
+     * Starts a command line and passes a list of arguments to it.
+     * @param commandLineType The command line type.
+     * @param workingDirectory The working directory for the command line.
+     * @param arguments The arguments to start the command line with.
+     * @param processOptions The options to start the command line with, or null to use the default options.
+     * @param pooledBinaryProcessHandler The handler to handle the command line interactions.
+     */
+    public static void startWithArguments(CommandLineType commandLineType, File workingDirectory,
+                                          List<String> arguments, ProcessOptions processOptions,
+                                          PooledBinaryProcessHandler pooledBinaryProcessHandler) {
+        ProcessCreator.startProcess(commandLineType.getProcessFile(), workingDirectory,
+                arguments, processOptions, pooledBinaryProcessHandler);
+    }
+
+    /**
+     * Starts a command line and passes a list of arguments to it.
+     * @param commandLineType The command line type.
+     * @param workingDirectory The working directory for the command line.
+     * @param arguments The arguments to start the command line with.
+     * @param processOptions The options to start the command line with, or null to use the default options.
+     * @param byteBufferProcessHandler The handler to handle the command line interactions.
+     */
+    public static void startWithArguments(CommandLineType commandLineType, File workingDirectory,
+                                          List<String> arguments, ProcessOptions processOptions,
+                                          ByteBufferProcessHandler byteBufferProcessHandler) {
         ProcessCreator.startProcess(commandLineType.getProcessFile(), workingDirectory,
-                arguments, binaryProcessHandler);
+                arguments, processOptions, byteBufferProcessHandler);
     }
 
     /**
@@ -190,6 +251,21 @@ public final class CommandLineExecutor {
      */
     public static void executeCommand(CommandLineType commandLineType, File workingDirectory, String  command,
                                       List<String> arguments, TextProcessHandler textProcessHandler) {
+        executeCommand(commandLineType, workingDirectory, command, arguments, null, textProcessHandler);
+    }
+
+    /**
+     * Executes a command for a given {@see CommandLineType}.
+     * @param commandLineType The command line type.
+     * @param workingDirectory The working directory for the command line.
+     * @param command The command to execute.
+     * @param arguments The arguments for the command.
+     * @param processOptions The options to start the command line with, or null to use the default options.
+     * @param textProcessHandler The handler to handle the command line interactions.
+     */
+    public static void executeCommand(CommandLineType commandLineType, File workingDirectory, String  command,
+                                      List<String> arguments, ProcessOptions processOptions,
+                                      TextProcessHandler textProcessHandler) {
         ProcessCreator.startProcess(
                 commandLineType.getProcessFile(),
                 workingDirectory,
@@ -197,6 +273,7 @@ public final class CommandLineExecutor {
                         commandLineType,
                         command,
                         arguments),
+                processOptions,
                 textProcessHandler);
     }
 
@@ -210,6 +287,21 @@ public final class CommandLineExecutor {
      */
     public static void executeCommand(CommandLineType commandLineType, File workingDirectory, String  command,
                                       List<String> arguments, BinaryProcessHandler binaryProcessHandler) {
+        executeCommand(commandLineType, workingDirectory, command, arguments, null, binaryProcessHandler);
+    }
+
+    /**
+     * Executes a command for a given {@see CommandLineType}.
+     * @param commandLineType The command line type.
+     * @param workingDirectory The working directory for the command line.
+     * @param command The command to execute.
+     * @param arguments The arguments for the command.
+     * @param processOptions The options to start the command line with, or null to use the default options.
+     * @param binaryProcessHandler The handler to handle the command line interactions.
+     */
+    public static void executeCommand(CommandLineType commandLineType, File workingDirectory, String  command,
+                                      List<String> arguments, ProcessOptions processOptions,
+                                      BinaryProcessHandler binaryProcessHandler) {
         ProcessCreator.startProcess(
                 commandLineType.getProcessFile(),
                 workingDirectory,
@@ -217,11 +309,82 @@ public final class CommandLineExecutor {
                         commandLineType,
                         command,
                         arguments),
+                processOptions,
                 binaryProcessHandler);
     }
 
-    private static List<String> createCommandArguments(CommandLineType commandLineType, String command,
-                                                       List<String> arguments) {
+    /**
+     * Executes a command for a given {@see CommandLineType}.
+     * @param commandLineType The command line type.
+     * @param workingDirectory The working directory for the command line.
+     * @param command The command to execute.
+     * @param arguments The arguments for the command.
+     * @param processOptions The options to start the command line with, or null to use the default options.
+     * @param pooledBinaryProcessHandler The handler to handle the command line interactions.
+     */
+    public static void executeCommand(CommandLineType commandLineType, File workingDirectory, String  command,
+                                      List<String> arguments, ProcessOptions processOptions,
+                                      PooledBinaryProcessHandler pooledBinaryProcessHandler) {
+        ProcessCreator.startProcess(
+                commandLineType.getProcessFile(),
+                workingDirectory,
+                createCommandArguments(
+                        commandLineType,
+                        command,
+                        arguments),
+                processOptions,
+                pooledBinaryProcessHandler);
+    }
+
+    /**
+     * Executes a command for a given {@see CommandLineType}.
+     * @param commandLineType The command line type.
+     * @param workingDirectory The working directory for the command line.
+     * @param command The command to execute.
+     * @param arguments The arguments for the command.
+     * @param processOptions The options to start the command line with, or null to use the default options.
+     * @param byteBufferProcessHandler The handler to handle the command line interactions.
+     */
+    public static void executeCommand(CommandLineType commandLineType, File workingDirectory, String  command,
+                                      List<String> arguments, ProcessOptions processOptions,
+                                      ByteBufferProcessHandler byteBufferProcessHandler) {
+        ProcessCreator.startProcess(
+                commandLineType.getProcessFile(),
+                workingDirectory,
+                createCommandArguments(
+                        commandLineType,
+                        command,
+                        arguments),
+                processOptions,
+                byteBufferProcessHandler);
+    }
+
+    /**
+     * Executes a command for a given {@see CommandLineType} and captures its output.
+     * @param commandLineType The command line type.
+     * @param workingDirectory The working directory for the command line.
+     * @param command The command to execute.
+     * @param arguments The arguments for the command.
+     * @param processOptions The options to start the command line with, or null to use the default options.
+     * @return A {@link CompletableFuture}, which is completed with the {@link ProcessResult}, after the command
+     * line terminated and its output streams were read. Cancelling the future kills the command line.
+     */
+    public static CompletableFuture<ProcessResult> executeCommandAsync(CommandLineType commandLineType,
+                                                                       File workingDirectory, String command,
+                                                                       List<String> arguments,
+                                                                       ProcessOptions processOptions) {
+        return ProcessCreator.startProcessAsync(
+                commandLineType.getProcessFile(),
+                workingDirectory,
+                createCommandArguments(
+                        commandLineType,
+                        command,
+                        arguments),
+                processOptions);
+    }
+
+    static List<String> createCommandArguments(CommandLineType commandLineType, String command,
+                                               List<String> arguments) {
         List<String> newArguments = new LinkedList<>();
 
         newArguments.add(commandLineType.getCommandArgument());
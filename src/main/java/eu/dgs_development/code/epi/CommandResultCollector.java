@@ -0,0 +1,128 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import eu.dgs_development.code.epi.handlers.base.TimeoutReason;
+import eu.dgs_development.code.epi.handlers.text.TextProcessCallback;
+import eu.dgs_development.code.epi.handlers.text.TextProcessHandler;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Handler which captures the output lines of a shell session command and completes a {@link CompletableFuture} with
+ * the {@link ProcessResult}. The captured output of every stream is limited to the capture limit in characters.
+ * Cancelling the future of a running command kills the session.
+ */
+final class CommandResultCollector extends TextProcessHandler {
+    private final CompletableFuture<ProcessResult> future = new CompletableFuture<>();
+    private final int maxCapturedChars;
+    private final StringBuilder standardOutput = new StringBuilder();
+    private final StringBuilder errorOutput = new StringBuilder();
+    private final Instant startTime = Instant.now();
+    private final long startNanos = System.nanoTime();
+
+    private volatile boolean initialized;
+    private volatile boolean standardOutputTruncated;
+    private volatile boolean errorOutputTruncated;
+    private volatile IOException failure;
+    private volatile TimeoutReason timeoutReason;
+
+    /**
+     * Creates a new {@link CommandResultCollector} instance.
+     * @param processOptions The options containing the capture limit.
+     */
+    CommandResultCollector(ProcessOptions processOptions) {
+        this.maxCapturedChars = processOptions.getMaxCapturedBytes();
+    }
+
+    CompletableFuture<ProcessResult> getFuture() {
+        return future;
+    }
+
+    @Override
+    public void onInitialized(TextProcessCallback textProcessCallback) {
+        initialized = true;
+
+        future.whenComplete((processResult, throwable) -> {
+            if(future.isCancelled())
+                textProcessCallback.destroyForcibly();
+        });
+    }
+
+    @Override
+    public void onStdLineRead(TextProcessCallback textProcessCallback, String readLine) {
+        if(!append(standardOutput, readLine))
+            standardOutputTruncated = true;
+    }
+
+    @Override
+    public void onErrorLineRead(TextProcessCallback textProcessCallback, String readLine) {
+        if(!append(errorOutput, readLine))
+            errorOutputTruncated = true;
+    }
+
+    @Override
+    public void onProcessExited(int exitCode) {
+        if(failure != null) {
+            future.completeExceptionally(failure);
+
+            return;
+        }
+
+        future.complete(new ProcessResult(exitCode, standardOutput.toString(), errorOutput.toString(),
+                standardOutputTruncated, errorOutputTruncated, startTime,
+                Duration.ofNanos(System.nanoTime() - startNanos), timeoutReason));
+    }
+
+    @Override
+    public void onTimeout(TimeoutReason timeoutReason) {
+        this.timeoutReason = timeoutReason;
+    }
+
+    @Override
+    public void onIOException(IOException ioException) {
+        //A command which never started never exits, so the future fails immediately.
+        if(!initialized) {
+            future.completeExceptionally(ioException);
+
+            return;
+        }
+
+        if(failure == null)
+            failure = ioException;
+    }
+
+    //Appends a line with its line feed. Returns false if characters were discarded.
+    private boolean append(StringBuilder output, String readLine) {
+        int capturedChars = Math.min(readLine.length() + 1, maxCapturedChars - output.length());
+
+        if(capturedChars <= 0)
+            return false;
+
+        if(capturedChars > readLine.length()) {
+            output.append(readLine).append('\n');
+
+            return true;
+        }
+
+        output.append(readLine, 0, capturedChars);
+
+        return false;
+    }
+}
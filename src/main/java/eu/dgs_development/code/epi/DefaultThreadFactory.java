@@ -0,0 +1,41 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The default {@link ThreadFactory}, which creates the reader and termination detection threads of the
+ * thread-per-stream {@link IoEngine}. This variant creates platform threads. The Java 21 variant of the multi-release
+ * JAR creates virtual threads instead.
+ */
+final class DefaultThreadFactory implements ThreadFactory {
+    /**
+     * The name of the system property, which disables virtual threads on Java 21 or newer, if set to "false".
+     */
+    static final String VIRTUAL_THREADS_PROPERTY = "eu.dgs_development.code.epi.virtualThreads";
+
+    static final DefaultThreadFactory INSTANCE = new DefaultThreadFactory();
+
+    private DefaultThreadFactory() {
+        //Ignore...
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+        return new Thread(runnable);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * {@link DemandReader} which emits the read bytes as a new heap {@link ByteBuffer} for every requested item. The
+ * buffers are owned by the subscriber and contain the bytes returned by a single read.
+ */
+final class DemandBufferReader extends DemandReader<ByteBuffer> {
+    private final int bufferSize;
+
+    /**
+     * Creates a new {@link DemandBufferReader} instance.
+     * @param inputStream The output stream of the process to read.
+     * @param bufferSize The maximum amount of bytes per emitted buffer.
+     * @param subscriber The {@link DemandReader.Subscriber} to notify about the read buffers.
+     * @param threadFactory The {@link ThreadFactory} to create the reader thread with.
+     */
+    DemandBufferReader(InputStream inputStream, int bufferSize, Subscriber<ByteBuffer> subscriber,
+                       ThreadFactory threadFactory) {
+        super(inputStream, subscriber, threadFactory);
+
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    boolean readNext(InputStream inputStream) throws IOException {
+        byte[] byteArray = new byte[bufferSize];
+
+        int readBytes = inputStream.read(byteArray);
+
+        if(readBytes == -1)
+            return false;
+
+        emit(ByteBuffer.wrap(byteArray, 0, readBytes).slice());
+
+        return true;
+    }
+}
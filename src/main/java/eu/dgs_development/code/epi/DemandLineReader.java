@@ -0,0 +1,78 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * {@link DemandReader} which emits every read line as a {@link String}, without line separators. A single read can
+ * complete several lines. These lines are kept until they were requested, before the stream is read again.
+ */
+final class DemandLineReader extends DemandReader<String> {
+    private final Queue<String> decodedLines = new ArrayDeque<>();
+    private final LineDecoder lineDecoder;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private boolean endOfStream;
+
+    /**
+     * Creates a new {@link DemandLineReader} instance.
+     * @param inputStream The output stream of the process to read.
+     * @param subscriber The {@link DemandReader.Subscriber} to notify about the read lines.
+     * @param threadFactory The {@link ThreadFactory} to create the reader thread with.
+     */
+    DemandLineReader(InputStream inputStream, Subscriber<String> subscriber, ThreadFactory threadFactory) {
+        super(inputStream, subscriber, threadFactory);
+
+        lineDecoder = new LineDecoder(new StreamTextReader.StreamCallback() {
+            @Override
+            public void onIOException(IOException ioException) {
+                //Ignore, because the decoder doesn't read...
+            }
+
+            @Override
+            public void onLineRead(CharSequence line) {
+                decodedLines.add(line.toString());
+            }
+        });
+    }
+
+    @Override
+    boolean readNext(InputStream inputStream) throws IOException {
+        while (decodedLines.isEmpty() && !endOfStream) {
+            int readBytes = inputStream.read(buffer);
+
+            if(readBytes == -1) {
+                endOfStream = true;
+
+                lineDecoder.onEndOfStream();
+            }
+            else {
+                lineDecoder.onBytesRead(readBytes, buffer);
+            }
+        }
+
+        if(decodedLines.isEmpty())
+            return false;
+
+        emit(decodedLines.poll());
+
+        return true;
+    }
+}
@@ -0,0 +1,221 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Helper class to read an output stream of a process only while a subscriber has outstanding demand. If the demand is
+ * exhausted, the stream isn't read, so the OS pipe fills up and a fast process gets throttled by a slow subscriber,
+ * instead of buffering its output in the JVM. The reader thread is started by the first request.
+ * @param <T> The type of the emitted items.
+ */
+abstract class DemandReader<T> implements Runnable {
+    /**
+     * Callback to notify a subscriber about read items. All functions are called by the reader thread.
+     * @param <T> The type of the emitted items.
+     */
+    interface Subscriber<T> {
+        /**
+         * Function to notify a subscriber about a read item. Is only called if the subscriber requested items.
+         * @param item The read item.
+         */
+        void onNext(T item);
+
+        /**
+         * Function to notify a subscriber that the stream couldn't be read or an invalid amount of items was
+         * requested.
+         * @param throwable The occurred exception.
+         */
+        void onError(Throwable throwable);
+
+        /**
+         * Function to notify a subscriber that all items were emitted.
+         */
+        void onComplete();
+    }
+
+    static final int BUFFER_SIZE = 8192;
+
+    private final InputStream inputStream;
+    private final Subscriber<T> subscriber;
+    private final ThreadFactory threadFactory;
+
+    private long demand;
+    private boolean started;
+    private boolean cancelled;
+    private IllegalArgumentException requestException;
+
+    /**
+     * Creates a new {@link DemandReader} instance.
+     * @param inputStream The output stream of the process to read.
+     * @param subscriber The {@link Subscriber} to notify about the read items.
+     * @param threadFactory The {@link ThreadFactory} to create the reader thread with.
+     */
+    DemandReader(InputStream inputStream, Subscriber<T> subscriber, ThreadFactory threadFactory) {
+        this.inputStream = inputStream;
+        this.subscriber = subscriber;
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * Adds the given amount of items to the outstanding demand. The demand is limited to {@link Long#MAX_VALUE}.
+     * @param items The amount of requested items. A value smaller than one cancels the reading and notifies the
+     *              subscriber with an {@link IllegalArgumentException}.
+     */
+    void request(long items) {
+        synchronized (this) {
+            if(cancelled)
+                return;
+
+            if(items <= 0)
+                requestException = new IllegalArgumentException("The parameter \"items\" must be greater than zero.");
+            else
+                demand = demand + items < 0 ? Long.MAX_VALUE : demand + items;
+
+            notifyAll();
+
+            if(started)
+                return;
+
+            started = true;
+        }
+
+        Thread thread = threadFactory.newThread(ThreadCounter.track(this));
+
+        if(thread == null)
+            throw new IllegalStateException("The thread factory rejected the creation of a thread.");
+
+        thread.start();
+    }
+
+    /**
+     * Stops the reading and closes the stream. The subscriber isn't notified anymore, apart from an item which is
+     * currently emitted.
+     */
+    void cancel() {
+        synchronized (this) {
+            if(cancelled)
+                return;
+
+            cancelled = true;
+
+            notifyAll();
+        }
+
+        closeStream();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (awaitDemand()) {
+                if(!readNext(inputStream)) {
+                    if(markCancelled())
+                        subscriber.onComplete();
+
+                    return;
+                }
+            }
+        }
+        catch (IOException ioException) {
+            if(markCancelled())
+                subscriber.onError(ioException);
+        }
+        catch (RuntimeException runtimeException) {
+            //A failing subscriber cancels the subscription.
+            markCancelled();
+
+            throw runtimeException;
+        }
+        finally {
+            closeStream();
+        }
+    }
+
+    /**
+     * Function to read and emit the next item. Must emit at most one item with {@link #emit(Object)}.
+     * @param inputStream The stream to read from.
+     * @return False if the end of the stream was reached and no item was emitted.
+     * @throws IOException Exception if the stream couldn't be read.
+     */
+    abstract boolean readNext(InputStream inputStream) throws IOException;
+
+    /**
+     * Emits an item to the subscriber and decrements the outstanding demand.
+     * @param item The item to emit.
+     */
+    void emit(T item) {
+        synchronized (this) {
+            if(cancelled)
+                return;
+
+            demand--;
+        }
+
+        subscriber.onNext(item);
+    }
+
+    private boolean awaitDemand() throws InterruptedIOException {
+        IllegalArgumentException invalidRequestException;
+
+        synchronized (this) {
+            try {
+                while (demand == 0 && requestException == null && !cancelled)
+                    wait();
+            }
+            catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+
+                throw new InterruptedIOException("The reader thread was interrupted.");
+            }
+
+            if(cancelled)
+                return false;
+
+            if(requestException == null)
+                return true;
+
+            invalidRequestException = requestException;
+            cancelled = true;
+        }
+
+        subscriber.onError(invalidRequestException);
+
+        return false;
+    }
+
+    private synchronized boolean markCancelled() {
+        if(cancelled)
+            return false;
+
+        cancelled = true;
+
+        return true;
+    }
+
+    private void closeStream() {
+        try {
+            inputStream.close();
+        }
+        catch (IOException ioException) {
+            //Ignore, because the stream isn't read anymore...
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * {@link InputWriter} which writes and flushes on the calling thread.
+ */
+final class DirectInputWriter extends InputWriter {
+    static final DirectInputWriter INSTANCE = new DirectInputWriter();
+
+    private DirectInputWriter() {
+        //Ignore...
+    }
+
+    @Override
+    InputSink open(OutputStream outputStream, InputSink.FailureCallback failureCallback) {
+        return new DirectInputSink(outputStream);
+    }
+
+    private static final class DirectInputSink extends InputSink {
+        private final OutputStream outputStream;
+
+        private long writtenBytes;
+
+        private DirectInputSink(OutputStream outputStream) {
+            this.outputStream = outputStream;
+        }
+
+        @Override
+        synchronized void write(byte[] bytes, int offset, int length) throws IOException {
+            outputStream.write(bytes, offset, length);
+            outputStream.flush();
+
+            writtenBytes += length;
+        }
+
+        @Override
+        synchronized void flush() throws IOException {
+            outputStream.flush();
+        }
+
+        @Override
+        synchronized void close() throws IOException {
+            outputStream.close();
+        }
+
+        @Override
+        synchronized long getWrittenBytes() {
+            return writtenBytes;
+        }
+
+        @Override
+        int getQueuedWrites() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Helper class to detect the termination of processes with a single thread. Java 8 has no API to wait for the
+ * termination of multiple processes, therefore this variant polls the state of all watched processes. The Java 9
+ * variant of the multi-release JAR uses {@code Process.onExit()} instead. The watcher thread only runs while
+ * processes are watched.
+ */
+final class ExitWatcher {
+    private static final long MIN_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final Consumer<Process> exitListener;
+    private final List<Process> watchedProcesses = new ArrayList<>();
+
+    private Thread watcherThread;
+
+    /**
+     * Creates a new {@link ExitWatcher} instance.
+     * @param exitListener The listener to notify if a watched process terminated.
+     */
+    ExitWatcher(Consumer<Process> exitListener) {
+        this.exitListener = exitListener;
+    }
+
+    /**
+     * Starts the termination detection for the given process.
+     * @param process The process to watch.
+     */
+    synchronized void watch(Process process) {
+        watchedProcesses.add(process);
+
+        if(watcherThread == null) {
+            watcherThread = new Thread(ThreadCounter.track(this::run), "epi-process-reaper");
+            watcherThread.start();
+        }
+    }
+
+    private void run() {
+        List<Process> exitedProcesses = new ArrayList<>();
+        long pollNanos = MIN_POLL_NANOS;
+
+        while (true) {
+            synchronized (this) {
+                Iterator<Process> processIterator = watchedProcesses.iterator();
+
+                while (processIterator.hasNext()) {
+                    Process process = processIterator.next();
+
+                    if(!process.isAlive()) {
+                        exitedProcesses.add(process);
+                        processIterator.remove();
+                    }
+                }
+
+                if(exitedProcesses.isEmpty() && watchedProcesses.isEmpty()) {
+                    watcherThread = null;
+                    return;
+                }
+            }
+
+            if(exitedProcesses.isEmpty()) {
+                LockSupport.parkNanos(this, pollNanos);
+                pollNanos = Math.min(pollNanos * 2, MAX_POLL_NANOS);
+            }
+            else {
+                for(Process exitedProcess : exitedProcesses)
+                    exitListener.accept(exitedProcess);
+
+                exitedProcesses.clear();
+                pollNanos = MIN_POLL_NANOS;
+            }
+        }
+    }
+}
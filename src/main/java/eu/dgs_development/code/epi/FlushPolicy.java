@@ -0,0 +1,90 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class describing when an asynchronous {@link InputWriter} passes the written bytes to a process. Every policy also
+ * flushes on an explicit flush request and before the standard input stream gets closed.
+ */
+public final class FlushPolicy {
+    private static final FlushPolicy IMMEDIATE = new FlushPolicy(true, Long.MAX_VALUE, 0);
+    private static final FlushPolicy EXPLICIT = new FlushPolicy(false, Long.MAX_VALUE, 0);
+
+    private final boolean immediate;
+    private final long flushBytes;
+    private final long flushIntervalNanos;
+
+    private FlushPolicy(boolean immediate, long flushBytes, long flushIntervalNanos) {
+        this.immediate = immediate;
+        this.flushBytes = flushBytes;
+        this.flushIntervalNanos = flushIntervalNanos;
+    }
+
+    /**
+     * Returns a policy, which flushes as soon as no more writes are queued. Consecutive queued writes are passed to
+     * the process at once.
+     * @return The immediate {@link FlushPolicy}.
+     */
+    public static FlushPolicy immediate() {
+        return IMMEDIATE;
+    }
+
+    /**
+     * Returns a policy, which only flushes on an explicit flush request.
+     * @return The explicit {@link FlushPolicy}.
+     */
+    public static FlushPolicy explicit() {
+        return EXPLICIT;
+    }
+
+    /**
+     * Creates a policy, which flushes as soon as the given amount of bytes was written since the last flush.
+     * @param flushBytes The amount of bytes to write between two flushes.
+     * @return The byte-count {@link FlushPolicy}.
+     */
+    public static FlushPolicy everyBytes(long flushBytes) {
+        if(flushBytes < 1)
+            throw new IllegalArgumentException("The parameter \"flushBytes\" must be greater than zero.");
+
+        return new FlushPolicy(false, flushBytes, 0);
+    }
+
+    /**
+     * Creates a policy, which flushes written bytes after the given interval at the latest.
+     * @param flushIntervalMillis The maximum time in milliseconds between a write and the next flush.
+     * @return The interval {@link FlushPolicy}.
+     */
+    public static FlushPolicy everyMillis(long flushIntervalMillis) {
+        if(flushIntervalMillis < 1)
+            throw new IllegalArgumentException("The parameter \"flushIntervalMillis\" must be greater than zero.");
+
+        return new FlushPolicy(false, Long.MAX_VALUE, TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis));
+    }
+
+    boolean isImmediate() {
+        return immediate;
+    }
+
+    long getFlushBytes() {
+        return flushBytes;
+    }
+
+    long getFlushIntervalNanos() {
+        return flushIntervalNanos;
+    }
+}
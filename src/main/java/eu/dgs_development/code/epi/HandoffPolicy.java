@@ -0,0 +1,42 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+/**
+ * Policies of the bounded queue between the reader of an output stream and the process handler, which decide what
+ * happens if the handler can't keep up with the output of the process. End-of-stream and error notifications are
+ * never dropped.
+ */
+public enum HandoffPolicy {
+    /**
+     * The reader waits for free space in the queue. The process gets blocked by the operating system, once the pipe
+     * of its output stream is full. No output is lost.
+     */
+    BLOCK,
+    /**
+     * The oldest queued output gets dropped, to make space for the new output.
+     */
+    DROP_OLDEST,
+    /**
+     * The new output gets dropped.
+     */
+    DROP_NEWEST,
+    /**
+     * While the queue is full, only every n-th new output replaces the oldest queued output. All other new output
+     * gets dropped. The handler keeps receiving a sparse, but current view of the stream.
+     */
+    SAMPLE
+}
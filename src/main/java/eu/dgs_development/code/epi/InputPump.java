@@ -0,0 +1,54 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Helper class to transfer an {@link InputStream} to the standard input stream of a process. This variant copies the
+ * data with a large reused buffer. The Java 9 variant of the multi-release JAR uses
+ * {@code InputStream.transferTo(OutputStream)} instead, if the class of the stream overrides it.
+ */
+final class InputPump {
+    private static final int TRANSFER_BUFFER_SIZE = 65536;
+
+    private InputPump() {
+        //Ignore...
+    }
+
+    /**
+     * Transfers all bytes of the given stream, without closing the streams.
+     * @param inputStream The stream to read from.
+     * @param outputStream The standard input stream of the process.
+     * @return The amount of transferred bytes.
+     * @throws IOException Exception if a stream couldn't be read or written.
+     */
+    static long transfer(InputStream inputStream, OutputStream outputStream) throws IOException {
+        byte[] buffer = new byte[TRANSFER_BUFFER_SIZE];
+        long transferredBytes = 0;
+        int readBytes;
+
+        while ((readBytes = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, readBytes);
+
+            transferredBytes += readBytes;
+        }
+
+        return transferredBytes;
+    }
+}
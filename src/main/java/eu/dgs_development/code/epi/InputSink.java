@@ -0,0 +1,67 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.io.IOException;
+
+/**
+ * The standard input stream of a single process, opened by an {@link InputWriter}.
+ */
+abstract class InputSink {
+    /**
+     * Callback to notify a listener about a failed asynchronous write.
+     */
+    interface FailureCallback {
+        /**
+         * Function which is called if an asynchronous write failed. All further writes fail too.
+         * @param ioException The {@link IOException} that occurred.
+         */
+        void onIOException(IOException ioException);
+    }
+
+    /**
+     * Writes bytes to the process. The array may be reused by the caller after the call.
+     * @param bytes The array containing the bytes to write.
+     * @param offset The index of the first byte to write.
+     * @param length The amount of bytes to write.
+     * @throws IOException Exception if an IO error occurs.
+     */
+    abstract void write(byte[] bytes, int offset, int length) throws IOException;
+
+    /**
+     * Passes all written bytes to the process.
+     * @throws IOException Exception if an IO error occurs.
+     */
+    abstract void flush() throws IOException;
+
+    /**
+     * Flushes and closes the standard input stream of the process.
+     * @throws IOException Exception if an IO error occurs.
+     */
+    abstract void close() throws IOException;
+
+    /**
+     * Returns the amount of bytes, which were passed to the standard input stream of the process.
+     * @return The amount of written bytes.
+     */
+    abstract long getWrittenBytes();
+
+    /**
+     * Returns the amount of writes, which are waiting to be passed to the process.
+     * @return The amount of queued writes.
+     */
+    abstract int getQueuedWrites();
+}
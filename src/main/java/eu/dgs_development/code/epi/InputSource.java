@@ -0,0 +1,152 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The source of the standard input stream of a process. A file is passed by the operating system, without copying
+ * the data through the JVM. Streams and channels are transferred by a pump thread, which closes the source and the
+ * standard input stream of the process, once the end of the source was reached. The process handler must not write
+ * to a process, whose input is provided by a source. A stream or channel can only be transferred to a single process.
+ */
+public final class InputSource {
+    private static final int TRANSFER_BUFFER_SIZE = 65536;
+
+    private final File file;
+    private final InputStream inputStream;
+    private final ReadableByteChannel channel;
+
+    private InputSource(File file, InputStream inputStream, ReadableByteChannel channel) {
+        this.file = file;
+        this.inputStream = inputStream;
+        this.channel = channel;
+    }
+
+    /**
+     * Creates a source, which lets the process read the given file directly, by using
+     * {@link ProcessBuilder.Redirect#from(File)}.
+     * @param file The file to read.
+     * @return A new {@link InputSource}.
+     */
+    public static InputSource file(File file) {
+        ValidationUtil.checkParameterNotNull(file, "file");
+
+        return new InputSource(file, null, null);
+    }
+
+    /**
+     * Creates a source, which lets the process read an empty input, by redirecting it from the null device of the
+     * operating system. No pump thread is started.
+     * @return A new {@link InputSource}.
+     */
+    public static InputSource empty() {
+        return new InputSource(new File(System.getProperty("os.name").toLowerCase().contains("win") ? "NUL" :
+                "/dev/null"), null, null);
+    }
+
+    /**
+     * Creates a source, which transfers the given stream to the process. The stream gets closed after the transfer.
+     * On Java 9 or newer, a stream which overrides {@code InputStream.transferTo(OutputStream)} gets transferred by it.
+     * @param inputStream The stream to transfer.
+     * @return A new {@link InputSource}.
+     */
+    public static InputSource stream(InputStream inputStream) {
+        ValidationUtil.checkParameterNotNull(inputStream, "inputStream");
+
+        return new InputSource(null, inputStream, null);
+    }
+
+    /**
+     * Creates a source, which transfers the given channel to the process, from its current position. The bytes are
+     * read into a large reused buffer and written without an intermediate copy. The channel gets closed after the
+     * transfer. To pass a whole file, {@link #file(File)} avoids the transfer through the JVM.
+     * @param channel The channel to transfer.
+     * @return A new {@link InputSource}.
+     */
+    public static InputSource channel(ReadableByteChannel channel) {
+        ValidationUtil.checkParameterNotNull(channel, "channel");
+
+        return new InputSource(null, null, channel);
+    }
+
+    /**
+     * Returns the redirect of the standard input stream of the process.
+     * @return The {@link ProcessBuilder.Redirect} to start the process with.
+     */
+    ProcessBuilder.Redirect getRedirect() {
+        return file != null ? ProcessBuilder.Redirect.from(file) : ProcessBuilder.Redirect.PIPE;
+    }
+
+    /**
+     * Returns the file, which is read by the process.
+     * @return The file, or null if the source is transferred by a pump thread.
+     */
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Starts the transfer of the source to the standard input stream of a process, if the source isn't passed by the
+     * operating system.
+     * @param standardInput The standard input stream of the process, which gets closed after the transfer.
+     * @param threadFactory The {@link ThreadFactory} to create the pump thread with.
+     * @param failureCallback The callback to notify if the transfer fails.
+     */
+    void transfer(OutputStream standardInput, ThreadFactory threadFactory, InputSink.FailureCallback failureCallback) {
+        if(file != null)
+            return;
+
+        Thread pumpThread = threadFactory.newThread(ThreadCounter.track(() -> {
+            try {
+                if(inputStream != null)
+                    transferStream(standardInput);
+                else
+                    transferChannel(standardInput);
+            }
+            catch (IOException ioException) {
+                failureCallback.onIOException(ioException);
+            }
+        }));
+
+        pumpThread.start();
+    }
+
+    private void transferStream(OutputStream outputStream) throws IOException {
+        try (InputStream sourceStream = inputStream; OutputStream processStream = outputStream) {
+            InputPump.transfer(sourceStream, processStream);
+        }
+    }
+
+    private void transferChannel(OutputStream outputStream) throws IOException {
+        try (ReadableByteChannel sourceChannel = channel; OutputStream processStream = outputStream) {
+            byte[] transferArray = new byte[TRANSFER_BUFFER_SIZE];
+            ByteBuffer transferBuffer = ByteBuffer.wrap(transferArray);
+
+            while (sourceChannel.read(transferBuffer) != -1) {
+                processStream.write(transferArray, 0, transferBuffer.position());
+
+                transferBuffer.clear();
+            }
+        }
+    }
+}
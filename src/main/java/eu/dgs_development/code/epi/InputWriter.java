@@ -0,0 +1,98 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.io.OutputStream;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base class of all writers, which pass the bytes written by a process handler to the standard input stream of a
+ * process. The writer is used by all process handlers.
+ */
+public abstract class InputWriter {
+    private static final AtomicInteger WRITER_COUNTER = new AtomicInteger();
+
+    InputWriter() {
+        //Ignore...
+    }
+
+    /**
+     * Returns the default writer, which writes and flushes on the calling thread. A write blocks until the process
+     * accepted the bytes.
+     * @return The direct {@link InputWriter}.
+     */
+    public static InputWriter direct() {
+        return DirectInputWriter.INSTANCE;
+    }
+
+    /**
+     * Creates a writer, which queues all writes and passes them to the process with a dedicated thread per process.
+     * A write only blocks while the queue of the process is full.
+     * @param queueCapacity The maximum amount of queued writes per process.
+     * @param flushPolicy The policy which decides when the written bytes are passed to the process.
+     * @return The dedicated {@link InputWriter}.
+     */
+    public static InputWriter dedicated(int queueCapacity, FlushPolicy flushPolicy) {
+        checkQueuedWriterParameters(queueCapacity, flushPolicy);
+
+        return new QueuedInputWriter(queueCapacity, flushPolicy, null);
+    }
+
+    /**
+     * Creates a writer, which queues all writes and passes them to the processes with a single shared thread. A write
+     * only blocks while the queue of the process is full. Please note that a process, which doesn't read its input,
+     * delays the writes to all other processes of the writer.
+     * @param queueCapacity The maximum amount of queued writes per process.
+     * @param flushPolicy The policy which decides when the written bytes are passed to a process.
+     * @return The shared {@link InputWriter}.
+     */
+    public static InputWriter shared(int queueCapacity, FlushPolicy flushPolicy) {
+        checkQueuedWriterParameters(queueCapacity, flushPolicy);
+
+        return new QueuedInputWriter(queueCapacity, flushPolicy,
+                createWriterExecutor("epi-input-writer-" + WRITER_COUNTER.incrementAndGet()));
+    }
+
+    /**
+     * Opens a sink for the standard input stream of a process.
+     * @param outputStream The standard input stream of the started process.
+     * @param failureCallback The callback to notify if an asynchronous write fails.
+     * @return The {@link InputSink} to write to.
+     */
+    abstract InputSink open(OutputStream outputStream, InputSink.FailureCallback failureCallback);
+
+    static ScheduledExecutorService createWriterExecutor(String threadName) {
+        ScheduledThreadPoolExecutor writerExecutor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread writerThread = new Thread(ThreadCounter.track(runnable), threadName);
+            writerThread.setDaemon(true);
+
+            return writerThread;
+        });
+
+        writerExecutor.setRemoveOnCancelPolicy(true);
+
+        return writerExecutor;
+    }
+
+    private static void checkQueuedWriterParameters(int queueCapacity, FlushPolicy flushPolicy) {
+        if(queueCapacity < 1)
+            throw new IllegalArgumentException("The parameter \"queueCapacity\" must be greater than zero.");
+
+        ValidationUtil.checkParameterNotNull(flushPolicy, "flushPolicy");
+    }
+}
@@ -0,0 +1,137 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Base class of all engines, which read the standard and error output streams of started processes and detect their
+ * termination. An engine, which was created for a limited time, should be closed to stop its threads.
+ */
+public abstract class IoEngine implements AutoCloseable {
+    IoEngine() {
+        //Ignore...
+    }
+
+    /**
+     * Closes the engine. Processes, which were already started, are still read to the end of their streams, but no
+     * new processes can be started with the engine. Closing the thread-per-stream engines has no effect, because their
+     * threads terminate with the read streams.
+     */
+    @Override
+    public void close() {
+        //Ignore...
+    }
+
+    /**
+     * Checks if processes can be started with the engine. Called before a process gets started, so a closed engine
+     * doesn't start a process, which can't be read.
+     * @throws IllegalStateException Exception if the engine was closed.
+     */
+    void checkOpen() {
+        //Ignore...
+    }
+
+    /**
+     * Returns the factory of the pump threads, which transfer an {@link InputSource} to the processes of the engine.
+     * @return The {@link ThreadFactory} to create the pump threads with.
+     */
+    ThreadFactory getThreadFactory() {
+        return DefaultThreadFactory.INSTANCE;
+    }
+
+    /**
+     * Returns the default engine, which starts a reader thread for each output stream. The termination of all
+     * processes is detected by a single thread. On Java 21 or newer the engine uses virtual threads, unless the
+     * system property "eu.dgs_development.code.epi.virtualThreads" is set to "false". Please note that virtual threads
+     * are daemon threads, which don't prevent the JVM from exiting while a process is still running.
+     * @return The thread-per-stream {@link IoEngine}.
+     */
+    public static IoEngine threadPerStream() {
+        return ThreadPerStreamIoEngine.INSTANCE;
+    }
+
+    /**
+     * Creates an engine, which starts a reader thread for each output stream. All reader threads are created by the
+     * given {@link ThreadFactory}.
+     * @param threadFactory The {@link ThreadFactory} to create the threads with.
+     * @return The thread-per-stream {@link IoEngine}.
+     */
+    public static IoEngine threadPerStream(ThreadFactory threadFactory) {
+        ValidationUtil.checkParameterNotNull(threadFactory, "threadFactory");
+
+        return new ThreadPerStreamIoEngine(threadFactory);
+    }
+
+    /**
+     * Creates an engine, which services the output streams of many processes with a fixed amount of worker threads.
+     * The engine reads from the process pipes without blocking and is only supported on Linux. On other operating
+     * systems the {@link #threadPerStream()} engine gets returned instead. Every call starts new worker threads, so
+     * an engine should be shared by all processes and closed once it isn't needed anymore.
+     * @param workerThreads The amount of worker threads to use.
+     * @return The shared {@link IoEngine}.
+     */
+    public static IoEngine shared(int workerThreads) {
+        if(workerThreads < 1)
+            throw new IllegalArgumentException("The parameter \"workerThreads\" must be greater than zero.");
+
+        if(!SharedIoEngine.isSupported())
+            return threadPerStream();
+
+        return new SharedIoEngine(workerThreads);
+    }
+
+    /**
+     * Starts to read the lines of the output streams of a text process and to detect its termination.
+     * @param process The started process.
+     * @param standardCallback The callback to notify about lines of the standard output stream, or null to not read
+     *                         the stream.
+     * @param errorCallback The callback to notify about lines of the error output stream, or null to not read the
+     *                      stream.
+     * @param processListenerCallback The callback to notify if the process terminated.
+     */
+    abstract void startText(Process process, StreamTextReader.StreamCallback standardCallback,
+                            StreamTextReader.StreamCallback errorCallback,
+                            ProcessReaper.ProcessListenerCallback processListenerCallback);
+
+    /**
+     * Starts to read the bytes of the output streams of a binary process and to detect its termination.
+     * @param process The started process.
+     * @param bufferSize The maximum amount of bytes to pass to a callback at once.
+     * @param standardCallback The callback to notify about bytes of the standard output stream, or null to not read
+     *                         the stream.
+     * @param errorCallback The callback to notify about bytes of the error output stream, or null to not read the
+     *                      stream.
+     * @param processListenerCallback The callback to notify if the process terminated.
+     */
+    abstract void startBinary(Process process, int bufferSize, StreamBytesReader.StreamCallback standardCallback,
+                              StreamBytesReader.StreamCallback errorCallback,
+                              ProcessReaper.ProcessListenerCallback processListenerCallback);
+
+    /**
+     * Starts to read the bytes of the output streams of a process into the buffers provided by the callbacks and to
+     * detect its termination.
+     * @param process The started process.
+     * @param standardCallback The callback to provide the buffers for and to notify about bytes of the standard output
+     *                         stream, or null to not read the stream.
+     * @param errorCallback The callback to provide the buffers for and to notify about bytes of the error output
+     *                      stream, or null to not read the stream.
+     * @param processListenerCallback The callback to notify if the process terminated.
+     */
+    abstract void startBuffered(Process process, StreamBufferReader.StreamCallback standardCallback,
+                                StreamBufferReader.StreamCallback errorCallback,
+                                ProcessReaper.ProcessListenerCallback processListenerCallback);
+}
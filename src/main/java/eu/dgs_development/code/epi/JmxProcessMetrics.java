@@ -0,0 +1,213 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link ProcessMetrics} which records all metrics with lock-free counters and exposes them as a JMX MBean. A single
+ * instance is meant to be shared by all processes of an application.
+ */
+public final class JmxProcessMetrics implements ProcessMetrics, ProcessMetricsMXBean {
+    private final LongAdder startedProcesses = new LongAdder();
+    private final LongAdder exitedProcesses = new LongAdder();
+    private final Map<Integer, LongAdder> exitCodeCounts = new ConcurrentHashMap<>();
+    private final LatencyHistogram spawnLatency = new LatencyHistogram();
+    private final LongAdder standardOutputBytes = new LongAdder();
+    private final LongAdder errorOutputBytes = new LongAdder();
+    private final LongAdder standardOutputLines = new LongAdder();
+    private final LongAdder errorOutputLines = new LongAdder();
+    private final LatencyHistogram callbackTime = new LatencyHistogram();
+    private final LongAdder writtenBytes = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+
+    private ObjectName objectName;
+
+    /**
+     * Registers the metrics at the platform {@link MBeanServer}, with the object name
+     * "eu.dgs_development.code.epi:type=ProcessMetrics,name=[name]".
+     * @param name The name to distinguish multiple registered instances.
+     * @throws JMException Exception if the MBean couldn't be registered, e.g. because the name is already in use.
+     */
+    public synchronized void register(String name) throws JMException {
+        ValidationUtil.checkParameterNotNull(name, "name");
+
+        if(objectName != null)
+            throw new IllegalStateException("The metrics are already registered.");
+
+        ObjectName newObjectName = new ObjectName("eu.dgs_development.code.epi:type=ProcessMetrics,name=" +
+                ObjectName.quote(name));
+
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, newObjectName);
+
+        objectName = newObjectName;
+    }
+
+    /**
+     * Removes the registration at the platform {@link MBeanServer}, if the metrics were registered.
+     * @throws JMException Exception if the MBean couldn't be unregistered.
+     */
+    public synchronized void unregister() throws JMException {
+        if(objectName == null)
+            return;
+
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+
+        objectName = null;
+    }
+
+    @Override
+    public void onProcessStarted(long spawnNanos) {
+        startedProcesses.increment();
+        spawnLatency.record(spawnNanos);
+    }
+
+    @Override
+    public void onProcessExited(int exitCode) {
+        exitedProcesses.increment();
+        exitCodeCounts.computeIfAbsent(exitCode, key -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void onBytesRead(boolean errorStream, int readBytes) {
+        (errorStream ? errorOutputBytes : standardOutputBytes).add(readBytes);
+    }
+
+    @Override
+    public void onLineRead(boolean errorStream) {
+        (errorStream ? errorOutputLines : standardOutputLines).increment();
+    }
+
+    @Override
+    public void onCallbackExecuted(long callbackNanos) {
+        callbackTime.record(callbackNanos);
+    }
+
+    @Override
+    public void onBytesWritten(int writtenBytes) {
+        this.writtenBytes.add(writtenBytes);
+    }
+
+    @Override
+    public void onFlushed() {
+        flushes.increment();
+    }
+
+    @Override
+    public long getStartedProcesses() {
+        return startedProcesses.sum();
+    }
+
+    @Override
+    public long getRunningProcesses() {
+        //The exits are read first, so a concurrent start can't lead to a negative count.
+        long exited = exitedProcesses.sum();
+
+        return startedProcesses.sum() - exited;
+    }
+
+    @Override
+    public long getExitedProcesses() {
+        return exitedProcesses.sum();
+    }
+
+    @Override
+    public Map<Integer, Long> getExitCodeCounts() {
+        Map<Integer, Long> counts = new TreeMap<>();
+
+        for(Map.Entry<Integer, LongAdder> entry : exitCodeCounts.entrySet())
+            counts.put(entry.getKey(), entry.getValue().sum());
+
+        return counts;
+    }
+
+    @Override
+    public double getAverageSpawnLatencyMicros() {
+        return spawnLatency.getAverageMicros();
+    }
+
+    @Override
+    public double getMaxSpawnLatencyMicros() {
+        return spawnLatency.getMaxMicros();
+    }
+
+    @Override
+    public long[] getSpawnLatencyHistogram() {
+        return spawnLatency.getCounts();
+    }
+
+    @Override
+    public long getStandardOutputBytes() {
+        return standardOutputBytes.sum();
+    }
+
+    @Override
+    public long getErrorOutputBytes() {
+        return errorOutputBytes.sum();
+    }
+
+    @Override
+    public long getStandardOutputLines() {
+        return standardOutputLines.sum();
+    }
+
+    @Override
+    public long getErrorOutputLines() {
+        return errorOutputLines.sum();
+    }
+
+    @Override
+    public double getAverageCallbackTimeMicros() {
+        return callbackTime.getAverageMicros();
+    }
+
+    @Override
+    public double getMaxCallbackTimeMicros() {
+        return callbackTime.getMaxMicros();
+    }
+
+    @Override
+    public long[] getCallbackTimeHistogram() {
+        return callbackTime.getCounts();
+    }
+
+    @Override
+    public long[] getHistogramUpperBoundsMicros() {
+        return LatencyHistogram.getUpperBoundsMicros();
+    }
+
+    @Override
+    public long getWrittenBytes() {
+        return writtenBytes.sum();
+    }
+
+    @Override
+    public long getFlushes() {
+        return flushes.sum();
+    }
+
+    @Override
+    public long getLiveThreads() {
+        return ThreadCounter.getLiveThreads();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations. The buckets are bounded by powers of two microseconds, from 1 µs up to 2^20 µs
+ * (about one second). The last bucket counts all longer durations.
+ */
+final class LatencyHistogram {
+    static final int BUCKET_COUNT = 22;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Creates a new {@link LatencyHistogram} instance.
+     */
+    LatencyHistogram() {
+        for(int i = 0; i < BUCKET_COUNT; i++)
+            buckets[i] = new LongAdder();
+    }
+
+    /**
+     * Returns the upper bounds of all buckets, apart from the last unbounded bucket.
+     * @return The upper bounds in microseconds.
+     */
+    static long[] getUpperBoundsMicros() {
+        long[] upperBoundsMicros = new long[BUCKET_COUNT - 1];
+
+        for(int i = 0; i < upperBoundsMicros.length; i++)
+            upperBoundsMicros[i] = 1L << i;
+
+        return upperBoundsMicros;
+    }
+
+    /**
+     * Records a duration.
+     * @param nanos The duration in nanoseconds.
+     */
+    void record(long nanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(Math.max(0, nanos));
+
+        //The smallest power of two, which isn't smaller than the duration.
+        int bucket = micros <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(micros - 1);
+
+        buckets[Math.min(bucket, BUCKET_COUNT - 1)].increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * Returns the counts of all buckets.
+     * @return The amount of recorded durations per bucket.
+     */
+    long[] getCounts() {
+        long[] counts = new long[BUCKET_COUNT];
+
+        for(int i = 0; i < BUCKET_COUNT; i++)
+            counts[i] = buckets[i].sum();
+
+        return counts;
+    }
+
+    /**
+     * Returns the average of all recorded durations.
+     * @return The average duration in microseconds, or 0 if no duration was recorded.
+     */
+    double getAverageMicros() {
+        long count = 0;
+
+        for(LongAdder bucket : buckets)
+            count += bucket.sum();
+
+        return count == 0 ? 0 : totalNanos.sum() / 1000.0 / count;
+    }
+
+    /**
+     * Returns the longest recorded duration.
+     * @return The maximum duration in microseconds.
+     */
+    double getMaxMicros() {
+        return maxNanos.get() / 1000.0;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helper class to collect read lines and pass them to a {@link BatchCallback} in batches. A batch gets delivered if
+ * it reached the maximum size, if its first line is older than the maximum delay, if no more lines are currently
+ * available or if the end of the stream was reached. The list passed to the callback is reused for all batches.
+ */
+final class LineBatcher implements StreamTextReader.StreamCallback {
+    /**
+     * A callback to notify a listener about batches of read lines or an occurred {@link IOException}.
+     */
+    public interface BatchCallback {
+        /**
+         * Function which is called if a process-exception occurs.
+         * @param ioException The {@link IOException} that occurred.
+         */
+        void onIOException(IOException ioException);
+
+        /**
+         * Function which is called if a batch of lines was collected.
+         * @param lines The read lines. The list is only valid during the call.
+         */
+        void onLinesRead(List<String> lines);
+    }
+
+    private final int maxBatchSize;
+    private final long maxBatchDelayNanos;
+    private final BatchCallback batchCallback;
+    private final List<String> lines;
+
+    private long firstLineNanos;
+
+    /**
+     * Creates a new {@link LineBatcher} instance.
+     * @param maxBatchSize The maximum amount of lines per batch.
+     * @param maxBatchDelayMicros The maximum time in microseconds a line gets delayed, while more lines are read.
+     * @param batchCallback The {@link BatchCallback} to notify if a batch was collected or an error occurs.
+     */
+    LineBatcher(int maxBatchSize, long maxBatchDelayMicros, BatchCallback batchCallback) {
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelayNanos = maxBatchDelayMicros * 1000;
+        this.batchCallback = batchCallback;
+        this.lines = new ArrayList<>(Math.min(maxBatchSize, 1024));
+    }
+
+    @Override
+    public void onIOException(IOException ioException) {
+        flush();
+
+        batchCallback.onIOException(ioException);
+    }
+
+    @Override
+    public void onLineRead(CharSequence line) {
+        if(lines.isEmpty())
+            firstLineNanos = System.nanoTime();
+
+        lines.add(line.toString());
+
+        if(lines.size() >= maxBatchSize || System.nanoTime() - firstLineNanos >= maxBatchDelayNanos)
+            flush();
+    }
+
+    @Override
+    public void onStreamIdle() {
+        flush();
+    }
+
+    @Override
+    public void onEndOfStream() {
+        flush();
+    }
+
+    private void flush() {
+        if(lines.isEmpty())
+            return;
+
+        try {
+            batchCallback.onLinesRead(lines);
+        }
+        finally {
+            lines.clear();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Helper class to split UTF-8 encoded bytes, which were read in arbitrary chunks, into lines and to decode them into
+ * a reusable {@link LineView}. Like {@link java.io.BufferedReader#readLine()}, a line is terminated by "\n", "\r" or
+ * "\r\n". The line terminators are detected on the bytes directly, because UTF-8 never encodes them as part of a
+ * multibyte sequence. ASCII lines are widened to characters directly. Other lines are decoded by a reused
+ * {@link CharsetDecoder}, which replaces malformed input. Decoding a line doesn't allocate any objects.
+ */
+final class LineDecoder {
+    private final StreamTextReader.StreamCallback streamCallback;
+    private final LineView lineView = new LineView();
+    private final CharsetDecoder charsetDecoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    private byte[] lineBytes = new byte[256];
+    private int lineLength;
+    private int lineByteMask;
+    private boolean skipLineFeed;
+
+    private byte[] wrappedChunkArray;
+    private ByteBuffer wrappedChunkBuffer;
+    private byte[] wrappedLineArray;
+    private ByteBuffer wrappedLineBuffer;
+    private char[] wrappedCharArray;
+    private CharBuffer wrappedCharBuffer;
+
+    /**
+     * Creates a new {@link LineDecoder} instance.
+     * @param streamCallback The {@link StreamTextReader.StreamCallback} to notify if a line was read.
+     */
+    LineDecoder(StreamTextReader.StreamCallback streamCallback) {
+        this.streamCallback = streamCallback;
+    }
+
+    /**
+     * Function which splits the read bytes into lines. Incomplete lines are kept until more bytes were read.
+     * @param readBytes The amount of read bytes.
+     * @param byteArray The array containing at least the read bytes.
+     */
+    void onBytesRead(int readBytes, byte[] byteArray) {
+        streamCallback.onChunkRead(readBytes);
+
+        int position = 0;
+
+        //Skip the "\n" of a "\r\n" sequence, which was split between two chunks.
+        if(skipLineFeed) {
+            skipLineFeed = false;
+
+            if(readBytes > 0 && byteArray[0] == '\n')
+                position = 1;
+        }
+
+        int segmentStart = position;
+        int segmentByteMask = 0;
+
+        for(; position < readBytes; position++) {
+            byte readByte = byteArray[position];
+
+            if(readByte != '\n' && readByte != '\r') {
+                segmentByteMask |= readByte;
+                continue;
+            }
+
+            //Avoid copying lines which are completely contained in the read chunk.
+            if(lineLength == 0) {
+                emitLine(byteArray, segmentStart, position - segmentStart, segmentByteMask);
+            }
+            else {
+                append(byteArray, segmentStart, position - segmentStart, segmentByteMask);
+                emitBufferedLine();
+            }
+
+            if(readByte == '\r') {
+                if(position + 1 < readBytes) {
+                    if(byteArray[position + 1] == '\n')
+                        position++;
+                }
+                else {
+                    skipLineFeed = true;
+                }
+            }
+
+            segmentStart = position + 1;
+            segmentByteMask = 0;
+        }
+
+        append(byteArray, segmentStart, readBytes - segmentStart, segmentByteMask);
+    }
+
+    /**
+     * Function which passes the last incomplete line to the callback, after the end of the stream was reached.
+     */
+    void onEndOfStream() {
+        if(lineLength > 0)
+            emitBufferedLine();
+    }
+
+    private void append(byte[] byteArray, int offset, int length, int byteMask) {
+        if(length == 0)
+            return;
+
+        if(lineLength + length > lineBytes.length)
+            lineBytes = Arrays.copyOf(lineBytes, Math.max(lineBytes.length * 2, lineLength + length));
+
+        System.arraycopy(byteArray, offset, lineBytes, lineLength, length);
+        lineLength += length;
+        lineByteMask |= byteMask;
+    }
+
+    private void emitBufferedLine() {
+        int length = lineLength;
+        int byteMask = lineByteMask;
+
+        lineLength = 0;
+        lineByteMask = 0;
+
+        emitLine(lineBytes, 0, length, byteMask);
+    }
+
+    private void emitLine(byte[] byteArray, int offset, int length, int byteMask) {
+        //UTF-8 never decodes to more characters than bytes.
+        char[] lineChars = lineView.ensureCapacity(length);
+
+        if((byteMask & 0x80) == 0) {
+            for(int i = 0; i < length; i++)
+                lineChars[i] = (char) byteArray[offset + i];
+
+            lineView.setLength(length);
+        }
+        else {
+            lineView.setLength(decode(byteArray, offset, length, lineChars));
+        }
+
+        streamCallback.onLineRead(lineView);
+    }
+
+    private int decode(byte[] byteArray, int offset, int length, char[] lineChars) {
+        ByteBuffer byteBuffer;
+
+        //Keep separate wrappers for the read chunks and the buffered lines, to reuse them while both alternate.
+        if(byteArray == lineBytes) {
+            if(wrappedLineArray != byteArray) {
+                wrappedLineArray = byteArray;
+                wrappedLineBuffer = ByteBuffer.wrap(byteArray);
+            }
+
+            byteBuffer = wrappedLineBuffer;
+        }
+        else {
+            if(wrappedChunkArray != byteArray) {
+                wrappedChunkArray = byteArray;
+                wrappedChunkBuffer = ByteBuffer.wrap(byteArray);
+            }
+
+            byteBuffer = wrappedChunkBuffer;
+        }
+
+        if(wrappedCharArray != lineChars) {
+            wrappedCharArray = lineChars;
+            wrappedCharBuffer = CharBuffer.wrap(lineChars);
+        }
+
+        byteBuffer.clear();
+        byteBuffer.position(offset);
+        byteBuffer.limit(offset + length);
+
+        wrappedCharBuffer.clear();
+
+        charsetDecoder.reset();
+        charsetDecoder.decode(byteBuffer, wrappedCharBuffer, true);
+        charsetDecoder.flush(wrappedCharBuffer);
+
+        return wrappedCharBuffer.position();
+    }
+}
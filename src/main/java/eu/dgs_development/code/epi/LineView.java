@@ -0,0 +1,73 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+/**
+ * A reusable {@link CharSequence} containing the characters of a decoded line. The content gets replaced by the next
+ * decoded line, therefore a line view is only valid during the notification about the read line. Use
+ * {@link #toString()} to create a copy of the line.
+ */
+final class LineView implements CharSequence {
+    private char[] chars = new char[256];
+    private int length;
+
+    /**
+     * Returns the character array to decode a line into. The array is at least as large as the given capacity.
+     * @param capacity The minimum amount of characters, the array must be able to hold.
+     * @return The character array of the view.
+     */
+    char[] ensureCapacity(int capacity) {
+        if(chars.length < capacity)
+            chars = new char[Math.max(chars.length * 2, capacity)];
+
+        return chars;
+    }
+
+    /**
+     * Sets the amount of valid characters, after a line was decoded into the character array of the view.
+     * @param length The amount of valid characters.
+     */
+    void setLength(int length) {
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if(index < 0 || index >= length)
+            throw new IndexOutOfBoundsException("Invalid index " + index + " for line length " + length + ".");
+
+        return chars[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if(start < 0 || end > length || start > end)
+            throw new IndexOutOfBoundsException("Invalid range [" + start + ", " + end + ") for line length " +
+                    length + ".");
+
+        return new String(chars, start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, 0, length);
+    }
+}
@@ -0,0 +1,146 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The protocol of a {@link WorkerPool}, which frames the requests written to the standard input stream of a worker
+ * and finds the responses in its standard output stream. Custom protocols can be implemented by extending this class.
+ */
+public abstract class MessageFraming {
+    private static final int LENGTH_PREFIX_BYTES = 4;
+
+    /**
+     * Creates a new {@link MessageFraming} instance.
+     */
+    protected MessageFraming() {
+        //Ignore...
+    }
+
+    /**
+     * Returns a protocol, which terminates every message with a delimiter, e.g. a line feed for line-based tools. The
+     * messages must not contain the delimiter.
+     * @param delimiter The byte terminating every message.
+     * @return The delimiter-based {@link MessageFraming}.
+     */
+    public static MessageFraming delimited(byte delimiter) {
+        return new DelimitedFraming(delimiter);
+    }
+
+    /**
+     * Returns a protocol, which prefixes every message with its length, as a 4-byte big-endian integer.
+     * @return The length-prefixed {@link MessageFraming}.
+     */
+    public static MessageFraming lengthPrefixed() {
+        return LengthPrefixedFraming.INSTANCE;
+    }
+
+    /**
+     * Frames a request, before it gets written to a worker.
+     * @param message The request.
+     * @return The framed request.
+     */
+    public abstract byte[] encode(byte[] message);
+
+    /**
+     * Searches the first complete frame in the received bytes of a worker.
+     * @param buffer The buffer containing the received bytes, starting at index 0.
+     * @param length The amount of received bytes.
+     * @param searchedLength The amount of bytes, which were already searched without finding a complete frame.
+     * @return The length of the first frame, or -1 if the frame isn't complete yet.
+     * @throws IOException Exception if the received bytes violate the protocol.
+     */
+    public abstract int getFrameLength(byte[] buffer, int length, int searchedLength) throws IOException;
+
+    /**
+     * Extracts the response of a complete frame.
+     * @param buffer The buffer containing the frame, starting at index 0.
+     * @param frameLength The length of the frame, as returned by {@link #getFrameLength(byte[], int, int)}.
+     * @return The response.
+     */
+    public abstract byte[] decode(byte[] buffer, int frameLength);
+
+    private static final class DelimitedFraming extends MessageFraming {
+        private final byte delimiter;
+
+        private DelimitedFraming(byte delimiter) {
+            this.delimiter = delimiter;
+        }
+
+        @Override
+        public byte[] encode(byte[] message) {
+            byte[] frame = Arrays.copyOf(message, message.length + 1);
+            frame[message.length] = delimiter;
+
+            return frame;
+        }
+
+        @Override
+        public int getFrameLength(byte[] buffer, int length, int searchedLength) {
+            for(int i = searchedLength; i < length; i++) {
+                if(buffer[i] == delimiter)
+                    return i + 1;
+            }
+
+            return -1;
+        }
+
+        @Override
+        public byte[] decode(byte[] buffer, int frameLength) {
+            return Arrays.copyOf(buffer, frameLength - 1);
+        }
+    }
+
+    private static final class LengthPrefixedFraming extends MessageFraming {
+        private static final LengthPrefixedFraming INSTANCE = new LengthPrefixedFraming();
+
+        @Override
+        public byte[] encode(byte[] message) {
+            byte[] frame = new byte[LENGTH_PREFIX_BYTES + message.length];
+            frame[0] = (byte) (message.length >>> 24);
+            frame[1] = (byte) (message.length >>> 16);
+            frame[2] = (byte) (message.length >>> 8);
+            frame[3] = (byte) message.length;
+
+            System.arraycopy(message, 0, frame, LENGTH_PREFIX_BYTES, message.length);
+
+            return frame;
+        }
+
+        @Override
+        public int getFrameLength(byte[] buffer, int length, int searchedLength) throws IOException {
+            if(length < LENGTH_PREFIX_BYTES)
+                return -1;
+
+            int messageLength = ((buffer[0] & 0xFF) << 24) | ((buffer[1] & 0xFF) << 16) |
+                    ((buffer[2] & 0xFF) << 8) | (buffer[3] & 0xFF);
+
+            if(messageLength < 0)
+                throw new IOException("Received an invalid message length: " + messageLength);
+
+            long frameLength = (long) LENGTH_PREFIX_BYTES + messageLength;
+
+            return length >= frameLength ? (int) frameLength : -1;
+        }
+
+        @Override
+        public byte[] decode(byte[] buffer, int frameLength) {
+            return Arrays.copyOfRange(buffer, LENGTH_PREFIX_BYTES, frameLength);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import eu.dgs_development.code.epi.handlers.binary.PooledBuffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Base class of the captures, which record the output streams of a process in addition to the process handler. A
+ * capture is passed with {@link ProcessOptions#setOutputCapture(OutputCapture)}. The output is recorded by the
+ * readers, so it's also recorded if the handoff drops outputs. Lines of a text handler are recorded with a line feed,
+ * because the reader removes the line separators.
+ * <p>
+ * A capture should only be set for a single process, because all processes started with the same capture write
+ * into the same storage.
+ * @see TailCapture
+ * @see SpillCapture
+ */
+public abstract class OutputCapture {
+    private static final byte[] LINE_FEED = {'\n'};
+
+    private final Charset charset;
+
+    OutputCapture(Charset charset) {
+        ValidationUtil.checkParameterNotNull(charset, "charset");
+
+        this.charset = charset;
+    }
+
+    /**
+     * Returns the charset, which is used to encode the lines of a text handler and to decode the captured lines.
+     * @return The charset of the capture.
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Records bytes of an output stream.
+     * @param errorStream True if the bytes were read from the error output stream.
+     * @param buffer The buffer containing the read bytes. Its position must not be changed.
+     * @throws IOException Exception if the bytes couldn't be recorded.
+     */
+    abstract void onBytesRead(boolean errorStream, ByteBuffer buffer) throws IOException;
+
+    StreamTextReader.StreamCallback tap(StreamTextReader.StreamCallback streamCallback, boolean errorStream) {
+        return new StreamTextReader.StreamCallback() {
+            @Override
+            public void onIOException(IOException ioException) {
+                streamCallback.onIOException(ioException);
+            }
+
+            @Override
+            public void onLineRead(CharSequence line) {
+                try {
+                    onBytesRead(errorStream, charset.encode(CharBuffer.wrap(line)));
+                    onBytesRead(errorStream, ByteBuffer.wrap(LINE_FEED));
+                }
+                catch (IOException ioException) {
+                    streamCallback.onIOException(ioException);
+                }
+
+                streamCallback.onLineRead(line);
+            }
+
+            @Override
+            public void onChunkRead(int readBytes) {
+                streamCallback.onChunkRead(readBytes);
+            }
+
+            @Override
+            public void onStreamIdle() {
+                streamCallback.onStreamIdle();
+            }
+
+            @Override
+            public void onEndOfStream() {
+                streamCallback.onEndOfStream();
+            }
+        };
+    }
+
+    StreamBytesReader.StreamCallback tap(StreamBytesReader.StreamCallback streamCallback, boolean errorStream) {
+        return new StreamBytesReader.StreamCallback() {
+            @Override
+            public void onIOException(IOException ioException) {
+                streamCallback.onIOException(ioException);
+            }
+
+            @Override
+            public void onBytesRead(int readBytes, byte[] byteArray) {
+                try {
+                    OutputCapture.this.onBytesRead(errorStream, ByteBuffer.wrap(byteArray, 0, readBytes));
+                }
+                catch (IOException ioException) {
+                    streamCallback.onIOException(ioException);
+                }
+
+                streamCallback.onBytesRead(readBytes, byteArray);
+            }
+        };
+    }
+
+    BufferLeaser.LeaseCallback tap(BufferLeaser.LeaseCallback leaseCallback, boolean errorStream) {
+        return new BufferLeaser.LeaseCallback() {
+            @Override
+            public void onIOException(IOException ioException) {
+                leaseCallback.onIOException(ioException);
+            }
+
+            @Override
+            public void onBufferRead(PooledBuffer pooledBuffer) {
+                try {
+                    onBytesRead(errorStream, pooledBuffer.getByteBuffer());
+                }
+                catch (IOException ioException) {
+                    leaseCallback.onIOException(ioException);
+                }
+
+                leaseCallback.onBufferRead(pooledBuffer);
+            }
+        };
+    }
+
+    BufferReuser.ReadCallback tap(BufferReuser.ReadCallback readCallback, boolean errorStream) {
+        return new BufferReuser.ReadCallback() {
+            @Override
+            public void onIOException(IOException ioException) {
+                readCallback.onIOException(ioException);
+            }
+
+            @Override
+            public void onBufferRead(ByteBuffer buffer) {
+                try {
+                    onBytesRead(errorStream, buffer);
+                }
+                catch (IOException ioException) {
+                    readCallback.onIOException(ioException);
+                }
+
+                readCallback.onBufferRead(buffer);
+            }
+        };
+    }
+}
@@ -0,0 +1,83 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helper class to start the processes of a pipeline. Java 8 can't connect the streams of two processes, therefore
+ * this variant copies the output of every stage to the input of the next stage with a pump thread. The Java 9 variant
+ * of the multi-release JAR uses {@code ProcessBuilder.startPipeline(List)}, which connects the stages with OS pipes.
+ */
+final class PipelineLauncher {
+    private static final int PUMP_BUFFER_SIZE = 8192;
+
+    private PipelineLauncher() {
+        //Ignore...
+    }
+
+    /**
+     * Starts all processes of a pipeline and connects the standard output stream of every stage to the standard input
+     * stream of the next stage.
+     * @param processBuilders The builders of all stages, in the order of the pipeline.
+     * @return The started processes.
+     * @throws IOException Exception if a process couldn't be started. Already started processes are destroyed.
+     */
+    static List<Process> start(List<ProcessBuilder> processBuilders) throws IOException {
+        List<Process> processes = new ArrayList<>(processBuilders.size());
+
+        try {
+            for(ProcessBuilder processBuilder : processBuilders)
+                processes.add(processBuilder.start());
+        }
+        catch (IOException ioException) {
+            for(Process process : processes)
+                process.destroyForcibly();
+
+            throw ioException;
+        }
+
+        for(int i = 0; i < processes.size() - 1; i++)
+            startPump(processes.get(i).getInputStream(), processes.get(i + 1).getOutputStream());
+
+        return processes;
+    }
+
+    private static void startPump(InputStream inputStream, OutputStream outputStream) {
+        Thread pumpThread = DefaultThreadFactory.INSTANCE.newThread(ThreadCounter.track(() -> {
+            byte[] buffer = new byte[PUMP_BUFFER_SIZE];
+
+            //Closing both streams signals the end of the input downstream and a broken pipe upstream.
+            try (InputStream pumpInputStream = inputStream; OutputStream pumpOutputStream = outputStream) {
+                int readBytes;
+
+                while ((readBytes = pumpInputStream.read(buffer)) != -1) {
+                    pumpOutputStream.write(buffer, 0, readBytes);
+                    pumpOutputStream.flush();
+                }
+            }
+            catch (IOException ioException) {
+                //Ignore, because the next stage terminated or the pipeline was destroyed...
+            }
+        }));
+
+        pumpThread.start();
+    }
+}
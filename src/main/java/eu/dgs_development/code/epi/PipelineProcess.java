@@ -0,0 +1,117 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Process} representing all stages of a pipeline. The input of the pipeline is the standard input stream of
+ * the first stage, the output of the pipeline are the output streams of the last stage. The pipeline is alive as long
+ * as any stage is alive.
+ */
+final class PipelineProcess extends Process {
+    private final List<Process> stages;
+    private final Process firstStage;
+    private final Process lastStage;
+
+    /**
+     * Creates a new {@link PipelineProcess} instance.
+     * @param stages The started processes of the pipeline, whose streams are already connected.
+     */
+    PipelineProcess(List<Process> stages) {
+        this.stages = stages;
+        this.firstStage = stages.get(0);
+        this.lastStage = stages.get(stages.size() - 1);
+    }
+
+    /**
+     * Returns the processes of all stages, in the order of the pipeline.
+     * @return The stage processes.
+     */
+    List<Process> getStages() {
+        return stages;
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+        return firstStage.getOutputStream();
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return lastStage.getInputStream();
+    }
+
+    @Override
+    public InputStream getErrorStream() {
+        return lastStage.getErrorStream();
+    }
+
+    @Override
+    public int waitFor() throws InterruptedException {
+        for(Process stage : stages)
+            stage.waitFor();
+
+        return lastStage.exitValue();
+    }
+
+    @Override
+    public boolean waitFor(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+
+        for(Process stage : stages) {
+            if(!stage.waitFor(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS))
+                return false;
+        }
+
+        return true;
+    }
+
+    @Override
+    public int exitValue() {
+        if(isAlive())
+            throw new IllegalThreadStateException("The pipeline has not exited.");
+
+        return lastStage.exitValue();
+    }
+
+    @Override
+    public void destroy() {
+        for(Process stage : stages)
+            stage.destroy();
+    }
+
+    @Override
+    public Process destroyForcibly() {
+        for(Process stage : stages)
+            stage.destroyForcibly();
+
+        return this;
+    }
+
+    @Override
+    public boolean isAlive() {
+        for(Process stage : stages) {
+            if(stage.isAlive())
+                return true;
+        }
+
+        return false;
+    }
+}
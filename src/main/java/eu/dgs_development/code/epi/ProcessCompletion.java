@@ -0,0 +1,57 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Helper class to notify a listener after a process terminated and all of its output streams were read completely.
+ * This ensures that the termination gets notified after the last output of the process.
+ */
+final class ProcessCompletion implements ProcessReaper.ProcessListenerCallback {
+    private final Process process;
+    private final ProcessReaper.ProcessListenerCallback processListenerCallback;
+    private final AtomicInteger pendingEvents;
+
+    /**
+     * Creates a new {@link ProcessCompletion} instance.
+     * @param process The process to complete.
+     * @param streamCount The amount of output streams which need to be read completely.
+     * @param processListenerCallback The listener to notify after the completion.
+     */
+    ProcessCompletion(Process process, int streamCount, ProcessReaper.ProcessListenerCallback processListenerCallback) {
+        this.process = process;
+        this.processListenerCallback = processListenerCallback;
+        this.pendingEvents = new AtomicInteger(streamCount + 1);
+    }
+
+    /**
+     * Function to indicate that an output stream was read completely.
+     */
+    void onStreamFinished() {
+        countDown();
+    }
+
+    @Override
+    public void onProcessFinished(Process process) {
+        countDown();
+    }
+
+    private void countDown() {
+        if(pendingEvents.decrementAndGet() == 0)
+            processListenerCallback.onProcessFinished(process);
+    }
+}
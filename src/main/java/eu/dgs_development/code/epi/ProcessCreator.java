@@ -20,11 +20,20 @@ import eu.dgs_development.code.epi.handlers.text.TextProcessCallback;
 import eu.dgs_development.code.epi.handlers.text.TextProcessHandler;
 import eu.dgs_development.code.epi.handlers.binary.BinaryProcessCallback;
 import eu.dgs_development.code.epi.handlers.binary.BinaryProcessHandler;
+import eu.dgs_development.code.epi.handlers.binary.BufferPool;
+import eu.dgs_development.code.epi.handlers.binary.PooledBinaryProcessHandler;
+import eu.dgs_development.code.epi.handlers.binary.PooledBuffer;
+import eu.dgs_development.code.epi.handlers.nio.ByteBufferProcessCallback;
+import eu.dgs_development.code.epi.handlers.nio.ByteBufferProcessHandler;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Class to execute processes from a given working directory.
@@ -65,7 +74,7 @@ public final class ProcessCreator {
      */
     public static void startProcess(File processFile, File workingDirectory, List<String> arguments,
                              TextProcessHandler textProcessHandler) {
-        startProcess(processFile, workingDirectory, arguments, (ProcessHandler) textProcessHandler);
+        startProcess(processFile, workingDirectory, arguments, null, textProcessHandler);
     }
 
     /**
@@ -77,31 +86,242 @@ public final class ProcessCreator {
      */
     public static void startProcess(File processFile, File workingDirectory, List<String> arguments,
                              BinaryProcessHandler binaryProcessHandler) {
-        startProcess(processFile, workingDirectory, arguments, (ProcessHandler) binaryProcessHandler);
+        startProcess(processFile, workingDirectory, arguments, null, binaryProcessHandler);
+    }
+
+    /**
+     * Starts a new process.
+     * @param processFile The process executable.
+     * @param workingDirectory The working directory of the process to start.
+     * @param arguments The arguments to start the process with.
+     * @param processOptions The options to start the process with, or null to use the default options.
+     * @param textProcessHandler The handler to handle all process text interactions.
+     */
+    public static void startProcess(File processFile, File workingDirectory, List<String> arguments,
+                                    ProcessOptions processOptions, TextProcessHandler textProcessHandler) {
+        startProcess(processFile, workingDirectory, arguments, processOptions, (ProcessHandler) textProcessHandler);
+    }
+
+    /**
+     * Starts a new process.
+     * @param processFile The process executable.
+     * @param workingDirectory The working directory of the process to start.
+     * @param arguments The arguments to start the process with.
+     * @param processOptions The options to start the process with, or null to use the default options.
+     * @param binaryProcessHandler The handler to handle all process binary interactions.
+     */
+    public static void startProcess(File processFile, File workingDirectory, List<String> arguments,
+                                    ProcessOptions processOptions, BinaryProcessHandler binaryProcessHandler) {
+        startProcess(processFile, workingDirectory, arguments, processOptions,
+                (ProcessHandler) binaryProcessHandler);
+    }
+
+    /**
+     * Starts a new process.
+     * @param processFile The process executable.
+     * @param workingDirectory The working directory of the process to start.
+     * @param arguments The arguments to start the process with.
+     * @param processOptions The options to start the process with, or null to use the default options.
+     * @param pooledBinaryProcessHandler The handler to handle all process binary interactions with leased buffers.
+     */
+    public static void startProcess(File processFile, File workingDirectory, List<String> arguments,
+                                    ProcessOptions processOptions,
+                                    PooledBinaryProcessHandler pooledBinaryProcessHandler) {
+        startProcess(processFile, workingDirectory, arguments, processOptions,
+                (ProcessHandler) pooledBinaryProcessHandler);
+    }
+
+    /**
+     * Starts a new process.
+     * @param processFile The process executable.
+     * @param workingDirectory The working directory of the process to start.
+     * @param arguments The arguments to start the process with.
+     * @param processOptions The options to start the process with, or null to use the default options.
+     * @param byteBufferProcessHandler The handler to handle all process binary interactions with byte buffers.
+     */
+    public static void startProcess(File processFile, File workingDirectory, List<String> arguments,
+                                    ProcessOptions processOptions,
+                                    ByteBufferProcessHandler byteBufferProcessHandler) {
+        startProcess(processFile, workingDirectory, arguments, processOptions,
+                (ProcessHandler) byteBufferProcessHandler);
+    }
+
+    /**
+     * Starts a new process and captures its output. The future is completed after the process terminated and its
+     * output streams were read. Cancelling the future kills the process. Unless an input source is set, the process
+     * reads an empty standard input stream.
+     * @param processFile The process executable.
+     * @param workingDirectory The working directory of the process to start.
+     * @param arguments The arguments to start the process with.
+     * @param processOptions The options to start the process with, or null to use the default options.
+     * @return A {@link CompletableFuture}, which is completed with the {@link ProcessResult}. It fails with an
+     * {@link IOException} if the process couldn't be started or read.
+     */
+    public static CompletableFuture<ProcessResult> startProcessAsync(File processFile, File workingDirectory,
+                                                                     List<String> arguments,
+                                                                     ProcessOptions processOptions) {
+        processOptions = processOptions == null ? new ProcessOptions() : processOptions.copy();
+
+        if(processOptions.getInputSource() == null)
+            processOptions.setInputSource(InputSource.empty());
+
+        ResultCollector resultCollector = new ResultCollector(processOptions);
+
+        startProcess(processFile, workingDirectory, arguments, processOptions, resultCollector);
+
+        return resultCollector.getFuture();
+    }
+
+    /**
+     * Starts a pipeline of processes, whose stages are connected without passing through the JVM (Java 9 or newer).
+     * The handler writes to the first stage and reads the output streams of the last stage.
+     * @param processPipeline The pipeline to start.
+     * @param processOptions The options to start the last stage with, or null to use the default options.
+     * @param textProcessHandler The handler to handle all pipeline text interactions.
+     */
+    public static void startPipeline(ProcessPipeline processPipeline, ProcessOptions processOptions,
+                                     TextProcessHandler textProcessHandler) {
+        startPipeline(processPipeline, processOptions, (ProcessHandler) textProcessHandler);
+    }
+
+    /**
+     * Starts a pipeline of processes, whose stages are connected without passing through the JVM (Java 9 or newer).
+     * The handler writes to the first stage and reads the output streams of the last stage.
+     * @param processPipeline The pipeline to start.
+     * @param processOptions The options to start the last stage with, or null to use the default options.
+     * @param binaryProcessHandler The handler to handle all pipeline binary interactions.
+     */
+    public static void startPipeline(ProcessPipeline processPipeline, ProcessOptions processOptions,
+                                     BinaryProcessHandler binaryProcessHandler) {
+        startPipeline(processPipeline, processOptions, (ProcessHandler) binaryProcessHandler);
+    }
+
+    /**
+     * Starts a pipeline of processes, whose stages are connected without passing through the JVM (Java 9 or newer).
+     * The handler writes to the first stage and reads the output streams of the last stage.
+     * @param processPipeline The pipeline to start.
+     * @param processOptions The options to start the last stage with, or null to use the default options.
+     * @param pooledBinaryProcessHandler The handler to handle all pipeline binary interactions with leased buffers.
+     */
+    public static void startPipeline(ProcessPipeline processPipeline, ProcessOptions processOptions,
+                                     PooledBinaryProcessHandler pooledBinaryProcessHandler) {
+        startPipeline(processPipeline, processOptions, (ProcessHandler) pooledBinaryProcessHandler);
+    }
+
+    /**
+     * Starts a pipeline of processes, whose stages are connected without passing through the JVM (Java 9 or newer).
+     * The handler writes to the first stage and reads the output streams of the last stage.
+     * @param processPipeline The pipeline to start.
+     * @param processOptions The options to start the last stage with, or null to use the default options.
+     * @param byteBufferProcessHandler The handler to handle all pipeline binary interactions with byte buffers.
+     */
+    public static void startPipeline(ProcessPipeline processPipeline, ProcessOptions processOptions,
+                                     ByteBufferProcessHandler byteBufferProcessHandler) {
+        startPipeline(processPipeline, processOptions, (ProcessHandler) byteBufferProcessHandler);
     }
 
     private static void startProcess(File processFile, File workingDirectory, List<String> arguments,
-                              ProcessHandler processHandler) {
+                                     ProcessOptions processOptions, ProcessHandler processHandler) {
+        startProcess(processFile, workingDirectory, arguments, processOptions, processHandler, null);
+    }
+
+    /**
+     * Starts a new process with a handler of any supported type.
+     * @param processFile The process executable.
+     * @param workingDirectory The working directory of the process.
+     * @param arguments The arguments to start the process with.
+     * @param processOptions The options to start the process with, or null to use the default options.
+     * @param processHandler The handler to handle all process interactions.
+     * @param finishedCallback The callback to notify after the process terminated or couldn't be started, or null.
+     */
+    static void startProcess(File processFile, File workingDirectory, List<String> arguments,
+                             ProcessOptions processOptions, ProcessHandler processHandler, Runnable finishedCallback) {
         ValidationUtil.checkFileIsValid(processFile, "processFile");
         ValidationUtil.checkParameterNotNull(processHandler, "processHandler");
 
-        if(arguments == null)
-            arguments = new ArrayList<>(0);
+        if(processOptions == null)
+            processOptions = new ProcessOptions();
+
+        ProcessBuilder processBuilder = createProcessBuilder(processFile, workingDirectory, arguments, processOptions);
+
+        start(Collections.singletonList(processBuilder), null, processOptions, processHandler, finishedCallback);
+    }
 
+    /**
+     * Creates the {@link ProcessBuilder} of a single process, whose streams are redirected as configured.
+     * @param processFile The process executable.
+     * @param workingDirectory The working directory of the process.
+     * @param arguments The arguments to start the process with, or null.
+     * @param processOptions The options to start the process with.
+     * @return The created {@link ProcessBuilder}.
+     */
+    static ProcessBuilder createProcessBuilder(File processFile, File workingDirectory, List<String> arguments,
+                                               ProcessOptions processOptions) {
         List<String> command = new LinkedList<>();
         command.add(processFile.getAbsolutePath());
-        command.addAll(arguments);
+
+        if(arguments != null)
+            command.addAll(arguments);
 
         ProcessBuilder processBuilder = new ProcessBuilder(command);
         processBuilder.directory(workingDirectory);
+        processBuilder.redirectInput(processOptions.getInputSourceRedirect());
+        processBuilder.redirectOutput(processOptions.getStandardOutputRedirect());
+        processBuilder.redirectError(processOptions.getErrorOutputRedirect());
+        processBuilder.redirectErrorStream(processOptions.isRedirectErrorStream());
+
+        return processBuilder;
+    }
+
+    private static void startPipeline(ProcessPipeline processPipeline, ProcessOptions processOptions,
+                                      ProcessHandler processHandler) {
+        ValidationUtil.checkParameterNotNull(processPipeline, "processPipeline");
+        ValidationUtil.checkParameterNotNull(processHandler, "processHandler");
+
+        if(processPipeline.getStageCount() == 0)
+            throw new IllegalArgumentException("The parameter \"processPipeline\" doesn't contain any stages.");
+
+        if(processOptions == null)
+            processOptions = new ProcessOptions();
+
+        start(processPipeline.createProcessBuilders(processOptions), processPipeline, processOptions,
+                processHandler, null);
+    }
+
+    private static void start(List<ProcessBuilder> processBuilders, ProcessPipeline processPipeline,
+                              ProcessOptions processOptions, ProcessHandler processHandler,
+                              Runnable finishedCallback) {
+        IoEngine ioEngine = processOptions.getIoEngine();
+        ioEngine.checkOpen();
+
+        InputWriter inputWriter = processOptions.getInputWriter();
+        ProcessDispatcher processDispatcher = ProcessDispatcher.create(processOptions);
+        ProcessInstrumentation processInstrumentation = ProcessInstrumentation.create(processOptions,
+                processBuilders);
+        OutputCapture outputCapture = processOptions.getOutputCapture();
+
+        //Redirected streams are written by the operating system and don't need a reader.
+        boolean readStandardOutput = processOptions.isStandardOutputPiped();
+        boolean readErrorOutput = processOptions.isErrorOutputPiped();
 
         try {
-            Process process = processBuilder.start();
+            processInstrumentation.onProcessStarting();
+
+            Process process = processPipeline == null ? processBuilders.get(0).start() :
+                    new PipelineProcess(PipelineLauncher.start(processBuilders));
+
+            processInstrumentation.onProcessStarted();
+
+            ProcessWatchdog processWatchdog = ProcessWatchdog.start(process, processOptions, timeoutReason ->
+                    processDispatcher.dispatch(() -> processHandler.onTimeout(timeoutReason)));
+
+            OutputStream standardInput = processInstrumentation.instrument(process.getOutputStream());
 
             if(processHandler instanceof TextProcessHandler) {
                 TextProcessHandler textProcessHandler = (TextProcessHandler) processHandler;
 
-                BufferedWriter bufferedWriter = new BufferedWriter(new OutputStreamWriter(process.getOutputStream()));
+                InputSink inputSink = inputWriter.open(standardInput, ioException ->
+                        processDispatcher.dispatch(() -> textProcessHandler.onIOException(ioException)));
 
                 TextProcessCallback textProcessCallback = new TextProcessCallback() {
                     @Override
@@ -116,123 +336,469 @@ public final class ProcessCreator {
 
                     @Override
                     public void writeLine(String line) throws IOException {
-                        bufferedWriter.write(line);
-                        bufferedWriter.flush();
+                        byte[] lineBytes = line.getBytes(Charset.defaultCharset());
+
+                        inputSink.write(lineBytes, 0, lineBytes.length);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        inputSink.flush();
+                    }
+
+                    @Override
+                    public long getWrittenBytes() {
+                        return inputSink.getWrittenBytes();
+                    }
+
+                    @Override
+                    public int getQueuedWrites() {
+                        return inputSink.getQueuedWrites();
+                    }
+
+                    @Override
+                    public long getDroppedOutputs() {
+                        return processDispatcher.getDroppedOutputs();
                     }
                 };
 
-                textProcessHandler.onInitialized(textProcessCallback);
+                processDispatcher.dispatch(() -> textProcessHandler.onInitialized(textProcessCallback));
 
-                TerminationDetectionThread.ProcessListenerCallback processListenerCallback = terminatedProcess -> {
+                ProcessReaper.ProcessListenerCallback processListenerCallback = terminatedProcess -> {
                     textProcessHandler.onProcessExited(terminatedProcess.exitValue());
 
-                    try {
-                        bufferedWriter.close();
+                    closeInputSink(inputSink, textProcessHandler);
+                };
+
+                StreamTextReader.StreamCallback standardCallback;
+                StreamTextReader.StreamCallback errorCallback;
+
+                int lineBatchSize = textProcessHandler.getLineBatchSize();
+
+                if(lineBatchSize > 1) {
+                    long lineBatchDelayMicros = textProcessHandler.getLineBatchDelayMicros();
+
+                    standardCallback = new LineBatcher(lineBatchSize, lineBatchDelayMicros,
+                            new LineBatcher.BatchCallback() {
+                        @Override
+                        public void onIOException(IOException ioException) {
+                            textProcessHandler.onIOException(ioException);
+                        }
+
+                        @Override
+                        public void onLinesRead(List<String> lines) {
+                            textProcessHandler.onStdLinesRead(textProcessCallback, lines);
+                        }
+                    });
+
+                    errorCallback = new LineBatcher(lineBatchSize, lineBatchDelayMicros,
+                            new LineBatcher.BatchCallback() {
+                        @Override
+                        public void onIOException(IOException ioException) {
+                            textProcessHandler.onIOException(ioException);
+                        }
+
+                        @Override
+                        public void onLinesRead(List<String> lines) {
+                            textProcessHandler.onErrorLinesRead(textProcessCallback, lines);
+                        }
+                    });
+                }
+                else {
+                    standardCallback = new StreamTextReader.StreamCallback() {
+                        @Override
+                        public void onIOException(IOException ioException) {
+                            textProcessHandler.onIOException(ioException);
+                        }
+
+                        @Override
+                        public void onLineRead(CharSequence line) {
+                            textProcessHandler.onStdLineViewRead(textProcessCallback, line);
+                        }
+                    };
+
+                    errorCallback = new StreamTextReader.StreamCallback() {
+                        @Override
+                        public void onIOException(IOException ioException) {
+                            textProcessHandler.onIOException(ioException);
+                        }
+
+                        @Override
+                        public void onLineRead(CharSequence line) {
+                            textProcessHandler.onErrorLineViewRead(textProcessCallback, line);
+                        }
+                    };
+                }
+
+                StreamTextReader.StreamCallback standardReader = processInstrumentation.count(processDispatcher.handOff(
+                        processInstrumentation.instrument(standardCallback, false), false), false);
+                StreamTextReader.StreamCallback errorReader = processInstrumentation.count(processDispatcher.handOff(
+                        processInstrumentation.instrument(errorCallback, true), true), true);
+
+                ioEngine.startText(process,
+                        readStandardOutput ? processWatchdog.watch(tap(outputCapture, standardReader, false)) : null,
+                        readErrorOutput ? processWatchdog.watch(tap(outputCapture, errorReader, true)) : null,
+                        createExitListener(processDispatcher, processInstrumentation, processWatchdog,
+                                processListenerCallback, processPipeline, finishedCallback));
+            }
+            else if(processHandler instanceof BinaryProcessHandler) {
+                BinaryProcessHandler binaryProcessHandler = (BinaryProcessHandler) processHandler;
+
+                InputSink inputSink = inputWriter.open(standardInput, ioException ->
+                        processDispatcher.dispatch(() -> binaryProcessHandler.onIOException(ioException)));
+
+                BinaryProcessCallback binaryProcessCallback = createBinaryProcessCallback(process, inputSink,
+                        processDispatcher);
+
+                processDispatcher.dispatch(() -> binaryProcessHandler.onInitialized(binaryProcessCallback));
+
+                ProcessReaper.ProcessListenerCallback processListenerCallback = terminatedProcess -> {
+                    binaryProcessHandler.onProcessExited(terminatedProcess.exitValue());
+
+                    closeInputSink(inputSink, binaryProcessHandler);
+                };
+
+                StreamBytesReader.StreamCallback standardCallback = new StreamBytesReader.StreamCallback() {
+                    @Override
+                    public void onIOException(IOException ioException) {
+                        binaryProcessHandler.onIOException(ioException);
+                    }
+
+                    @Override
+                    public void onBytesRead(int readBytes, byte[] byteArray) {
+                        binaryProcessHandler.onStdBytesRead(binaryProcessCallback, readBytes, byteArray);
+                    }
+                };
+
+                StreamBytesReader.StreamCallback errorCallback = new StreamBytesReader.StreamCallback() {
+                    @Override
+                    public void onIOException(IOException ioException) {
+                        binaryProcessHandler.onIOException(ioException);
                     }
-                    catch (IOException ioException) {
-                        textProcessHandler.onIOException(ioException);
+
+                    @Override
+                    public void onBytesRead(int readBytes, byte[] byteArray) {
+                        binaryProcessHandler.onErrorBytesRead(binaryProcessCallback, readBytes, byteArray);
                     }
                 };
 
-                TerminationDetectionThread processTerminationThread = new TerminationDetectionThread(process,
-                        processListenerCallback);
+                StreamBytesReader.StreamCallback standardReader = processInstrumentation.count(
+                        processDispatcher.handOff(processInstrumentation.instrument(standardCallback, false), false),
+                        false);
+                StreamBytesReader.StreamCallback errorReader = processInstrumentation.count(
+                        processDispatcher.handOff(processInstrumentation.instrument(errorCallback, true), true), true);
+
+                ioEngine.startBinary(process, binaryProcessHandler.getBufferSize(),
+                        readStandardOutput ? processWatchdog.watch(tap(outputCapture, standardReader, false)) : null,
+                        readErrorOutput ? processWatchdog.watch(tap(outputCapture, errorReader, true)) : null,
+                        createExitListener(processDispatcher, processInstrumentation, processWatchdog,
+                                processListenerCallback, processPipeline, finishedCallback));
+            }
+            else if(processHandler instanceof PooledBinaryProcessHandler) {
+                PooledBinaryProcessHandler pooledBinaryProcessHandler = (PooledBinaryProcessHandler) processHandler;
+
+                InputSink inputSink = inputWriter.open(standardInput, ioException ->
+                        processDispatcher.dispatch(() -> pooledBinaryProcessHandler.onIOException(ioException)));
+
+                BinaryProcessCallback binaryProcessCallback = createBinaryProcessCallback(process, inputSink,
+                        processDispatcher);
 
-                processTerminationThread.start();
+                processDispatcher.dispatch(() -> pooledBinaryProcessHandler.onInitialized(binaryProcessCallback));
 
-                StreamTextReaderThread standardReader = new StreamTextReaderThread(process.getInputStream(),
-                        new StreamTextReaderThread.StreamCallback() {
+                ProcessReaper.ProcessListenerCallback processListenerCallback = terminatedProcess -> {
+                    pooledBinaryProcessHandler.onProcessExited(terminatedProcess.exitValue());
+
+                    closeInputSink(inputSink, pooledBinaryProcessHandler);
+                };
+
+                BufferPool bufferPool = pooledBinaryProcessHandler.getBufferPool();
+
+                BufferLeaser.LeaseCallback standardCallback = new BufferLeaser.LeaseCallback() {
                     @Override
                     public void onIOException(IOException ioException) {
-                        textProcessHandler.onIOException(ioException);
+                        pooledBinaryProcessHandler.onIOException(ioException);
                     }
 
                     @Override
-                    public void onLineRead(String line) {
-                        textProcessHandler.onStdLineRead(textProcessCallback, line);
+                    public void onBufferRead(PooledBuffer pooledBuffer) {
+                        pooledBinaryProcessHandler.onStdBufferRead(binaryProcessCallback, pooledBuffer);
                     }
-                });
+                };
 
-                StreamTextReaderThread errorReader = new StreamTextReaderThread(process.getErrorStream(),
-                        new StreamTextReaderThread.StreamCallback() {
+                BufferLeaser.LeaseCallback errorCallback = new BufferLeaser.LeaseCallback() {
                     @Override
                     public void onIOException(IOException ioException) {
-                        processHandler.onIOException(ioException);
+                        pooledBinaryProcessHandler.onIOException(ioException);
                     }
 
                     @Override
-                    public void onLineRead(String line) {
-                        ((TextProcessHandler) processHandler).onErrorLineRead(textProcessCallback, line);
+                    public void onBufferRead(PooledBuffer pooledBuffer) {
+                        pooledBinaryProcessHandler.onErrorBufferRead(binaryProcessCallback, pooledBuffer);
                     }
-                });
+                };
+
+                BufferLeaser.LeaseCallback standardReader = processInstrumentation.count(processDispatcher.handOff(
+                        processInstrumentation.instrument(standardCallback, false), false), false);
+                BufferLeaser.LeaseCallback errorReader = processInstrumentation.count(processDispatcher.handOff(
+                        processInstrumentation.instrument(errorCallback, true), true), true);
 
-                standardReader.start();
-                errorReader.start();
+                BufferLeaser standardLeaser = new BufferLeaser(bufferPool,
+                        processWatchdog.watch(tap(outputCapture, standardReader, false)));
+                BufferLeaser errorLeaser = new BufferLeaser(bufferPool,
+                        processWatchdog.watch(tap(outputCapture, errorReader, true)));
+
+                ioEngine.startBuffered(process, readStandardOutput ? standardLeaser : null,
+                        readErrorOutput ? errorLeaser : null,
+                        createExitListener(processDispatcher, processInstrumentation, processWatchdog,
+                                processListenerCallback, processPipeline, finishedCallback));
             }
-            else if(processHandler instanceof BinaryProcessHandler) {
-                BinaryProcessHandler binaryProcessHandler = (BinaryProcessHandler) processHandler;
+            else if(processHandler instanceof ByteBufferProcessHandler) {
+                ByteBufferProcessHandler byteBufferProcessHandler = (ByteBufferProcessHandler) processHandler;
+
+                InputSink inputSink = inputWriter.open(standardInput, ioException ->
+                        processDispatcher.dispatch(() -> byteBufferProcessHandler.onIOException(ioException)));
+
+                ByteBufferProcessCallback byteBufferProcessCallback = createByteBufferProcessCallback(process,
+                        inputSink, processDispatcher);
+
+                processDispatcher.dispatch(() -> byteBufferProcessHandler.onInitialized(byteBufferProcessCallback));
+
+                ProcessReaper.ProcessListenerCallback processListenerCallback = terminatedProcess -> {
+                    byteBufferProcessHandler.onProcessExited(terminatedProcess.exitValue());
 
-                BinaryProcessCallback binaryProcessCallback = new BinaryProcessCallback() {
+                    closeInputSink(inputSink, byteBufferProcessHandler);
+                };
+
+                int bufferSize = byteBufferProcessHandler.getBufferSize();
+                boolean directBuffer = byteBufferProcessHandler.isDirectBuffer();
+
+                BufferReuser.ReadCallback standardCallback = new BufferReuser.ReadCallback() {
                     @Override
-                    public void destroy() {
-                        process.destroy();
+                    public void onIOException(IOException ioException) {
+                        byteBufferProcessHandler.onIOException(ioException);
                     }
 
                     @Override
-                    public void destroyForcibly() {
-                        process.destroyForcibly();
+                    public void onBufferRead(ByteBuffer buffer) {
+                        byteBufferProcessHandler.onStdBufferRead(byteBufferProcessCallback, buffer);
                     }
+                };
 
+                BufferReuser.ReadCallback errorCallback = new BufferReuser.ReadCallback() {
                     @Override
-                    public void writeBytes(byte[] bytes) throws IOException {
-                        process.getOutputStream().write(bytes);
-                        process.getOutputStream().flush();
+                    public void onIOException(IOException ioException) {
+                        byteBufferProcessHandler.onIOException(ioException);
+                    }
+
+                    @Override
+                    public void onBufferRead(ByteBuffer buffer) {
+                        byteBufferProcessHandler.onErrorBufferRead(byteBufferProcessCallback, buffer);
                     }
                 };
 
-                binaryProcessHandler.onInitialized(binaryProcessCallback);
+                BufferReuser.ReadCallback standardReader = processInstrumentation.count(processDispatcher.handOff(
+                        processInstrumentation.instrument(standardCallback, false), false), false);
+                BufferReuser.ReadCallback errorReader = processInstrumentation.count(processDispatcher.handOff(
+                        processInstrumentation.instrument(errorCallback, true), true), true);
+
+                BufferReuser standardReuser = new BufferReuser(allocateBuffer(bufferSize, directBuffer),
+                        processWatchdog.watch(tap(outputCapture, standardReader, false)));
+                BufferReuser errorReuser = new BufferReuser(allocateBuffer(bufferSize, directBuffer),
+                        processWatchdog.watch(tap(outputCapture, errorReader, true)));
+
+                ioEngine.startBuffered(process, readStandardOutput ? standardReuser : null,
+                        readErrorOutput ? errorReuser : null,
+                        createExitListener(processDispatcher, processInstrumentation, processWatchdog,
+                                processListenerCallback, processPipeline, finishedCallback));
+            }
+
+            if(processOptions.getInputSource() != null) {
+                processOptions.getInputSource().transfer(standardInput, ioEngine.getThreadFactory(), ioException ->
+                        processDispatcher.dispatch(() -> processHandler.onIOException(ioException)));
+            }
+        }
+        catch (IOException ioException) {
+            processDispatcher.dispatch(() -> processHandler.onIOException(ioException));
+
+            if(finishedCallback != null)
+                finishedCallback.run();
+        }
+    }
+
+    private static ProcessReaper.ProcessListenerCallback createExitListener(ProcessDispatcher processDispatcher,
+            ProcessInstrumentation processInstrumentation, ProcessWatchdog processWatchdog,
+            ProcessReaper.ProcessListenerCallback processListenerCallback, ProcessPipeline processPipeline,
+            Runnable finishedCallback) {
+        ProcessReaper.ProcessListenerCallback exitListener = processInstrumentation.instrumentExit(
+                processDispatcher.handOffExit(notifyPipelineExit(processListenerCallback, processPipeline)));
+
+        //The callback doesn't wait for queued outputs, because the process already terminated.
+        return terminatedProcess -> {
+            processWatchdog.cancel();
+
+            try {
+                exitListener.onProcessFinished(terminatedProcess);
+            }
+            finally {
+                if(finishedCallback != null)
+                    finishedCallback.run();
+            }
+        };
+    }
+
+    //The output is captured on the reader threads, before the handoff can drop it.
+    private static StreamTextReader.StreamCallback tap(OutputCapture outputCapture,
+                                                       StreamTextReader.StreamCallback streamCallback,
+                                                       boolean errorStream) {
+        return outputCapture == null ? streamCallback : outputCapture.tap(streamCallback, errorStream);
+    }
+
+    private static StreamBytesReader.StreamCallback tap(OutputCapture outputCapture,
+                                                        StreamBytesReader.StreamCallback streamCallback,
+                                                        boolean errorStream) {
+        return outputCapture == null ? streamCallback : outputCapture.tap(streamCallback, errorStream);
+    }
+
+    private static BufferLeaser.LeaseCallback tap(OutputCapture outputCapture,
+                                                  BufferLeaser.LeaseCallback leaseCallback, boolean errorStream) {
+        return outputCapture == null ? leaseCallback : outputCapture.tap(leaseCallback, errorStream);
+    }
 
-                TerminationDetectionThread.ProcessListenerCallback processListenerCallback = terminatedProcess ->
-                        binaryProcessHandler.onProcessExited(terminatedProcess.exitValue());
+    private static BufferReuser.ReadCallback tap(OutputCapture outputCapture, BufferReuser.ReadCallback readCallback,
+                                                 boolean errorStream) {
+        return outputCapture == null ? readCallback : outputCapture.tap(readCallback, errorStream);
+    }
+
+    private static ProcessReaper.ProcessListenerCallback notifyPipelineExit(
+            ProcessReaper.ProcessListenerCallback processListenerCallback, ProcessPipeline processPipeline) {
+        if(processPipeline == null || processPipeline.getPipelineExitListener() == null)
+            return processListenerCallback;
+
+        ProcessPipeline.PipelineExitListener pipelineExitListener = processPipeline.getPipelineExitListener();
+
+        return terminatedProcess -> {
+            List<Process> stages = ((PipelineProcess) terminatedProcess).getStages();
+            int[] exitCodes = new int[stages.size()];
+
+            for(int i = 0; i < exitCodes.length; i++)
+                exitCodes[i] = stages.get(i).exitValue();
+
+            try {
+                pipelineExitListener.onPipelineExited(exitCodes);
+            }
+            finally {
+                processListenerCallback.onProcessFinished(terminatedProcess);
+            }
+        };
+    }
 
-                TerminationDetectionThread processTerminationThread = new TerminationDetectionThread(process,
-                        processListenerCallback);
+    private static BinaryProcessCallback createBinaryProcessCallback(Process process, InputSink inputSink,
+                                                                     ProcessDispatcher processDispatcher) {
+        return new BinaryProcessCallback() {
+            @Override
+            public void destroy() {
+                process.destroy();
+            }
 
-                processTerminationThread.start();
+            @Override
+            public void destroyForcibly() {
+                process.destroyForcibly();
+            }
 
-                StreamBytesReaderThread outputReader = new StreamBytesReaderThread(process.getInputStream(),
-                        binaryProcessHandler.getBufferSize(),
-                        new StreamBytesReaderThread.StreamCallback() {
-                            @Override
-                            public void onIOException(IOException ioException) {
-                                binaryProcessHandler.onIOException(ioException);
-                            }
+            @Override
+            public void writeBytes(byte[] bytes) throws IOException {
+                inputSink.write(bytes, 0, bytes.length);
+            }
 
-                            @Override
-                            public void onBytesRead(int readBytes, byte[] byteArray) {
-                                binaryProcessHandler.onStdBytesRead(binaryProcessCallback, readBytes, byteArray);
-                            }
-                        });
+            @Override
+            public void flush() throws IOException {
+                inputSink.flush();
+            }
 
-                StreamBytesReaderThread errorReader = new StreamBytesReaderThread(process.getErrorStream(),
-                        binaryProcessHandler.getBufferSize(),
-                        new StreamBytesReaderThread.StreamCallback() {
-                            @Override
-                            public void onIOException(IOException ioException) {
-                                binaryProcessHandler.onIOException(ioException);
-                            }
+            @Override
+            public long getWrittenBytes() {
+                return inputSink.getWrittenBytes();
+            }
 
-                            @Override
-                            public void onBytesRead(int readBytes, byte[] byteArray) {
-                                binaryProcessHandler.onErrorBytesRead(binaryProcessCallback, readBytes, byteArray);
-                            }
-                        });
+            @Override
+            public int getQueuedWrites() {
+                return inputSink.getQueuedWrites();
+            }
 
-                errorReader.start();
-                outputReader.start();
+            @Override
+            public long getDroppedOutputs() {
+                return processDispatcher.getDroppedOutputs();
             }
+        };
+    }
+
+    private static void closeInputSink(InputSink inputSink, ProcessHandler processHandler) {
+        try {
+            inputSink.close();
         }
         catch (IOException ioException) {
             processHandler.onIOException(ioException);
         }
     }
-}
\ No newline at end of file
+
+    private static ByteBufferProcessCallback createByteBufferProcessCallback(Process process, InputSink inputSink,
+                                                                            ProcessDispatcher processDispatcher) {
+        ByteBufferWriter byteBufferWriter = new ByteBufferWriter(inputSink);
+
+        return new ByteBufferProcessCallback() {
+            @Override
+            public void destroy() {
+                process.destroy();
+            }
+
+            @Override
+            public void destroyForcibly() {
+                process.destroyForcibly();
+            }
+
+            @Override
+            public void write(ByteBuffer source) throws IOException {
+                byteBufferWriter.write(source);
+            }
+
+            @Override
+            public void write(ByteBuffer[] sources) throws IOException {
+                byteBufferWriter.write(sources);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                byteBufferWriter.write(bytes, offset, length);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                byteBufferWriter.flush();
+            }
+
+            @Override
+            public void closeInput() throws IOException {
+                byteBufferWriter.close();
+            }
+
+            @Override
+            public long getWrittenBytes() {
+                return inputSink.getWrittenBytes();
+            }
+
+            @Override
+            public int getQueuedWrites() {
+                return inputSink.getQueuedWrites();
+            }
+
+            @Override
+            public long getDroppedOutputs() {
+                return processDispatcher.getDroppedOutputs();
+            }
+        };
+    }
+
+    private static ByteBuffer allocateBuffer(int bufferSize, boolean directBuffer) {
+        return directBuffer ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+    }
+}
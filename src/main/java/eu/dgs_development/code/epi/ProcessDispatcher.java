@@ -0,0 +1,494 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import eu.dgs_development.code.epi.handlers.binary.PooledBuffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Helper class to decouple the readers of the output streams of a process from its handler. Every stream gets a
+ * bounded queue, which is filled by the reader and drained by a task of an {@link Executor}. Other callbacks are
+ * queued without a bound. Only a single drain task of a process runs at a time, so the handler is called in the order
+ * of the output of every stream. The termination of the process gets passed to the handler after all queued outputs.
+ * If the handoff is disabled, all callbacks are returned unchanged and the handler gets called by the readers.
+ */
+final class ProcessDispatcher {
+    /**
+     * The capacity of the handoff queues, if a callback executor but no capacity is set.
+     */
+    static final int DEFAULT_CAPACITY = 256;
+
+    private static final int MAX_DRAINED_OUTPUTS = 64;
+
+    private final Executor executor;
+    private final HandoffPolicy handoffPolicy;
+    private final int sampleInterval;
+    private final HandoffQueue standardQueue;
+    private final HandoffQueue errorQueue;
+    private final Queue<Runnable> callbackTasks = new ConcurrentLinkedQueue<>();
+    private final LongAdder droppedOutputs = new LongAdder();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    private volatile Runnable exitTask;
+
+    //Only accessed by the drain task.
+    private boolean exitTaskRun;
+
+    /**
+     * Creates a new {@link ProcessDispatcher} instance.
+     * @param executor The executor to run the drain tasks with, or null to disable the handoff.
+     * @param capacity The maximum amount of queued outputs per stream.
+     * @param handoffPolicy The policy which decides what happens if a queue is full.
+     * @param sampleInterval The interval of outputs to keep, if the policy is {@link HandoffPolicy#SAMPLE}.
+     */
+    ProcessDispatcher(Executor executor, int capacity, HandoffPolicy handoffPolicy, int sampleInterval) {
+        this.executor = executor;
+        this.handoffPolicy = handoffPolicy;
+        this.sampleInterval = sampleInterval;
+        this.standardQueue = executor != null ? new HandoffQueue(capacity) : null;
+        this.errorQueue = executor != null ? new HandoffQueue(capacity) : null;
+    }
+
+    /**
+     * Creates the {@link ProcessDispatcher} of a process.
+     * @param processOptions The options to start the process with.
+     * @return A new {@link ProcessDispatcher}, which might have a disabled handoff.
+     */
+    static ProcessDispatcher create(ProcessOptions processOptions) {
+        Executor callbackExecutor = processOptions.getCallbackExecutor();
+        int capacity = processOptions.getHandoffCapacity();
+
+        if(callbackExecutor == null && capacity > 0)
+            callbackExecutor = DispatcherExecutorHolder.INSTANCE;
+
+        return new ProcessDispatcher(callbackExecutor, capacity > 0 ? capacity : DEFAULT_CAPACITY,
+                processOptions.getHandoffPolicy(), processOptions.getHandoffSampleInterval());
+    }
+
+    /**
+     * Returns the amount of outputs, which were dropped because a queue was full.
+     * @return The amount of dropped outputs of both streams.
+     */
+    long getDroppedOutputs() {
+        return droppedOutputs.sum();
+    }
+
+    /**
+     * Returns the amount of outputs, which are queued and not yet passed to the handler.
+     * @return The amount of queued outputs of both streams.
+     */
+    int getQueuedOutputs() {
+        return executor != null ? standardQueue.size() + errorQueue.size() : 0;
+    }
+
+    /**
+     * Passes a callback, which isn't an output of a stream, to the handler. The callback is never dropped.
+     * @param callbackTask The task calling the handler.
+     */
+    void dispatch(Runnable callbackTask) {
+        if(executor == null) {
+            callbackTask.run();
+
+            return;
+        }
+
+        callbackTasks.add(callbackTask);
+
+        scheduleDrain();
+    }
+
+    StreamTextReader.StreamCallback handOff(StreamTextReader.StreamCallback streamCallback, boolean errorStream) {
+        if(executor == null)
+            return streamCallback;
+
+        HandoffQueue handoffQueue = errorStream ? errorQueue : standardQueue;
+
+        return new StreamTextReader.StreamCallback() {
+            //The read bytes are passed together with the next line, instead of queueing an output of their own.
+            private int chunkBytes;
+
+            @Override
+            public void onIOException(IOException ioException) {
+                handoffQueue.offer(new Output(() -> streamCallback.onIOException(ioException)));
+            }
+
+            @Override
+            public void onLineRead(CharSequence line) {
+                //The line is a reused view, which has to be copied before it can be passed to another thread.
+                String lineCopy = line.toString();
+                int readBytes = chunkBytes;
+
+                chunkBytes = 0;
+
+                handoffQueue.offer(new Output(() -> {
+                    if(readBytes > 0)
+                        streamCallback.onChunkRead(readBytes);
+
+                    streamCallback.onLineRead(lineCopy);
+                }, null));
+            }
+
+            @Override
+            public void onChunkRead(int readBytes) {
+                chunkBytes += readBytes;
+            }
+
+            @Override
+            public void onStreamIdle() {
+                handoffQueue.offer(Output.idle(streamCallback::onStreamIdle));
+            }
+
+            @Override
+            public void onEndOfStream() {
+                handoffQueue.offer(new Output(streamCallback::onEndOfStream));
+            }
+        };
+    }
+
+    StreamBytesReader.StreamCallback handOff(StreamBytesReader.StreamCallback streamCallback, boolean errorStream) {
+        if(executor == null)
+            return streamCallback;
+
+        HandoffQueue handoffQueue = errorStream ? errorQueue : standardQueue;
+
+        return new StreamBytesReader.StreamCallback() {
+            @Override
+            public void onIOException(IOException ioException) {
+                handoffQueue.offer(new Output(() -> streamCallback.onIOException(ioException)));
+            }
+
+            @Override
+            public void onBytesRead(int readBytes, byte[] byteArray) {
+                //The array gets reused by the reader.
+                byte[] bytesCopy = Arrays.copyOf(byteArray, readBytes);
+
+                handoffQueue.offer(new Output(() -> streamCallback.onBytesRead(readBytes, bytesCopy), null));
+            }
+        };
+    }
+
+    BufferLeaser.LeaseCallback handOff(BufferLeaser.LeaseCallback leaseCallback, boolean errorStream) {
+        if(executor == null)
+            return leaseCallback;
+
+        HandoffQueue handoffQueue = errorStream ? errorQueue : standardQueue;
+
+        return new BufferLeaser.LeaseCallback() {
+            @Override
+            public void onIOException(IOException ioException) {
+                handoffQueue.offer(new Output(() -> leaseCallback.onIOException(ioException)));
+            }
+
+            @Override
+            public void onBufferRead(PooledBuffer pooledBuffer) {
+                //The leased buffer is owned by the output, so it gets passed without a copy or released if dropped.
+                handoffQueue.offer(new Output(() -> leaseCallback.onBufferRead(pooledBuffer), pooledBuffer::release));
+            }
+        };
+    }
+
+    BufferReuser.ReadCallback handOff(BufferReuser.ReadCallback readCallback, boolean errorStream) {
+        if(executor == null)
+            return readCallback;
+
+        HandoffQueue handoffQueue = errorStream ? errorQueue : standardQueue;
+
+        return new BufferReuser.ReadCallback() {
+            @Override
+            public void onIOException(IOException ioException) {
+                handoffQueue.offer(new Output(() -> readCallback.onIOException(ioException)));
+            }
+
+            @Override
+            public void onBufferRead(ByteBuffer buffer) {
+                //The buffer gets reused by the reader.
+                ByteBuffer bufferCopy = buffer.isDirect() ? ByteBuffer.allocateDirect(buffer.remaining()) :
+                        ByteBuffer.allocate(buffer.remaining());
+
+                bufferCopy.put(buffer);
+                bufferCopy.flip();
+
+                handoffQueue.offer(new Output(() -> readCallback.onBufferRead(bufferCopy), null));
+            }
+        };
+    }
+
+    /**
+     * Returns a listener, which notifies the given listener after all queued outputs were passed to the handler.
+     * @param processListenerCallback The listener to notify about the termination of the process.
+     * @return The listener to register for the process.
+     */
+    ProcessReaper.ProcessListenerCallback handOffExit(ProcessReaper.ProcessListenerCallback processListenerCallback) {
+        if(executor == null)
+            return processListenerCallback;
+
+        return terminatedProcess -> {
+            exitTask = () -> processListenerCallback.onProcessFinished(terminatedProcess);
+
+            scheduleDrain();
+        };
+    }
+
+    private void scheduleDrain() {
+        if(!drainScheduled.compareAndSet(false, true))
+            return;
+
+        try {
+            executor.execute(this::drain);
+        }
+        catch (RejectedExecutionException rejectedExecutionException) {
+            //The executor was shut down, so the calling thread passes the callbacks to the handler.
+            drain();
+        }
+    }
+
+    private void drain() {
+        try {
+            //Alternate between the streams, so a noisy stream can't delay the other one.
+            for(int i = 0; i < MAX_DRAINED_OUTPUTS; i++) {
+                Runnable callbackTask = callbackTasks.poll();
+                Output standardOutput = standardQueue.poll();
+                Output errorOutput = errorQueue.poll();
+
+                if(callbackTask == null && standardOutput == null && errorOutput == null)
+                    break;
+
+                if(callbackTask != null)
+                    run(callbackTask);
+
+                if(standardOutput != null)
+                    run(standardOutput.task);
+
+                if(errorOutput != null)
+                    run(errorOutput.task);
+            }
+
+            //The readers finished before the process listener was called, so no outputs can follow.
+            Runnable currentExitTask = exitTask;
+
+            if(currentExitTask != null && !exitTaskRun && isEmpty()) {
+                exitTaskRun = true;
+
+                run(currentExitTask);
+            }
+        }
+        finally {
+            drainScheduled.set(false);
+        }
+
+        //An output could have been queued after the last poll, but before the drain was marked as finished.
+        if(!isEmpty() || (exitTask != null && !exitTaskRun))
+            scheduleDrain();
+    }
+
+    private boolean isEmpty() {
+        return callbackTasks.isEmpty() && standardQueue.isEmpty() && errorQueue.isEmpty();
+    }
+
+    private static void run(Runnable task) {
+        try {
+            task.run();
+        }
+        catch (Throwable throwable) {
+            //A failing handler must not stop the delivery of the remaining outputs.
+            Thread currentThread = Thread.currentThread();
+
+            currentThread.getUncaughtExceptionHandler().uncaughtException(currentThread, throwable);
+        }
+    }
+
+    /**
+     * An output of a stream, which gets passed to the handler. Notifications without a drop action, like errors or
+     * the end of a stream, are never dropped and don't count towards the capacity of the queue. Consecutive idle
+     * notifications are coalesced, so they are bounded by the amount of queued droppable outputs.
+     */
+    private static final class Output {
+        private final Runnable task;
+        private final Runnable dropAction;
+        private final boolean droppable;
+        private final boolean idle;
+
+        private Output(Runnable task) {
+            this(task, null, false, false);
+        }
+
+        private Output(Runnable task, Runnable dropAction) {
+            this(task, dropAction, true, false);
+        }
+
+        private Output(Runnable task, Runnable dropAction, boolean droppable, boolean idle) {
+            this.task = task;
+            this.dropAction = dropAction;
+            this.droppable = droppable;
+            this.idle = idle;
+        }
+
+        private static Output idle(Runnable task) {
+            return new Output(task, null, false, true);
+        }
+    }
+
+    /**
+     * The queue of a single stream, which is bounded by the amount of droppable outputs. It's filled by the reader of
+     * the stream, which applies the {@link HandoffPolicy} if the queue is full. Outputs, which can't be dropped, are
+     * always queued and skipped if the oldest output gets replaced, so the order of the stream is kept.
+     */
+    private final class HandoffQueue {
+        private final int capacity;
+
+        //Guarded by this.
+        private final Deque<Output> outputs = new ArrayDeque<>();
+        private int droppableOutputs;
+
+        //Only accessed by the reader of the stream.
+        private long sampleCounter;
+
+        private HandoffQueue(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private void offer(Output output) {
+            Output droppedOutput = null;
+
+            synchronized (this) {
+                //The handler is already going to be notified that the stream is idle.
+                if(output.idle && !outputs.isEmpty() && outputs.peekLast().idle)
+                    return;
+
+                if(output.droppable && handoffPolicy == HandoffPolicy.BLOCK) {
+                    if(!awaitCapacity())
+                        droppedOutput = output;
+                }
+                else if(output.droppable && droppableOutputs >= capacity) {
+                    boolean dropNewest = handoffPolicy == HandoffPolicy.DROP_NEWEST ||
+                            (handoffPolicy == HandoffPolicy.SAMPLE && ++sampleCounter % sampleInterval != 0);
+
+                    droppedOutput = dropNewest ? output : removeOldestDroppable();
+                }
+
+                if(droppedOutput != output) {
+                    outputs.add(output);
+
+                    if(output.droppable)
+                        droppableOutputs++;
+                }
+            }
+
+            if(droppedOutput != null)
+                drop(droppedOutput);
+
+            scheduleDrain();
+        }
+
+        private boolean awaitCapacity() {
+            try {
+                while (droppableOutputs >= capacity)
+                    wait();
+
+                return true;
+            }
+            catch (InterruptedException interruptedException) {
+                //The reader gets stopped, so the output can't be passed anymore.
+                Thread.currentThread().interrupt();
+
+                return false;
+            }
+        }
+
+        private Output removeOldestDroppable() {
+            Iterator<Output> outputIterator = outputs.iterator();
+            Output previousOutput = null;
+
+            while (outputIterator.hasNext()) {
+                Output queuedOutput = outputIterator.next();
+
+                if(queuedOutput.droppable) {
+                    outputIterator.remove();
+                    droppableOutputs--;
+
+                    //The removal mustn't leave two idle notifications next to each other.
+                    if(previousOutput != null && previousOutput.idle && outputIterator.hasNext() &&
+                            outputIterator.next().idle)
+                        outputIterator.remove();
+
+                    return queuedOutput;
+                }
+
+                previousOutput = queuedOutput;
+            }
+
+            return null;
+        }
+
+        private void drop(Output output) {
+            droppedOutputs.increment();
+
+            if(output.dropAction != null)
+                output.dropAction.run();
+        }
+
+        private synchronized Output poll() {
+            Output output = outputs.poll();
+
+            if(output != null && output.droppable) {
+                droppableOutputs--;
+
+                //Wakes up the reader, if it waits for free space.
+                notifyAll();
+            }
+
+            return output;
+        }
+
+        private synchronized boolean isEmpty() {
+            return outputs.isEmpty();
+        }
+
+        private synchronized int size() {
+            return outputs.size();
+        }
+    }
+
+    /**
+     * Lazily created executor, which runs the drain tasks of all processes on daemon threads.
+     */
+    private static final class DispatcherExecutorHolder {
+        private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+        private static final ExecutorService INSTANCE = Executors.newCachedThreadPool(runnable -> {
+            Thread dispatcherThread = new Thread(ThreadCounter.track(runnable),
+                    "epi-dispatcher-" + THREAD_COUNTER.incrementAndGet());
+            dispatcherThread.setDaemon(true);
+
+            return dispatcherThread;
+        });
+    }
+}
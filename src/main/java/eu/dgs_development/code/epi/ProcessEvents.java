@@ -0,0 +1,145 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+/**
+ * Helper class to emit Java Flight Recorder events about started processes and their streams. Java 8 has no API to
+ * define custom events, therefore this variant never records. The Java 11 variant of the multi-release JAR emits the
+ * events, while a recording is running.
+ */
+final class ProcessEvents {
+    private ProcessEvents() {
+        //Ignore...
+    }
+
+    /**
+     * Returns true if a recording is running, so processes should be instrumented to emit events.
+     * @return True if events can be recorded.
+     */
+    static boolean isRecording() {
+        return false;
+    }
+
+    /**
+     * Begins the event of a process, which is going to be started.
+     * @return The begun event, or null if the event isn't recorded.
+     */
+    static Object beginProcessStart() {
+        return null;
+    }
+
+    /**
+     * Emits the event about a started process. The duration of the event covers the spawn of the process.
+     * @param startEvent The event returned by {@link #beginProcessStart()}.
+     * @param command The command of the process.
+     * @param workingDirectory The working directory of the process.
+     */
+    static void processStarted(Object startEvent, String command, String workingDirectory) {
+        //Ignore...
+    }
+
+    /**
+     * Begins the event of a started process, which ends with its termination.
+     * @return The begun event, or null if the event isn't recorded.
+     */
+    static Object beginProcessExit() {
+        return null;
+    }
+
+    /**
+     * Emits the event about a terminated process. The duration of the event covers the lifetime of the process.
+     * @param exitEvent The event returned by {@link #beginProcessExit()}.
+     * @param command The command of the process.
+     * @param exitCode The exit code of the process.
+     */
+    static void processExited(Object exitEvent, String command, int exitCode) {
+        //Ignore...
+    }
+
+    /**
+     * Begins the event of bytes, which are passed to the handler.
+     * @return The begun event, or null if the event isn't recorded.
+     */
+    static Object beginChunkRead() {
+        return null;
+    }
+
+    /**
+     * Emits the event about bytes, which were read from an output stream and passed to the handler. The duration of
+     * the event covers the handler callback.
+     * @param chunkEvent The event returned by {@link #beginChunkRead()}.
+     * @param errorStream True if the bytes were read from the error output stream.
+     * @param readBytes The amount of read bytes.
+     */
+    static void chunkRead(Object chunkEvent, boolean errorStream, int readBytes) {
+        //Ignore...
+    }
+
+    /**
+     * Begins the event of lines, which are read from an output stream until it becomes idle.
+     * @return The begun event, or null if the event isn't recorded.
+     */
+    static Object beginLineBatch() {
+        return null;
+    }
+
+    /**
+     * Emits the event about lines, which were read from an output stream without becoming idle. The duration of the
+     * event covers the reading and the handler callbacks of all lines.
+     * @param batchEvent The event returned by {@link #beginLineBatch()}.
+     * @param errorStream True if the lines were read from the error output stream.
+     * @param readLines The amount of read lines.
+     * @param readBytes The amount of bytes, which were read for the lines.
+     */
+    static void lineBatchRead(Object batchEvent, boolean errorStream, int readLines, long readBytes) {
+        //Ignore...
+    }
+
+    /**
+     * Begins the event of bytes, which are written to the standard input stream of a process.
+     * @return The begun event, or null if the event isn't recorded.
+     */
+    static Object beginStdinWrite() {
+        return null;
+    }
+
+    /**
+     * Emits the event about bytes, which were written to the standard input stream of a process. The duration of the
+     * event covers the write.
+     * @param writeEvent The event returned by {@link #beginStdinWrite()}.
+     * @param writtenBytes The amount of written bytes.
+     */
+    static void stdinWritten(Object writeEvent, int writtenBytes) {
+        //Ignore...
+    }
+
+    /**
+     * Begins the event of a flush of the standard input stream of a process.
+     * @return The begun event, or null if the event isn't recorded.
+     */
+    static Object beginStdinFlush() {
+        return null;
+    }
+
+    /**
+     * Emits the event about a flush of the standard input stream of a process. The duration of the event covers the
+     * flush.
+     * @param flushEvent The event returned by {@link #beginStdinFlush()}.
+     */
+    static void stdinFlushed(Object flushEvent) {
+        //Ignore...
+    }
+}
@@ -0,0 +1,421 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import eu.dgs_development.code.epi.handlers.binary.PooledBuffer;
+
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Helper class to report the activity of a single process to its {@link ProcessMetrics} and as {@link ProcessEvents}.
+ * The callbacks and streams are wrapped, to count the read output and to measure the time spent in the process
+ * handler. The output is counted by the reading thread in front of the {@link ProcessDispatcher}, so dropped output
+ * is counted as well, while the callbacks are timed behind it. Events are only emitted, if a recording was running
+ * when the process was started. If neither metrics nor events are recorded, all callbacks and streams are returned
+ * unchanged, so the process isn't slowed down.
+ */
+final class ProcessInstrumentation {
+    private final ProcessMetrics processMetrics;
+    private final List<ProcessBuilder> processBuilders;
+    private final boolean eventsEnabled;
+    private final boolean enabled;
+
+    private String command;
+    private long spawnStartNanos;
+    private Object startEvent;
+    private Object exitEvent;
+
+    private ProcessInstrumentation(ProcessMetrics processMetrics, List<ProcessBuilder> processBuilders) {
+        this.processMetrics = processMetrics;
+        this.processBuilders = processBuilders;
+        this.eventsEnabled = ProcessEvents.isRecording();
+        this.enabled = eventsEnabled || processMetrics != NoopProcessMetrics.INSTANCE;
+    }
+
+    /**
+     * Creates the instrumentation of a process.
+     * @param processOptions The options of the process.
+     * @param processBuilders The builders of the process, or of all stages of a pipeline.
+     * @return The created {@link ProcessInstrumentation}.
+     */
+    static ProcessInstrumentation create(ProcessOptions processOptions, List<ProcessBuilder> processBuilders) {
+        return new ProcessInstrumentation(processOptions.getProcessMetrics(), processBuilders);
+    }
+
+    /**
+     * Starts to measure the spawn of the process. Must be called before the process gets started.
+     */
+    void onProcessStarting() {
+        if(!enabled)
+            return;
+
+        spawnStartNanos = System.nanoTime();
+
+        if(eventsEnabled)
+            startEvent = ProcessEvents.beginProcessStart();
+    }
+
+    /**
+     * Notifies the metrics that the process was started.
+     */
+    void onProcessStarted() {
+        if(!enabled)
+            return;
+
+        processMetrics.onProcessStarted(System.nanoTime() - spawnStartNanos);
+
+        if(eventsEnabled) {
+            //The stages of a pipeline are described like a shell pipeline.
+            StringJoiner commandJoiner = new StringJoiner(" | ");
+
+            for(ProcessBuilder processBuilder : processBuilders)
+                commandJoiner.add(String.join(" ", processBuilder.command()));
+
+            File workingDirectory = processBuilders.get(0).directory();
+
+            command = commandJoiner.toString();
+
+            ProcessEvents.processStarted(startEvent, command, workingDirectory != null ?
+                    workingDirectory.getAbsolutePath() : System.getProperty("user.dir"));
+
+            exitEvent = ProcessEvents.beginProcessExit();
+        }
+    }
+
+    /**
+     * Returns a listener, which notifies the metrics about the exit code before notifying the given listener.
+     * @param processListenerCallback The listener to notify about the termination of the process.
+     * @return The listener to register for the process.
+     */
+    ProcessReaper.ProcessListenerCallback instrumentExit(
+            ProcessReaper.ProcessListenerCallback processListenerCallback) {
+        if(!enabled)
+            return processListenerCallback;
+
+        return terminatedProcess -> {
+            int exitCode = terminatedProcess.exitValue();
+
+            processMetrics.onProcessExited(exitCode);
+
+            if(eventsEnabled)
+                ProcessEvents.processExited(exitEvent, command, exitCode);
+
+            processListenerCallback.onProcessFinished(terminatedProcess);
+        };
+    }
+
+    /**
+     * Returns a stream, which counts the written bytes and the flushes of the standard input stream of the process.
+     * @param outputStream The standard input stream of the process.
+     * @return The stream to write to.
+     */
+    OutputStream instrument(OutputStream outputStream) {
+        if(!enabled)
+            return outputStream;
+
+        return new FilterOutputStream(outputStream) {
+            @Override
+            public void write(int value) throws IOException {
+                Object writeEvent = eventsEnabled ? ProcessEvents.beginStdinWrite() : null;
+
+                out.write(value);
+
+                onBytesWritten(1, writeEvent);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                Object writeEvent = eventsEnabled ? ProcessEvents.beginStdinWrite() : null;
+
+                //The bytes are passed at once, instead of writing every single byte like the base class.
+                out.write(bytes, offset, length);
+
+                onBytesWritten(length, writeEvent);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                Object flushEvent = eventsEnabled ? ProcessEvents.beginStdinFlush() : null;
+
+                out.flush();
+
+                processMetrics.onFlushed();
+
+                if(eventsEnabled)
+                    ProcessEvents.stdinFlushed(flushEvent);
+            }
+
+            @Override
+            public void close() throws IOException {
+                //The stream is closed without the implicit flush of the base class, which isn't requested by a writer.
+                out.close();
+            }
+        };
+    }
+
+    StreamTextReader.StreamCallback count(StreamTextReader.StreamCallback streamCallback, boolean errorStream) {
+        if(processMetrics == NoopProcessMetrics.INSTANCE)
+            return streamCallback;
+
+        return new StreamTextReader.StreamCallback() {
+            @Override
+            public void onIOException(IOException ioException) {
+                streamCallback.onIOException(ioException);
+            }
+
+            @Override
+            public void onLineRead(CharSequence line) {
+                processMetrics.onLineRead(errorStream);
+
+                streamCallback.onLineRead(line);
+            }
+
+            @Override
+            public void onChunkRead(int readBytes) {
+                processMetrics.onBytesRead(errorStream, readBytes);
+
+                streamCallback.onChunkRead(readBytes);
+            }
+
+            @Override
+            public void onStreamIdle() {
+                streamCallback.onStreamIdle();
+            }
+
+            @Override
+            public void onEndOfStream() {
+                streamCallback.onEndOfStream();
+            }
+        };
+    }
+
+    StreamBytesReader.StreamCallback count(StreamBytesReader.StreamCallback streamCallback, boolean errorStream) {
+        if(processMetrics == NoopProcessMetrics.INSTANCE)
+            return streamCallback;
+
+        return new StreamBytesReader.StreamCallback() {
+            @Override
+            public void onIOException(IOException ioException) {
+                streamCallback.onIOException(ioException);
+            }
+
+            @Override
+            public void onBytesRead(int readBytes, byte[] byteArray) {
+                processMetrics.onBytesRead(errorStream, readBytes);
+
+                streamCallback.onBytesRead(readBytes, byteArray);
+            }
+        };
+    }
+
+    BufferLeaser.LeaseCallback count(BufferLeaser.LeaseCallback leaseCallback, boolean errorStream) {
+        if(processMetrics == NoopProcessMetrics.INSTANCE)
+            return leaseCallback;
+
+        return new BufferLeaser.LeaseCallback() {
+            @Override
+            public void onIOException(IOException ioException) {
+                leaseCallback.onIOException(ioException);
+            }
+
+            @Override
+            public void onBufferRead(PooledBuffer pooledBuffer) {
+                processMetrics.onBytesRead(errorStream, pooledBuffer.getByteBuffer().remaining());
+
+                leaseCallback.onBufferRead(pooledBuffer);
+            }
+        };
+    }
+
+    BufferReuser.ReadCallback count(BufferReuser.ReadCallback readCallback, boolean errorStream) {
+        if(processMetrics == NoopProcessMetrics.INSTANCE)
+            return readCallback;
+
+        return new BufferReuser.ReadCallback() {
+            @Override
+            public void onIOException(IOException ioException) {
+                readCallback.onIOException(ioException);
+            }
+
+            @Override
+            public void onBufferRead(ByteBuffer buffer) {
+                processMetrics.onBytesRead(errorStream, buffer.remaining());
+
+                readCallback.onBufferRead(buffer);
+            }
+        };
+    }
+
+    StreamTextReader.StreamCallback instrument(StreamTextReader.StreamCallback streamCallback, boolean errorStream) {
+        if(!enabled)
+            return streamCallback;
+
+        return new StreamTextReader.StreamCallback() {
+            //The lines passed since the stream was idle the last time, which are reported as a single event.
+            private int batchLines;
+            private long batchBytes;
+            private Object batchEvent;
+
+            @Override
+            public void onIOException(IOException ioException) {
+                emitLineBatch();
+
+                streamCallback.onIOException(ioException);
+            }
+
+            @Override
+            public void onChunkRead(int readBytes) {
+                if(eventsEnabled && batchLines == 0 && batchBytes == 0)
+                    batchEvent = ProcessEvents.beginLineBatch();
+
+                batchBytes += readBytes;
+
+                streamCallback.onChunkRead(readBytes);
+            }
+
+            @Override
+            public void onLineRead(CharSequence line) {
+                if(eventsEnabled && batchLines == 0 && batchBytes == 0)
+                    batchEvent = ProcessEvents.beginLineBatch();
+
+                long callbackStartNanos = System.nanoTime();
+
+                streamCallback.onLineRead(line);
+
+                long callbackNanos = System.nanoTime() - callbackStartNanos;
+
+                processMetrics.onCallbackExecuted(callbackNanos);
+
+                batchLines++;
+            }
+
+            @Override
+            public void onStreamIdle() {
+                emitLineBatch();
+
+                streamCallback.onStreamIdle();
+            }
+
+            @Override
+            public void onEndOfStream() {
+                emitLineBatch();
+
+                streamCallback.onEndOfStream();
+            }
+
+            private void emitLineBatch() {
+                //The bytes of an incomplete line are kept for the batch, which contains the completed line.
+                if(batchLines == 0)
+                    return;
+
+                if(eventsEnabled)
+                    ProcessEvents.lineBatchRead(batchEvent, errorStream, batchLines, batchBytes);
+
+                batchLines = 0;
+                batchBytes = 0;
+                batchEvent = null;
+            }
+        };
+    }
+
+    StreamBytesReader.StreamCallback instrument(StreamBytesReader.StreamCallback streamCallback, boolean errorStream) {
+        if(!enabled)
+            return streamCallback;
+
+        return new StreamBytesReader.StreamCallback() {
+            @Override
+            public void onIOException(IOException ioException) {
+                streamCallback.onIOException(ioException);
+            }
+
+            @Override
+            public void onBytesRead(int readBytes, byte[] byteArray) {
+                Object chunkEvent = eventsEnabled ? ProcessEvents.beginChunkRead() : null;
+                long callbackStartNanos = System.nanoTime();
+
+                streamCallback.onBytesRead(readBytes, byteArray);
+
+                onChunkRead(errorStream, readBytes, callbackStartNanos, chunkEvent);
+            }
+        };
+    }
+
+    BufferLeaser.LeaseCallback instrument(BufferLeaser.LeaseCallback leaseCallback, boolean errorStream) {
+        if(!enabled)
+            return leaseCallback;
+
+        return new BufferLeaser.LeaseCallback() {
+            @Override
+            public void onIOException(IOException ioException) {
+                leaseCallback.onIOException(ioException);
+            }
+
+            @Override
+            public void onBufferRead(PooledBuffer pooledBuffer) {
+                int readBytes = pooledBuffer.getByteBuffer().remaining();
+                Object chunkEvent = eventsEnabled ? ProcessEvents.beginChunkRead() : null;
+                long callbackStartNanos = System.nanoTime();
+
+                leaseCallback.onBufferRead(pooledBuffer);
+
+                onChunkRead(errorStream, readBytes, callbackStartNanos, chunkEvent);
+            }
+        };
+    }
+
+    BufferReuser.ReadCallback instrument(BufferReuser.ReadCallback readCallback, boolean errorStream) {
+        if(!enabled)
+            return readCallback;
+
+        return new BufferReuser.ReadCallback() {
+            @Override
+            public void onIOException(IOException ioException) {
+                readCallback.onIOException(ioException);
+            }
+
+            @Override
+            public void onBufferRead(ByteBuffer buffer) {
+                int readBytes = buffer.remaining();
+                Object chunkEvent = eventsEnabled ? ProcessEvents.beginChunkRead() : null;
+                long callbackStartNanos = System.nanoTime();
+
+                readCallback.onBufferRead(buffer);
+
+                onChunkRead(errorStream, readBytes, callbackStartNanos, chunkEvent);
+            }
+        };
+    }
+
+    private void onChunkRead(boolean errorStream, int readBytes, long callbackStartNanos, Object chunkEvent) {
+        processMetrics.onCallbackExecuted(System.nanoTime() - callbackStartNanos);
+
+        if(eventsEnabled)
+            ProcessEvents.chunkRead(chunkEvent, errorStream, readBytes);
+    }
+
+    private void onBytesWritten(int writtenBytes, Object writeEvent) {
+        processMetrics.onBytesWritten(writtenBytes);
+
+        if(eventsEnabled)
+            ProcessEvents.stdinWritten(writeEvent, writtenBytes);
+    }
+}
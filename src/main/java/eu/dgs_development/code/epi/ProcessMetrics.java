@@ -0,0 +1,91 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+/**
+ * Listener to record metrics about started processes, which can be set with
+ * {@link ProcessOptions#setProcessMetrics(ProcessMetrics)}. The functions are called by the threads which start, read
+ * and write the processes, therefore implementations must be thread-safe and should only update lock-free counters.
+ * All functions do nothing by default.
+ */
+public interface ProcessMetrics {
+    /**
+     * Returns the default listener, which doesn't record any metrics. Processes using this listener aren't
+     * instrumented at all.
+     * @return The no-op {@link ProcessMetrics}.
+     */
+    static ProcessMetrics noop() {
+        return NoopProcessMetrics.INSTANCE;
+    }
+
+    /**
+     * Function to notify that a process was started.
+     * @param spawnNanos The time in nanoseconds, which was needed to start the process.
+     */
+    default void onProcessStarted(long spawnNanos) {
+        //Ignore...
+    }
+
+    /**
+     * Function to notify that a process terminated.
+     * @param exitCode The exit code of the process.
+     */
+    default void onProcessExited(int exitCode) {
+        //Ignore...
+    }
+
+    /**
+     * Function to notify that bytes were read from an output stream of a process. The bytes of text process handlers
+     * are counted before they are split into lines.
+     * @param errorStream True if the bytes were read from the error output stream.
+     * @param readBytes The amount of read bytes.
+     */
+    default void onBytesRead(boolean errorStream, int readBytes) {
+        //Ignore...
+    }
+
+    /**
+     * Function to notify that a line was read from an output stream of a text process handler.
+     * @param errorStream True if the line was read from the error output stream.
+     */
+    default void onLineRead(boolean errorStream) {
+        //Ignore...
+    }
+
+    /**
+     * Function to notify that the process handler returned from a callback, which passed read output. Read output is
+     * counted when it's read, even if it's dropped afterwards, while only executed callbacks are timed.
+     * @param callbackNanos The time in nanoseconds, which was spent in the callback.
+     */
+    default void onCallbackExecuted(long callbackNanos) {
+        //Ignore...
+    }
+
+    /**
+     * Function to notify that bytes were written to the standard input stream of a process.
+     * @param writtenBytes The amount of written bytes.
+     */
+    default void onBytesWritten(int writtenBytes) {
+        //Ignore...
+    }
+
+    /**
+     * Function to notify that the standard input stream of a process was flushed.
+     */
+    default void onFlushed() {
+        //Ignore...
+    }
+}
@@ -0,0 +1,134 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link JmxProcessMetrics}, which exposes the recorded metrics as JMX attributes. The
+ * histograms contain one count per bucket of {@link #getHistogramUpperBoundsMicros()}, followed by the count of all
+ * longer durations.
+ */
+public interface ProcessMetricsMXBean {
+    /**
+     * Returns the amount of started processes.
+     * @return The amount of started processes.
+     */
+    long getStartedProcesses();
+
+    /**
+     * Returns the amount of started processes, which didn't terminate yet.
+     * @return The amount of running processes.
+     */
+    long getRunningProcesses();
+
+    /**
+     * Returns the amount of terminated processes.
+     * @return The amount of terminated processes.
+     */
+    long getExitedProcesses();
+
+    /**
+     * Returns the amount of terminated processes per exit code.
+     * @return The amount of terminated processes, mapped by their exit code.
+     */
+    Map<Integer, Long> getExitCodeCounts();
+
+    /**
+     * Returns the average time needed to start a process.
+     * @return The average spawn latency in microseconds.
+     */
+    double getAverageSpawnLatencyMicros();
+
+    /**
+     * Returns the longest time needed to start a process.
+     * @return The maximum spawn latency in microseconds.
+     */
+    double getMaxSpawnLatencyMicros();
+
+    /**
+     * Returns the histogram of the times needed to start a process.
+     * @return The amount of started processes per bucket.
+     */
+    long[] getSpawnLatencyHistogram();
+
+    /**
+     * Returns the amount of bytes read from the standard output streams by binary process handlers.
+     * @return The amount of read bytes.
+     */
+    long getStandardOutputBytes();
+
+    /**
+     * Returns the amount of bytes read from the error output streams by binary process handlers.
+     * @return The amount of read bytes.
+     */
+    long getErrorOutputBytes();
+
+    /**
+     * Returns the amount of lines read from the standard output streams by text process handlers.
+     * @return The amount of read lines.
+     */
+    long getStandardOutputLines();
+
+    /**
+     * Returns the amount of lines read from the error output streams by text process handlers.
+     * @return The amount of read lines.
+     */
+    long getErrorOutputLines();
+
+    /**
+     * Returns the average time spent in the callbacks of the process handlers, which passed read output.
+     * @return The average callback time in microseconds.
+     */
+    double getAverageCallbackTimeMicros();
+
+    /**
+     * Returns the longest time spent in a callback of a process handler, which passed read output.
+     * @return The maximum callback time in microseconds.
+     */
+    double getMaxCallbackTimeMicros();
+
+    /**
+     * Returns the histogram of the times spent in the callbacks of the process handlers.
+     * @return The amount of callbacks per bucket.
+     */
+    long[] getCallbackTimeHistogram();
+
+    /**
+     * Returns the upper bounds of the histogram buckets.
+     * @return The upper bounds in microseconds, without the last unbounded bucket.
+     */
+    long[] getHistogramUpperBoundsMicros();
+
+    /**
+     * Returns the amount of bytes written to the standard input streams.
+     * @return The amount of written bytes.
+     */
+    long getWrittenBytes();
+
+    /**
+     * Returns the amount of flushes of the standard input streams.
+     * @return The amount of flushes.
+     */
+    long getFlushes();
+
+    /**
+     * Returns the amount of running threads of the library, e.g. reader, writer and dispatcher threads. The count
+     * includes the threads of all processes, regardless of their {@link ProcessMetrics}.
+     * @return The amount of live threads.
+     */
+    long getLiveThreads();
+}
@@ -0,0 +1,505 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import eu.dgs_development.code.epi.handlers.base.TimeoutReason;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.concurrent.Executor;
+
+/**
+ * Class containing optional settings, which are used to start and manage a process. A new instance contains the
+ * default settings, which are also used if no {@link ProcessOptions} are passed to {@link ProcessCreator} or
+ * {@link CommandLineExecutor}.
+ */
+public final class ProcessOptions {
+    /**
+     * A {@link ProcessBuilder.Redirect} which discards all output of a stream, by writing it to the null device of
+     * the operating system.
+     */
+    public static final ProcessBuilder.Redirect DISCARD = ProcessBuilder.Redirect.to(new File(
+            System.getProperty("os.name").toLowerCase().contains("win") ? "NUL" : "/dev/null"));
+
+    private IoEngine ioEngine = IoEngine.threadPerStream();
+    private InputWriter inputWriter = InputWriter.direct();
+    private ProcessBuilder.Redirect standardOutputRedirect = ProcessBuilder.Redirect.PIPE;
+    private ProcessBuilder.Redirect errorOutputRedirect = ProcessBuilder.Redirect.PIPE;
+    private boolean redirectErrorStream;
+    private int handoffCapacity;
+    private HandoffPolicy handoffPolicy = HandoffPolicy.BLOCK;
+    private int handoffSampleInterval = 10;
+    private Executor callbackExecutor;
+    private InputSource inputSource;
+    private Charset captureCharset = Charset.defaultCharset();
+    private int maxCapturedBytes = 1024 * 1024;
+    private ProcessMetrics processMetrics = ProcessMetrics.noop();
+    private long timeoutMillis;
+    private long idleTimeoutMillis;
+    private long destroyGraceMillis = 5000;
+    private OutputCapture outputCapture;
+
+    /**
+     * Returns the {@link IoEngine} used to read the output streams of the process.
+     * @return The {@link IoEngine} to use.
+     */
+    public IoEngine getIoEngine() {
+        return ioEngine;
+    }
+
+    /**
+     * Sets the {@link IoEngine} used to read the output streams of the process. The default engine is
+     * {@link IoEngine#threadPerStream()}.
+     * @param ioEngine The {@link IoEngine} to use.
+     * @return This {@link ProcessOptions} instance.
+     */
+    public ProcessOptions setIoEngine(IoEngine ioEngine) {
+        ValidationUtil.checkParameterNotNull(ioEngine, "ioEngine");
+
+        this.ioEngine = ioEngine;
+
+        return this;
+    }
+
+    /**
+     * Returns the {@link InputWriter} used to write to the standard input stream of the process.
+     * @return The {@link InputWriter} to use.
+     */
+    public InputWriter getInputWriter() {
+        return inputWriter;
+    }
+
+    /**
+     * Sets the {@link InputWriter} used to write to the standard input stream of the process. The default writer is
+     * {@link InputWriter#direct()}.
+     * @param inputWriter The {@link InputWriter} to use.
+     * @return This {@link ProcessOptions} instance.
+     */
+    public ProcessOptions setInputWriter(InputWriter inputWriter) {
+        ValidationUtil.checkParameterNotNull(inputWriter, "inputWriter");
+
+        this.inputWriter = inputWriter;
+
+        return this;
+    }
+
+    /**
+     * Returns the destination of the standard output stream of the process.
+     * @return The {@link ProcessBuilder.Redirect} of the standard output stream.
+     */
+    public ProcessBuilder.Redirect getStandardOutputRedirect() {
+        return standardOutputRedirect;
+    }
+
+    /**
+     * Sets the destination of the standard output stream of the process. Only a
+     * {@link ProcessBuilder.Redirect#PIPE} gets read and passed to the process handler. Every other destination is
+     * written by the operating system, without starting a reader for the stream. The default destination is
+     * {@link ProcessBuilder.Redirect#PIPE}.
+     * @param standardOutputRedirect The destination, e.g. {@link ProcessBuilder.Redirect#to(File)},
+     *                               {@link ProcessBuilder.Redirect#appendTo(File)},
+     *                               {@link ProcessBuilder.Redirect#INHERIT} or {@link #DISCARD}.
+     * @return This {@link ProcessOptions} instance.
+     */
+    public ProcessOptions setStandardOutputRedirect(ProcessBuilder.Redirect standardOutputRedirect) {
+        checkOutputRedirect(standardOutputRedirect, "standardOutputRedirect");
+
+        this.standardOutputRedirect = standardOutputRedirect;
+
+        return this;
+    }
+
+    /**
+     * Returns the destination of the error output stream of the process.
+     * @return The {@link ProcessBuilder.Redirect} of the error output stream.
+     */
+    public ProcessBuilder.Redirect getErrorOutputRedirect() {
+        return errorOutputRedirect;
+    }
+
+    /**
+     * Sets the destination of the error output stream of the process. Only a {@link ProcessBuilder.Redirect#PIPE}
+     * gets read and passed to the process handler. Every other destination is written by the operating system,
+     * without starting a reader for the stream. The destination is ignored if the error stream gets merged into the
+     * standard output stream. The default destination is {@link ProcessBuilder.Redirect#PIPE}.
+     * @param errorOutputRedirect The destination, e.g. {@link ProcessBuilder.Redirect#to(File)},
+     *                            {@link ProcessBuilder.Redirect#appendTo(File)},
+     *                            {@link ProcessBuilder.Redirect#INHERIT} or {@link #DISCARD}.
+     * @return This {@link ProcessOptions} instance.
+     */
+    public ProcessOptions setErrorOutputRedirect(ProcessBuilder.Redirect errorOutputRedirect) {
+        checkOutputRedirect(errorOutputRedirect, "errorOutputRedirect");
+
+        this.errorOutputRedirect = errorOutputRedirect;
+
+        return this;
+    }
+
+    /**
+     * Returns true if the error output stream gets merged into the standard output stream.
+     * @return True if the error output stream gets merged.
+     */
+    public boolean isRedirectErrorStream() {
+        return redirectErrorStream;
+    }
+
+    /**
+     * Sets whether the error output stream gets merged into the standard output stream. The merged output is passed
+     * to the standard output callbacks of the process handler, or written to the destination of the standard output
+     * stream. Disabled by default.
+     * @param redirectErrorStream True to merge the error output stream into the standard output stream.
+     * @return This {@link ProcessOptions} instance.
+     */
+    public ProcessOptions setRedirectErrorStream(boolean redirectErrorStream) {
+        this.redirectErrorStream = redirectErrorStream;
+
+        return this;
+    }
+
+    /**
+     * Returns the capacity of the queue between the reader of an output stream and the process handler.
+     * @return The maximum amount of queued outputs per stream, or 0 if the handler is called by the reader.
+     */
+    public int getHandoffCapacity() {
+        return handoffCapacity;
+    }
+
+    /**
+     * Sets the capacity of the queue between the reader of an output stream and the process handler. If the capacity
+     * is greater than zero, the output of every stream is queued by its reader and passed to the handler by another
+     * thread. The handler of a process gets called by a single thread at a time, in the order of the output. A capacity
+     * of 0 disables the queue, so the handler gets called by the reader directly, unless a callback executor is set.
+     * Disabled by default.
+     * @param handoffCapacity The maximum amount of queued outputs per stream, or 0 to disable the queue.
+     * @return This {@link ProcessOptions} instance.
+     */
+    public ProcessOptions setHandoffCapacity(int handoffCapacity) {
+        if(handoffCapacity < 0)
+            throw new IllegalArgumentException("The parameter \"handoffCapacity\" can't be negative.");
+
+        this.handoffCapacity = handoffCapacity;
+
+        return this;
+    }
+
+    /**
+     * Returns the policy, which decides what happens if a handoff queue is full.
+     * @return The {@link HandoffPolicy} to use.
+     */
+    public HandoffPolicy getHandoffPolicy() {
+        return handoffPolicy;
+    }
+
+    /**
+     * Sets the policy, which decides what happens if a handoff queue is full. The default policy is
+     * {@link HandoffPolicy#BLOCK}.
+     * @param handoffPolicy The {@link HandoffPolicy} to use.
+     * @return This {@link ProcessOptions} instance.
+     */
+    public ProcessOptions setHandoffPolicy(HandoffPolicy handoffPolicy) {
+        ValidationUtil.checkParameterNotNull(handoffPolicy, "handoffPolicy");
+
+        this.handoffPolicy = handoffPolicy;
+
+        return this;
+    }
+
+    /**
+     * Returns the interval of the {@link HandoffPolicy#SAMPLE} policy.
+     * @return The interval of outputs to keep, while the queue is full.
+     */
+    public int getHandoffSampleInterval() {
+        return handoffSampleInterval;
+    }
+
+    /**
+     * Sets the interval of the {@link HandoffPolicy#SAMPLE} policy. While the queue is full, only every n-th output
+     * gets queued. The default interval is 10.
+     * @param handoffSampleInterval The interval of outputs to keep, while the queue is full.
+     * @return This {@link ProcessOptions} instance.
+     */
+    public ProcessOptions setHandoffSampleInterval(int handoffSampleInterval) {
+        if(handoffSampleInterval < 1)
+            throw new IllegalArgumentException("The parameter \"handoffSampleInterval\" must be greater than zero.");
+
+        this.handoffSampleInterval = handoffSampleInterval;
+
+        return this;
+    }
+
+    /**
+     * Returns the {@link Executor} which calls the process handler.
+     * @return The {@link Executor} to call the handler with, or null if the handler is called by the internal threads.
+     */
+    public Executor getCallbackExecutor() {
+        return callbackExecutor;
+    }
+
+    /**
+     * Sets the {@link Executor} which calls the process handler. All callbacks of a process, including
+     * {@code onInitialized}, {@code onIOException} and {@code onProcessExited}, are passed to the executor. They are
+     * called by a single thread at a time and in order, even if the executor is a pool shared by many processes. The
+     * output is passed through the handoff queues, which get a capacity of {@value ProcessDispatcher#DEFAULT_CAPACITY}
+     * if no capacity is set. If the executor rejects a task, the callbacks are called by the internal threads. By
+     * default, the handler is called by the internal threads, which read the output and detect the termination.
+     * @param callbackExecutor The {@link Executor} to call the handler with, or null to use the internal threads.
+     * @return This {@link ProcessOptions} instance.
+     */
+    public ProcessOptions setCallbackExecutor(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+
+        return this;
+    }
+
+    /**
+     * Returns the source of the standard input stream of the process.
+     * @return The {@link InputSource} to use, or null if the input is written by the process handler.
+     */
+    public InputSource getInputSource() {
+        return inputSource;
+    }
+
+    /**
+     * Sets the source of the standard input stream of the process. The standard input stream gets closed, once the end
+     * of the source was reached. The process handler must not write to the process. By default, the input is written
+     * by the process handler.
+     * @param inputSource The {@link InputSource} to use, or null to write the input with the process handler.
+     * @return This {@link ProcessOptions} instance.
+     */
+    public ProcessOptions setInputSource(InputSource inputSource) {
+        this.inputSource = inputSource;
+
+        return this;
+    }
+
+    /**
+     * Returns the charset used to decode the captured output of a {@link ProcessResult}.
+     * @return The {@link Charset} of the captured output.
+     */
+    public Charset getCaptureCharset() {
+        return captureCharset;
+    }
+
+    /**
+     * Sets the charset used to decode the captured output of a {@link ProcessResult}. The default charset is the
+     * default charset of the JVM.
+     * @param captureCharset The {@link Charset} of the captured output.
+     * @return This {@link ProcessOptions} instance.
+     */
+    public ProcessOptions setCaptureCharset(Charset captureCharset) {
+        ValidationUtil.checkParameterNotNull(captureCharset, "captureCharset");
+
+        this.captureCharset = captureCharset;
+
+        return this;
+    }
+
+    /**
+     * Returns the maximum amount of captured bytes per output stream of a {@link ProcessResult}.
+     * @return The capture limit in bytes.
+     */
+    public int getMaxCapturedBytes() {
+        return maxCapturedBytes;
+    }
+
+    /**
+     * Sets the maximum amount of captured bytes per output stream of a {@link ProcessResult}. The exceeding output is
+     * read, but discarded. The default limit is 1 MiB.
+     * @param maxCapturedBytes The capture limit in bytes.
+     * @return This {@link ProcessOptions} instance.
+     */
+    public ProcessOptions setMaxCapturedBytes(int maxCapturedBytes) {
+        if(maxCapturedBytes < 0)
+            throw new IllegalArgumentException("The parameter \"maxCapturedBytes\" can't be negative.");
+
+        this.maxCapturedBytes = maxCapturedBytes;
+
+        return this;
+    }
+
+    /**
+     * Returns the listener, which is notified about the lifecycle and the stream activity of the process.
+     * @return The {@link ProcessMetrics} to notify.
+     */
+    public ProcessMetrics getProcessMetrics() {
+        return processMetrics;
+    }
+
+    /**
+     * Sets the listener, which is notified about the lifecycle and the stream activity of the process. The same
+     * listener can be shared by many processes. By default, the metrics aren't recorded.
+     * @param processMetrics The {@link ProcessMetrics} to notify, e.g. a {@link JmxProcessMetrics} instance.
+     * @return This {@link ProcessOptions} instance.
+     */
+    public ProcessOptions setProcessMetrics(ProcessMetrics processMetrics) {
+        ValidationUtil.checkParameterNotNull(processMetrics, "processMetrics");
+
+        this.processMetrics = processMetrics;
+
+        return this;
+    }
+
+    /**
+     * Returns the maximum lifetime of the process in milliseconds.
+     * @return The lifetime timeout, or 0 if the process can run without a time limit.
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * Sets the maximum lifetime of the process in milliseconds. If the process is still running afterwards, the handler
+     * gets notified with {@link TimeoutReason#LIFETIME} and the process gets destroyed. By default, the process can
+     * run without a time limit.
+     * @param timeoutMillis The lifetime timeout, or 0 to disable the timeout.
+     * @return This {@link ProcessOptions} instance.
+     */
+    public ProcessOptions setTimeoutMillis(long timeoutMillis) {
+        if(timeoutMillis < 0)
+            throw new IllegalArgumentException("The parameter \"timeoutMillis\" can't be negative.");
+
+        this.timeoutMillis = timeoutMillis;
+
+        return this;
+    }
+
+    /**
+     * Returns the maximum time in milliseconds, the process may run without writing to its output streams.
+     * @return The idle timeout, or 0 if the process can be idle without a time limit.
+     */
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    /**
+     * Sets the maximum time in milliseconds, the process may run without writing to its output streams. If the process
+     * exceeds the timeout, the handler gets notified with {@link TimeoutReason#IDLE} and the process gets destroyed.
+     * Only the piped output streams are watched. By default, the process can be idle without a time limit.
+     * @param idleTimeoutMillis The idle timeout, or 0 to disable the timeout.
+     * @return This {@link ProcessOptions} instance.
+     */
+    public ProcessOptions setIdleTimeoutMillis(long idleTimeoutMillis) {
+        if(idleTimeoutMillis < 0)
+            throw new IllegalArgumentException("The parameter \"idleTimeoutMillis\" can't be negative.");
+
+        this.idleTimeoutMillis = idleTimeoutMillis;
+
+        return this;
+    }
+
+    /**
+     * Returns the time in milliseconds, a timed out process gets to terminate before it gets killed forcibly.
+     * @return The grace period in milliseconds.
+     */
+    public long getDestroyGraceMillis() {
+        return destroyGraceMillis;
+    }
+
+    /**
+     * Sets the time in milliseconds, a timed out process gets to terminate before it gets killed forcibly. The default
+     * grace period is 5 seconds.
+     * @param destroyGraceMillis The grace period in milliseconds, or 0 to kill the process without delay.
+     * @return This {@link ProcessOptions} instance.
+     */
+    public ProcessOptions setDestroyGraceMillis(long destroyGraceMillis) {
+        if(destroyGraceMillis < 0)
+            throw new IllegalArgumentException("The parameter \"destroyGraceMillis\" can't be negative.");
+
+        this.destroyGraceMillis = destroyGraceMillis;
+
+        return this;
+    }
+
+    /**
+     * Returns the capture, which records the output of the process in addition to the process handler.
+     * @return The {@link OutputCapture}, or null if the output isn't captured.
+     */
+    public OutputCapture getOutputCapture() {
+        return outputCapture;
+    }
+
+    /**
+     * Sets the capture, which records the output of the process in addition to the process handler. The output is
+     * captured by the readers, so it's also captured if the handoff drops outputs. By default, no output is captured.
+     * @param outputCapture The {@link OutputCapture} of a single process, e.g. a {@link TailCapture} or a
+     * {@link SpillCapture}, or null to disable the capture.
+     * @return This {@link ProcessOptions} instance.
+     */
+    public ProcessOptions setOutputCapture(OutputCapture outputCapture) {
+        this.outputCapture = outputCapture;
+
+        return this;
+    }
+
+    /**
+     * Creates a copy of these options, which can be changed without affecting the caller.
+     * @return A new {@link ProcessOptions} instance with the same settings.
+     */
+    ProcessOptions copy() {
+        ProcessOptions processOptions = new ProcessOptions();
+        processOptions.ioEngine = ioEngine;
+        processOptions.inputWriter = inputWriter;
+        processOptions.standardOutputRedirect = standardOutputRedirect;
+        processOptions.errorOutputRedirect = errorOutputRedirect;
+        processOptions.redirectErrorStream = redirectErrorStream;
+        processOptions.handoffCapacity = handoffCapacity;
+        processOptions.handoffPolicy = handoffPolicy;
+        processOptions.handoffSampleInterval = handoffSampleInterval;
+        processOptions.callbackExecutor = callbackExecutor;
+        processOptions.inputSource = inputSource;
+        processOptions.captureCharset = captureCharset;
+        processOptions.maxCapturedBytes = maxCapturedBytes;
+        processOptions.processMetrics = processMetrics;
+        processOptions.timeoutMillis = timeoutMillis;
+        processOptions.idleTimeoutMillis = idleTimeoutMillis;
+        processOptions.destroyGraceMillis = destroyGraceMillis;
+        processOptions.outputCapture = outputCapture;
+
+        return processOptions;
+    }
+
+    /**
+     * Returns the redirect of the standard input stream of the process.
+     * @return The {@link ProcessBuilder.Redirect} of the {@link InputSource}, or a pipe if no source is set.
+     */
+    ProcessBuilder.Redirect getInputSourceRedirect() {
+        return inputSource != null ? inputSource.getRedirect() : ProcessBuilder.Redirect.PIPE;
+    }
+
+    /**
+     * Returns true if the standard output stream of the process needs to be read.
+     * @return True if the standard output stream is piped to the process handler.
+     */
+    boolean isStandardOutputPiped() {
+        return standardOutputRedirect.type() == ProcessBuilder.Redirect.Type.PIPE;
+    }
+
+    /**
+     * Returns true if the error output stream of the process needs to be read.
+     * @return True if the error output stream is piped to the process handler.
+     */
+    boolean isErrorOutputPiped() {
+        return !redirectErrorStream && errorOutputRedirect.type() == ProcessBuilder.Redirect.Type.PIPE;
+    }
+
+    private static void checkOutputRedirect(ProcessBuilder.Redirect redirect, String parameterName) {
+        ValidationUtil.checkParameterNotNull(redirect, parameterName);
+
+        if(redirect.type() == ProcessBuilder.Redirect.Type.READ)
+            throw new IllegalArgumentException("The parameter \"" + parameterName + "\" must not redirect " +
+                    "from a file.");
+    }
+}
@@ -0,0 +1,142 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Class describing a pipeline of processes, similar to "a | b | c" of a shell. The standard output stream of every
+ * stage is connected to the standard input stream of the next stage, without passing through a shell. The process
+ * handler of the pipeline writes to the first stage and reads the output streams of the last stage. The error output
+ * streams of all other stages are inherited from the Java process.
+ */
+public final class ProcessPipeline {
+    /**
+     * Callback to notify a listener about the exit codes of all stages.
+     */
+    public interface PipelineExitListener {
+        /**
+         * Gets called after all stages exited, before the process handler gets notified.
+         * @param exitCodes The exit codes of all stages, in the order of the pipeline.
+         */
+        void onPipelineExited(int[] exitCodes);
+    }
+
+    private final List<Stage> stages = new ArrayList<>();
+
+    private PipelineExitListener pipelineExitListener;
+
+    /**
+     * Appends a stage to the pipeline, which uses the process directory as working directory.
+     * @param processFile The process executable.
+     * @param arguments The arguments to start the process with.
+     * @return This {@link ProcessPipeline} instance.
+     */
+    public ProcessPipeline addStage(File processFile, List<String> arguments) {
+        ValidationUtil.checkParameterNotNull(processFile, "processFile");
+
+        return addStage(processFile, processFile.getParentFile(), arguments);
+    }
+
+    /**
+     * Appends a stage to the pipeline.
+     * @param processFile The process executable.
+     * @param workingDirectory The working directory of the process to start.
+     * @param arguments The arguments to start the process with.
+     * @return This {@link ProcessPipeline} instance.
+     */
+    public ProcessPipeline addStage(File processFile, File workingDirectory, List<String> arguments) {
+        ValidationUtil.checkFileIsValid(processFile, "processFile");
+
+        stages.add(new Stage(processFile, workingDirectory,
+                arguments == null ? Collections.emptyList() : new ArrayList<>(arguments)));
+
+        return this;
+    }
+
+    /**
+     * Returns the amount of stages.
+     * @return The stage count.
+     */
+    public int getStageCount() {
+        return stages.size();
+    }
+
+    /**
+     * Returns the listener to notify about the exit codes of all stages.
+     * @return The {@link PipelineExitListener} or null.
+     */
+    public PipelineExitListener getPipelineExitListener() {
+        return pipelineExitListener;
+    }
+
+    /**
+     * Sets the listener to notify about the exit codes of all stages. The process handler only receives the exit
+     * code of the last stage.
+     * @param pipelineExitListener The {@link PipelineExitListener} or null.
+     * @return This {@link ProcessPipeline} instance.
+     */
+    public ProcessPipeline setPipelineExitListener(PipelineExitListener pipelineExitListener) {
+        this.pipelineExitListener = pipelineExitListener;
+
+        return this;
+    }
+
+    /**
+     * Creates the process builders of all stages.
+     * @param processOptions The options to start the last stage with.
+     * @return The process builders, in the order of the pipeline.
+     */
+    List<ProcessBuilder> createProcessBuilders(ProcessOptions processOptions) {
+        List<ProcessBuilder> processBuilders = new ArrayList<>(stages.size());
+
+        for(Stage stage : stages) {
+            List<String> command = new ArrayList<>(stage.arguments.size() + 1);
+            command.add(stage.processFile.getAbsolutePath());
+            command.addAll(stage.arguments);
+
+            ProcessBuilder processBuilder = new ProcessBuilder(command);
+            processBuilder.directory(stage.workingDirectory);
+            processBuilder.redirectError(ProcessBuilder.Redirect.INHERIT);
+
+            processBuilders.add(processBuilder);
+        }
+
+        processBuilders.get(0).redirectInput(processOptions.getInputSourceRedirect());
+
+        ProcessBuilder lastProcessBuilder = processBuilders.get(processBuilders.size() - 1);
+        lastProcessBuilder.redirectOutput(processOptions.getStandardOutputRedirect());
+        lastProcessBuilder.redirectError(processOptions.getErrorOutputRedirect());
+        lastProcessBuilder.redirectErrorStream(processOptions.isRedirectErrorStream());
+
+        return processBuilders;
+    }
+
+    private static final class Stage {
+        private final File processFile;
+        private final File workingDirectory;
+        private final List<String> arguments;
+
+        private Stage(File processFile, File workingDirectory, List<String> arguments) {
+            this.processFile = processFile;
+            this.workingDirectory = workingDirectory;
+            this.arguments = arguments;
+        }
+    }
+}
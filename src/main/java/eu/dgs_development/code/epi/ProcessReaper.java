@@ -0,0 +1,156 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Helper class to detect the termination of all started processes, by using a single {@link ExitWatcher} instead of
+ * a thread per process. Listeners can be added and removed at any time, while a process is watched. The listeners
+ * are notified by the threads of a cached pool, so a slow listener, e.g. a process handler which was notified about
+ * the last output, doesn't delay the termination detection of other processes.
+ */
+final class ProcessReaper {
+    /**
+     * Callback to notify a listener that the process was terminated.
+     */
+    public interface ProcessListenerCallback {
+        /**
+         * Function to notify a listener that a process was terminated.
+         * @param process The terminated process.
+         */
+        void onProcessFinished(Process process);
+    }
+
+    static final ProcessReaper INSTANCE = new ProcessReaper();
+
+    private final Map<Process, WatchedProcess> watchedProcesses = new ConcurrentHashMap<>();
+    private final ExitWatcher exitWatcher = new ExitWatcher(this::onProcessExited);
+    private final ExecutorService notificationExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread notificationThread = new Thread(ThreadCounter.track(runnable), "epi-process-exit");
+        notificationThread.setDaemon(true);
+
+        return notificationThread;
+    });
+
+    private ProcessReaper() {
+        //Ignore...
+    }
+
+    /**
+     * Starts the termination detection for the given process.
+     * @param process The process to watch.
+     * @param listener The listener to notify if the process terminated.
+     */
+    void watch(Process process, ProcessListenerCallback listener) {
+        WatchedProcess watchedProcess = new WatchedProcess();
+        watchedProcess.addListener(listener);
+
+        if(watchedProcesses.putIfAbsent(process, watchedProcess) == null) {
+            exitWatcher.watch(process);
+        }
+        else if(!addProcessListener(process, listener)) {
+            //The process terminated in the meantime.
+            listener.onProcessFinished(process);
+        }
+    }
+
+    /**
+     * Adds a process listener, to indicate the termination of a watched process.
+     * @param process The watched process.
+     * @param listener The listener to add.
+     * @return True if the listener was added. False if the process isn't watched or already terminated.
+     */
+    boolean addProcessListener(Process process, ProcessListenerCallback listener) {
+        WatchedProcess watchedProcess = watchedProcesses.get(process);
+
+        return watchedProcess != null && watchedProcess.addListener(listener);
+    }
+
+    /**
+     * Removes a process listener.
+     * @param process The watched process.
+     * @param listener The listener to remove.
+     * @return True if the listener was removed before the process termination was notified.
+     */
+    boolean removeProcessListener(Process process, ProcessListenerCallback listener) {
+        WatchedProcess watchedProcess = watchedProcesses.get(process);
+
+        return watchedProcess != null && watchedProcess.removeListener(listener);
+    }
+
+    private void onProcessExited(Process process) {
+        WatchedProcess watchedProcess = watchedProcesses.remove(process);
+
+        if(watchedProcess == null)
+            return;
+
+        List<ProcessListenerCallback> listeners = watchedProcess.takeListeners();
+
+        if(!listeners.isEmpty())
+            notificationExecutor.execute(() -> notifyListeners(process, listeners));
+    }
+
+    private static void notifyListeners(Process process, List<ProcessListenerCallback> listeners) {
+        for(ProcessListenerCallback listener : listeners) {
+            try {
+                listener.onProcessFinished(process);
+            }
+            catch (Throwable throwable) {
+                //A failing listener must not prevent the notification of other listeners and processes.
+                Thread currentThread = Thread.currentThread();
+
+                currentThread.getUncaughtExceptionHandler().uncaughtException(currentThread, throwable);
+            }
+        }
+    }
+
+    /**
+     * The listeners of a watched process. Once the listeners were taken, no listeners can be added or removed.
+     */
+    private static final class WatchedProcess {
+        private final List<ProcessListenerCallback> listeners = new ArrayList<>(1);
+        private boolean notified;
+
+        private synchronized boolean addListener(ProcessListenerCallback listener) {
+            if(notified)
+                return false;
+
+            listeners.add(listener);
+
+            return true;
+        }
+
+        private synchronized boolean removeListener(ProcessListenerCallback listener) {
+            return !notified && listeners.remove(listener);
+        }
+
+        private synchronized List<ProcessListenerCallback> takeListeners() {
+            if(notified)
+                return Collections.emptyList();
+
+            notified = true;
+
+            return listeners;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import eu.dgs_development.code.epi.handlers.base.TimeoutReason;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The captured result of a terminated process, returned by the asynchronous functions of {@link ProcessCreator} and
+ * {@link CommandLineExecutor}. The captured output of every stream is limited by
+ * {@link ProcessOptions#getMaxCapturedBytes()}. Output exceeding the limit is discarded.
+ */
+public final class ProcessResult {
+    private final int exitCode;
+    private final String standardOutput;
+    private final String errorOutput;
+    private final boolean standardOutputTruncated;
+    private final boolean errorOutputTruncated;
+    private final Instant startTime;
+    private final Duration duration;
+    private final TimeoutReason timeoutReason;
+
+    ProcessResult(int exitCode, String standardOutput, String errorOutput, boolean standardOutputTruncated,
+                  boolean errorOutputTruncated, Instant startTime, Duration duration, TimeoutReason timeoutReason) {
+        this.exitCode = exitCode;
+        this.standardOutput = standardOutput;
+        this.errorOutput = errorOutput;
+        this.standardOutputTruncated = standardOutputTruncated;
+        this.errorOutputTruncated = errorOutputTruncated;
+        this.startTime = startTime;
+        this.duration = duration;
+        this.timeoutReason = timeoutReason;
+    }
+
+    /**
+     * Returns the exit code of the process.
+     * @return The exit code.
+     */
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    /**
+     * Returns the captured standard output stream of the process.
+     * @return The captured output, decoded with {@link ProcessOptions#getCaptureCharset()}.
+     */
+    public String getStandardOutput() {
+        return standardOutput;
+    }
+
+    /**
+     * Returns the captured error output stream of the process.
+     * @return The captured output, decoded with {@link ProcessOptions#getCaptureCharset()}.
+     */
+    public String getErrorOutput() {
+        return errorOutput;
+    }
+
+    /**
+     * Returns true if the standard output stream exceeded the capture limit.
+     * @return True if output of the standard output stream was discarded.
+     */
+    public boolean isStandardOutputTruncated() {
+        return standardOutputTruncated;
+    }
+
+    /**
+     * Returns true if the error output stream exceeded the capture limit.
+     * @return True if output of the error output stream was discarded.
+     */
+    public boolean isErrorOutputTruncated() {
+        return errorOutputTruncated;
+    }
+
+    /**
+     * Returns the time the process was started.
+     * @return The start time.
+     */
+    public Instant getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Returns the time from the start of the process, until it terminated and its output streams were read.
+     * @return The duration of the process.
+     */
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * Returns the reason, why the process was destroyed by a timeout of its process options.
+     * @return The {@link TimeoutReason}, or null if the process didn't exceed a timeout.
+     */
+    public TimeoutReason getTimeoutReason() {
+        return timeoutReason;
+    }
+}
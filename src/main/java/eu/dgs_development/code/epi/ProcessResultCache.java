@@ -0,0 +1,396 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * An opt-in cache for the results of idempotent processes, e.g. version probes or media inspections, which are
+ * started repeatedly with the same arguments. A result is identified by the executable, the arguments, the working
+ * directory, the capture settings and fingerprints of the given input files. Concurrent calls with the same key share
+ * a single process, so only the first call starts a child and all callers receive its result. Only results of
+ * processes, which terminated with exit code 0 and without a timeout, are cached. The least recently used results
+ * are evicted once the memory bound is exceeded, and results expire after the configured time to live.
+ * <p>
+ * Processes whose standard input is transferred from a stream or channel, whose output streams aren't piped or which
+ * use an {@link OutputCapture} bypass the cache, because their effects can't be replayed. The environment isn't part
+ * of the key, because all processes inherit the environment of the JVM. Cancelling a returned future doesn't kill a
+ * shared process, its result is still cached for later calls.
+ */
+public final class ProcessResultCache {
+    private static final long ENTRY_OVERHEAD_BYTES = 128;
+    private static final int HASH_BUFFER_SIZE = 65536;
+
+    private final ProcessResultCacheOptions processResultCacheOptions;
+
+    //Guarded by this.
+    private final LinkedHashMap<List<String>, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<List<String>, CompletableFuture<ProcessResult>> inFlightResults = new HashMap<>();
+    private long sizeBytes;
+    private long generation;
+    private long hitCount;
+    private long missCount;
+    private long coalescedCount;
+
+    /**
+     * Creates a new {@link ProcessResultCache} instance.
+     * @param processResultCacheOptions The settings of the cache, or null to use the default settings.
+     */
+    public ProcessResultCache(ProcessResultCacheOptions processResultCacheOptions) {
+        this.processResultCacheOptions = processResultCacheOptions == null ? new ProcessResultCacheOptions() :
+                processResultCacheOptions.copy();
+    }
+
+    /**
+     * Returns the cached result of the process, or starts the process and captures its output. If the same process is
+     * already running for another call, its result is shared instead of starting a second process.
+     * @param processFile The process executable.
+     * @param workingDirectory The working directory of the process to start.
+     * @param arguments The arguments to start the process with.
+     * @param processOptions The options to start the process with, or null to use the default options.
+     * @param inputFiles The files the process reads, whose fingerprints are part of the key, or null.
+     * @return A {@link CompletableFuture}, which is completed with the {@link ProcessResult}. It fails with an
+     * {@link IOException} if the process couldn't be started or read, or an input file couldn't be hashed.
+     */
+    public CompletableFuture<ProcessResult> startProcessAsync(File processFile, File workingDirectory,
+                                                              List<String> arguments, ProcessOptions processOptions,
+                                                              List<File> inputFiles) {
+        ValidationUtil.checkParameterNotNull(processFile, "processFile");
+
+        if(!isCacheable(processOptions))
+            return ProcessCreator.startProcessAsync(processFile, workingDirectory, arguments, processOptions);
+
+        List<String> key;
+
+        try {
+            key = createKey(processFile, workingDirectory, arguments, processOptions, inputFiles);
+        }
+        catch (IOException ioException) {
+            CompletableFuture<ProcessResult> failedFuture = new CompletableFuture<>();
+            failedFuture.completeExceptionally(ioException);
+
+            return failedFuture;
+        }
+
+        CompletableFuture<ProcessResult> sharedFuture;
+        long startGeneration;
+
+        synchronized (this) {
+            CacheEntry cacheEntry = entries.get(key);
+
+            if(cacheEntry != null && !cacheEntry.isExpired(System.nanoTime())) {
+                hitCount++;
+
+                return CompletableFuture.completedFuture(cacheEntry.processResult);
+            }
+
+            if(cacheEntry != null)
+                removeEntry(key);
+
+            CompletableFuture<ProcessResult> inFlightResult = inFlightResults.get(key);
+
+            if(inFlightResult != null) {
+                coalescedCount++;
+
+                return inFlightResult.thenApply(Function.identity());
+            }
+
+            missCount++;
+
+            sharedFuture = new CompletableFuture<>();
+            startGeneration = generation;
+
+            inFlightResults.put(key, sharedFuture);
+        }
+
+        //The process is started outside the lock, so different keys don't wait for each other.
+        CompletableFuture<ProcessResult> processFuture;
+
+        try {
+            processFuture = ProcessCreator.startProcessAsync(processFile, workingDirectory, arguments,
+                    processOptions);
+        }
+        catch (RuntimeException runtimeException) {
+            complete(key, startGeneration, sharedFuture, null, runtimeException);
+
+            throw runtimeException;
+        }
+
+        processFuture.whenComplete((processResult, throwable) ->
+                complete(key, startGeneration, sharedFuture, processResult, throwable));
+
+        //Every caller gets a dependent future, so cancelling it doesn't affect the other callers.
+        return sharedFuture.thenApply(Function.identity());
+    }
+
+    /**
+     * Returns the cached result of the command, or executes the command for a given {@see CommandLineType} and
+     * captures its output. If the same command is already running for another call, its result is shared.
+     * @param commandLineType The command line type.
+     * @param workingDirectory The working directory for the command line.
+     * @param command The command to execute.
+     * @param arguments The arguments for the command.
+     * @param processOptions The options to start the command line with, or null to use the default options.
+     * @param inputFiles The files the command reads, whose fingerprints are part of the key, or null.
+     * @return A {@link CompletableFuture}, which is completed with the {@link ProcessResult}.
+     */
+    public CompletableFuture<ProcessResult> executeCommandAsync(CommandLineExecutor.CommandLineType commandLineType,
+                                                                File workingDirectory, String command,
+                                                                List<String> arguments, ProcessOptions processOptions,
+                                                                List<File> inputFiles) {
+        return startProcessAsync(
+                commandLineType.getProcessFile(),
+                workingDirectory,
+                CommandLineExecutor.createCommandArguments(
+                        commandLineType,
+                        command,
+                        arguments),
+                processOptions,
+                inputFiles);
+    }
+
+    /**
+     * Removes all cached results. Results of processes, which are still running, aren't cached anymore.
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+        sizeBytes = 0;
+        generation++;
+    }
+
+    /**
+     * Returns the amount of cached results, including expired results which weren't requested again.
+     * @return The amount of cached results.
+     */
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the estimated amount of bytes, the cached results occupy.
+     * @return The estimated size of the cache.
+     */
+    public synchronized long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    /**
+     * Returns the amount of calls, which were answered by a cached result.
+     * @return The amount of cache hits.
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the amount of calls, which started a process.
+     * @return The amount of cache misses.
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the amount of calls, which shared the process of a concurrent call.
+     * @return The amount of coalesced calls.
+     */
+    public synchronized long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    private void complete(List<String> key, long startGeneration, CompletableFuture<ProcessResult> sharedFuture,
+                          ProcessResult processResult, Throwable throwable) {
+        synchronized (this) {
+            inFlightResults.remove(key, sharedFuture);
+
+            //The result is cached before the callers are notified, so a subsequent call gets a cache hit.
+            if(throwable == null && startGeneration == generation && processResult.getExitCode() == 0 &&
+                    processResult.getTimeoutReason() == null)
+                putEntry(key, processResult);
+        }
+
+        if(throwable != null)
+            sharedFuture.completeExceptionally(throwable);
+        else
+            sharedFuture.complete(processResult);
+    }
+
+    private void putEntry(List<String> key, ProcessResult processResult) {
+        long entrySizeBytes = estimateSize(key, processResult);
+
+        if(entrySizeBytes > processResultCacheOptions.getMaxBytes())
+            return;
+
+        long timeToLiveMillis = processResultCacheOptions.getTimeToLiveMillis();
+        long expirationNanos = timeToLiveMillis == 0 ? 0 :
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeToLiveMillis);
+
+        removeEntry(key);
+
+        entries.put(key, new CacheEntry(processResult, entrySizeBytes, expirationNanos));
+        sizeBytes += entrySizeBytes;
+
+        //The iteration order of the map is the access order, so the least recently used results are evicted first.
+        Iterator<CacheEntry> iterator = entries.values().iterator();
+
+        while (sizeBytes > processResultCacheOptions.getMaxBytes() && iterator.hasNext()) {
+            sizeBytes -= iterator.next().sizeBytes;
+
+            iterator.remove();
+        }
+    }
+
+    private void removeEntry(List<String> key) {
+        CacheEntry cacheEntry = entries.remove(key);
+
+        if(cacheEntry != null)
+            sizeBytes -= cacheEntry.sizeBytes;
+    }
+
+    private static boolean isCacheable(ProcessOptions processOptions) {
+        if(processOptions == null)
+            return true;
+
+        InputSource inputSource = processOptions.getInputSource();
+
+        if(inputSource != null && inputSource.getFile() == null)
+            return false;
+
+        if(processOptions.getOutputCapture() != null)
+            return false;
+
+        if(processOptions.getStandardOutputRedirect() != ProcessBuilder.Redirect.PIPE)
+            return false;
+
+        return processOptions.isRedirectErrorStream() ||
+                processOptions.getErrorOutputRedirect() == ProcessBuilder.Redirect.PIPE;
+    }
+
+    private List<String> createKey(File processFile, File workingDirectory, List<String> arguments,
+                                   ProcessOptions processOptions, List<File> inputFiles) throws IOException {
+        List<String> key = new ArrayList<>();
+        key.add(processFile.getAbsolutePath());
+        key.add(workingDirectory != null ? workingDirectory.getAbsolutePath() : "");
+
+        //Missing options are equal to the default options.
+        ProcessOptions keyOptions = processOptions != null ? processOptions : new ProcessOptions();
+        InputSource inputSource = keyOptions.getInputSource();
+
+        key.add(keyOptions.getCaptureCharset().name());
+        key.add(String.valueOf(keyOptions.getMaxCapturedBytes()));
+        key.add(String.valueOf(keyOptions.isRedirectErrorStream()));
+        key.add(inputSource != null ? createFingerprint(inputSource.getFile()) : "");
+
+        List<String> processArguments = arguments != null ? arguments : Collections.emptyList();
+        key.add(String.valueOf(processArguments.size()));
+        key.addAll(processArguments);
+
+        if(inputFiles != null) {
+            for(File inputFile : inputFiles) {
+                ValidationUtil.checkParameterNotNull(inputFile, "inputFile");
+
+                key.add(createFingerprint(inputFile));
+            }
+        }
+
+        return Collections.unmodifiableList(key);
+    }
+
+    private String createFingerprint(File file) throws IOException {
+        String path = file.getAbsolutePath();
+
+        if(!file.exists())
+            return path + ":missing";
+
+        //Devices, e.g. the null device of an empty input source, change their modification time on every write.
+        if(!file.isFile() && !file.isDirectory())
+            return path + ":special";
+
+        if(processResultCacheOptions.isHashInputFiles() && file.isFile())
+            return path + ":" + hashFile(file);
+
+        return path + ":" + file.length() + ":" + file.lastModified();
+    }
+
+    private static String hashFile(File file) throws IOException {
+        MessageDigest messageDigest;
+
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException noSuchAlgorithmException) {
+            throw new IllegalStateException("SHA-256 isn't supported.", noSuchAlgorithmException);
+        }
+
+        try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer byteBuffer = ByteBuffer.allocate(HASH_BUFFER_SIZE);
+
+            while (fileChannel.read(byteBuffer) >= 0) {
+                byteBuffer.flip();
+                messageDigest.update(byteBuffer);
+                byteBuffer.clear();
+            }
+        }
+
+        return Base64.getEncoder().encodeToString(messageDigest.digest());
+    }
+
+    private static long estimateSize(List<String> key, ProcessResult processResult) {
+        long characters = processResult.getStandardOutput().length() + processResult.getErrorOutput().length();
+
+        for(String part : key)
+            characters += part.length();
+
+        //A char occupies two bytes, the overhead covers the result, the entry and the key list.
+        return ENTRY_OVERHEAD_BYTES + 2 * characters;
+    }
+
+    /**
+     * A cached result.
+     */
+    private static final class CacheEntry {
+        private final ProcessResult processResult;
+        private final long sizeBytes;
+        private final long expirationNanos;
+
+        private CacheEntry(ProcessResult processResult, long sizeBytes, long expirationNanos) {
+            this.processResult = processResult;
+            this.sizeBytes = sizeBytes;
+            this.expirationNanos = expirationNanos;
+        }
+
+        private boolean isExpired(long nowNanos) {
+            return expirationNanos != 0 && nowNanos - expirationNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+/**
+ * Class containing the settings of a {@link ProcessResultCache}. A new instance contains the default settings. The
+ * settings are copied when a cache is created, so an instance can be reused.
+ */
+public final class ProcessResultCacheOptions {
+    /**
+     * The default amount of bytes, the cached results may occupy (16 MiB).
+     */
+    public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    private long maxBytes = DEFAULT_MAX_BYTES;
+    private long timeToLiveMillis;
+    private boolean hashInputFiles;
+
+    /**
+     * Returns the estimated amount of bytes, the cached results may occupy.
+     * @return The memory bound of the cache.
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Sets the estimated amount of bytes, the cached results may occupy. The least recently used results are evicted,
+     * once the bound is exceeded. A result, which exceeds the bound on its own, isn't cached. The default bound is
+     * {@link #DEFAULT_MAX_BYTES}.
+     * @param maxBytes The memory bound of the cache.
+     * @return This {@link ProcessResultCacheOptions} instance.
+     */
+    public ProcessResultCacheOptions setMaxBytes(long maxBytes) {
+        if(maxBytes <= 0)
+            throw new IllegalArgumentException("The parameter \"maxBytes\" must be greater than zero.");
+
+        this.maxBytes = maxBytes;
+
+        return this;
+    }
+
+    /**
+     * Returns the time in milliseconds, a result stays valid after the process terminated.
+     * @return The time to live, or 0 if results stay valid until they get evicted.
+     */
+    public long getTimeToLiveMillis() {
+        return timeToLiveMillis;
+    }
+
+    /**
+     * Sets the time in milliseconds, a result stays valid after the process terminated. An expired result gets
+     * replaced by starting the process again. By default, results stay valid until they get evicted.
+     * @param timeToLiveMillis The time to live, or 0 to keep results until they get evicted.
+     * @return This {@link ProcessResultCacheOptions} instance.
+     */
+    public ProcessResultCacheOptions setTimeToLiveMillis(long timeToLiveMillis) {
+        if(timeToLiveMillis < 0)
+            throw new IllegalArgumentException("The parameter \"timeToLiveMillis\" can't be negative.");
+
+        this.timeToLiveMillis = timeToLiveMillis;
+
+        return this;
+    }
+
+    /**
+     * Returns true if the content of input files is hashed.
+     * @return True if input files are fingerprinted by a hash of their content.
+     */
+    public boolean isHashInputFiles() {
+        return hashInputFiles;
+    }
+
+    /**
+     * Sets whether input files are fingerprinted by a SHA-256 hash of their content, instead of their size and time
+     * of the last modification. Hashing detects changes, which keep the size and the modification time, but reads
+     * every input file on each call. By default, input files aren't hashed.
+     * @param hashInputFiles True to hash the content of input files.
+     * @return This {@link ProcessResultCacheOptions} instance.
+     */
+    public ProcessResultCacheOptions setHashInputFiles(boolean hashInputFiles) {
+        this.hashInputFiles = hashInputFiles;
+
+        return this;
+    }
+
+    /**
+     * Creates a copy of these options, which can be changed without affecting the caller.
+     * @return A new {@link ProcessResultCacheOptions} instance with the same settings.
+     */
+    ProcessResultCacheOptions copy() {
+        ProcessResultCacheOptions processResultCacheOptions = new ProcessResultCacheOptions();
+        processResultCacheOptions.maxBytes = maxBytes;
+        processResultCacheOptions.timeToLiveMillis = timeToLiveMillis;
+        processResultCacheOptions.hashInputFiles = hashInputFiles;
+
+        return processResultCacheOptions;
+    }
+}
@@ -0,0 +1,323 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import eu.dgs_development.code.epi.handlers.base.ProcessHandler;
+import eu.dgs_development.code.epi.handlers.binary.BinaryProcessHandler;
+import eu.dgs_development.code.epi.handlers.binary.PooledBinaryProcessHandler;
+import eu.dgs_development.code.epi.handlers.nio.ByteBufferProcessHandler;
+import eu.dgs_development.code.epi.handlers.text.TextProcessHandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Front-end of {@link ProcessCreator} and {@link CommandLineExecutor}, which limits the amount of concurrently running
+ * processes. Every process has a tag, which can have its own limit, and a priority. Processes which can't be started
+ * immediately wait in a queue, ordered by their priority and their submission, or get rejected according to the
+ * {@link AdmissionPolicy}. A rejected process is notified by the {@link ProcessHandler#onIOException(IOException)}
+ * function of its handler. A slot is released once the process terminated or couldn't be started.
+ */
+public final class ProcessScheduler {
+    private static final Comparator<ScheduledProcess> QUEUE_ORDER = Comparator
+            .comparingInt((ScheduledProcess scheduledProcess) -> scheduledProcess.priority).reversed()
+            .thenComparingLong(scheduledProcess -> scheduledProcess.sequence);
+
+    private final int maxRunningProcesses;
+    private final int maxQueuedProcesses;
+    private final AdmissionPolicy admissionPolicy;
+    private final Map<String, Integer> tagLimits;
+
+    //Guarded by this.
+    private final TreeSet<ScheduledProcess> queuedProcesses = new TreeSet<>(QUEUE_ORDER);
+    private final Map<String, Integer> runningProcessesByTag = new HashMap<>();
+    private int runningProcesses;
+    private long sequence;
+    private long startedProcesses;
+    private long rejectedProcesses;
+    private long totalQueueWaitNanos;
+    private long maxQueueWaitNanos;
+
+    /**
+     * Creates a new {@link ProcessScheduler} instance.
+     * @param processSchedulerOptions The settings of the scheduler, or null to use the default settings.
+     */
+    public ProcessScheduler(ProcessSchedulerOptions processSchedulerOptions) {
+        if(processSchedulerOptions == null)
+            processSchedulerOptions = new ProcessSchedulerOptions();
+
+        this.maxRunningProcesses = processSchedulerOptions.getMaxRunningProcesses();
+        this.maxQueuedProcesses = processSchedulerOptions.getMaxQueuedProcesses();
+        this.admissionPolicy = processSchedulerOptions.getAdmissionPolicy();
+        this.tagLimits = new HashMap<>(processSchedulerOptions.getTagLimits());
+    }
+
+    /**
+     * Starts a new process, once the limits of the scheduler allow it.
+     * @param tag The tag of the process, e.g. the name of the tool.
+     * @param priority The priority of the process. Waiting processes with a higher priority are started first.
+     * @param processFile The process executable.
+     * @param workingDirectory The working directory of the process.
+     * @param arguments The arguments to start the process with.
+     * @param processOptions The options to start the process with, or null to use the default options.
+     * @param processHandler The handler to handle all process interactions. Every handler type of
+     *                       {@link ProcessCreator} is supported.
+     */
+    public void startProcess(String tag, int priority, File processFile, File workingDirectory, List<String> arguments,
+                             ProcessOptions processOptions, ProcessHandler processHandler) {
+        ValidationUtil.checkParameterNotNull(tag, "tag");
+        ValidationUtil.checkFileIsValid(processFile, "processFile");
+        checkProcessHandler(processHandler);
+
+        schedule(new ScheduledProcess(tag, priority, processFile, workingDirectory, arguments, processOptions,
+                processHandler));
+    }
+
+    /**
+     * Executes a command for a given {@link CommandLineExecutor.CommandLineType}, once the limits of the scheduler
+     * allow it.
+     * @param tag The tag of the process, e.g. the name of the tool.
+     * @param priority The priority of the process. Waiting processes with a higher priority are started first.
+     * @param commandLineType The command line type.
+     * @param workingDirectory The working directory for the command line.
+     * @param command The command to execute.
+     * @param arguments The arguments for the command.
+     * @param processOptions The options to start the command line with, or null to use the default options.
+     * @param processHandler The handler to handle the command line interactions. Every handler type of
+     *                       {@link CommandLineExecutor} is supported.
+     */
+    public void executeCommand(String tag, int priority, CommandLineExecutor.CommandLineType commandLineType,
+                               File workingDirectory, String command, List<String> arguments,
+                               ProcessOptions processOptions, ProcessHandler processHandler) {
+        ValidationUtil.checkParameterNotNull(commandLineType, "commandLineType");
+
+        startProcess(tag, priority, commandLineType.getProcessFile(), workingDirectory,
+                CommandLineExecutor.createCommandArguments(commandLineType, command, arguments), processOptions,
+                processHandler);
+    }
+
+    /**
+     * Returns the amount of running processes of all tags.
+     * @return The amount of running processes.
+     */
+    public synchronized int getRunningProcessCount() {
+        return runningProcesses;
+    }
+
+    /**
+     * Returns the amount of running processes with the given tag.
+     * @param tag The tag of the processes.
+     * @return The amount of running processes with the tag.
+     */
+    public synchronized int getRunningProcessCount(String tag) {
+        return runningProcessesByTag.getOrDefault(tag, 0);
+    }
+
+    /**
+     * Returns the amount of processes, which wait for a free slot.
+     * @return The amount of waiting processes.
+     */
+    public synchronized int getQueuedProcessCount() {
+        return queuedProcesses.size();
+    }
+
+    /**
+     * Returns the amount of processes, which were started by the scheduler.
+     * @return The amount of started processes.
+     */
+    public synchronized long getStartedProcessCount() {
+        return startedProcesses;
+    }
+
+    /**
+     * Returns the amount of processes, which were rejected by the scheduler.
+     * @return The amount of rejected processes.
+     */
+    public synchronized long getRejectedProcessCount() {
+        return rejectedProcesses;
+    }
+
+    /**
+     * Returns the average time the started processes waited in the queue. Immediately started processes count as
+     * zero.
+     * @return The average queue wait time in milliseconds.
+     */
+    public synchronized double getAverageQueueWaitMillis() {
+        return startedProcesses == 0 ? 0 : (double) totalQueueWaitNanos / startedProcesses / 1_000_000;
+    }
+
+    /**
+     * Returns the longest time a started process waited in the queue.
+     * @return The maximum queue wait time in milliseconds.
+     */
+    public synchronized long getMaxQueueWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxQueueWaitNanos);
+    }
+
+    private void schedule(ScheduledProcess scheduledProcess) {
+        ScheduledProcess rejectedProcess = null;
+        boolean startProcess = false;
+
+        synchronized (this) {
+            scheduledProcess.sequence = sequence++;
+
+            if(canStart(scheduledProcess.tag)) {
+                acquireSlot(scheduledProcess);
+
+                startProcess = true;
+            }
+            else if(admissionPolicy == AdmissionPolicy.REJECT) {
+                rejectedProcess = scheduledProcess;
+            }
+            else if(queuedProcesses.size() < maxQueuedProcesses) {
+                queuedProcesses.add(scheduledProcess);
+            }
+            else if(admissionPolicy == AdmissionPolicy.DISPLACE_LOWEST_PRIORITY && !queuedProcesses.isEmpty() &&
+                    queuedProcesses.last().priority < scheduledProcess.priority) {
+                rejectedProcess = queuedProcesses.pollLast();
+
+                queuedProcesses.add(scheduledProcess);
+            }
+            else {
+                rejectedProcess = scheduledProcess;
+            }
+
+            if(rejectedProcess != null)
+                rejectedProcesses++;
+        }
+
+        if(rejectedProcess != null) {
+            rejectedProcess.processHandler.onIOException(new IOException("The process \"" + rejectedProcess.tag +
+                    "\" was rejected by the scheduler."));
+        }
+
+        if(startProcess)
+            start(scheduledProcess);
+    }
+
+    private void start(ScheduledProcess scheduledProcess) {
+        try {
+            ProcessCreator.startProcess(scheduledProcess.processFile, scheduledProcess.workingDirectory,
+                    scheduledProcess.arguments, scheduledProcess.processOptions, scheduledProcess.processHandler,
+                    () -> onProcessFinished(scheduledProcess.tag));
+        }
+        catch (RuntimeException runtimeException) {
+            onProcessFinished(scheduledProcess.tag);
+
+            throw runtimeException;
+        }
+    }
+
+    private void onProcessFinished(String tag) {
+        List<ScheduledProcess> startableProcesses = new ArrayList<>();
+
+        synchronized (this) {
+            runningProcesses--;
+            runningProcessesByTag.merge(tag, -1, Integer::sum);
+
+            //A process blocked by the limit of its tag must not block processes with other tags.
+            Iterator<ScheduledProcess> queueIterator = queuedProcesses.iterator();
+
+            while (queueIterator.hasNext() && runningProcesses < maxRunningProcesses) {
+                ScheduledProcess queuedProcess = queueIterator.next();
+
+                if(canStart(queuedProcess.tag)) {
+                    queueIterator.remove();
+
+                    acquireSlot(queuedProcess);
+
+                    startableProcesses.add(queuedProcess);
+                }
+            }
+        }
+
+        for(ScheduledProcess startableProcess : startableProcesses) {
+            try {
+                start(startableProcess);
+            }
+            catch (Throwable throwable) {
+                //A process failing to start must not prevent the start of the other processes.
+                Thread currentThread = Thread.currentThread();
+
+                currentThread.getUncaughtExceptionHandler().uncaughtException(currentThread, throwable);
+            }
+        }
+    }
+
+    //Must be called while holding the lock.
+    private boolean canStart(String tag) {
+        return runningProcesses < maxRunningProcesses &&
+                runningProcessesByTag.getOrDefault(tag, 0) < tagLimits.getOrDefault(tag, Integer.MAX_VALUE);
+    }
+
+    //Must be called while holding the lock.
+    private void acquireSlot(ScheduledProcess scheduledProcess) {
+        runningProcesses++;
+        runningProcessesByTag.merge(scheduledProcess.tag, 1, Integer::sum);
+
+        long queueWaitNanos = System.nanoTime() - scheduledProcess.submissionNanos;
+
+        startedProcesses++;
+        totalQueueWaitNanos += queueWaitNanos;
+        maxQueueWaitNanos = Math.max(maxQueueWaitNanos, queueWaitNanos);
+    }
+
+    private static void checkProcessHandler(ProcessHandler processHandler) {
+        ValidationUtil.checkParameterNotNull(processHandler, "processHandler");
+
+        if(!(processHandler instanceof TextProcessHandler) && !(processHandler instanceof BinaryProcessHandler) &&
+                !(processHandler instanceof PooledBinaryProcessHandler) &&
+                !(processHandler instanceof ByteBufferProcessHandler))
+            throw new IllegalArgumentException("The parameter \"processHandler\" has an unsupported type.");
+    }
+
+    /**
+     * A process, which waits for a free slot.
+     */
+    private static final class ScheduledProcess {
+        private final String tag;
+        private final int priority;
+        private final File processFile;
+        private final File workingDirectory;
+        private final List<String> arguments;
+        private final ProcessOptions processOptions;
+        private final ProcessHandler processHandler;
+        private final long submissionNanos = System.nanoTime();
+
+        //Assigned while holding the lock of the scheduler.
+        private long sequence;
+
+        private ScheduledProcess(String tag, int priority, File processFile, File workingDirectory,
+                                 List<String> arguments, ProcessOptions processOptions,
+                                 ProcessHandler processHandler) {
+            this.tag = tag;
+            this.priority = priority;
+            this.processFile = processFile;
+            this.workingDirectory = workingDirectory;
+            this.arguments = arguments;
+            this.processOptions = processOptions;
+            this.processHandler = processHandler;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class containing the settings of a {@link ProcessScheduler}. A new instance contains the default settings. The
+ * settings are copied when a scheduler is created, so an instance can be reused for several schedulers.
+ */
+public final class ProcessSchedulerOptions {
+    private int maxRunningProcesses = Runtime.getRuntime().availableProcessors();
+    private int maxQueuedProcesses = 10000;
+    private AdmissionPolicy admissionPolicy = AdmissionPolicy.QUEUE;
+    private final Map<String, Integer> tagLimits = new HashMap<>();
+
+    /**
+     * Returns the maximum amount of concurrently running processes of all tags.
+     * @return The global concurrency limit.
+     */
+    public int getMaxRunningProcesses() {
+        return maxRunningProcesses;
+    }
+
+    /**
+     * Sets the maximum amount of concurrently running processes of all tags. The default limit is the amount of
+     * available processors.
+     * @param maxRunningProcesses The global concurrency limit.
+     * @return This {@link ProcessSchedulerOptions} instance.
+     */
+    public ProcessSchedulerOptions setMaxRunningProcesses(int maxRunningProcesses) {
+        if(maxRunningProcesses < 1)
+            throw new IllegalArgumentException("The parameter \"maxRunningProcesses\" must be greater than zero.");
+
+        this.maxRunningProcesses = maxRunningProcesses;
+
+        return this;
+    }
+
+    /**
+     * Returns the maximum amount of processes, which wait for a free slot.
+     * @return The capacity of the queue.
+     */
+    public int getMaxQueuedProcesses() {
+        return maxQueuedProcesses;
+    }
+
+    /**
+     * Sets the maximum amount of processes, which wait for a free slot. The default capacity is 10000.
+     * @param maxQueuedProcesses The capacity of the queue.
+     * @return This {@link ProcessSchedulerOptions} instance.
+     */
+    public ProcessSchedulerOptions setMaxQueuedProcesses(int maxQueuedProcesses) {
+        if(maxQueuedProcesses < 0)
+            throw new IllegalArgumentException("The parameter \"maxQueuedProcesses\" can't be negative.");
+
+        this.maxQueuedProcesses = maxQueuedProcesses;
+
+        return this;
+    }
+
+    /**
+     * Returns the policy, which decides what happens to a process that can't be started immediately.
+     * @return The {@link AdmissionPolicy} to use.
+     */
+    public AdmissionPolicy getAdmissionPolicy() {
+        return admissionPolicy;
+    }
+
+    /**
+     * Sets the policy, which decides what happens to a process that can't be started immediately. The default policy
+     * is {@link AdmissionPolicy#QUEUE}.
+     * @param admissionPolicy The {@link AdmissionPolicy} to use.
+     * @return This {@link ProcessSchedulerOptions} instance.
+     */
+    public ProcessSchedulerOptions setAdmissionPolicy(AdmissionPolicy admissionPolicy) {
+        ValidationUtil.checkParameterNotNull(admissionPolicy, "admissionPolicy");
+
+        this.admissionPolicy = admissionPolicy;
+
+        return this;
+    }
+
+    /**
+     * Returns the maximum amount of concurrently running processes with the given tag.
+     * @param tag The tag of the processes.
+     * @return The concurrency limit of the tag, or {@link Integer#MAX_VALUE} if only the global limit applies.
+     */
+    public int getTagLimit(String tag) {
+        return tagLimits.getOrDefault(tag, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Sets the maximum amount of concurrently running processes with the given tag, e.g. to limit expensive tools
+     * separately. Tags without a limit are only limited by the global limit.
+     * @param tag The tag of the processes.
+     * @param maxRunningProcesses The concurrency limit of the tag.
+     * @return This {@link ProcessSchedulerOptions} instance.
+     */
+    public ProcessSchedulerOptions setTagLimit(String tag, int maxRunningProcesses) {
+        ValidationUtil.checkParameterNotNull(tag, "tag");
+
+        if(maxRunningProcesses < 1)
+            throw new IllegalArgumentException("The parameter \"maxRunningProcesses\" must be greater than zero.");
+
+        tagLimits.put(tag, maxRunningProcesses);
+
+        return this;
+    }
+
+    Map<String, Integer> getTagLimits() {
+        return tagLimits;
+    }
+}
@@ -0,0 +1,229 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import eu.dgs_development.code.epi.handlers.base.TimeoutReason;
+import eu.dgs_development.code.epi.handlers.binary.PooledBuffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Helper class to enforce the lifetime and idle timeouts of a single process with the shared {@link TimerWheel}. The
+ * idle timeout isn't rescheduled for every output. Instead, the time of the last output is recorded and checked once
+ * the timeout expires. An exceeded timeout is reported, before the process gets destroyed and killed forcibly after
+ * the grace period.
+ */
+final class ProcessWatchdog {
+    /**
+     * Callback to notify the handler about an exceeded timeout.
+     */
+    interface TimeoutCallback {
+        /**
+         * Function to notify the handler about an exceeded timeout, before the process gets destroyed.
+         * @param timeoutReason The {@link TimeoutReason} of the exceeded timeout.
+         */
+        void onTimeout(TimeoutReason timeoutReason);
+    }
+
+    private final Process process;
+    private final TimeoutCallback timeoutCallback;
+    private final long idleTimeoutNanos;
+    private final long destroyGraceNanos;
+
+    private volatile long lastOutputNanos = System.nanoTime();
+    private volatile boolean finished;
+
+    private TimerWheel.Timeout lifetimeTimeout;
+    private TimerWheel.Timeout idleTimeout;
+    private TimerWheel.Timeout graceTimeout;
+
+    private ProcessWatchdog(Process process, ProcessOptions processOptions, TimeoutCallback timeoutCallback) {
+        this.process = process;
+        this.timeoutCallback = timeoutCallback;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(processOptions.getIdleTimeoutMillis());
+        this.destroyGraceNanos = TimeUnit.MILLISECONDS.toNanos(processOptions.getDestroyGraceMillis());
+    }
+
+    /**
+     * Starts the timeouts of a process. If no timeout is configured, nothing gets scheduled.
+     * @param process The started process.
+     * @param processOptions The options containing the timeouts.
+     * @param timeoutCallback The callback to notify about an exceeded timeout.
+     * @return The started {@link ProcessWatchdog}.
+     */
+    static ProcessWatchdog start(Process process, ProcessOptions processOptions, TimeoutCallback timeoutCallback) {
+        ProcessWatchdog processWatchdog = new ProcessWatchdog(process, processOptions, timeoutCallback);
+
+        synchronized (processWatchdog) {
+            if(processOptions.getTimeoutMillis() > 0) {
+                processWatchdog.lifetimeTimeout = TimerWheel.INSTANCE.schedule(() ->
+                        processWatchdog.expire(TimeoutReason.LIFETIME),
+                        TimeUnit.MILLISECONDS.toNanos(processOptions.getTimeoutMillis()));
+            }
+
+            if(processWatchdog.idleTimeoutNanos > 0) {
+                processWatchdog.idleTimeout = TimerWheel.INSTANCE.schedule(processWatchdog::checkIdle,
+                        processWatchdog.idleTimeoutNanos);
+            }
+        }
+
+        return processWatchdog;
+    }
+
+    /**
+     * Cancels all timeouts, because the process terminated.
+     */
+    synchronized void cancel() {
+        finished = true;
+
+        cancel(lifetimeTimeout);
+        cancel(idleTimeout);
+        cancel(graceTimeout);
+    }
+
+    StreamTextReader.StreamCallback watch(StreamTextReader.StreamCallback streamCallback) {
+        if(idleTimeoutNanos == 0)
+            return streamCallback;
+
+        return new StreamTextReader.StreamCallback() {
+            @Override
+            public void onIOException(IOException ioException) {
+                streamCallback.onIOException(ioException);
+            }
+
+            @Override
+            public void onLineRead(CharSequence line) {
+                lastOutputNanos = System.nanoTime();
+
+                streamCallback.onLineRead(line);
+            }
+
+            @Override
+            public void onChunkRead(int readBytes) {
+                streamCallback.onChunkRead(readBytes);
+            }
+
+            @Override
+            public void onStreamIdle() {
+                streamCallback.onStreamIdle();
+            }
+
+            @Override
+            public void onEndOfStream() {
+                streamCallback.onEndOfStream();
+            }
+        };
+    }
+
+    StreamBytesReader.StreamCallback watch(StreamBytesReader.StreamCallback streamCallback) {
+        if(idleTimeoutNanos == 0)
+            return streamCallback;
+
+        return new StreamBytesReader.StreamCallback() {
+            @Override
+            public void onIOException(IOException ioException) {
+                streamCallback.onIOException(ioException);
+            }
+
+            @Override
+            public void onBytesRead(int readBytes, byte[] byteArray) {
+                lastOutputNanos = System.nanoTime();
+
+                streamCallback.onBytesRead(readBytes, byteArray);
+            }
+        };
+    }
+
+    BufferLeaser.LeaseCallback watch(BufferLeaser.LeaseCallback leaseCallback) {
+        if(idleTimeoutNanos == 0)
+            return leaseCallback;
+
+        return new BufferLeaser.LeaseCallback() {
+            @Override
+            public void onIOException(IOException ioException) {
+                leaseCallback.onIOException(ioException);
+            }
+
+            @Override
+            public void onBufferRead(PooledBuffer pooledBuffer) {
+                lastOutputNanos = System.nanoTime();
+
+                leaseCallback.onBufferRead(pooledBuffer);
+            }
+        };
+    }
+
+    BufferReuser.ReadCallback watch(BufferReuser.ReadCallback readCallback) {
+        if(idleTimeoutNanos == 0)
+            return readCallback;
+
+        return new BufferReuser.ReadCallback() {
+            @Override
+            public void onIOException(IOException ioException) {
+                readCallback.onIOException(ioException);
+            }
+
+            @Override
+            public void onBufferRead(ByteBuffer buffer) {
+                lastOutputNanos = System.nanoTime();
+
+                readCallback.onBufferRead(buffer);
+            }
+        };
+    }
+
+    private synchronized void checkIdle() {
+        if(finished)
+            return;
+
+        long idleNanos = System.nanoTime() - lastOutputNanos;
+
+        if(idleNanos >= idleTimeoutNanos)
+            expire(TimeoutReason.IDLE);
+        else
+            idleTimeout = TimerWheel.INSTANCE.schedule(this::checkIdle, idleTimeoutNanos - idleNanos);
+    }
+
+    private synchronized void expire(TimeoutReason timeoutReason) {
+        if(finished)
+            return;
+
+        //Only the first exceeded timeout is reported. The process terminates with the escalation of this timeout.
+        finished = true;
+
+        cancel(lifetimeTimeout);
+        cancel(idleTimeout);
+
+        try {
+            timeoutCallback.onTimeout(timeoutReason);
+        }
+        finally {
+            process.destroy();
+
+            graceTimeout = TimerWheel.INSTANCE.schedule(() -> {
+                if(process.isAlive())
+                    process.destroyForcibly();
+            }, destroyGraceNanos);
+        }
+    }
+
+    private static void cancel(TimerWheel.Timeout timeout) {
+        if(timeout != null)
+            timeout.cancel();
+    }
+}
@@ -0,0 +1,300 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link InputWriter} which queues all writes in a bounded queue per process. The queues are drained by a single
+ * writer thread, which is either shared between all processes or dedicated to a single process. The writer thread
+ * flushes the standard input stream of a process according to a {@link FlushPolicy}.
+ */
+final class QueuedInputWriter extends InputWriter {
+    private static final AtomicInteger DEDICATED_WRITER_COUNTER = new AtomicInteger();
+
+    //Markers to request a flush or to close the stream, in the order of the writes.
+    private static final byte[] FLUSH_MARKER = new byte[0];
+    private static final byte[] CLOSE_MARKER = new byte[0];
+
+    private final int queueCapacity;
+    private final FlushPolicy flushPolicy;
+    private final ScheduledExecutorService sharedExecutor;
+
+    /**
+     * Creates a new {@link QueuedInputWriter} instance.
+     * @param queueCapacity The maximum amount of queued writes per process.
+     * @param flushPolicy The policy which decides when the written bytes are passed to a process.
+     * @param sharedExecutor The single-threaded executor to write with, or null to create a dedicated executor for
+     *                       every process.
+     */
+    QueuedInputWriter(int queueCapacity, FlushPolicy flushPolicy, ScheduledExecutorService sharedExecutor) {
+        this.queueCapacity = queueCapacity;
+        this.flushPolicy = flushPolicy;
+        this.sharedExecutor = sharedExecutor;
+    }
+
+    @Override
+    InputSink open(OutputStream outputStream, InputSink.FailureCallback failureCallback) {
+        if(sharedExecutor != null)
+            return new QueuedInputSink(outputStream, sharedExecutor, false, failureCallback);
+
+        ScheduledExecutorService dedicatedExecutor = createWriterExecutor("epi-input-writer-dedicated-" +
+                DEDICATED_WRITER_COUNTER.incrementAndGet());
+
+        return new QueuedInputSink(outputStream, dedicatedExecutor, true, failureCallback);
+    }
+
+    /**
+     * The queue of a single process. The queue gets drained by a task, which is only scheduled while writes are
+     * queued. All stream operations are performed by the single thread of the executor.
+     */
+    private final class QueuedInputSink extends InputSink {
+        private final OutputStream outputStream;
+        private final ScheduledExecutorService executor;
+        private final boolean dedicatedExecutor;
+        private final FailureCallback failureCallback;
+        private final BlockingQueue<byte[]> queuedWrites;
+        private final AtomicBoolean drainScheduled = new AtomicBoolean();
+        private final AtomicLong writtenBytes = new AtomicLong();
+
+        private volatile IOException failure;
+        private volatile boolean closeRequested;
+
+        //Only accessed by the writer thread.
+        private long unflushedBytes;
+        private ScheduledFuture<?> flushFuture;
+        private boolean streamClosed;
+
+        private QueuedInputSink(OutputStream outputStream, ScheduledExecutorService executor,
+                                boolean dedicatedExecutor, FailureCallback failureCallback) {
+            this.outputStream = outputStream;
+            this.executor = executor;
+            this.dedicatedExecutor = dedicatedExecutor;
+            this.failureCallback = failureCallback;
+            this.queuedWrites = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        @Override
+        void write(byte[] bytes, int offset, int length) throws IOException {
+            checkWritable();
+
+            enqueue(Arrays.copyOfRange(bytes, offset, offset + length));
+        }
+
+        @Override
+        void flush() throws IOException {
+            checkWritable();
+
+            enqueue(FLUSH_MARKER);
+        }
+
+        @Override
+        void close() throws IOException {
+            if(closeRequested)
+                return;
+
+            closeRequested = true;
+
+            enqueue(CLOSE_MARKER);
+        }
+
+        @Override
+        long getWrittenBytes() {
+            return writtenBytes.get();
+        }
+
+        @Override
+        int getQueuedWrites() {
+            return queuedWrites.size();
+        }
+
+        private void checkWritable() throws IOException {
+            if(failure != null)
+                throw new IOException("Unable to write to the process.", failure);
+
+            if(closeRequested)
+                throw new IOException("The standard input stream of the process was closed.");
+        }
+
+        private void enqueue(byte[] queuedWrite) throws IOException {
+            try {
+                queuedWrites.put(queuedWrite);
+            }
+            catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+
+                throw new InterruptedIOException("Interrupted while waiting for free space in the write queue.");
+            }
+
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() throws IOException {
+            if(!drainScheduled.compareAndSet(false, true))
+                return;
+
+            try {
+                executor.execute(this::drain);
+            }
+            catch (RejectedExecutionException rejectedExecutionException) {
+                //The dedicated writer thread already stopped, because the stream was closed or failed.
+                queuedWrites.clear();
+
+                throw new IOException("The standard input stream of the process was closed.",
+                        rejectedExecutionException);
+            }
+        }
+
+        private void drain() {
+            byte[] queuedWrite;
+
+            while ((queuedWrite = queuedWrites.poll()) != null) {
+                //Discard all writes after a failure or after the stream was closed.
+                if(failure != null || streamClosed)
+                    continue;
+
+                try {
+                    process(queuedWrite);
+                }
+                catch (IOException ioException) {
+                    fail(ioException);
+                }
+            }
+
+            if(failure == null && !streamClosed && unflushedBytes > 0) {
+                try {
+                    if(flushPolicy.isImmediate()) {
+                        flushStream();
+                    }
+                    else if(flushPolicy.getFlushIntervalNanos() > 0 && flushFuture == null) {
+                        flushFuture = executor.schedule(this::flushScheduled, flushPolicy.getFlushIntervalNanos(),
+                                TimeUnit.NANOSECONDS);
+                    }
+                }
+                catch (IOException ioException) {
+                    fail(ioException);
+                }
+            }
+
+            drainScheduled.set(false);
+
+            //A write could have been queued after the last poll, but before the drain was marked as finished.
+            if(!queuedWrites.isEmpty()) {
+                try {
+                    scheduleDrain();
+                }
+                catch (IOException ioException) {
+                    //Ignore, because the queue was discarded...
+                }
+            }
+        }
+
+        private void process(byte[] queuedWrite) throws IOException {
+            if(queuedWrite == FLUSH_MARKER) {
+                flushStream();
+            }
+            else if(queuedWrite == CLOSE_MARKER) {
+                closeStream();
+            }
+            else {
+                outputStream.write(queuedWrite);
+
+                writtenBytes.addAndGet(queuedWrite.length);
+                unflushedBytes += queuedWrite.length;
+
+                if(unflushedBytes >= flushPolicy.getFlushBytes())
+                    flushStream();
+            }
+        }
+
+        private void flushScheduled() {
+            flushFuture = null;
+
+            if(failure != null || streamClosed || unflushedBytes == 0)
+                return;
+
+            try {
+                flushStream();
+            }
+            catch (IOException ioException) {
+                fail(ioException);
+            }
+        }
+
+        private void flushStream() throws IOException {
+            cancelScheduledFlush();
+
+            unflushedBytes = 0;
+            outputStream.flush();
+        }
+
+        private void closeStream() throws IOException {
+            cancelScheduledFlush();
+
+            streamClosed = true;
+
+            try {
+                outputStream.close();
+            }
+            finally {
+                if(dedicatedExecutor)
+                    executor.shutdown();
+            }
+        }
+
+        private void cancelScheduledFlush() {
+            if(flushFuture != null) {
+                flushFuture.cancel(false);
+                flushFuture = null;
+            }
+        }
+
+        private void fail(IOException ioException) {
+            failure = ioException;
+
+            if(!streamClosed) {
+                try {
+                    closeStream();
+                }
+                catch (IOException closeException) {
+                    //Ignore, because the first failure gets reported...
+                }
+            }
+
+            try {
+                failureCallback.onIOException(ioException);
+            }
+            catch (Throwable throwable) {
+                //A failing callback must not stop the writer thread.
+                Thread currentThread = Thread.currentThread();
+
+                currentThread.getUncaughtExceptionHandler().uncaughtException(currentThread, throwable);
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import eu.dgs_development.code.epi.handlers.base.TimeoutReason;
+import eu.dgs_development.code.epi.handlers.binary.BinaryProcessCallback;
+import eu.dgs_development.code.epi.handlers.binary.BinaryProcessHandler;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Handler which captures the output streams of a process and completes a {@link CompletableFuture} with the
+ * {@link ProcessResult}, after the process terminated and its output streams were read. Cancelling the future kills
+ * the process.
+ */
+final class ResultCollector extends BinaryProcessHandler {
+    private final CompletableFuture<ProcessResult> future = new CompletableFuture<>();
+    private final Charset charset;
+    private final CaptureBuffer standardOutput;
+    private final CaptureBuffer errorOutput;
+    private final Instant startTime = Instant.now();
+    private final long startNanos = System.nanoTime();
+
+    private volatile boolean initialized;
+    private volatile IOException failure;
+    private volatile TimeoutReason timeoutReason;
+
+    /**
+     * Creates a new {@link ResultCollector} instance.
+     * @param processOptions The options containing the capture settings.
+     */
+    ResultCollector(ProcessOptions processOptions) {
+        this.charset = processOptions.getCaptureCharset();
+        this.standardOutput = new CaptureBuffer(processOptions.getMaxCapturedBytes());
+        this.errorOutput = new CaptureBuffer(processOptions.getMaxCapturedBytes());
+    }
+
+    CompletableFuture<ProcessResult> getFuture() {
+        return future;
+    }
+
+    @Override
+    public void onInitialized(BinaryProcessCallback binaryProcessCallback) {
+        initialized = true;
+
+        future.whenComplete((processResult, throwable) -> {
+            if(future.isCancelled())
+                binaryProcessCallback.destroyForcibly();
+        });
+    }
+
+    @Override
+    public void onStdBytesRead(BinaryProcessCallback binaryProcessCallback, int readBytes, byte[] byteArray) {
+        standardOutput.append(byteArray, readBytes);
+    }
+
+    @Override
+    public void onErrorBytesRead(BinaryProcessCallback binaryProcessCallback, int readBytes, byte[] byteArray) {
+        errorOutput.append(byteArray, readBytes);
+    }
+
+    @Override
+    public void onProcessExited(int exitCode) {
+        if(failure != null) {
+            future.completeExceptionally(failure);
+
+            return;
+        }
+
+        future.complete(new ProcessResult(exitCode, standardOutput.decode(charset), errorOutput.decode(charset),
+                standardOutput.truncated, errorOutput.truncated, startTime,
+                Duration.ofNanos(System.nanoTime() - startNanos), timeoutReason));
+    }
+
+    @Override
+    public void onTimeout(TimeoutReason timeoutReason) {
+        this.timeoutReason = timeoutReason;
+    }
+
+    @Override
+    public void onIOException(IOException ioException) {
+        //A process which couldn't be started never exits, so the future fails immediately.
+        if(!initialized) {
+            future.completeExceptionally(ioException);
+
+            return;
+        }
+
+        if(failure == null)
+            failure = ioException;
+    }
+
+    /**
+     * Growing buffer of a single stream, which discards the bytes exceeding its limit. Only accessed by the thread
+     * reading the stream.
+     */
+    private static final class CaptureBuffer {
+        private final int maxBytes;
+
+        private byte[] bytes = new byte[0];
+        private int length;
+        private boolean truncated;
+
+        private CaptureBuffer(int maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        private void append(byte[] byteArray, int readBytes) {
+            int capturedBytes = Math.min(readBytes, maxBytes - length);
+
+            if(capturedBytes < readBytes)
+                truncated = true;
+
+            if(capturedBytes <= 0)
+                return;
+
+            if(length + capturedBytes > bytes.length) {
+                bytes = Arrays.copyOf(bytes, (int) Math.min(maxBytes, Math.max((long) bytes.length * 2,
+                        Math.max(length + capturedBytes, 256))));
+            }
+
+            System.arraycopy(byteArray, 0, bytes, length, capturedBytes);
+            length += capturedBytes;
+        }
+
+        private String decode(Charset charset) {
+            return new String(bytes, 0, length, charset);
+        }
+    }
+}
@@ -0,0 +1,628 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link IoEngine} which services the output streams of many processes with a fixed amount of worker threads. The JDK
+ * doesn't expose selectable channels for process pipes, therefore every worker polls the amount of available bytes of
+ * its streams (FIONREAD) and only reads if the read operation can't block. Idle workers back off exponentially.
+ * The worker threads are daemon threads, which don't prevent the JVM from exiting.
+ * <p>
+ * The amount of available bytes doesn't distinguish an empty pipe from the end of the stream. Once a process
+ * terminated and no bytes are available, the stream is read to its end by a drain thread, because child processes
+ * of the process may still hold the pipe. Usually the end of the stream is reached immediately. The drain pool has
+ * at most as many threads as there are workers, so a burst of terminated processes doesn't start more threads.
+ * <p>
+ * Closing the engine rejects new processes. The worker threads terminate after the streams of their processes were
+ * read to the end.
+ */
+final class SharedIoEngine extends IoEngine {
+    private static final long MIN_IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long MAX_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int TEXT_BUFFER_SIZE = 8192;
+    private static final long DRAIN_THREAD_KEEP_ALIVE_SECONDS = 60;
+
+    private static final AtomicInteger ENGINE_COUNTER = new AtomicInteger();
+
+    private final Worker[] workers;
+    private final ExecutorService drainExecutor;
+    private final AtomicInteger nextWorkerIndex = new AtomicInteger();
+
+    //Guarded by this.
+    private boolean closed;
+
+    /**
+     * Creates a new {@link SharedIoEngine} instance and starts its worker threads.
+     * @param workerThreads The amount of worker threads to use.
+     */
+    SharedIoEngine(int workerThreads) {
+        int engineNumber = ENGINE_COUNTER.incrementAndGet();
+
+        AtomicInteger drainThreadCounter = new AtomicInteger();
+
+        workers = new Worker[workerThreads];
+
+        //Idle drain threads terminate, so the engine doesn't keep more threads than its workers.
+        ThreadPoolExecutor drainThreadPool = new ThreadPoolExecutor(workerThreads, workerThreads,
+                DRAIN_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread drainThread = new Thread(ThreadCounter.track(runnable), "epi-io-" + engineNumber + "-drain-" +
+                    drainThreadCounter.incrementAndGet());
+            drainThread.setDaemon(true);
+
+            return drainThread;
+        });
+        drainThreadPool.allowCoreThreadTimeOut(true);
+
+        drainExecutor = drainThreadPool;
+
+        for(int i = 0; i < workerThreads; i++) {
+            Worker worker = new Worker(drainExecutor);
+
+            Thread workerThread = new Thread(ThreadCounter.track(worker), "epi-io-" + engineNumber + "-worker-" + i);
+            workerThread.setDaemon(true);
+
+            worker.thread = workerThread;
+            workers[i] = worker;
+
+            workerThread.start();
+        }
+    }
+
+    /**
+     * Function to check if the engine is supported on the current operating system.
+     * @return True if non-blocking pipe reads are supported.
+     */
+    static boolean isSupported() {
+        return System.getProperty("os.name").toLowerCase().contains("linux");
+    }
+
+    @Override
+    void startText(Process process, StreamTextReader.StreamCallback standardCallback,
+                   StreamTextReader.StreamCallback errorCallback,
+                   ProcessReaper.ProcessListenerCallback processListenerCallback) {
+        register(new PolledProcess(process, processListenerCallback, toArray(
+                standardCallback == null ? null : new PolledTextStream(process.getInputStream(), standardCallback),
+                errorCallback == null ? null : new PolledTextStream(process.getErrorStream(), errorCallback))));
+    }
+
+    @Override
+    void startBinary(Process process, int bufferSize, StreamBytesReader.StreamCallback standardCallback,
+                     StreamBytesReader.StreamCallback errorCallback,
+                     ProcessReaper.ProcessListenerCallback processListenerCallback) {
+        register(new PolledProcess(process, processListenerCallback, toArray(
+                standardCallback == null ? null :
+                        new PolledBytesStream(process.getInputStream(), bufferSize, standardCallback),
+                errorCallback == null ? null :
+                        new PolledBytesStream(process.getErrorStream(), bufferSize, errorCallback))));
+    }
+
+    @Override
+    void startBuffered(Process process, StreamBufferReader.StreamCallback standardCallback,
+                       StreamBufferReader.StreamCallback errorCallback,
+                       ProcessReaper.ProcessListenerCallback processListenerCallback) {
+        register(new PolledProcess(process, processListenerCallback, toArray(
+                standardCallback == null ? null : new PolledBufferStream(process.getInputStream(), standardCallback),
+                errorCallback == null ? null : new PolledBufferStream(process.getErrorStream(), errorCallback))));
+    }
+
+    private static PolledStream[] toArray(PolledStream standardStream, PolledStream errorStream) {
+        if(standardStream == null)
+            return errorStream == null ? new PolledStream[0] : new PolledStream[] {errorStream};
+
+        return errorStream == null ? new PolledStream[] {standardStream} :
+                new PolledStream[] {standardStream, errorStream};
+    }
+
+    /**
+     * Closes the engine. Processes, which were already started, are still read to the end of their streams.
+     * Afterwards the worker threads terminate. Starting a process with a closed engine fails.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if(closed)
+                return;
+
+            closed = true;
+
+            for(Worker worker : workers)
+                worker.close();
+        }
+
+        //Running drains are completed, idle drain threads terminate.
+        drainExecutor.shutdown();
+    }
+
+    @Override
+    synchronized void checkOpen() {
+        if(closed)
+            throw new IllegalStateException("The I/O engine was closed.");
+    }
+
+    private void register(PolledProcess polledProcess) {
+        int workerIndex = Math.floorMod(nextWorkerIndex.getAndIncrement(), workers.length);
+
+        synchronized (this) {
+            if(!closed) {
+                workers[workerIndex].register(polledProcess);
+
+                return;
+            }
+        }
+
+        //The engine was closed while the process was started. The process can't be read anymore, so it gets killed
+        //and its termination is passed to the handler like for every other process.
+        polledProcess.process.destroyForcibly();
+
+        for(PolledStream polledStream : polledProcess.polledStreams) {
+            polledStream.closeQuietly();
+            polledStream.onIOException(new IOException("The I/O engine was closed."));
+        }
+
+        ProcessReaper.INSTANCE.watch(polledProcess.process, polledProcess.processListenerCallback);
+    }
+
+    private static void reportUncaughtThrowable(Throwable throwable) {
+        Thread currentThread = Thread.currentThread();
+
+        currentThread.getUncaughtExceptionHandler().uncaughtException(currentThread, throwable);
+    }
+
+    /**
+     * A process, whose streams and termination get polled by a {@link Worker}.
+     */
+    private static final class PolledProcess {
+        private final Process process;
+        private final ProcessReaper.ProcessListenerCallback processListenerCallback;
+        private final PolledStream[] polledStreams;
+
+        private PolledProcess(Process process,
+                              ProcessReaper.ProcessListenerCallback processListenerCallback,
+                              PolledStream[] polledStreams) {
+            this.process = process;
+            this.processListenerCallback = processListenerCallback;
+            this.polledStreams = polledStreams;
+        }
+    }
+
+    /**
+     * A process output stream, which gets polled by a {@link Worker}.
+     */
+    private abstract static class PolledStream {
+        private final InputStream inputStream;
+
+        //Written by the drain thread, after the worker handed the stream over.
+        private volatile boolean closed;
+        private boolean draining;
+
+        private PolledStream(InputStream inputStream) {
+            this.inputStream = inputStream;
+        }
+
+        /**
+         * Reads at most the given amount of available bytes and notifies the callback about the read bytes.
+         * @param availableBytes The amount of bytes which can be read without blocking.
+         * @param worker The worker which polls the stream.
+         * @return The amount of read bytes or -1 if the end of the stream was reached.
+         * @throws IOException Exception if an IO error occurs.
+         */
+        abstract int read(int availableBytes, Worker worker) throws IOException;
+
+        abstract void onStreamIdle();
+
+        abstract void onEndOfStream();
+
+        abstract void onIOException(IOException ioException);
+
+        private void close() {
+            closed = true;
+
+            try {
+                inputStream.close();
+            }
+            catch (IOException ioException) {
+                onIOException(ioException);
+            }
+        }
+
+        //Closes the stream after a failure, which was already reported.
+        private void closeQuietly() {
+            closed = true;
+
+            try {
+                inputStream.close();
+            }
+            catch (IOException ioException) {
+                //Ignore...
+            }
+        }
+
+        /**
+         * Reads the stream with blocking reads until its end was reached. Only called by a drain thread.
+         */
+        private void drain() {
+            try {
+                byte[] buffer = new byte[TEXT_BUFFER_SIZE];
+
+                while (true) {
+                    int readBytes = readBlocking(buffer);
+
+                    if(readBytes == -1)
+                        break;
+
+                    if(inputStream.available() == 0)
+                        onStreamIdle();
+                }
+
+                close();
+                onEndOfStream();
+            }
+            catch (IOException ioException) {
+                closeQuietly();
+                onIOException(ioException);
+            }
+            catch (Throwable throwable) {
+                closeQuietly();
+                reportUncaughtThrowable(throwable);
+            }
+        }
+
+        /**
+         * Reads bytes with a blocking read and notifies the callback about the read bytes.
+         * @param buffer The buffer to read into, if the stream doesn't provide its own buffers.
+         * @return The amount of read bytes or -1 if the end of the stream was reached.
+         * @throws IOException Exception if an IO error occurs.
+         */
+        abstract int readBlocking(byte[] buffer) throws IOException;
+    }
+
+    /**
+     * A polled stream, which reads into the shared buffer of its {@link Worker}.
+     */
+    private abstract static class PolledArrayStream extends PolledStream {
+        private final int maxReadBytes;
+
+        private PolledArrayStream(InputStream inputStream, int maxReadBytes) {
+            super(inputStream);
+
+            this.maxReadBytes = maxReadBytes;
+        }
+
+        @Override
+        int read(int availableBytes, Worker worker) throws IOException {
+            int maxReadBytes = Math.min(availableBytes, this.maxReadBytes);
+            byte[] buffer = worker.getBuffer(maxReadBytes);
+
+            int readBytes = super.inputStream.read(buffer, 0, maxReadBytes);
+
+            if(readBytes > 0)
+                onBytesRead(readBytes, buffer);
+
+            return readBytes;
+        }
+
+        @Override
+        int readBlocking(byte[] buffer) throws IOException {
+            int readBytes = super.inputStream.read(buffer, 0, Math.min(buffer.length, maxReadBytes));
+
+            if(readBytes > 0)
+                onBytesRead(readBytes, buffer);
+
+            return readBytes;
+        }
+
+        abstract void onBytesRead(int readBytes, byte[] byteArray);
+    }
+
+    private static final class PolledTextStream extends PolledArrayStream {
+        private final StreamTextReader.StreamCallback streamCallback;
+        private final LineDecoder lineDecoder;
+
+        private PolledTextStream(InputStream inputStream, StreamTextReader.StreamCallback streamCallback) {
+            super(inputStream, TEXT_BUFFER_SIZE);
+
+            this.streamCallback = streamCallback;
+            this.lineDecoder = new LineDecoder(streamCallback);
+        }
+
+        @Override
+        void onBytesRead(int readBytes, byte[] byteArray) {
+            lineDecoder.onBytesRead(readBytes, byteArray);
+        }
+
+        @Override
+        void onStreamIdle() {
+            streamCallback.onStreamIdle();
+        }
+
+        @Override
+        void onEndOfStream() {
+            lineDecoder.onEndOfStream();
+            streamCallback.onEndOfStream();
+        }
+
+        @Override
+        void onIOException(IOException ioException) {
+            streamCallback.onIOException(ioException);
+        }
+    }
+
+    private static final class PolledBytesStream extends PolledArrayStream {
+        private final StreamBytesReader.StreamCallback streamCallback;
+
+        private PolledBytesStream(InputStream inputStream, int bufferSize,
+                                  StreamBytesReader.StreamCallback streamCallback) {
+            super(inputStream, bufferSize);
+
+            this.streamCallback = streamCallback;
+        }
+
+        @Override
+        void onBytesRead(int readBytes, byte[] byteArray) {
+            streamCallback.onBytesRead(readBytes, byteArray);
+        }
+
+        @Override
+        void onStreamIdle() {
+            //Ignore...
+        }
+
+        @Override
+        void onEndOfStream() {
+            //Ignore...
+        }
+
+        @Override
+        void onIOException(IOException ioException) {
+            streamCallback.onIOException(ioException);
+        }
+    }
+
+    /**
+     * A polled stream, which reads into the buffers provided by its callback.
+     */
+    private static final class PolledBufferStream extends PolledStream {
+        private final StreamBufferReader.StreamCallback streamCallback;
+
+        private PolledBufferStream(InputStream inputStream, StreamBufferReader.StreamCallback streamCallback) {
+            super(inputStream);
+
+            this.streamCallback = streamCallback;
+        }
+
+        @Override
+        int read(int availableBytes, Worker worker) throws IOException {
+            return read(availableBytes, worker, null);
+        }
+
+        @Override
+        int readBlocking(byte[] buffer) throws IOException {
+            return read(buffer.length, null, buffer);
+        }
+
+        private int read(int availableBytes, Worker worker, byte[] drainArray) throws IOException {
+            ByteBuffer buffer = streamCallback.acquireBuffer();
+            int maxReadBytes = Math.min(availableBytes, buffer.remaining());
+
+            int readBytes;
+
+            try {
+                byte[] transferArray = buffer.hasArray() ? null :
+                        worker != null ? worker.getBuffer(maxReadBytes) : drainArray;
+
+                readBytes = StreamBufferReader.read(super.inputStream, buffer, maxReadBytes, transferArray);
+            }
+            catch (IOException ioException) {
+                streamCallback.onBufferUnused(buffer);
+
+                throw ioException;
+            }
+
+            if(readBytes == -1) {
+                streamCallback.onBufferUnused(buffer);
+            }
+            else {
+                buffer.flip();
+                streamCallback.onBufferRead(buffer);
+            }
+
+            return readBytes;
+        }
+
+        @Override
+        void onStreamIdle() {
+            //Ignore...
+        }
+
+        @Override
+        void onEndOfStream() {
+            //Ignore...
+        }
+
+        @Override
+        void onIOException(IOException ioException) {
+            streamCallback.onIOException(ioException);
+        }
+    }
+
+    /**
+     * A worker which polls all streams of its assigned processes. The read buffer is shared between all array
+     * streams, because the callbacks only get access to the read bytes during the notification.
+     */
+    private static final class Worker implements Runnable {
+        private final Queue<PolledProcess> registeredProcesses = new ConcurrentLinkedQueue<>();
+        private final List<PolledProcess> polledProcesses = new ArrayList<>();
+        private final ExecutorService drainExecutor;
+
+        private byte[] buffer = new byte[TEXT_BUFFER_SIZE];
+        private Thread thread;
+        private volatile boolean closed;
+
+        private Worker(ExecutorService drainExecutor) {
+            this.drainExecutor = drainExecutor;
+        }
+
+        private byte[] getBuffer(int minLength) {
+            if(buffer.length < minLength)
+                buffer = new byte[minLength];
+
+            return buffer;
+        }
+
+        private void register(PolledProcess polledProcess) {
+            registeredProcesses.add(polledProcess);
+
+            LockSupport.unpark(thread);
+        }
+
+        private void close() {
+            closed = true;
+
+            LockSupport.unpark(thread);
+        }
+
+        @Override
+        public void run() {
+            long idleParkNanos = MIN_IDLE_PARK_NANOS;
+
+            while (!Thread.currentThread().isInterrupted()) {
+                //Processes are only registered before the engine was closed, so they are queued at this point.
+                boolean closing = closed;
+
+                PolledProcess registeredProcess;
+
+                while ((registeredProcess = registeredProcesses.poll()) != null)
+                    polledProcesses.add(registeredProcess);
+
+                if(polledProcesses.isEmpty()) {
+                    if(closing)
+                        return;
+
+                    LockSupport.park(this);
+                    continue;
+                }
+
+                boolean progress = false;
+
+                //Iterate backwards, to remove finished processes by swapping them with the last element.
+                for(int i = polledProcesses.size() - 1; i >= 0; i--) {
+                    PolledProcess polledProcess = polledProcesses.get(i);
+
+                    if(poll(polledProcess))
+                        progress = true;
+
+                    if(isFinished(polledProcess)) {
+                        int lastIndex = polledProcesses.size() - 1;
+
+                        polledProcesses.set(i, polledProcesses.get(lastIndex));
+                        polledProcesses.remove(lastIndex);
+
+                        notifyProcessFinished(polledProcess);
+                    }
+                }
+
+                if(progress) {
+                    idleParkNanos = MIN_IDLE_PARK_NANOS;
+                }
+                else {
+                    LockSupport.parkNanos(this, idleParkNanos);
+                    idleParkNanos = Math.min(idleParkNanos * 2, MAX_IDLE_PARK_NANOS);
+                }
+            }
+        }
+
+        private boolean poll(PolledProcess polledProcess) {
+            //Check the process state first. A terminated process can't write new data to the pipe.
+            boolean processAlive = polledProcess.process.isAlive();
+            boolean progress = false;
+
+            for(PolledStream polledStream : polledProcess.polledStreams) {
+                if(polledStream.closed || polledStream.draining)
+                    continue;
+
+                try {
+                    int availableBytes = polledStream.inputStream.available();
+
+                    if(availableBytes > 0) {
+                        int readBytes = polledStream.read(availableBytes, this);
+
+                        if(readBytes == -1) {
+                            polledStream.close();
+                            polledStream.onEndOfStream();
+                        }
+                        else {
+                            if(readBytes == availableBytes)
+                                polledStream.onStreamIdle();
+                        }
+
+                        progress = true;
+                    }
+                    else if(!processAlive) {
+                        //Child processes may still write to the pipe, so the end must be read without blocking
+                        //the worker.
+                        polledStream.draining = true;
+                        drainExecutor.execute(polledStream::drain);
+
+                        progress = true;
+                    }
+                }
+                catch (IOException ioException) {
+                    polledStream.closeQuietly();
+                    polledStream.onIOException(ioException);
+                }
+                catch (Throwable throwable) {
+                    //Like a failing reader thread, a failing callback stops the reading of the stream.
+                    polledStream.closeQuietly();
+                    reportUncaughtThrowable(throwable);
+                }
+            }
+
+            return progress;
+        }
+
+        private boolean isFinished(PolledProcess polledProcess) {
+            for(PolledStream polledStream : polledProcess.polledStreams) {
+                if(!polledStream.closed)
+                    return false;
+            }
+
+            return !polledProcess.process.isAlive();
+        }
+
+        private void notifyProcessFinished(PolledProcess polledProcess) {
+            try {
+                polledProcess.processListenerCallback.onProcessFinished(polledProcess.process);
+            }
+            catch (Throwable throwable) {
+                reportUncaughtThrowable(throwable);
+            }
+        }
+    }
+}
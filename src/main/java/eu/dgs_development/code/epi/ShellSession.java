@@ -0,0 +1,514 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import eu.dgs_development.code.epi.handlers.base.TimeoutReason;
+import eu.dgs_development.code.epi.handlers.text.TextProcessCallback;
+import eu.dgs_development.code.epi.handlers.text.TextProcessHandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A persistent "sh" or "bash" process, which executes many commands without starting a new shell for every command.
+ * The commands are written to the standard input stream of the shell and executed one after another. Every command is
+ * followed by unique markers on both output streams, the marker of the standard output stream carries the exit code.
+ * The output lines and the exit code of every command are passed to its own {@link TextProcessHandler}.
+ * <p>
+ * All commands share the state of the shell, e.g. the working directory and variables. The commands read an empty
+ * standard input stream. If a command terminates the shell, e.g. by calling "exit" or because of a syntax error, its
+ * handler receives the exit code of the shell and all waiting commands fail with an {@link IOException}.
+ */
+public final class ShellSession implements AutoCloseable {
+    /**
+     * Listener of a {@link ShellSessionPool}, to track the state of its sessions.
+     */
+    interface SessionListener {
+        /**
+         * Function to notify the pool that a command finished and the session is idle.
+         * @param shellSession The idle session.
+         */
+        void onCommandFinished(ShellSession shellSession);
+
+        /**
+         * Function to notify the pool that the shell terminated.
+         * @param shellSession The terminated session.
+         */
+        void onSessionTerminated(ShellSession shellSession);
+    }
+
+    //The exit code of a shell killed by SIGKILL.
+    private static final int KILLED_EXIT_CODE = 128 + 9;
+
+    private final String markerPrefix = "__epi_" + UUID.randomUUID().toString().replace("-", "") + "_";
+    private final File processFile;
+    private final File workingDirectory;
+    private final ProcessOptions processOptions;
+    private final long commandTimeoutNanos;
+    private final SessionListener sessionListener;
+
+    //Guarded by this.
+    private final Deque<SessionCommand> pendingCommands = new ArrayDeque<>();
+    private TextProcessCallback shellCallback;
+    private SessionCommand runningCommand;
+    private long commandCounter;
+    private boolean terminated;
+    private boolean closed;
+
+    private ShellSession(File processFile, File workingDirectory, ShellSessionOptions shellSessionOptions,
+                         SessionListener sessionListener) {
+        this.processFile = processFile;
+        this.workingDirectory = workingDirectory != null ? workingDirectory : processFile.getParentFile();
+        this.processOptions = shellSessionOptions.getProcessOptions();
+        this.commandTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(shellSessionOptions.getCommandTimeoutMillis());
+        this.sessionListener = sessionListener;
+    }
+
+    /**
+     * Starts a new shell session.
+     * @param commandLineType The shell to start, which must be {@link CommandLineExecutor.CommandLineType#UNIX_SH} or
+     * {@link CommandLineExecutor.CommandLineType#UNIX_BASH}.
+     * @param workingDirectory The initial working directory of the shell, or null to use the shell directory.
+     * @param shellSessionOptions The settings of the session, or null to use the default settings.
+     * @return The started {@link ShellSession}. Commands can be passed immediately, they are executed once the shell
+     * was started.
+     */
+    public static ShellSession start(CommandLineExecutor.CommandLineType commandLineType, File workingDirectory,
+                                     ShellSessionOptions shellSessionOptions) {
+        ShellSession shellSession = create(commandLineType, workingDirectory, shellSessionOptions, null);
+        shellSession.startShell();
+
+        return shellSession;
+    }
+
+    /**
+     * Creates a new shell session, without starting the shell.
+     * @param commandLineType The shell to start.
+     * @param workingDirectory The initial working directory of the shell, or null to use the shell directory.
+     * @param shellSessionOptions The settings of the session, or null to use the default settings.
+     * @param sessionListener The listener to notify about the state of the session, or null.
+     * @return The created {@link ShellSession}.
+     */
+    static ShellSession create(CommandLineExecutor.CommandLineType commandLineType, File workingDirectory,
+                              ShellSessionOptions shellSessionOptions, SessionListener sessionListener) {
+        ValidationUtil.checkParameterNotNull(commandLineType, "commandLineType");
+
+        if(commandLineType != CommandLineExecutor.CommandLineType.UNIX_SH &&
+                commandLineType != CommandLineExecutor.CommandLineType.UNIX_BASH)
+            throw new IllegalArgumentException("Shell sessions are only supported by \"sh\" and \"bash\".");
+
+        shellSessionOptions = shellSessionOptions == null ? new ShellSessionOptions() : shellSessionOptions.copy();
+
+        ProcessOptions processOptions = shellSessionOptions.getProcessOptions();
+
+        if(!processOptions.isStandardOutputPiped() || !processOptions.isErrorOutputPiped() ||
+                processOptions.getInputSource() != null)
+            throw new IllegalArgumentException("The standard streams of the shell must be piped separately.");
+
+        return new ShellSession(commandLineType.getProcessFile(), workingDirectory, shellSessionOptions,
+                sessionListener);
+    }
+
+    /**
+     * Passes a command to the shell. If another command is running, the command waits until all previous commands
+     * finished. The handler is initialized when the command starts. Writing to the callback fails, because the command
+     * reads an empty standard input stream. Destroying the process with the callback terminates the whole session.
+     * @param command The command to execute, e.g. "ls -l".
+     * @param textProcessHandler The handler to handle the output and the exit code of the command.
+     */
+    public void execute(String command, TextProcessHandler textProcessHandler) {
+        ValidationUtil.checkParameterNotNull(command, "command");
+        ValidationUtil.checkParameterNotNull(textProcessHandler, "textProcessHandler");
+
+        if(command.trim().isEmpty())
+            throw new IllegalArgumentException("The parameter \"command\" can't be empty.");
+
+        List<Runnable> actions = new ArrayList<>();
+
+        synchronized (this) {
+            if(terminated || closed) {
+                actions.add(() -> textProcessHandler.onIOException(new IOException(
+                        "The shell session terminated.")));
+            }
+            else {
+                pendingCommands.add(new SessionCommand(command, textProcessHandler));
+
+                startNextCommand(actions);
+            }
+        }
+
+        runActions(actions);
+    }
+
+    /**
+     * Passes a command to the shell and captures its output. The captured output of every stream is limited by
+     * {@link ProcessOptions#getMaxCapturedBytes()}, which is applied to the characters of the output lines.
+     * @param command The command to execute, e.g. "ls -l".
+     * @return A {@link java.util.concurrent.CompletableFuture}, which is completed with the {@link ProcessResult} of
+     * the command. It fails with an {@link IOException} if the session terminated before the command was started.
+     * Cancelling the future of a running command terminates the session.
+     */
+    public CompletableFuture<ProcessResult> executeAsync(String command) {
+        CommandResultCollector commandResultCollector = new CommandResultCollector(processOptions);
+
+        execute(command, commandResultCollector);
+
+        return commandResultCollector.getFuture();
+    }
+
+    /**
+     * Returns true if the shell is running or starting.
+     * @return False if the shell terminated or couldn't be started.
+     */
+    public synchronized boolean isAlive() {
+        return !terminated;
+    }
+
+    /**
+     * Returns the amount of commands, which are running or waiting.
+     * @return The amount of unfinished commands.
+     */
+    public synchronized int getPendingCommandCount() {
+        return pendingCommands.size() + (runningCommand != null ? 1 : 0);
+    }
+
+    /**
+     * Terminates the shell. The running command receives the exit code of the shell and waiting commands fail with an
+     * {@link IOException}.
+     */
+    @Override
+    public void close() {
+        TextProcessCallback callback;
+
+        synchronized (this) {
+            if(closed)
+                return;
+
+            closed = true;
+
+            //A starting shell gets terminated once it's initialized.
+            callback = shellCallback;
+        }
+
+        if(callback != null)
+            callback.destroy();
+    }
+
+    /**
+     * Starts the shell of the session.
+     */
+    void startShell() {
+        ProcessCreator.startProcess(processFile, workingDirectory, Collections.emptyList(), processOptions,
+                new ShellHandler());
+    }
+
+    //Writes the next waiting command to the shell. Must be called while holding the lock.
+    private void startNextCommand(List<Runnable> actions) {
+        if(runningCommand != null || shellCallback == null || terminated || pendingCommands.isEmpty())
+            return;
+
+        TextProcessCallback callback = shellCallback;
+
+        SessionCommand sessionCommand = pendingCommands.poll();
+        sessionCommand.marker = markerPrefix + ++commandCounter + "__";
+        sessionCommand.callback = sessionCommand.createCallback(callback);
+
+        runningCommand = sessionCommand;
+
+        if(commandTimeoutNanos > 0) {
+            sessionCommand.timeout = TimerWheel.INSTANCE.schedule(() -> onCommandTimeout(sessionCommand),
+                    commandTimeoutNanos);
+        }
+
+        //The group runs in the shell itself, so the state of the shell is kept. An unterminated last line of the
+        //command is followed by the marker on the same line.
+        String script = "{ " + sessionCommand.command + "\n} </dev/null\n" +
+                "printf '%s %d\\n' '" + sessionCommand.marker + "' \"$?\"\n" +
+                "printf '%s\\n' '" + sessionCommand.marker + "' >&2\n";
+
+        actions.add(() -> {
+            sessionCommand.textProcessHandler.onInitialized(sessionCommand.callback);
+
+            try {
+                callback.writeLine(script);
+                callback.flush();
+            }
+            catch (IOException ioException) {
+                //The shell can't receive commands anymore, so the session gets terminated.
+                sessionCommand.textProcessHandler.onIOException(ioException);
+
+                callback.destroyForcibly();
+            }
+        });
+    }
+
+    private void onCommandTimeout(SessionCommand sessionCommand) {
+        TextProcessCallback callback;
+
+        synchronized (this) {
+            if(runningCommand != sessionCommand || terminated)
+                return;
+
+            callback = shellCallback;
+        }
+
+        sessionCommand.textProcessHandler.onTimeout(TimeoutReason.LIFETIME);
+
+        callback.destroyForcibly();
+
+        //Child processes of the command can keep the output streams open, so the end of the streams isn't awaited.
+        onShellTerminated(KILLED_EXIT_CODE, null);
+    }
+
+    private void onMarkerRead(SessionCommand sessionCommand, boolean errorStream, int exitCode) {
+        List<Runnable> actions = new ArrayList<>();
+
+        synchronized (this) {
+            if(errorStream) {
+                sessionCommand.errorFinished = true;
+            }
+            else {
+                sessionCommand.standardFinished = true;
+                sessionCommand.exitCode = exitCode;
+            }
+
+            if(!sessionCommand.standardFinished || !sessionCommand.errorFinished || terminated)
+                return;
+
+            runningCommand = null;
+
+            if(sessionCommand.timeout != null)
+                sessionCommand.timeout.cancel();
+
+            actions.add(() -> sessionCommand.textProcessHandler.onProcessExited(sessionCommand.exitCode));
+
+            if(sessionListener != null)
+                actions.add(() -> sessionListener.onCommandFinished(this));
+
+            startNextCommand(actions);
+        }
+
+        runActions(actions);
+    }
+
+    private void onShellTerminated(int shellExitCode, IOException startException) {
+        List<Runnable> actions = new ArrayList<>();
+
+        synchronized (this) {
+            if(terminated)
+                return;
+
+            terminated = true;
+
+            SessionCommand sessionCommand = runningCommand;
+            runningCommand = null;
+
+            if(sessionCommand != null) {
+                if(sessionCommand.timeout != null)
+                    sessionCommand.timeout.cancel();
+
+                //The marker of the standard output stream was read, if only the marker of the error stream is missing.
+                int exitCode = sessionCommand.standardFinished ? sessionCommand.exitCode : shellExitCode;
+
+                actions.add(() -> sessionCommand.textProcessHandler.onProcessExited(exitCode));
+            }
+
+            IOException terminatedException = startException != null ? startException :
+                    new IOException("The shell session terminated.");
+
+            for(SessionCommand pendingCommand : pendingCommands)
+                actions.add(() -> pendingCommand.textProcessHandler.onIOException(terminatedException));
+
+            pendingCommands.clear();
+
+            if(sessionListener != null)
+                actions.add(() -> sessionListener.onSessionTerminated(this));
+        }
+
+        runActions(actions);
+    }
+
+    private static void runActions(List<Runnable> actions) {
+        for(Runnable action : actions) {
+            try {
+                action.run();
+            }
+            catch (Throwable throwable) {
+                //A failing handler must not prevent the remaining actions, e.g. the notification of other commands.
+                Thread currentThread = Thread.currentThread();
+
+                currentThread.getUncaughtExceptionHandler().uncaughtException(currentThread, throwable);
+            }
+        }
+    }
+
+    /**
+     * A command and its handler, which is waiting or running.
+     */
+    private static final class SessionCommand {
+        private final String command;
+        private final TextProcessHandler textProcessHandler;
+
+        //Guarded by the lock of the session.
+        private String marker;
+        private TextProcessCallback callback;
+        private TimerWheel.Timeout timeout;
+        private boolean standardFinished;
+        private boolean errorFinished;
+        private int exitCode;
+
+        private SessionCommand(String command, TextProcessHandler textProcessHandler) {
+            this.command = command;
+            this.textProcessHandler = textProcessHandler;
+        }
+
+        private TextProcessCallback createCallback(TextProcessCallback shellCallback) {
+            return new TextProcessCallback() {
+                @Override
+                public void destroy() {
+                    shellCallback.destroy();
+                }
+
+                @Override
+                public void destroyForcibly() {
+                    shellCallback.destroyForcibly();
+                }
+
+                @Override
+                public void writeLine(String line) throws IOException {
+                    throw new IOException("The commands of a shell session read an empty standard input stream.");
+                }
+
+                @Override
+                public void flush() {
+                    //Ignore...
+                }
+
+                @Override
+                public long getWrittenBytes() {
+                    return 0;
+                }
+
+                @Override
+                public int getQueuedWrites() {
+                    return 0;
+                }
+
+                @Override
+                public long getDroppedOutputs() {
+                    return shellCallback.getDroppedOutputs();
+                }
+            };
+        }
+    }
+
+    /**
+     * The handler of the shell, which passes the output lines to the running command.
+     */
+    private final class ShellHandler extends TextProcessHandler {
+        @Override
+        public void onInitialized(TextProcessCallback textProcessCallback) {
+            List<Runnable> actions = new ArrayList<>();
+
+            synchronized (ShellSession.this) {
+                shellCallback = textProcessCallback;
+
+                if(closed)
+                    actions.add(textProcessCallback::destroy);
+                else
+                    startNextCommand(actions);
+            }
+
+            runActions(actions);
+        }
+
+        @Override
+        public void onStdLineRead(TextProcessCallback textProcessCallback, String readLine) {
+            onLineRead(readLine, false);
+        }
+
+        @Override
+        public void onErrorLineRead(TextProcessCallback textProcessCallback, String readLine) {
+            onLineRead(readLine, true);
+        }
+
+        @Override
+        public void onProcessExited(int exitCode) {
+            onShellTerminated(exitCode, null);
+        }
+
+        @Override
+        public void onIOException(IOException ioException) {
+            SessionCommand sessionCommand;
+            boolean started;
+
+            synchronized (ShellSession.this) {
+                sessionCommand = runningCommand;
+                started = shellCallback != null;
+            }
+
+            //A shell which couldn't be started never exits.
+            if(!started)
+                onShellTerminated(-1, ioException);
+            else if(sessionCommand != null)
+                sessionCommand.textProcessHandler.onIOException(ioException);
+        }
+
+        private void onLineRead(String readLine, boolean errorStream) {
+            SessionCommand sessionCommand;
+
+            synchronized (ShellSession.this) {
+                sessionCommand = runningCommand;
+            }
+
+            //Output without a running command, e.g. of a background job, is discarded.
+            if(sessionCommand == null)
+                return;
+
+            int markerIndex = readLine.indexOf(sessionCommand.marker);
+
+            if(markerIndex < 0) {
+                passLine(sessionCommand, readLine, errorStream);
+
+                return;
+            }
+
+            //The last line of the command wasn't terminated, so the marker follows on the same line.
+            if(markerIndex > 0)
+                passLine(sessionCommand, readLine.substring(0, markerIndex), errorStream);
+
+            int exitCode = errorStream ? 0 : Integer.parseInt(readLine.substring(markerIndex +
+                    sessionCommand.marker.length()).trim());
+
+            onMarkerRead(sessionCommand, errorStream, exitCode);
+        }
+
+        private void passLine(SessionCommand sessionCommand, String line, boolean errorStream) {
+            if(errorStream)
+                sessionCommand.textProcessHandler.onErrorLineViewRead(sessionCommand.callback, line);
+            else
+                sessionCommand.textProcessHandler.onStdLineViewRead(sessionCommand.callback, line);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+/**
+ * Class containing the settings of a {@link ShellSession} or a {@link ShellSessionPool}. A new instance contains the
+ * default settings. The settings are copied when a session or a pool is created, so an instance can be reused.
+ */
+public final class ShellSessionOptions {
+    private int maxSessions = Runtime.getRuntime().availableProcessors();
+    private long commandTimeoutMillis;
+    private ProcessOptions processOptions = new ProcessOptions();
+
+    /**
+     * Returns the maximum amount of concurrently running sessions of a pool.
+     * @return The maximum amount of sessions.
+     */
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    /**
+     * Sets the maximum amount of concurrently running sessions of a pool. Commands wait for a free session, once the
+     * maximum is reached. The default maximum is the amount of available processors.
+     * @param maxSessions The maximum amount of sessions.
+     * @return This {@link ShellSessionOptions} instance.
+     */
+    public ShellSessionOptions setMaxSessions(int maxSessions) {
+        if(maxSessions <= 0)
+            throw new IllegalArgumentException("The parameter \"maxSessions\" must be greater than zero.");
+
+        this.maxSessions = maxSessions;
+
+        return this;
+    }
+
+    /**
+     * Returns the maximum time in milliseconds, a single command may run.
+     * @return The command timeout, or 0 if commands can run without a time limit.
+     */
+    public long getCommandTimeoutMillis() {
+        return commandTimeoutMillis;
+    }
+
+    /**
+     * Sets the maximum time in milliseconds, a single command may run. A shell can't interrupt a single command, so
+     * the whole session is killed if a command exceeds the timeout. Child processes of the command aren't killed, but
+     * their output is discarded. The handler of the command gets notified with
+     * {@link eu.dgs_development.code.epi.handlers.base.TimeoutReason#LIFETIME}. By default, commands can run without
+     * a time limit.
+     * @param commandTimeoutMillis The command timeout, or 0 to disable the timeout.
+     * @return This {@link ShellSessionOptions} instance.
+     */
+    public ShellSessionOptions setCommandTimeoutMillis(long commandTimeoutMillis) {
+        if(commandTimeoutMillis < 0)
+            throw new IllegalArgumentException("The parameter \"commandTimeoutMillis\" can't be negative.");
+
+        this.commandTimeoutMillis = commandTimeoutMillis;
+
+        return this;
+    }
+
+    /**
+     * Returns the options used to start the shells.
+     * @return The {@link ProcessOptions} of the shells.
+     */
+    public ProcessOptions getProcessOptions() {
+        return processOptions;
+    }
+
+    /**
+     * Sets the options used to start the shells. The output streams must be piped separately and no input source may
+     * be set, because the commands are written to the standard input stream of the shell.
+     * @param processOptions The {@link ProcessOptions} of the shells.
+     * @return This {@link ShellSessionOptions} instance.
+     */
+    public ShellSessionOptions setProcessOptions(ProcessOptions processOptions) {
+        ValidationUtil.checkParameterNotNull(processOptions, "processOptions");
+
+        this.processOptions = processOptions;
+
+        return this;
+    }
+
+    /**
+     * Creates a copy of these options, which can be changed without affecting the caller.
+     * @return A new {@link ShellSessionOptions} instance with the same settings.
+     */
+    ShellSessionOptions copy() {
+        ShellSessionOptions shellSessionOptions = new ShellSessionOptions();
+        shellSessionOptions.maxSessions = maxSessions;
+        shellSessionOptions.commandTimeoutMillis = commandTimeoutMillis;
+        shellSessionOptions.processOptions = processOptions.copy();
+
+        return shellSessionOptions;
+    }
+}
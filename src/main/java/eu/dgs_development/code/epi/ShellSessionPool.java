@@ -0,0 +1,254 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import eu.dgs_development.code.epi.handlers.text.TextProcessHandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A pool of {@link ShellSession} instances, to execute commands concurrently without starting a shell per command.
+ * Every command is passed to an idle session. If all sessions are busy, a new session is started until the maximum
+ * is reached, afterwards the commands wait for a free session. Terminated sessions, e.g. killed because a command
+ * exceeded the command timeout, are replaced automatically. The pool must be closed to stop the shells.
+ */
+public final class ShellSessionPool implements AutoCloseable {
+    private final CommandLineExecutor.CommandLineType commandLineType;
+    private final File workingDirectory;
+    private final ShellSessionOptions shellSessionOptions;
+    private final ShellSession.SessionListener sessionListener = new PoolListener();
+
+    //Guarded by this.
+    private final List<ShellSession> sessions = new ArrayList<>();
+    private final Deque<ShellSession> idleSessions = new ArrayDeque<>();
+    private final Deque<PoolCommand> pendingCommands = new ArrayDeque<>();
+    private boolean closed;
+
+    /**
+     * Creates a new {@link ShellSessionPool} instance. The sessions are started when commands are passed.
+     * @param commandLineType The shell to start, which must be {@link CommandLineExecutor.CommandLineType#UNIX_SH} or
+     * {@link CommandLineExecutor.CommandLineType#UNIX_BASH}.
+     * @param workingDirectory The initial working directory of the shells, or null to use the shell directory.
+     * @param shellSessionOptions The settings of the sessions, or null to use the default settings.
+     */
+    public ShellSessionPool(CommandLineExecutor.CommandLineType commandLineType, File workingDirectory,
+                            ShellSessionOptions shellSessionOptions) {
+        this.commandLineType = commandLineType;
+        this.workingDirectory = workingDirectory;
+        this.shellSessionOptions = shellSessionOptions == null ? new ShellSessionOptions() :
+                shellSessionOptions.copy();
+
+        //Validates the settings, before the first command is passed.
+        ShellSession.create(commandLineType, workingDirectory, this.shellSessionOptions, null);
+    }
+
+    /**
+     * Passes a command to an idle session. Commands of the pool don't share the state of a single shell, because
+     * every command can be executed by another session.
+     * @param command The command to execute, e.g. "ls -l".
+     * @param textProcessHandler The handler to handle the output and the exit code of the command.
+     * @see ShellSession#execute(String, TextProcessHandler)
+     */
+    public void execute(String command, TextProcessHandler textProcessHandler) {
+        ValidationUtil.checkParameterNotNull(command, "command");
+        ValidationUtil.checkParameterNotNull(textProcessHandler, "textProcessHandler");
+
+        if(command.trim().isEmpty())
+            throw new IllegalArgumentException("The parameter \"command\" can't be empty.");
+
+        List<Runnable> actions = new ArrayList<>();
+
+        synchronized (this) {
+            if(closed) {
+                actions.add(() -> textProcessHandler.onIOException(new IOException(
+                        "The shell session pool was closed.")));
+            }
+            else {
+                pendingCommands.add(new PoolCommand(command, textProcessHandler));
+
+                dispatch(actions);
+            }
+        }
+
+        runActions(actions);
+    }
+
+    /**
+     * Passes a command to an idle session and captures its output.
+     * @param command The command to execute, e.g. "ls -l".
+     * @return A {@link CompletableFuture}, which is completed with the {@link ProcessResult} of the command.
+     * @see ShellSession#executeAsync(String)
+     */
+    public CompletableFuture<ProcessResult> executeAsync(String command) {
+        CommandResultCollector commandResultCollector = new CommandResultCollector(
+                shellSessionOptions.getProcessOptions());
+
+        execute(command, commandResultCollector);
+
+        return commandResultCollector.getFuture();
+    }
+
+    /**
+     * Returns the amount of running and starting sessions.
+     * @return The amount of sessions.
+     */
+    public synchronized int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Returns the amount of sessions, which are waiting for a command.
+     * @return The amount of idle sessions.
+     */
+    public synchronized int getIdleSessionCount() {
+        return idleSessions.size();
+    }
+
+    /**
+     * Returns the amount of commands, which are waiting for a free session.
+     * @return The amount of waiting commands.
+     */
+    public synchronized int getPendingCommandCount() {
+        return pendingCommands.size();
+    }
+
+    /**
+     * Stops all sessions. Waiting commands fail with an {@link IOException}, running commands receive the exit code
+     * of their shell.
+     */
+    @Override
+    public void close() {
+        List<Runnable> actions = new ArrayList<>();
+
+        synchronized (this) {
+            if(closed)
+                return;
+
+            closed = true;
+
+            IOException closedException = new IOException("The shell session pool was closed.");
+
+            for(PoolCommand pendingCommand : pendingCommands)
+                actions.add(() -> pendingCommand.textProcessHandler.onIOException(closedException));
+
+            pendingCommands.clear();
+
+            for(ShellSession session : sessions)
+                actions.add(session::close);
+
+            sessions.clear();
+            idleSessions.clear();
+        }
+
+        runActions(actions);
+    }
+
+    //Assigns waiting commands to idle sessions and starts the missing sessions. Must be called while holding the lock.
+    private void dispatch(List<Runnable> actions) {
+        if(closed)
+            return;
+
+        while (!pendingCommands.isEmpty()) {
+            ShellSession session = idleSessions.poll();
+
+            if(session == null) {
+                if(sessions.size() >= shellSessionOptions.getMaxSessions())
+                    return;
+
+                session = ShellSession.create(commandLineType, workingDirectory, shellSessionOptions,
+                        sessionListener);
+
+                sessions.add(session);
+
+                actions.add(session::startShell);
+            }
+
+            PoolCommand poolCommand = pendingCommands.poll();
+            ShellSession assignedSession = session;
+
+            actions.add(() -> assignedSession.execute(poolCommand.command, poolCommand.textProcessHandler));
+        }
+    }
+
+    private static void runActions(List<Runnable> actions) {
+        for(Runnable action : actions) {
+            try {
+                action.run();
+            }
+            catch (Throwable throwable) {
+                //A failing action must not prevent the remaining actions, e.g. the notification of other commands.
+                Thread currentThread = Thread.currentThread();
+
+                currentThread.getUncaughtExceptionHandler().uncaughtException(currentThread, throwable);
+            }
+        }
+    }
+
+    /**
+     * A command, which waits for a free session.
+     */
+    private static final class PoolCommand {
+        private final String command;
+        private final TextProcessHandler textProcessHandler;
+
+        private PoolCommand(String command, TextProcessHandler textProcessHandler) {
+            this.command = command;
+            this.textProcessHandler = textProcessHandler;
+        }
+    }
+
+    /**
+     * Listener tracking the idle and terminated sessions.
+     */
+    private final class PoolListener implements ShellSession.SessionListener {
+        @Override
+        public void onCommandFinished(ShellSession shellSession) {
+            List<Runnable> actions = new ArrayList<>();
+
+            synchronized (ShellSessionPool.this) {
+                if(!sessions.contains(shellSession))
+                    return;
+
+                //The most recently used session is preferred, like the workers of a worker pool.
+                idleSessions.push(shellSession);
+
+                dispatch(actions);
+            }
+
+            runActions(actions);
+        }
+
+        @Override
+        public void onSessionTerminated(ShellSession shellSession) {
+            List<Runnable> actions = new ArrayList<>();
+
+            synchronized (ShellSessionPool.this) {
+                sessions.remove(shellSession);
+                idleSessions.remove(shellSession);
+
+                dispatch(actions);
+            }
+
+            runActions(actions);
+        }
+    }
+}
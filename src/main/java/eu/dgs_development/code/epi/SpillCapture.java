@@ -0,0 +1,104 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Captures the complete output streams of a process in temporary files, e.g. to keep the output of long-running jobs
+ * for an audit without buffering it in the heap. Every stream is appended to segment files and indexed by its line
+ * offsets, which allows to read single lines, ranges and to search the output through memory mappings. Closing the
+ * capture deletes the segment files, they are also deleted if the JVM terminates.
+ */
+public final class SpillCapture extends OutputCapture implements Closeable {
+    /**
+     * The default size of a segment file.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private final SpilledOutput standardOutput;
+    private final SpilledOutput errorOutput;
+
+    /**
+     * Creates a new {@link SpillCapture} instance, which stores the segment files in the default temporary
+     * directory.
+     */
+    public SpillCapture() {
+        this(null, DEFAULT_SEGMENT_SIZE, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates a new {@link SpillCapture} instance.
+     * @param directory The directory to store the segment files in, or null to use the default temporary directory.
+     * @param segmentSize The maximum size of a segment file in bytes.
+     * @param charset The charset to decode the lines with. Lines of a text handler are encoded with this charset.
+     */
+    public SpillCapture(File directory, int segmentSize, Charset charset) {
+        super(charset);
+
+        if(segmentSize <= 0)
+            throw new IllegalArgumentException("The parameter \"segmentSize\" must be greater than zero.");
+
+        Path directoryPath = directory != null ? directory.toPath() : null;
+
+        this.standardOutput = new SpilledOutput(directoryPath, segmentSize, charset);
+        this.errorOutput = new SpilledOutput(directoryPath, segmentSize, charset);
+    }
+
+    /**
+     * Returns the captured standard output stream of the process.
+     * @return The {@link SpilledOutput} of the standard output stream.
+     */
+    public SpilledOutput getStandardOutput() {
+        return standardOutput;
+    }
+
+    /**
+     * Returns the captured error output stream of the process.
+     * @return The {@link SpilledOutput} of the error output stream.
+     */
+    public SpilledOutput getErrorOutput() {
+        return errorOutput;
+    }
+
+    /**
+     * Closes and deletes all segment files. Afterwards, the output can't be read anymore and further output of the
+     * process isn't captured.
+     * @throws IOException Exception if a segment file couldn't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            standardOutput.close();
+        }
+        finally {
+            errorOutput.close();
+        }
+    }
+
+    @Override
+    void onBytesRead(boolean errorStream, ByteBuffer buffer) throws IOException {
+        SpilledOutput spilledOutput = errorStream ? errorOutput : standardOutput;
+
+        spilledOutput.append(buffer);
+    }
+}
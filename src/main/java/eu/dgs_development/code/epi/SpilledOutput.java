@@ -0,0 +1,361 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A single output stream of a {@link SpillCapture}, which is stored in temporary segment files instead of the heap.
+ * The start offsets of all lines are indexed while the output is written, so lines can be accessed randomly. The
+ * segments are read through memory mappings, therefore reading a line or searching the output doesn't load the whole
+ * output. The segment files are opened with {@link StandardOpenOption#DELETE_ON_CLOSE}, so they are deleted if the
+ * capture is closed or, depending on the operating system, already after they were opened.
+ */
+public final class SpilledOutput {
+    private final Path directory;
+    private final int segmentSize;
+    private final Charset charset;
+    private final List<Segment> segments = new ArrayList<>();
+
+    private long size;
+    //The start offsets of all lines. The last offset equals the size, if the output ends with a line feed.
+    private long[] lineStarts = new long[1024];
+    private int lineStartCount = 1;
+    private boolean failed;
+    private boolean closed;
+
+    SpilledOutput(Path directory, int segmentSize, Charset charset) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.charset = charset;
+    }
+
+    /**
+     * Returns the amount of captured bytes.
+     * @return The size of the output in bytes.
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the amount of captured lines. An unterminated last line is counted as line.
+     * @return The amount of lines.
+     */
+    public synchronized long getLineCount() {
+        return lineStarts[lineStartCount - 1] == size ? lineStartCount - 1 : lineStartCount;
+    }
+
+    /**
+     * Returns a single line, without its line separator.
+     * @param lineIndex The index of the line, starting at 0.
+     * @return The line, decoded with the charset of the capture.
+     * @throws IOException Exception if the segments couldn't be mapped or the output was closed.
+     */
+    public String getLine(long lineIndex) throws IOException {
+        return getLines(lineIndex, lineIndex + 1).get(0);
+    }
+
+    /**
+     * Returns a range of lines, without their line separators.
+     * @param fromLineIndex The index of the first line, inclusive.
+     * @param toLineIndex The index of the last line, exclusive.
+     * @return The lines, decoded with the charset of the capture.
+     * @throws IOException Exception if the segments couldn't be mapped or the output was closed.
+     */
+    public List<String> getLines(long fromLineIndex, long toLineIndex) throws IOException {
+        long[] lineOffsets;
+
+        synchronized (this) {
+            long lineCount = getLineCount();
+
+            if(fromLineIndex < 0 || toLineIndex > lineCount || fromLineIndex > toLineIndex) {
+                throw new IndexOutOfBoundsException("The line range " + fromLineIndex + " to " + toLineIndex +
+                        " is outside of the " + lineCount + " captured lines.");
+            }
+
+            lineOffsets = Arrays.copyOfRange(lineStarts, (int) fromLineIndex, (int) toLineIndex + 1);
+
+            //The end of an unterminated last line is the end of the output.
+            if(toLineIndex == lineStartCount)
+                lineOffsets[lineOffsets.length - 1] = size + 1;
+        }
+
+        List<String> lines = new ArrayList<>(lineOffsets.length - 1);
+
+        for(int i = 0; i < lineOffsets.length - 1; i++) {
+            ByteBuffer lineBuffer = getBytes(lineOffsets[i], (int) (lineOffsets[i + 1] - 1 - lineOffsets[i]));
+
+            //Lines separated by CRLF are returned without the carriage return.
+            if(lineBuffer.hasRemaining() && lineBuffer.get(lineBuffer.limit() - 1) == '\r')
+                lineBuffer.limit(lineBuffer.limit() - 1);
+
+            lines.add(charset.decode(lineBuffer).toString());
+        }
+
+        return lines;
+    }
+
+    /**
+     * Returns a range of the captured bytes. A range within a single segment is returned without copying the bytes.
+     * @param offset The offset of the first byte.
+     * @param length The amount of bytes.
+     * @return A read-only buffer containing the bytes.
+     * @throws IOException Exception if the segments couldn't be mapped or the output was closed.
+     */
+    public ByteBuffer getBytes(long offset, int length) throws IOException {
+        if(offset < 0 || length < 0 || offset + length > getSize()) {
+            throw new IndexOutOfBoundsException("The byte range " + offset + " with length " + length +
+                    " is outside of the captured bytes.");
+        }
+
+        int segmentIndex = (int) (offset / segmentSize);
+        int segmentOffset = (int) (offset % segmentSize);
+
+        if(segmentOffset + length <= segmentSize)
+            return slice(mapSegment(segmentIndex), segmentOffset, length);
+
+        ByteBuffer bytes = ByteBuffer.allocate(length);
+
+        while (bytes.hasRemaining()) {
+            int chunkLength = Math.min(bytes.remaining(), segmentSize - segmentOffset);
+
+            bytes.put(slice(mapSegment(segmentIndex), segmentOffset, chunkLength));
+
+            segmentIndex++;
+            segmentOffset = 0;
+        }
+
+        bytes.flip();
+
+        return bytes.asReadOnlyBuffer();
+    }
+
+    /**
+     * Searches the first line containing the given text. The output is searched through the memory mappings, without
+     * decoding the lines.
+     * @param text The text to search, which must not contain a line separator.
+     * @param fromLineIndex The index of the first line to search.
+     * @return The index of the first matching line, or -1 if no line contains the text.
+     * @throws IOException Exception if the segments couldn't be mapped or the output was closed.
+     */
+    public long findLine(String text, long fromLineIndex) throws IOException {
+        ValidationUtil.checkParameterNotNull(text, "text");
+
+        byte[] pattern = text.getBytes(charset);
+        long searchedSize;
+        long offset;
+
+        synchronized (this) {
+            if(fromLineIndex < 0 || fromLineIndex >= getLineCount())
+                return -1;
+
+            searchedSize = size;
+            offset = lineStarts[(int) fromLineIndex];
+        }
+
+        long matchOffset = indexOf(pattern, offset, searchedSize);
+
+        return matchOffset < 0 ? -1 : findLineIndex(matchOffset);
+    }
+
+    synchronized void append(ByteBuffer buffer) throws IOException {
+        //After a failure or the close of the capture, the output isn't captured anymore to prevent gaps.
+        if(failed || closed)
+            return;
+
+        try {
+            indexLines(buffer);
+            write(buffer.duplicate());
+        }
+        catch (IOException ioException) {
+            failed = true;
+
+            throw ioException;
+        }
+    }
+
+    synchronized void close() throws IOException {
+        if(closed)
+            return;
+
+        closed = true;
+
+        IOException closeException = null;
+
+        for(Segment segment : segments) {
+            try {
+                segment.fileChannel.close();
+            }
+            catch (IOException ioException) {
+                closeException = ioException;
+            }
+
+            segment.mappedBuffer = null;
+        }
+
+        if(closeException != null)
+            throw closeException;
+    }
+
+    private void indexLines(ByteBuffer buffer) throws IOException {
+        for(int index = buffer.position(); index < buffer.limit(); index++) {
+            if(buffer.get(index) != '\n')
+                continue;
+
+            if(lineStartCount == lineStarts.length) {
+                if(lineStarts.length == Integer.MAX_VALUE - 8)
+                    throw new IOException("The line index of the spilled output is full.");
+
+                lineStarts = Arrays.copyOf(lineStarts, (int) Math.min((long) lineStarts.length * 2,
+                        Integer.MAX_VALUE - 8));
+            }
+
+            lineStarts[lineStartCount++] = size + (index - buffer.position()) + 1;
+        }
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+
+            if(segment == null || segment.size == segmentSize) {
+                segment = new Segment(createSegmentFile());
+
+                segments.add(segment);
+            }
+
+            int length = Math.min(buffer.remaining(), segmentSize - segment.size);
+
+            ByteBuffer chunk = buffer.duplicate();
+            chunk.limit(chunk.position() + length);
+
+            while (chunk.hasRemaining())
+                segment.fileChannel.write(chunk, segment.size + length - chunk.remaining());
+
+            buffer.position(buffer.position() + length);
+
+            segment.size += length;
+            size += length;
+        }
+    }
+
+    private FileChannel createSegmentFile() throws IOException {
+        Path segmentFile = directory != null ? Files.createTempFile(directory, "epi-", ".spill") :
+                Files.createTempFile("epi-", ".spill");
+
+        try {
+            return FileChannel.open(segmentFile, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+        }
+        catch (IOException ioException) {
+            Files.deleteIfExists(segmentFile);
+
+            throw ioException;
+        }
+    }
+
+    private synchronized ByteBuffer mapSegment(int segmentIndex) throws IOException {
+        if(closed)
+            throw new IOException("The spilled output was closed.");
+
+        Segment segment = segments.get(segmentIndex);
+
+        //The last segment is mapped again, after it grew.
+        if(segment.mappedBuffer == null || segment.mappedBuffer.capacity() < segment.size)
+            segment.mappedBuffer = segment.fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, segment.size);
+
+        return segment.mappedBuffer.asReadOnlyBuffer();
+    }
+
+    private long indexOf(byte[] pattern, long offset, long searchedSize) throws IOException {
+        if(pattern.length == 0)
+            return offset;
+
+        ByteBuffer segmentBuffer = null;
+        int segmentIndex = -1;
+
+        for(long candidate = offset; candidate <= searchedSize - pattern.length; candidate++) {
+            int candidateSegment = (int) (candidate / segmentSize);
+
+            if(candidateSegment != segmentIndex) {
+                segmentIndex = candidateSegment;
+                segmentBuffer = mapSegment(segmentIndex);
+            }
+
+            int segmentOffset = (int) (candidate % segmentSize);
+
+            if(segmentBuffer.get(segmentOffset) != pattern[0])
+                continue;
+
+            //A match crossing the end of a segment is compared by copying the range.
+            boolean matched = segmentOffset + pattern.length <= segmentBuffer.limit() ?
+                    matches(segmentBuffer, segmentOffset, pattern) :
+                    matches(getBytes(candidate, pattern.length), 0, pattern);
+
+            if(matched)
+                return candidate;
+        }
+
+        return -1;
+    }
+
+    private static boolean matches(ByteBuffer buffer, int offset, byte[] pattern) {
+        for(int i = 0; i < pattern.length; i++) {
+            if(buffer.get(offset + i) != pattern[i])
+                return false;
+        }
+
+        return true;
+    }
+
+    private synchronized long findLineIndex(long offset) {
+        int lineIndex = Arrays.binarySearch(lineStarts, 0, lineStartCount, offset);
+
+        return lineIndex >= 0 ? lineIndex : -lineIndex - 2;
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        buffer.position(offset);
+        buffer.limit(offset + length);
+
+        return buffer.slice();
+    }
+
+    /**
+     * A temporary file containing a part of the output.
+     */
+    private static final class Segment {
+        private final FileChannel fileChannel;
+
+        private int size;
+        private MappedByteBuffer mappedBuffer;
+
+        private Segment(FileChannel fileChannel) {
+            this.fileChannel = fileChannel;
+        }
+    }
+}
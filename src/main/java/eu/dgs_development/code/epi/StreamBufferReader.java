@@ -0,0 +1,145 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Helper task to read all available bytes from a process {@link InputStream} into buffers, which are provided by a
+ * {@link StreamCallback} listener. Heap buffers are filled directly, without an intermediate copy.
+ */
+final class StreamBufferReader implements Runnable {
+    /**
+     * A callback to provide the buffers to read into and to notify a listener about filled buffers or an occurred
+     * {@link IOException}.
+     */
+    public interface StreamCallback {
+        /**
+         * Function which is called if a process-exception occurs.
+         * @param ioException The {@link IOException} that occurred.
+         */
+        void onIOException(IOException ioException);
+
+        /**
+         * Function which is called before bytes are read from the process.
+         * @return A cleared buffer, whose remaining space gets filled with the read bytes.
+         */
+        ByteBuffer acquireBuffer();
+
+        /**
+         * Function which is called if bytes from a process were read.
+         * @param buffer The flipped buffer, containing the read bytes between its position and limit.
+         */
+        void onBufferRead(ByteBuffer buffer);
+
+        /**
+         * Function which is called if an acquired buffer wasn't filled, because the stream ended or failed.
+         * @param buffer The unused buffer.
+         */
+        void onBufferUnused(ByteBuffer buffer);
+    }
+
+    private final InputStream inputStream;
+    private final StreamBufferReader.StreamCallback streamCallback;
+
+    /**
+     * Creates a new {@link StreamBufferReader} instance.
+     * @param inputStream The process input stream to read bytes from.
+     * @param streamCallback The {@link StreamCallback} to provide the buffers and to notify if data bytes were read
+     *                       or an error occurs.
+     */
+    public StreamBufferReader(InputStream inputStream, StreamBufferReader.StreamCallback streamCallback) {
+        this.inputStream = inputStream;
+        this.streamCallback = streamCallback;
+    }
+
+    /**
+     * Function which tries to read all bytes from the given input stream of a started process.
+     */
+    @Override
+    public void run() {
+        byte[] transferArray = null;
+
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                ByteBuffer buffer = streamCallback.acquireBuffer();
+                int maxReadBytes = buffer.remaining();
+
+                if(!buffer.hasArray() && (transferArray == null || transferArray.length < maxReadBytes))
+                    transferArray = new byte[maxReadBytes];
+
+                int readBytes;
+
+                try {
+                    readBytes = read(inputStream, buffer, maxReadBytes, transferArray);
+                }
+                catch (IOException ioException) {
+                    streamCallback.onBufferUnused(buffer);
+
+                    throw ioException;
+                }
+
+                if(readBytes == -1) {
+                    streamCallback.onBufferUnused(buffer);
+                    break;
+                }
+
+                buffer.flip();
+                streamCallback.onBufferRead(buffer);
+            }
+
+            inputStream.close();
+        }
+        catch (IOException ioException) {
+            streamCallback.onIOException(ioException);
+        }
+    }
+
+    /**
+     * Reads bytes from the given input stream into the remaining space of a buffer.
+     * @param inputStream The input stream to read from.
+     * @param buffer The buffer to fill. The position of the buffer gets advanced by the amount of read bytes.
+     * @param maxReadBytes The maximum amount of bytes to read. Must not exceed the remaining space of the buffer.
+     * @param transferArray The array to read into, if the buffer isn't backed by an accessible array. Must be able
+     *                      to hold the maximum amount of bytes to read.
+     * @return The amount of read bytes or -1 if the end of the stream was reached.
+     * @throws IOException Exception if an IO error occurs.
+     */
+    static int read(InputStream inputStream, ByteBuffer buffer, int maxReadBytes,
+                    byte[] transferArray) throws IOException {
+        if(maxReadBytes <= 0)
+            throw new IllegalStateException("The acquired buffer has no remaining space.");
+
+        int readBytes;
+
+        if(buffer.hasArray()) {
+            readBytes = inputStream.read(buffer.array(), buffer.arrayOffset() + buffer.position(), maxReadBytes);
+
+            if(readBytes > 0)
+                buffer.position(buffer.position() + readBytes);
+        }
+        else {
+            readBytes = inputStream.read(transferArray, 0, maxReadBytes);
+
+            if(readBytes > 0)
+                buffer.put(transferArray, 0, readBytes);
+        }
+
+        return readBytes;
+    }
+}
@@ -18,10 +18,10 @@ package eu.dgs_development.code.epi;
 import java.io.*;
 
 /**
- * Helper class to read all available bytes from a process {@link InputStream} and notify a {@link StreamCallback}
+ * Helper task to read all available bytes from a process {@link InputStream} and notify a {@link StreamCallback}
  * listener about the available data.
  */
-final class StreamBytesReaderThread extends Thread {
+final class StreamBytesReader implements Runnable {
     /**
      * A callback to notify a listener about read bytes from a process or an occurred {@link IOException}.
      */
@@ -42,16 +42,16 @@ final class StreamBytesReaderThread extends Thread {
 
     private final InputStream inputStream;
     private final int bufferSize;
-    private final StreamBytesReaderThread.StreamCallback streamCallback;
+    private final StreamBytesReader.StreamCallback streamCallback;
 
     /**
-     * Creates a new {@link StreamBytesReaderThread} instance.
+     * Creates a new {@link StreamBytesReader} instance.
      * @param inputStream The process input stream to read bytes from.
      * @param bufferSize The internal buffer size to fill until a certain amount of bytes was read.
      * @param streamCallback The {@link StreamCallback} to notify if data bytes were read or an error occurs.
      */
-    public StreamBytesReaderThread(InputStream inputStream, int bufferSize,
-                                   StreamBytesReaderThread.StreamCallback streamCallback) {
+    public StreamBytesReader(InputStream inputStream, int bufferSize,
+                             StreamBytesReader.StreamCallback streamCallback) {
         this.inputStream = inputStream;
         this.bufferSize = bufferSize;
         this.streamCallback = streamCallback;
@@ -68,7 +68,7 @@ final class StreamBytesReaderThread extends Thread {
             int readBytes;
             byte[] buffer = new byte[bufferSize];
 
-            while (!isInterrupted() && (readBytes = bufferedInputStream.read(buffer)) != -1)
+            while (!Thread.currentThread().isInterrupted() && (readBytes = bufferedInputStream.read(buffer)) != -1)
                 streamCallback.onBytesRead(readBytes, buffer);
 
             bufferedInputStream.close();
@@ -15,17 +15,14 @@ limitations under the License.
 
 package eu.dgs_development.code.epi;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
 
 /**
- * Helper class to read all available lines from a process {@link InputStream} and notify a {@link StreamCallback}
+ * Helper task to read all available lines from a process {@link InputStream} and notify a {@link StreamCallback}
  * listener about the available text.
  */
-final class StreamTextReaderThread extends Thread {
+final class StreamTextReader implements Runnable {
     /**
      * A callback to notify a listener about read line from a process or an occurred {@link IOException}.
      */
@@ -38,20 +35,45 @@ final class StreamTextReaderThread extends Thread {
 
         /**
          * Function which is called if a line from a process was read.
-         * @param line The read line.
+         * @param line The read line. The line is a reusable view, which is only valid during the call.
          */
-        void onLineRead(String line);
+        void onLineRead(CharSequence line);
+
+        /**
+         * Function which is called if bytes were read from a process, before they are split into lines.
+         * @param readBytes The amount of read bytes.
+         */
+        default void onChunkRead(int readBytes) {
+            //Ignore...
+        }
+
+        /**
+         * Function which is called if all currently available lines were read and the next read operation would
+         * block.
+         */
+        default void onStreamIdle() {
+            //Ignore...
+        }
+
+        /**
+         * Function which is called after the end of the stream was reached.
+         */
+        default void onEndOfStream() {
+            //Ignore...
+        }
     }
 
+    private static final int BUFFER_SIZE = 8192;
+
     private final InputStream inputStream;
     private final StreamCallback streamCallback;
 
     /**
-     * Creates a new {@link StreamTextReaderThread} instance.
+     * Creates a new {@link StreamTextReader} instance.
      * @param inputStream The process input stream to read bytes from.
      * @param streamCallback The {@link StreamCallback} to notify if lines were read or an error occurs.
      */
-    public StreamTextReaderThread(InputStream inputStream, StreamCallback streamCallback) {
+    public StreamTextReader(InputStream inputStream, StreamCallback streamCallback) {
         this.inputStream = inputStream;
         this.streamCallback = streamCallback;
     }
@@ -62,19 +84,26 @@ final class StreamTextReaderThread extends Thread {
     @Override
     public void run() {
         try {
-            InputStreamReader inputStreamReader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
-            BufferedReader bufferedReader = new BufferedReader(inputStreamReader);
+            LineDecoder lineDecoder = new LineDecoder(streamCallback);
+
+            int readBytes;
+            byte[] buffer = new byte[BUFFER_SIZE];
+
+            while (!Thread.currentThread().isInterrupted() && (readBytes = inputStream.read(buffer)) != -1) {
+                lineDecoder.onBytesRead(readBytes, buffer);
 
-            String readLine;
+                //A pipe returns less bytes than requested, if no more bytes are currently available.
+                if(readBytes < buffer.length)
+                    streamCallback.onStreamIdle();
+            }
 
-            while (!isInterrupted() && (readLine = bufferedReader.readLine()) != null)
-                streamCallback.onLineRead(readLine);
+            inputStream.close();
 
-            bufferedReader.close();
-            inputStreamReader.close();
+            lineDecoder.onEndOfStream();
+            streamCallback.onEndOfStream();
         }
         catch (IOException ioException) {
             streamCallback.onIOException(ioException);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,151 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Preallocated ring buffer, which keeps the last bytes of a stream. Appending doesn't grow the buffer, older bytes
+ * are overwritten. The bytes are only decoded to lines when they are requested. The buffer is written by the thread
+ * reading the stream and can be read by any thread.
+ */
+final class TailBuffer {
+    private final byte[] ring;
+
+    private long writtenBytes;
+    //The byte preceding the oldest kept byte, to decide if the oldest kept line is complete.
+    private byte precedingByte = '\n';
+
+    /**
+     * Creates a new {@link TailBuffer} instance.
+     * @param capacity The amount of bytes to keep.
+     */
+    TailBuffer(int capacity) {
+        this.ring = new byte[capacity];
+    }
+
+    /**
+     * Appends the remaining bytes of a buffer, without changing its position.
+     * @param buffer The buffer containing the bytes.
+     */
+    synchronized void append(ByteBuffer buffer) {
+        int position = buffer.position();
+        int length = buffer.remaining();
+
+        if(length == 0)
+            return;
+
+        long newWrittenBytes = writtenBytes + length;
+        //Index of the last byte in the stream, which gets dropped by this append.
+        long precedingIndex = newWrittenBytes - ring.length - 1;
+
+        if(precedingIndex >= writtenBytes)
+            precedingByte = buffer.get(position + (int) (precedingIndex - writtenBytes));
+        else if(precedingIndex >= 0)
+            precedingByte = ring[(int) (precedingIndex % ring.length)];
+
+        //Only the bytes fitting into the ring need to be copied.
+        int keptLength = Math.min(length, ring.length);
+        int ringPosition = (int) ((newWrittenBytes - keptLength) % ring.length);
+        int firstLength = Math.min(keptLength, ring.length - ringPosition);
+
+        buffer.position(position + length - keptLength);
+        buffer.get(ring, ringPosition, firstLength);
+        buffer.get(ring, 0, keptLength - firstLength);
+        buffer.position(position);
+
+        writtenBytes = newWrittenBytes;
+    }
+
+    /**
+     * Returns the amount of bytes, which were appended to the buffer in total.
+     * @return The amount of appended bytes.
+     */
+    synchronized long getWrittenBytes() {
+        return writtenBytes;
+    }
+
+    /**
+     * Returns the kept bytes, in the order they were appended.
+     * @return A new array containing the kept bytes.
+     */
+    synchronized byte[] toByteArray() {
+        int length = (int) Math.min(writtenBytes, ring.length);
+        int position = (int) ((writtenBytes - length) % ring.length);
+        int firstLength = Math.min(length, ring.length - position);
+
+        byte[] bytes = new byte[length];
+
+        System.arraycopy(ring, position, bytes, 0, firstLength);
+        System.arraycopy(ring, 0, bytes, firstLength, length - firstLength);
+
+        return bytes;
+    }
+
+    /**
+     * Decodes the kept bytes to lines. A line, whose beginning was overwritten, is skipped.
+     * @param charset The charset to decode the lines with.
+     * @param maxLines The maximum amount of returned lines.
+     * @return The last lines of the stream.
+     */
+    List<String> toLines(Charset charset, int maxLines) {
+        byte[] bytes;
+        boolean firstLineComplete;
+
+        synchronized (this) {
+            bytes = toByteArray();
+            firstLineComplete = precedingByte == '\n';
+        }
+
+        List<String> lines = new ArrayList<>();
+
+        if(bytes.length == 0)
+            return lines;
+
+        int lineEnd = bytes.length;
+
+        //The trailing line separator doesn't start another line.
+        if(lineEnd > 0 && bytes[lineEnd - 1] == '\n')
+            lineEnd--;
+
+        for(int index = lineEnd - 1; index >= -1 && lines.size() < maxLines; index--) {
+            if(index >= 0 && bytes[index] != '\n')
+                continue;
+
+            if(index == -1 && !firstLineComplete)
+                break;
+
+            int lineStart = index + 1;
+            int length = lineEnd - lineStart;
+
+            //Lines separated by CRLF are returned without the carriage return.
+            if(length > 0 && bytes[lineEnd - 1] == '\r')
+                length--;
+
+            lines.add(new String(bytes, lineStart, length, charset));
+
+            lineEnd = index;
+        }
+
+        Collections.reverse(lines);
+
+        return lines;
+    }
+}
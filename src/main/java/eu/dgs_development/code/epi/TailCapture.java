@@ -0,0 +1,125 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Captures the last bytes of the output streams of a process, e.g. to attach them to an error report. Every stream
+ * is kept in a preallocated ring buffer, so a process writing gigabytes only costs the configured amount of memory.
+ * The bytes are decoded to lines when they are requested. The capture can be read at any time, after the termination
+ * of the process it contains the complete tail.
+ */
+public final class TailCapture extends OutputCapture {
+    private final int maxLines;
+    private final TailBuffer standardOutput;
+    private final TailBuffer errorOutput;
+
+    /**
+     * Creates a new {@link TailCapture} instance, which keeps the last bytes of every stream.
+     * @param maxBytes The maximum amount of kept bytes per stream.
+     */
+    public TailCapture(int maxBytes) {
+        this(maxBytes, Integer.MAX_VALUE, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates a new {@link TailCapture} instance, which keeps the last lines of every stream.
+     * @param maxBytes The maximum amount of kept bytes per stream, which also limits the amount of kept lines.
+     * @param maxLines The maximum amount of returned lines per stream.
+     */
+    public TailCapture(int maxBytes, int maxLines) {
+        this(maxBytes, maxLines, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates a new {@link TailCapture} instance, which keeps the last lines of every stream.
+     * @param maxBytes The maximum amount of kept bytes per stream, which also limits the amount of kept lines.
+     * @param maxLines The maximum amount of returned lines per stream.
+     * @param charset The charset to decode the lines with. Lines of a text handler are encoded with this charset.
+     */
+    public TailCapture(int maxBytes, int maxLines, Charset charset) {
+        super(charset);
+
+        if(maxBytes <= 0)
+            throw new IllegalArgumentException("The parameter \"maxBytes\" must be greater than zero.");
+
+        if(maxLines <= 0)
+            throw new IllegalArgumentException("The parameter \"maxLines\" must be greater than zero.");
+
+        this.maxLines = maxLines;
+        this.standardOutput = new TailBuffer(maxBytes);
+        this.errorOutput = new TailBuffer(maxBytes);
+    }
+
+    /**
+     * Returns the last lines of the standard output stream. A line, whose beginning was dropped, isn't returned.
+     * @return The captured lines, decoded with the charset of the capture.
+     */
+    public List<String> getStandardOutputLines() {
+        return standardOutput.toLines(getCharset(), maxLines);
+    }
+
+    /**
+     * Returns the last lines of the error output stream. A line, whose beginning was dropped, isn't returned.
+     * @return The captured lines, decoded with the charset of the capture.
+     */
+    public List<String> getErrorOutputLines() {
+        return errorOutput.toLines(getCharset(), maxLines);
+    }
+
+    /**
+     * Returns the last bytes of the standard output stream.
+     * @return A new array containing the captured bytes.
+     */
+    public byte[] getStandardOutputBytes() {
+        return standardOutput.toByteArray();
+    }
+
+    /**
+     * Returns the last bytes of the error output stream.
+     * @return A new array containing the captured bytes.
+     */
+    public byte[] getErrorOutputBytes() {
+        return errorOutput.toByteArray();
+    }
+
+    /**
+     * Returns the amount of bytes, which were read from the standard output stream in total.
+     * @return The amount of read bytes, including the dropped bytes.
+     */
+    public long getStandardOutputReadBytes() {
+        return standardOutput.getWrittenBytes();
+    }
+
+    /**
+     * Returns the amount of bytes, which were read from the error output stream in total.
+     * @return The amount of read bytes, including the dropped bytes.
+     */
+    public long getErrorOutputReadBytes() {
+        return errorOutput.getWrittenBytes();
+    }
+
+    @Override
+    void onBytesRead(boolean errorStream, ByteBuffer buffer) {
+        TailBuffer tailBuffer = errorStream ? errorOutput : standardOutput;
+
+        tailBuffer.append(buffer);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Helper class to count the threads of the library, which are currently running. The count is reported by
+ * {@link JmxProcessMetrics}.
+ */
+final class ThreadCounter {
+    private static final LongAdder LIVE_THREADS = new LongAdder();
+
+    private ThreadCounter() {
+        //Ignore...
+    }
+
+    /**
+     * Wraps the task of a thread, to count the thread while the task is running.
+     * @param runnable The task of the thread.
+     * @return The counting task to start the thread with.
+     */
+    static Runnable track(Runnable runnable) {
+        return () -> {
+            LIVE_THREADS.increment();
+
+            try {
+                runnable.run();
+            }
+            finally {
+                LIVE_THREADS.decrement();
+            }
+        };
+    }
+
+    /**
+     * Returns the amount of running threads of the library.
+     * @return The amount of threads, whose task is currently running.
+     */
+    static long getLiveThreads() {
+        return LIVE_THREADS.sum();
+    }
+}
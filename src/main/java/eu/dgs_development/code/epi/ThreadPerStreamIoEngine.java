@@ -0,0 +1,112 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * {@link IoEngine} which starts a blocking reader thread for each output stream. The threads are created by a
+ * {@link ThreadFactory}. The termination of the processes is detected by the {@link ProcessReaper}.
+ */
+final class ThreadPerStreamIoEngine extends IoEngine {
+    static final ThreadPerStreamIoEngine INSTANCE = new ThreadPerStreamIoEngine(DefaultThreadFactory.INSTANCE);
+
+    private final ThreadFactory threadFactory;
+
+    /**
+     * Creates a new {@link ThreadPerStreamIoEngine} instance.
+     * @param threadFactory The {@link ThreadFactory} to create the reader threads with.
+     */
+    ThreadPerStreamIoEngine(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+    }
+
+    @Override
+    ThreadFactory getThreadFactory() {
+        return threadFactory;
+    }
+
+    @Override
+    void startText(Process process, StreamTextReader.StreamCallback standardCallback,
+                   StreamTextReader.StreamCallback errorCallback,
+                   ProcessReaper.ProcessListenerCallback processListenerCallback) {
+        ProcessCompletion processCompletion = watch(process, standardCallback, errorCallback,
+                processListenerCallback);
+
+        if(standardCallback != null)
+            startThread(new StreamTextReader(process.getInputStream(), standardCallback), processCompletion);
+
+        if(errorCallback != null)
+            startThread(new StreamTextReader(process.getErrorStream(), errorCallback), processCompletion);
+    }
+
+    @Override
+    void startBinary(Process process, int bufferSize, StreamBytesReader.StreamCallback standardCallback,
+                     StreamBytesReader.StreamCallback errorCallback,
+                     ProcessReaper.ProcessListenerCallback processListenerCallback) {
+        ProcessCompletion processCompletion = watch(process, standardCallback, errorCallback,
+                processListenerCallback);
+
+        if(errorCallback != null)
+            startThread(new StreamBytesReader(process.getErrorStream(), bufferSize, errorCallback),
+                    processCompletion);
+
+        if(standardCallback != null)
+            startThread(new StreamBytesReader(process.getInputStream(), bufferSize, standardCallback),
+                    processCompletion);
+    }
+
+    @Override
+    void startBuffered(Process process, StreamBufferReader.StreamCallback standardCallback,
+                       StreamBufferReader.StreamCallback errorCallback,
+                       ProcessReaper.ProcessListenerCallback processListenerCallback) {
+        ProcessCompletion processCompletion = watch(process, standardCallback, errorCallback,
+                processListenerCallback);
+
+        if(errorCallback != null)
+            startThread(new StreamBufferReader(process.getErrorStream(), errorCallback), processCompletion);
+
+        if(standardCallback != null)
+            startThread(new StreamBufferReader(process.getInputStream(), standardCallback), processCompletion);
+    }
+
+    private static ProcessCompletion watch(Process process, Object standardCallback, Object errorCallback,
+                                           ProcessReaper.ProcessListenerCallback processListenerCallback) {
+        int streamCount = (standardCallback != null ? 1 : 0) + (errorCallback != null ? 1 : 0);
+
+        ProcessCompletion processCompletion = new ProcessCompletion(process, streamCount, processListenerCallback);
+
+        ProcessReaper.INSTANCE.watch(process, processCompletion);
+
+        return processCompletion;
+    }
+
+    private void startThread(Runnable streamReader, ProcessCompletion processCompletion) {
+        Thread thread = threadFactory.newThread(ThreadCounter.track(() -> {
+            try {
+                streamReader.run();
+            }
+            finally {
+                processCompletion.onStreamFinished();
+            }
+        }));
+
+        if(thread == null)
+            throw new IllegalStateException("The thread factory rejected the creation of a thread.");
+
+        thread.start();
+    }
+}
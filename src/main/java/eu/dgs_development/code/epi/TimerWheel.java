@@ -0,0 +1,218 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timer wheel, which runs the timeouts of all processes with a single thread. A timeout is placed in the bucket
+ * of its deadline tick and expires after the wheel passed the bucket often enough. Scheduling and cancelling only
+ * touch a lock-free queue and a flag, so many thousands of pending timeouts are cheap. The thread parks while no
+ * timeout is pending, after it dropped the cancelled timeouts. Timeouts expire at most one tick late.
+ */
+final class TimerWheel {
+    static final TimerWheel INSTANCE = new TimerWheel(TimeUnit.MILLISECONDS.toNanos(10), 512);
+
+    private final long tickNanos;
+    private final Queue<Timeout>[] buckets;
+    private final int bucketMask;
+    private final Queue<Timeout> scheduledTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingTimeouts = new AtomicInteger();
+    private final AtomicBoolean threadStarted = new AtomicBoolean();
+
+    private volatile Thread wheelThread;
+
+    //Only accessed by the wheel thread.
+    private long startNanos;
+    private long tick;
+
+    /**
+     * Creates a new {@link TimerWheel} instance.
+     * @param tickNanos The duration of a tick in nanoseconds.
+     * @param bucketCount The amount of buckets. Must be a power of two.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TimerWheel(long tickNanos, int bucketCount) {
+        this.tickNanos = tickNanos;
+        this.buckets = new Queue[bucketCount];
+        this.bucketMask = bucketCount - 1;
+
+        for(int i = 0; i < bucketCount; i++)
+            buckets[i] = new ArrayDeque<>();
+    }
+
+    /**
+     * Schedules a task, which gets executed by the thread of the wheel. The task must not block.
+     * @param task The task to execute.
+     * @param delayNanos The delay in nanoseconds.
+     * @return The {@link Timeout} to cancel the task with.
+     */
+    Timeout schedule(Runnable task, long delayNanos) {
+        Timeout timeout = new Timeout(task, System.nanoTime() + Math.max(0, delayNanos));
+
+        pendingTimeouts.incrementAndGet();
+        scheduledTimeouts.add(timeout);
+
+        if(threadStarted.compareAndSet(false, true)) {
+            Thread thread = new Thread(ThreadCounter.track(this::run), "epi-timer-wheel");
+            thread.setDaemon(true);
+
+            wheelThread = thread;
+
+            thread.start();
+        }
+        else {
+            LockSupport.unpark(wheelThread);
+        }
+
+        return timeout;
+    }
+
+    /**
+     * Returns the amount of timeouts, which neither expired nor were cancelled.
+     * @return The amount of pending timeouts.
+     */
+    int getPendingTimeouts() {
+        return pendingTimeouts.get();
+    }
+
+    private void run() {
+        startNanos = System.nanoTime();
+
+        while (true) {
+            if(pendingTimeouts.get() == 0) {
+                //All remaining timeouts were cancelled. They are dropped before parking, because their tasks would
+                //keep the processes and handlers reachable until the next timeout is scheduled.
+                for(Queue<Timeout> bucket : buckets)
+                    bucket.clear();
+
+                scheduledTimeouts.removeIf(timeout -> timeout.finished.get());
+
+                LockSupport.park(this);
+
+                //The wheel restarts at the current time, because all buckets are empty.
+                startNanos = System.nanoTime();
+                tick = 0;
+
+                continue;
+            }
+
+            long tickDeadlineNanos = startNanos + (tick + 1) * tickNanos;
+            long remainingNanos = tickDeadlineNanos - System.nanoTime();
+
+            if(remainingNanos > 0) {
+                LockSupport.parkNanos(this, remainingNanos);
+
+                continue;
+            }
+
+            transferScheduledTimeouts();
+            expireBucket(buckets[(int) (tick & bucketMask)]);
+
+            tick++;
+        }
+    }
+
+    private void transferScheduledTimeouts() {
+        Timeout timeout;
+
+        while ((timeout = scheduledTimeouts.poll()) != null) {
+            if(timeout.finished.get())
+                continue;
+
+            //Overdue timeouts expire with the current tick.
+            long deadlineTick = Math.max(tick, (timeout.deadlineNanos - startNanos + tickNanos - 1) / tickNanos);
+
+            timeout.remainingRounds = (deadlineTick - tick) / buckets.length;
+
+            buckets[(int) (deadlineTick & bucketMask)].add(timeout);
+        }
+    }
+
+    private void expireBucket(Queue<Timeout> bucket) {
+        Iterator<Timeout> iterator = bucket.iterator();
+
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+
+            if(timeout.finished.get()) {
+                iterator.remove();
+            }
+            else if(timeout.remainingRounds <= 0) {
+                iterator.remove();
+
+                if(timeout.finish())
+                    runTask(timeout.task);
+            }
+            else {
+                timeout.remainingRounds--;
+            }
+        }
+    }
+
+    private static void runTask(Runnable task) {
+        try {
+            task.run();
+        }
+        catch (Throwable throwable) {
+            //A failing task must not stop the wheel.
+            Thread currentThread = Thread.currentThread();
+
+            currentThread.getUncaughtExceptionHandler().uncaughtException(currentThread, throwable);
+        }
+    }
+
+    /**
+     * A scheduled task, which can be cancelled until it expired.
+     */
+    final class Timeout {
+        private final Runnable task;
+        private final long deadlineNanos;
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        //Only accessed by the wheel thread.
+        private long remainingRounds;
+
+        private Timeout(Runnable task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Cancels the task, if it didn't expire yet.
+         * @return True if the task was cancelled.
+         */
+        boolean cancel() {
+            return finish();
+        }
+
+        private boolean finish() {
+            if(!finished.compareAndSet(false, true))
+                return false;
+
+            pendingTimeouts.decrementAndGet();
+
+            return true;
+        }
+    }
+}
@@ -0,0 +1,523 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import eu.dgs_development.code.epi.handlers.binary.BinaryProcessCallback;
+import eu.dgs_development.code.epi.handlers.binary.BinaryProcessHandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of long-lived worker processes, which avoids the startup costs of a process per request. Every request gets
+ * written to the standard input stream of an idle worker and its response is read from the standard output stream of
+ * the worker, by using a {@link MessageFraming} protocol. A worker handles a single request at a time. Exited, hung
+ * and retired workers are replaced automatically. The pool must be closed to stop the workers.
+ */
+public final class WorkerPool implements AutoCloseable {
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
+    private static final int INITIAL_RESPONSE_BUFFER_SIZE = 8192;
+
+    private final File processFile;
+    private final File workingDirectory;
+    private final List<String> arguments;
+    private final MessageFraming messageFraming;
+    private final ProcessOptions processOptions;
+    private final int minWorkers;
+    private final int maxWorkers;
+    private final long idleTimeoutNanos;
+    private final int maxRequestsPerWorker;
+    private final long requestTimeoutNanos;
+    private final int maxResponseBytes;
+    private final ScheduledThreadPoolExecutor healthCheckExecutor;
+
+    //Guarded by this.
+    private final List<PoolWorker> workers = new ArrayList<>();
+    private final Deque<PoolWorker> idleWorkers = new ArrayDeque<>();
+    private final Deque<PoolRequest> pendingRequests = new ArrayDeque<>();
+    private int startingWorkers;
+    private boolean closed;
+
+    /**
+     * Creates a new {@link WorkerPool} instance and starts the minimum amount of workers.
+     * @param processFile The executable of the workers.
+     * @param workingDirectory The working directory of the workers.
+     * @param arguments The arguments to start the workers with.
+     * @param messageFraming The protocol of the requests and responses.
+     * @param workerPoolOptions The settings of the pool, or null to use the default settings.
+     */
+    public WorkerPool(File processFile, File workingDirectory, List<String> arguments, MessageFraming messageFraming,
+                      WorkerPoolOptions workerPoolOptions) {
+        ValidationUtil.checkParameterNotNull(processFile, "processFile");
+        ValidationUtil.checkParameterNotNull(workingDirectory, "workingDirectory");
+        ValidationUtil.checkParameterNotNull(arguments, "arguments");
+        ValidationUtil.checkParameterNotNull(messageFraming, "messageFraming");
+
+        if(workerPoolOptions == null)
+            workerPoolOptions = new WorkerPoolOptions();
+
+        if(workerPoolOptions.getMinWorkers() > workerPoolOptions.getMaxWorkers())
+            throw new IllegalArgumentException("The minimum amount of workers can't exceed the maximum amount.");
+
+        if(!workerPoolOptions.getProcessOptions().isStandardOutputPiped() ||
+                workerPoolOptions.getProcessOptions().getInputSource() != null)
+            throw new IllegalArgumentException("The standard streams of the workers must be piped.");
+
+        this.processFile = processFile;
+        this.workingDirectory = workingDirectory;
+        this.arguments = new ArrayList<>(arguments);
+        this.messageFraming = messageFraming;
+        this.processOptions = workerPoolOptions.getProcessOptions();
+        this.minWorkers = workerPoolOptions.getMinWorkers();
+        this.maxWorkers = workerPoolOptions.getMaxWorkers();
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(workerPoolOptions.getIdleTimeoutMillis());
+        this.maxRequestsPerWorker = workerPoolOptions.getMaxRequestsPerWorker();
+        this.requestTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(workerPoolOptions.getRequestTimeoutMillis());
+        this.maxResponseBytes = workerPoolOptions.getMaxResponseBytes();
+
+        String threadName = "epi-worker-pool-" + POOL_COUNTER.incrementAndGet();
+
+        healthCheckExecutor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread healthCheckThread = new Thread(ThreadCounter.track(runnable), threadName);
+            healthCheckThread.setDaemon(true);
+
+            return healthCheckThread;
+        });
+
+        long healthCheckIntervalMillis = workerPoolOptions.getHealthCheckIntervalMillis();
+
+        healthCheckExecutor.scheduleWithFixedDelay(this::checkHealth, healthCheckIntervalMillis,
+                healthCheckIntervalMillis, TimeUnit.MILLISECONDS);
+
+        List<Runnable> actions = new ArrayList<>();
+
+        synchronized (this) {
+            dispatch(actions);
+        }
+
+        runActions(actions);
+    }
+
+    /**
+     * Passes a request to an idle worker. If all workers are busy, the request waits for a free worker.
+     * @param request The request, which gets framed and written to the worker.
+     * @return A {@link CompletableFuture}, which is completed with the response of the worker. It fails with an
+     * {@link IOException} if the worker exited or couldn't be started, or with a {@link TimeoutException} if the
+     * worker hung. Cancelling a waiting request removes it from the queue.
+     */
+    public CompletableFuture<byte[]> submit(byte[] request) {
+        ValidationUtil.checkParameterNotNull(request, "request");
+
+        PoolRequest poolRequest = new PoolRequest(messageFraming.encode(request));
+        List<Runnable> actions = new ArrayList<>();
+
+        synchronized (this) {
+            if(closed) {
+                poolRequest.future.completeExceptionally(new IllegalStateException("The worker pool was closed."));
+
+                return poolRequest.future;
+            }
+
+            pendingRequests.add(poolRequest);
+            poolRequest.waiting = true;
+
+            dispatch(actions);
+        }
+
+        runActions(actions);
+
+        //A request, which is cancelled or completed by the caller while waiting, leaves the queue immediately.
+        poolRequest.future.whenComplete((response, throwable) -> removeWaitingRequest(poolRequest));
+
+        return poolRequest.future;
+    }
+
+    /**
+     * Returns the amount of running and starting workers.
+     * @return The amount of workers.
+     */
+    public synchronized int getWorkerCount() {
+        return workers.size();
+    }
+
+    /**
+     * Returns the amount of workers, which are waiting for a request.
+     * @return The amount of idle workers.
+     */
+    public synchronized int getIdleWorkerCount() {
+        return idleWorkers.size();
+    }
+
+    /**
+     * Returns the amount of requests, which are waiting for a free worker.
+     * @return The amount of waiting requests.
+     */
+    public synchronized int getPendingRequestCount() {
+        return pendingRequests.size();
+    }
+
+    /**
+     * Stops all workers. Waiting and running requests fail with an {@link IOException}.
+     */
+    @Override
+    public void close() {
+        List<Runnable> actions = new ArrayList<>();
+
+        synchronized (this) {
+            if(closed)
+                return;
+
+            closed = true;
+
+            IOException closedException = new IOException("The worker pool was closed.");
+
+            for(PoolRequest pendingRequest : pendingRequests)
+                actions.add(() -> pendingRequest.future.completeExceptionally(closedException));
+
+            pendingRequests.clear();
+
+            for(PoolWorker worker : new ArrayList<>(workers))
+                worker.retire(actions, closedException, false);
+        }
+
+        healthCheckExecutor.shutdownNow();
+
+        runActions(actions);
+    }
+
+    //Assigns waiting requests to idle workers and starts the missing workers. Must be called while holding the lock.
+    private void dispatch(List<Runnable> actions) {
+        if(closed)
+            return;
+
+        while (!pendingRequests.isEmpty() && !idleWorkers.isEmpty()) {
+            PoolRequest poolRequest = pendingRequests.poll();
+            poolRequest.waiting = false;
+
+            //Skip requests, which were cancelled while waiting.
+            if(poolRequest.future.isDone())
+                continue;
+
+            //The most recently used worker is preferred, so the other workers can reach the idle timeout.
+            idleWorkers.pop().assign(poolRequest, actions);
+        }
+
+        int missingWorkers = Math.max(minWorkers - workers.size(),
+                Math.min(pendingRequests.size() - startingWorkers, maxWorkers - workers.size()));
+
+        for(int i = 0; i < missingWorkers; i++) {
+            PoolWorker worker = new PoolWorker();
+
+            workers.add(worker);
+            startingWorkers++;
+
+            actions.add(worker::start);
+        }
+    }
+
+    private synchronized void removeWaitingRequest(PoolRequest poolRequest) {
+        if(!poolRequest.waiting)
+            return;
+
+        pendingRequests.remove(poolRequest);
+        poolRequest.waiting = false;
+    }
+
+    private void checkHealth() {
+        List<Runnable> actions = new ArrayList<>();
+
+        synchronized (this) {
+            long currentNanos = System.nanoTime();
+
+            if(requestTimeoutNanos > 0) {
+                for(PoolWorker worker : new ArrayList<>(workers)) {
+                    if(worker.request != null && currentNanos - worker.requestNanos >= requestTimeoutNanos) {
+                        worker.retire(actions, new TimeoutException("The worker didn't respond in time."), true);
+                    }
+                }
+            }
+
+            if(idleTimeoutNanos > 0) {
+                //The least recently used workers are at the end of the deque.
+                Iterator<PoolWorker> idleIterator = idleWorkers.descendingIterator();
+
+                while (idleIterator.hasNext() && workers.size() > minWorkers) {
+                    PoolWorker worker = idleIterator.next();
+
+                    if(currentNanos - worker.idleNanos < idleTimeoutNanos)
+                        break;
+
+                    worker.retire(actions, null, false);
+                }
+            }
+
+            dispatch(actions);
+        }
+
+        runActions(actions);
+    }
+
+    private static void runActions(List<Runnable> actions) {
+        for(Runnable action : actions) {
+            try {
+                action.run();
+            }
+            catch (Throwable throwable) {
+                //A failing action must not prevent the remaining actions, e.g. the completion of other requests.
+                Thread currentThread = Thread.currentThread();
+
+                currentThread.getUncaughtExceptionHandler().uncaughtException(currentThread, throwable);
+            }
+        }
+    }
+
+    /**
+     * A request, which waits for its response.
+     */
+    private static final class PoolRequest {
+        private final byte[] frame;
+        private final CompletableFuture<byte[]> future = new CompletableFuture<>();
+
+        //Guarded by the lock of the pool.
+        private boolean waiting;
+
+        private PoolRequest(byte[] frame) {
+            this.frame = frame;
+        }
+    }
+
+    /**
+     * A single worker process, which is also the handler of the process.
+     */
+    private final class PoolWorker extends BinaryProcessHandler {
+        //Guarded by the lock of the pool.
+        private BinaryProcessCallback binaryProcessCallback;
+        private PoolRequest request;
+        private long requestNanos;
+        private long idleNanos;
+        private int handledRequests;
+        private boolean retired;
+
+        //Only accessed by the thread passing the output of the worker.
+        private byte[] responseBuffer = new byte[INITIAL_RESPONSE_BUFFER_SIZE];
+        private int responseLength;
+        private int searchedLength;
+
+        private void start() {
+            ProcessCreator.startProcess(processFile, workingDirectory, arguments, processOptions, this);
+        }
+
+        private void assign(PoolRequest poolRequest, List<Runnable> actions) {
+            request = poolRequest;
+            requestNanos = System.nanoTime();
+
+            BinaryProcessCallback callback = binaryProcessCallback;
+
+            actions.add(() -> {
+                try {
+                    callback.writeBytes(poolRequest.frame);
+                    callback.flush();
+                }
+                catch (IOException ioException) {
+                    fail(ioException);
+                }
+            });
+        }
+
+        //Removes the worker from the pool and stops its process. Must be called while holding the lock.
+        private void retire(List<Runnable> actions, Throwable requestFailure, boolean forcibly) {
+            if(retired)
+                return;
+
+            retired = true;
+
+            workers.remove(this);
+            idleWorkers.remove(this);
+
+            PoolRequest failedRequest = request;
+            request = null;
+
+            if(failedRequest != null && requestFailure != null)
+                actions.add(() -> failedRequest.future.completeExceptionally(requestFailure));
+
+            BinaryProcessCallback callback = binaryProcessCallback;
+
+            //A starting worker gets stopped once it's initialized.
+            if(callback != null)
+                actions.add(forcibly ? callback::destroyForcibly : callback::destroy);
+        }
+
+        private void fail(Throwable failure) {
+            List<Runnable> actions = new ArrayList<>();
+
+            synchronized (WorkerPool.this) {
+                retire(actions, failure, true);
+
+                dispatch(actions);
+            }
+
+            runActions(actions);
+        }
+
+        @Override
+        public void onInitialized(BinaryProcessCallback binaryProcessCallback) {
+            List<Runnable> actions = new ArrayList<>();
+
+            synchronized (WorkerPool.this) {
+                this.binaryProcessCallback = binaryProcessCallback;
+
+                startingWorkers--;
+
+                if(retired) {
+                    actions.add(binaryProcessCallback::destroy);
+                }
+                else {
+                    idleNanos = System.nanoTime();
+                    idleWorkers.push(this);
+
+                    dispatch(actions);
+                }
+            }
+
+            runActions(actions);
+        }
+
+        @Override
+        public void onStdBytesRead(BinaryProcessCallback binaryProcessCallback, int readBytes, byte[] byteArray) {
+            if(responseLength + readBytes > maxResponseBytes) {
+                responseLength = 0;
+                searchedLength = 0;
+
+                fail(new IOException("The response of the worker exceeds " + maxResponseBytes + " bytes."));
+
+                return;
+            }
+
+            if(responseLength + readBytes > responseBuffer.length) {
+                responseBuffer = Arrays.copyOf(responseBuffer, Math.min(maxResponseBytes,
+                        Math.max(responseBuffer.length * 2, responseLength + readBytes)));
+            }
+
+            System.arraycopy(byteArray, 0, responseBuffer, responseLength, readBytes);
+            responseLength += readBytes;
+
+            try {
+                int frameLength;
+
+                while ((frameLength = messageFraming.getFrameLength(responseBuffer, responseLength,
+                        searchedLength)) != -1) {
+                    byte[] response = messageFraming.decode(responseBuffer, frameLength);
+
+                    responseLength -= frameLength;
+                    searchedLength = 0;
+
+                    System.arraycopy(responseBuffer, frameLength, responseBuffer, 0, responseLength);
+
+                    onResponse(response);
+                }
+
+                searchedLength = responseLength;
+            }
+            catch (IOException ioException) {
+                responseLength = 0;
+                searchedLength = 0;
+
+                fail(ioException);
+            }
+        }
+
+        private void onResponse(byte[] response) {
+            List<Runnable> actions = new ArrayList<>();
+            PoolRequest completedRequest;
+
+            synchronized (WorkerPool.this) {
+                completedRequest = request;
+
+                //Output without a running request is ignored, e.g. a late response of a timed out request.
+                if(completedRequest == null || retired)
+                    return;
+
+                request = null;
+                handledRequests++;
+
+                if(maxRequestsPerWorker > 0 && handledRequests >= maxRequestsPerWorker) {
+                    retire(actions, null, false);
+                }
+                else {
+                    idleNanos = System.nanoTime();
+                    idleWorkers.push(this);
+                }
+
+                dispatch(actions);
+            }
+
+            completedRequest.future.complete(response);
+
+            runActions(actions);
+        }
+
+        @Override
+        public void onErrorBytesRead(BinaryProcessCallback binaryProcessCallback, int readBytes, byte[] byteArray) {
+            //Ignore...
+        }
+
+        @Override
+        public void onProcessExited(int exitCode) {
+            fail(new IOException("The worker exited with code " + exitCode + " before it responded."));
+        }
+
+        @Override
+        public void onIOException(IOException ioException) {
+            List<Runnable> actions = new ArrayList<>();
+
+            synchronized (WorkerPool.this) {
+                if(binaryProcessCallback == null) {
+                    //The worker couldn't be started. The health check tries to start a new worker later.
+                    startingWorkers--;
+
+                    retire(actions, null, false);
+
+                    //Without a running worker, the waiting requests would never be handled.
+                    if(workers.isEmpty()) {
+                        for(PoolRequest pendingRequest : pendingRequests)
+                            actions.add(() -> pendingRequest.future.completeExceptionally(ioException));
+
+                        pendingRequests.clear();
+                    }
+                }
+                else {
+                    retire(actions, ioException, true);
+
+                    dispatch(actions);
+                }
+            }
+
+            runActions(actions);
+        }
+    }
+}
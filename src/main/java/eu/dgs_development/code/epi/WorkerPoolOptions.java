@@ -0,0 +1,217 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+/**
+ * Class containing the settings of a {@link WorkerPool}. A new instance contains the default settings. The settings
+ * are copied when a pool is created, so an instance can be reused for several pools.
+ */
+public final class WorkerPoolOptions {
+    private int minWorkers = 1;
+    private int maxWorkers = Runtime.getRuntime().availableProcessors();
+    private long idleTimeoutMillis = 60000;
+    private int maxRequestsPerWorker;
+    private long requestTimeoutMillis;
+    private long healthCheckIntervalMillis = 1000;
+    private int maxResponseBytes = 16 * 1024 * 1024;
+    private ProcessOptions processOptions = new ProcessOptions().setErrorOutputRedirect(ProcessOptions.DISCARD);
+
+    /**
+     * Returns the amount of workers, which are kept alive even if they're idle.
+     * @return The minimum amount of workers.
+     */
+    public int getMinWorkers() {
+        return minWorkers;
+    }
+
+    /**
+     * Sets the amount of workers, which are kept alive even if they're idle. Exited workers are replaced, until the
+     * minimum is reached again. The default minimum is 1.
+     * @param minWorkers The minimum amount of workers.
+     * @return This {@link WorkerPoolOptions} instance.
+     */
+    public WorkerPoolOptions setMinWorkers(int minWorkers) {
+        if(minWorkers < 0)
+            throw new IllegalArgumentException("The parameter \"minWorkers\" can't be negative.");
+
+        this.minWorkers = minWorkers;
+
+        return this;
+    }
+
+    /**
+     * Returns the maximum amount of concurrently running workers.
+     * @return The maximum amount of workers.
+     */
+    public int getMaxWorkers() {
+        return maxWorkers;
+    }
+
+    /**
+     * Sets the maximum amount of concurrently running workers. If all workers are busy, further requests wait for a
+     * free worker. The default maximum is the amount of available processors.
+     * @param maxWorkers The maximum amount of workers.
+     * @return This {@link WorkerPoolOptions} instance.
+     */
+    public WorkerPoolOptions setMaxWorkers(int maxWorkers) {
+        if(maxWorkers < 1)
+            throw new IllegalArgumentException("The parameter \"maxWorkers\" must be greater than zero.");
+
+        this.maxWorkers = maxWorkers;
+
+        return this;
+    }
+
+    /**
+     * Returns the time after which an idle worker gets stopped, if more than the minimum amount of workers is running.
+     * @return The idle timeout in milliseconds, or 0 if idle workers aren't stopped.
+     */
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    /**
+     * Sets the time after which an idle worker gets stopped, if more than the minimum amount of workers is running.
+     * The default timeout is 60 seconds.
+     * @param idleTimeoutMillis The idle timeout in milliseconds, or 0 to keep idle workers alive.
+     * @return This {@link WorkerPoolOptions} instance.
+     */
+    public WorkerPoolOptions setIdleTimeoutMillis(long idleTimeoutMillis) {
+        if(idleTimeoutMillis < 0)
+            throw new IllegalArgumentException("The parameter \"idleTimeoutMillis\" can't be negative.");
+
+        this.idleTimeoutMillis = idleTimeoutMillis;
+
+        return this;
+    }
+
+    /**
+     * Returns the amount of requests, after which a worker gets replaced.
+     * @return The maximum amount of requests per worker, or 0 if workers aren't replaced.
+     */
+    public int getMaxRequestsPerWorker() {
+        return maxRequestsPerWorker;
+    }
+
+    /**
+     * Sets the amount of requests, after which a worker gets replaced, e.g. to limit the impact of memory leaks.
+     * Unlimited by default.
+     * @param maxRequestsPerWorker The maximum amount of requests per worker, or 0 to never replace a worker.
+     * @return This {@link WorkerPoolOptions} instance.
+     */
+    public WorkerPoolOptions setMaxRequestsPerWorker(int maxRequestsPerWorker) {
+        if(maxRequestsPerWorker < 0)
+            throw new IllegalArgumentException("The parameter \"maxRequestsPerWorker\" can't be negative.");
+
+        this.maxRequestsPerWorker = maxRequestsPerWorker;
+
+        return this;
+    }
+
+    /**
+     * Returns the time a worker may take to respond, before it's considered hung.
+     * @return The request timeout in milliseconds, or 0 if requests never time out.
+     */
+    public long getRequestTimeoutMillis() {
+        return requestTimeoutMillis;
+    }
+
+    /**
+     * Sets the time a worker may take to respond. A hung worker gets killed and replaced, while its request fails with
+     * a {@link java.util.concurrent.TimeoutException}. The timeout is checked in the health check interval. Disabled
+     * by default.
+     * @param requestTimeoutMillis The request timeout in milliseconds, or 0 to disable the timeout.
+     * @return This {@link WorkerPoolOptions} instance.
+     */
+    public WorkerPoolOptions setRequestTimeoutMillis(long requestTimeoutMillis) {
+        if(requestTimeoutMillis < 0)
+            throw new IllegalArgumentException("The parameter \"requestTimeoutMillis\" can't be negative.");
+
+        this.requestTimeoutMillis = requestTimeoutMillis;
+
+        return this;
+    }
+
+    /**
+     * Returns the interval of the health check, which detects hung and idle workers.
+     * @return The health check interval in milliseconds.
+     */
+    public long getHealthCheckIntervalMillis() {
+        return healthCheckIntervalMillis;
+    }
+
+    /**
+     * Sets the interval of the health check, which detects hung and idle workers and replaces missing workers. The
+     * default interval is 1 second.
+     * @param healthCheckIntervalMillis The health check interval in milliseconds.
+     * @return This {@link WorkerPoolOptions} instance.
+     */
+    public WorkerPoolOptions setHealthCheckIntervalMillis(long healthCheckIntervalMillis) {
+        if(healthCheckIntervalMillis < 1)
+            throw new IllegalArgumentException("The parameter \"healthCheckIntervalMillis\" must be greater than " +
+                    "zero.");
+
+        this.healthCheckIntervalMillis = healthCheckIntervalMillis;
+
+        return this;
+    }
+
+    /**
+     * Returns the maximum size of a response, including its framing.
+     * @return The maximum response size in bytes.
+     */
+    public int getMaxResponseBytes() {
+        return maxResponseBytes;
+    }
+
+    /**
+     * Sets the maximum size of a response, including its framing. A worker sending a larger response gets killed and
+     * replaced, while its request fails. The default maximum is 16 MiB.
+     * @param maxResponseBytes The maximum response size in bytes.
+     * @return This {@link WorkerPoolOptions} instance.
+     */
+    public WorkerPoolOptions setMaxResponseBytes(int maxResponseBytes) {
+        if(maxResponseBytes < 1)
+            throw new IllegalArgumentException("The parameter \"maxResponseBytes\" must be greater than zero.");
+
+        this.maxResponseBytes = maxResponseBytes;
+
+        return this;
+    }
+
+    /**
+     * Returns the options used to start the workers.
+     * @return The {@link ProcessOptions} of the workers.
+     */
+    public ProcessOptions getProcessOptions() {
+        return processOptions;
+    }
+
+    /**
+     * Sets the options used to start the workers. The redirect of the standard output stream must be
+     * {@link ProcessBuilder.Redirect#PIPE} and no input source may be set. By default, the error output stream of the
+     * workers is discarded.
+     * @param processOptions The {@link ProcessOptions} of the workers.
+     * @return This {@link WorkerPoolOptions} instance.
+     */
+    public WorkerPoolOptions setProcessOptions(ProcessOptions processOptions) {
+        ValidationUtil.checkParameterNotNull(processOptions, "processOptions");
+
+        this.processOptions = processOptions;
+
+        return this;
+    }
+}
@@ -22,7 +22,9 @@ import java.io.IOException;
  */
 public abstract class ProcessHandler {
     /**
-     * Gets executed when the process was terminated.
+     * Gets executed when the process was terminated and its output streams were read completely. The terminations of
+     * multiple processes can be notified by the same thread, therefore long-running work should be moved to another
+     * thread.
      * @param exitCode The exit code returned by the process.
      */
     public abstract void onProcessExited(int exitCode);
@@ -32,4 +34,14 @@ public abstract class ProcessHandler {
      * @param ioException The occurred {@link IOException}.
      */
     public abstract void onIOException(IOException ioException);
+
+    /**
+     * Gets executed if the process exceeded a timeout of its process options. Afterwards the process gets destroyed and
+     * killed forcibly, if it didn't terminate within the grace period. Without a callback executor, the timeouts of all
+     * processes are notified by the same thread, therefore long-running work should be moved to another thread.
+     * @param timeoutReason The {@link TimeoutReason} of the exceeded timeout.
+     */
+    public void onTimeout(TimeoutReason timeoutReason) {
+        //Ignore...
+    }
 }
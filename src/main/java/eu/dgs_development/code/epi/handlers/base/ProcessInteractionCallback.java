@@ -28,4 +28,14 @@ public interface ProcessInteractionCallback {
      * Kills the process forcibly. The process will terminate immediately.
      */
     void destroyForcibly();
+
+    /**
+     * Returns the amount of outputs, which were dropped because the handler couldn't keep up with the process.
+     * Outputs are only dropped if a handoff queue with a dropping {@link eu.dgs_development.code.epi.HandoffPolicy}
+     * is configured.
+     * @return The amount of dropped outputs of all streams.
+     */
+    default long getDroppedOutputs() {
+        return 0;
+    }
 }
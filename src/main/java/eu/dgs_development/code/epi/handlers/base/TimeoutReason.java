@@ -0,0 +1,30 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi.handlers.base;
+
+/**
+ * The reasons why a process was destroyed by a timeout of its process options.
+ */
+public enum TimeoutReason {
+    /**
+     * The process was running longer than its maximum lifetime.
+     */
+    LIFETIME,
+    /**
+     * The process didn't write to its output streams for longer than the idle timeout.
+     */
+    IDLE
+}
@@ -0,0 +1,193 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi.handlers.binary;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe pool of equally sized {@link ByteBuffer} instances, which are leased as {@link PooledBuffer}. The
+ * pool keeps at most a fixed amount of released buffers. If the pool is empty, a new buffer gets allocated. If the
+ * pool is full, a released buffer gets discarded. The hit, miss and discard counters can be used to size the pool.
+ * <p>
+ * The amount of buffers, which are leased at the same time, can be limited. If the limit is reached, leasing waits
+ * until a buffer was released. The reading of the process stream is paused meanwhile, so the process gets pushed back
+ * by the full pipe instead of allocating more buffers. The wait counter reports how often the limit was reached.
+ */
+public final class BufferPool {
+    private final int bufferSize;
+    private final boolean direct;
+    private final int maxLeasedBuffers;
+    private final BlockingQueue<PooledBuffer> pooledBuffers;
+    private final Semaphore leasePermits;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder discardCount = new LongAdder();
+    private final LongAdder waitCount = new LongAdder();
+
+    /**
+     * Creates a new {@link BufferPool} instance, which doesn't limit the amount of leased buffers.
+     * @param bufferSize The capacity of every buffer in bytes.
+     * @param maxPooledBuffers The maximum amount of released buffers to keep for reuse.
+     * @param direct True to allocate direct buffers, false to allocate heap buffers.
+     */
+    public BufferPool(int bufferSize, int maxPooledBuffers, boolean direct) {
+        this(bufferSize, maxPooledBuffers, Integer.MAX_VALUE, direct);
+    }
+
+    /**
+     * Creates a new {@link BufferPool} instance. Every read output stream holds a leased buffer while it waits for
+     * bytes, therefore the limit must be greater than the amount of streams reading from the pool at the same time.
+     * @param bufferSize The capacity of every buffer in bytes.
+     * @param maxPooledBuffers The maximum amount of released buffers to keep for reuse.
+     * @param maxLeasedBuffers The maximum amount of buffers, which can be leased at the same time.
+     * @param direct True to allocate direct buffers, false to allocate heap buffers.
+     */
+    public BufferPool(int bufferSize, int maxPooledBuffers, int maxLeasedBuffers, boolean direct) {
+        if(bufferSize < 1)
+            throw new IllegalArgumentException("The parameter \"bufferSize\" must be greater than zero.");
+
+        if(maxPooledBuffers < 1)
+            throw new IllegalArgumentException("The parameter \"maxPooledBuffers\" must be greater than zero.");
+
+        if(maxLeasedBuffers < 1)
+            throw new IllegalArgumentException("The parameter \"maxLeasedBuffers\" must be greater than zero.");
+
+        this.bufferSize = bufferSize;
+        this.direct = direct;
+        this.maxLeasedBuffers = maxLeasedBuffers;
+        this.pooledBuffers = new ArrayBlockingQueue<>(maxPooledBuffers);
+        this.leasePermits = new Semaphore(maxLeasedBuffers);
+    }
+
+    /**
+     * Leases a cleared buffer from the pool. A new buffer gets allocated if no released buffer is available. If the
+     * maximum amount of buffers is leased, the calling thread waits uninterruptibly until a buffer was released.
+     * @return The leased buffer, which must be released by its owner after use.
+     */
+    public PooledBuffer acquire() {
+        if(!leasePermits.tryAcquire()) {
+            waitCount.increment();
+
+            leasePermits.acquireUninterruptibly();
+        }
+
+        PooledBuffer pooledBuffer = pooledBuffers.poll();
+
+        if(pooledBuffer == null) {
+            missCount.increment();
+
+            pooledBuffer = new PooledBuffer(this, direct ? ByteBuffer.allocateDirect(bufferSize) :
+                    ByteBuffer.allocate(bufferSize));
+        }
+        else {
+            hitCount.increment();
+        }
+
+        pooledBuffer.lease();
+
+        return pooledBuffer;
+    }
+
+    /**
+     * Returns a released buffer to the pool.
+     * @param pooledBuffer The released buffer.
+     */
+    void recycle(PooledBuffer pooledBuffer) {
+        pooledBuffer.getByteBuffer().clear();
+
+        if(!pooledBuffers.offer(pooledBuffer))
+            discardCount.increment();
+
+        leasePermits.release();
+    }
+
+    /**
+     * Returns the capacity of every buffer in bytes.
+     * @return The buffer capacity.
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Returns true if the pool allocates direct buffers.
+     * @return True for direct buffers, false for heap buffers.
+     */
+    public boolean isDirect() {
+        return direct;
+    }
+
+    /**
+     * Returns the maximum amount of buffers, which can be leased at the same time.
+     * @return The lease limit, or {@link Integer#MAX_VALUE} if the amount isn't limited.
+     */
+    public int getMaxLeasedBuffers() {
+        return maxLeasedBuffers;
+    }
+
+    /**
+     * Returns the amount of buffers, which are currently leased.
+     * @return The amount of leased buffers.
+     */
+    public int getLeasedBufferCount() {
+        return maxLeasedBuffers - leasePermits.availablePermits();
+    }
+
+    /**
+     * Returns the amount of released buffers, which are currently available for reuse.
+     * @return The amount of available buffers.
+     */
+    public int getAvailableBufferCount() {
+        return pooledBuffers.size();
+    }
+
+    /**
+     * Returns the amount of leases, which reused a released buffer.
+     * @return The hit count.
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Returns the amount of leases, which had to allocate a new buffer.
+     * @return The miss count.
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Returns the amount of released buffers, which were discarded because the pool was full.
+     * @return The discard count.
+     */
+    public long getDiscardCount() {
+        return discardCount.sum();
+    }
+
+    /**
+     * Returns the amount of leases, which had to wait for a released buffer because the lease limit was reached.
+     * @return The wait count.
+     */
+    public long getWaitCount() {
+        return waitCount.sum();
+    }
+}
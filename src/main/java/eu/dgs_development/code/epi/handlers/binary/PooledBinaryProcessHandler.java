@@ -0,0 +1,58 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi.handlers.binary;
+
+import eu.dgs_development.code.epi.handlers.base.ProcessHandler;
+
+/**
+ * A {@link ProcessHandler} class, specialized to read binary data into leased buffers and to write binary data to a
+ * started process. Every read buffer is owned by the handler, until it gets released. Therefore it can be passed to
+ * other threads without copying it.
+ */
+public abstract class PooledBinaryProcessHandler extends ProcessHandler {
+    private static final BufferPool DEFAULT_BUFFER_POOL = new BufferPool(8192, 64, false);
+
+    /**
+     * Gets called after the process was started.
+     * @param binaryProcessCallback The callback to interact with the process.
+     */
+    public abstract void onInitialized(BinaryProcessCallback binaryProcessCallback);
+
+    /**
+     * Gets called after new bytes, from the standard output stream of the process, were read.
+     * @param binaryProcessCallback The callback to interact with the process.
+     * @param pooledBuffer The buffer containing the read bytes between its position and limit. The buffer must be
+     *                     released after use.
+     */
+    public abstract void onStdBufferRead(BinaryProcessCallback binaryProcessCallback, PooledBuffer pooledBuffer);
+
+    /**
+     * Gets called after new bytes, from the error output stream of the process, were read.
+     * @param binaryProcessCallback The callback to interact with the process.
+     * @param pooledBuffer The buffer containing the read bytes between its position and limit. The buffer must be
+     *                     released after use.
+     */
+    public abstract void onErrorBufferRead(BinaryProcessCallback binaryProcessCallback, PooledBuffer pooledBuffer);
+
+    /**
+     * Returns the pool to lease the read buffers from. The default pool is shared between all handlers and keeps up
+     * to 64 heap buffers of 8192 bytes.
+     * @return The {@link BufferPool} to use.
+     */
+    public BufferPool getBufferPool() {
+        return DEFAULT_BUFFER_POOL;
+    }
+}
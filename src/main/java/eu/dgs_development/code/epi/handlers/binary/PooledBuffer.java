@@ -0,0 +1,62 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi.handlers.binary;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A {@link ByteBuffer} leased from a {@link BufferPool}. The ownership of the buffer can be passed to other threads
+ * without copying its content. The last owner has to call {@link #release()}, to return the buffer to its pool.
+ */
+public final class PooledBuffer {
+    private final BufferPool bufferPool;
+    private final ByteBuffer byteBuffer;
+    private final AtomicBoolean leased = new AtomicBoolean();
+
+    /**
+     * Creates a new {@link PooledBuffer} instance.
+     * @param bufferPool The pool the buffer belongs to.
+     * @param byteBuffer The wrapped buffer.
+     */
+    PooledBuffer(BufferPool bufferPool, ByteBuffer byteBuffer) {
+        this.bufferPool = bufferPool;
+        this.byteBuffer = byteBuffer;
+    }
+
+    void lease() {
+        leased.set(true);
+    }
+
+    /**
+     * Returns the leased buffer. The buffer must not be used after it was released.
+     * @return The {@link ByteBuffer} of the lease.
+     */
+    public ByteBuffer getByteBuffer() {
+        return byteBuffer;
+    }
+
+    /**
+     * Returns the buffer to its pool. The buffer must not be used afterwards.
+     * @throws IllegalStateException Exception if the buffer was already released.
+     */
+    public void release() {
+        if(!leased.compareAndSet(true, false))
+            throw new IllegalStateException("The buffer was already released.");
+
+        bufferPool.recycle(this);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi.handlers.nio;
+
+import eu.dgs_development.code.epi.handlers.base.ProcessInteractionCallback;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link ProcessInteractionCallback} class to enable the user to interact with a process of a
+ * {@link ByteBufferProcessHandler}. The written bytes are passed to the process by the
+ * {@link eu.dgs_development.code.epi.InputWriter} of the process, like the bytes of the other handlers.
+ */
+public interface ByteBufferProcessCallback extends ProcessInteractionCallback {
+    /**
+     * Writes all remaining bytes of a buffer to the standard input stream of the process. The position of the buffer
+     * gets advanced to its limit.
+     * @param source The buffer to write.
+     * @throws IOException Exception if an IO error occurs.
+     */
+    void write(ByteBuffer source) throws IOException;
+
+    /**
+     * Writes the remaining bytes of several buffers to the standard input stream of the process, in the given order.
+     * The position of every buffer gets advanced to its limit.
+     * @param sources The buffers to write.
+     * @throws IOException Exception if an IO error occurs.
+     */
+    void write(ByteBuffer[] sources) throws IOException;
+
+    /**
+     * Writes a part of an array to the standard input stream of the process.
+     * @param bytes The array containing the bytes to write.
+     * @param offset The index of the first byte to write.
+     * @param length The amount of bytes to write.
+     * @throws IOException Exception if an IO error occurs.
+     */
+    void write(byte[] bytes, int offset, int length) throws IOException;
+
+    /**
+     * Passes all written bytes to the process. Only required if an asynchronous input writer with a delaying flush
+     * policy is used, because the default writer flushes every write.
+     * @throws IOException Exception if an IO error occurs.
+     */
+    void flush() throws IOException;
+
+    /**
+     * Flushes and closes the standard input stream of the process, to signal the end of the input.
+     * @throws IOException Exception if an IO error occurs.
+     */
+    void closeInput() throws IOException;
+
+    /**
+     * Returns the amount of bytes, which were passed to the standard input stream of the process.
+     * @return The amount of written bytes.
+     */
+    default long getWrittenBytes() {
+        return 0;
+    }
+
+    /**
+     * Returns the amount of writes, which are queued by an asynchronous input writer.
+     * @return The amount of queued writes.
+     */
+    default int getQueuedWrites() {
+        return 0;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi.handlers.nio;
+
+import eu.dgs_development.code.epi.handlers.base.ProcessHandler;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link ProcessHandler} class, specialized to read and write binary data from/to a started process by using
+ * {@link ByteBuffer} instances. The read bytes can be passed to channels, like files or sockets, without copying them
+ * into an intermediate array.
+ */
+public abstract class ByteBufferProcessHandler extends ProcessHandler {
+    /**
+     * Gets called after the process was started.
+     * @param byteBufferProcessCallback The callback to interact with the process.
+     */
+    public abstract void onInitialized(ByteBufferProcessCallback byteBufferProcessCallback);
+
+    /**
+     * Gets called after new bytes, from the standard output stream of the process, were read.
+     * @param byteBufferProcessCallback The callback to interact with the process.
+     * @param buffer The buffer containing the read bytes between its position and limit. The buffer is reused for
+     *               the next read and only valid during the call.
+     */
+    public abstract void onStdBufferRead(ByteBufferProcessCallback byteBufferProcessCallback, ByteBuffer buffer);
+
+    /**
+     * Gets called after new bytes, from the error output stream of the process, were read.
+     * @param byteBufferProcessCallback The callback to interact with the process.
+     * @param buffer The buffer containing the read bytes between its position and limit. The buffer is reused for
+     *               the next read and only valid during the call.
+     */
+    public abstract void onErrorBufferRead(ByteBufferProcessCallback byteBufferProcessCallback, ByteBuffer buffer);
+
+    /**
+     * Returns the buffer size to use, while reading bytes from the process streams.
+     * @return The buffer size.
+     */
+    public int getBufferSize() {
+        return 8192;
+    }
+
+    /**
+     * Returns true if the read bytes should be stored in direct buffers. Direct buffers can be written to channels
+     * without an additional copy by the JDK.
+     * @return True for direct buffers, false for heap buffers.
+     */
+    public boolean isDirectBuffer() {
+        return false;
+    }
+}
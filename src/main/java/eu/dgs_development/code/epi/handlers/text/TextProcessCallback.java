@@ -31,4 +31,29 @@ public interface TextProcessCallback extends ProcessInteractionCallback {
      * @throws IOException Exception if an IO error occurs.
      */
     void writeLine(String line) throws IOException;
+
+    /**
+     * Passes all written data to the process. Only required if an asynchronous input writer with a delaying flush
+     * policy is used, because the default writer flushes every write.
+     * @throws IOException Exception if an IO error occurs.
+     */
+    default void flush() throws IOException {
+        //Ignore...
+    }
+
+    /**
+     * Returns the amount of bytes, which were passed to the standard input stream of the process.
+     * @return The amount of written bytes.
+     */
+    default long getWrittenBytes() {
+        return 0;
+    }
+
+    /**
+     * Returns the amount of writes, which are queued by an asynchronous input writer.
+     * @return The amount of queued writes.
+     */
+    default int getQueuedWrites() {
+        return 0;
+    }
 }
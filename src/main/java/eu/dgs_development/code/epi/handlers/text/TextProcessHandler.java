@@ -30,7 +30,9 @@ public abstract class TextProcessHandler extends ProcessHandler {
     public abstract void onInitialized(TextProcessCallback textProcessCallback);
 
     /**
-     * Gets called after new Unicode lines, from the standard output stream of the process, were read.
+     * Gets called after new Unicode lines, from the standard output stream of the process, were read. This function
+     * is only called if lines are batched (see {@link #getLineBatchSize()}). The list is reused for all batches and
+     * is only valid during the call.
      * @param textProcessCallback The callback to interact with the process.
      * @param readLines The read lines from std-out.
      */
@@ -39,7 +41,9 @@ public abstract class TextProcessHandler extends ProcessHandler {
     }
 
     /**
-     * Gets called after new Unicode lines, from the error output stream of the process, were read.
+     * Gets called after new Unicode lines, from the error output stream of the process, were read. This function
+     * is only called if lines are batched (see {@link #getLineBatchSize()}). The list is reused for all batches and
+     * is only valid during the call.
      * @param textProcessCallback The callback to interact with the process.
      * @param readLines The read lines from err-out.
      */
@@ -47,6 +51,30 @@ public abstract class TextProcessHandler extends ProcessHandler {
         readLines.forEach(tmpLine -> onErrorLineRead(textProcessCallback, tmpLine));
     }
 
+    /**
+     * Gets called after a new Unicode line, from the standard output stream of the process, was read. The line is a
+     * reusable view, which is only valid during the call. Use {@link CharSequence#toString()} to keep a copy of the
+     * line. Override this function instead of {@link #onStdLineRead(TextProcessCallback, String)}, to avoid the
+     * allocation of a {@link String} for every read line.
+     * @param textProcessCallback The callback to interact with the process.
+     * @param readLine The read line from std-out.
+     */
+    public void onStdLineViewRead(TextProcessCallback textProcessCallback, CharSequence readLine) {
+        onStdLineRead(textProcessCallback, readLine.toString());
+    }
+
+    /**
+     * Gets called after a new Unicode line, from the error output stream of the process, was read. The line is a
+     * reusable view, which is only valid during the call. Use {@link CharSequence#toString()} to keep a copy of the
+     * line. Override this function instead of {@link #onErrorLineRead(TextProcessCallback, String)}, to avoid the
+     * allocation of a {@link String} for every read line.
+     * @param textProcessCallback The callback to interact with the process.
+     * @param readLine The read line from err-out.
+     */
+    public void onErrorLineViewRead(TextProcessCallback textProcessCallback, CharSequence readLine) {
+        onErrorLineRead(textProcessCallback, readLine.toString());
+    }
+
     /**
      * Gets called after a new Unicode line, from the standard output stream of the process, was read.
      * @param textProcessCallback The callback to interact with the process.
@@ -60,4 +88,24 @@ public abstract class TextProcessHandler extends ProcessHandler {
      * @param readLine The read line from err-out.
      */
     public abstract void onErrorLineRead(TextProcessCallback textProcessCallback, String readLine);
-}
\ No newline at end of file
+
+    /**
+     * Returns the maximum amount of lines, which are passed to {@link #onStdLinesRead(TextProcessCallback, List)} or
+     * {@link #onErrorLinesRead(TextProcessCallback, List)} at once. A batch gets delivered earlier, if its first line
+     * waited longer than {@link #getLineBatchDelayMicros()}, or if no more lines are currently available. A value of
+     * 1 disables the batching and every line is passed to {@link #onStdLineRead(TextProcessCallback, String)} or
+     * {@link #onErrorLineRead(TextProcessCallback, String)}.
+     * @return The maximum batch size.
+     */
+    public int getLineBatchSize() {
+        return 1;
+    }
+
+    /**
+     * Returns the maximum time in microseconds, a read line gets delayed while more lines are collected for a batch.
+     * @return The maximum batch delay in microseconds.
+     */
+    public long getLineBatchDelayMicros() {
+        return 1000;
+    }
+}
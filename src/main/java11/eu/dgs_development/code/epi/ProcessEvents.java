@@ -0,0 +1,325 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.StackTrace;
+
+/**
+ * Helper class to emit Java Flight Recorder events about started processes and their streams. This Java 11 variant
+ * tracks the state of all recordings with a {@link FlightRecorderListener}, so processes are only instrumented while a
+ * recording is running. Every event is additionally gated by its own settings of the recording. The events are begun
+ * before and ended after the measured operation, so their durations can be filtered by the threshold setting.
+ */
+final class ProcessEvents {
+    private static final String CATEGORY = "Easy Process Interaction";
+
+    private static volatile boolean recording;
+
+    static {
+        if(FlightRecorder.isAvailable()) {
+            FlightRecorder.addListener(new FlightRecorderListener() {
+                @Override
+                public void recordingStateChanged(Recording changedRecording) {
+                    updateRecording();
+                }
+
+                @Override
+                public void recorderInitialized(FlightRecorder flightRecorder) {
+                    updateRecording();
+                }
+            });
+        }
+    }
+
+    private ProcessEvents() {
+        //Ignore...
+    }
+
+    /**
+     * Returns true if a recording is running, so processes should be instrumented to emit events.
+     * @return True if events can be recorded.
+     */
+    static boolean isRecording() {
+        return recording;
+    }
+
+    /**
+     * Begins the event of a process, which is going to be started.
+     * @return The begun event, or null if the event isn't recorded.
+     */
+    static Object beginProcessStart() {
+        return begin(new ProcessStartEvent());
+    }
+
+    /**
+     * Emits the event about a started process. The duration of the event covers the spawn of the process.
+     * @param startEvent The event returned by {@link #beginProcessStart()}.
+     * @param command The command of the process.
+     * @param workingDirectory The working directory of the process.
+     */
+    static void processStarted(Object startEvent, String command, String workingDirectory) {
+        ProcessStartEvent event = (ProcessStartEvent) startEvent;
+
+        if(!end(event))
+            return;
+
+        event.command = command;
+        event.workingDirectory = workingDirectory;
+        event.commit();
+    }
+
+    /**
+     * Begins the event of a started process, which ends with its termination.
+     * @return The begun event, or null if the event isn't recorded.
+     */
+    static Object beginProcessExit() {
+        return begin(new ProcessExitEvent());
+    }
+
+    /**
+     * Emits the event about a terminated process. The duration of the event covers the lifetime of the process.
+     * @param exitEvent The event returned by {@link #beginProcessExit()}.
+     * @param command The command of the process.
+     * @param exitCode The exit code of the process.
+     */
+    static void processExited(Object exitEvent, String command, int exitCode) {
+        ProcessExitEvent event = (ProcessExitEvent) exitEvent;
+
+        if(!end(event))
+            return;
+
+        event.command = command;
+        event.exitCode = exitCode;
+        event.commit();
+    }
+
+    /**
+     * Begins the event of bytes, which are passed to the handler.
+     * @return The begun event, or null if the event isn't recorded.
+     */
+    static Object beginChunkRead() {
+        return begin(new StreamChunkReadEvent());
+    }
+
+    /**
+     * Emits the event about bytes, which were read from an output stream and passed to the handler. The duration of
+     * the event covers the handler callback.
+     * @param chunkEvent The event returned by {@link #beginChunkRead()}.
+     * @param errorStream True if the bytes were read from the error output stream.
+     * @param readBytes The amount of read bytes.
+     */
+    static void chunkRead(Object chunkEvent, boolean errorStream, int readBytes) {
+        StreamChunkReadEvent event = (StreamChunkReadEvent) chunkEvent;
+
+        if(!end(event))
+            return;
+
+        event.errorStream = errorStream;
+        event.bytes = readBytes;
+        event.commit();
+    }
+
+    /**
+     * Begins the event of lines, which are read from an output stream until it becomes idle.
+     * @return The begun event, or null if the event isn't recorded.
+     */
+    static Object beginLineBatch() {
+        return begin(new LineBatchEvent());
+    }
+
+    /**
+     * Emits the event about lines, which were read from an output stream without becoming idle. The duration of the
+     * event covers the reading and the handler callbacks of all lines.
+     * @param batchEvent The event returned by {@link #beginLineBatch()}.
+     * @param errorStream True if the lines were read from the error output stream.
+     * @param readLines The amount of read lines.
+     * @param readBytes The amount of bytes, which were read for the lines.
+     */
+    static void lineBatchRead(Object batchEvent, boolean errorStream, int readLines, long readBytes) {
+        LineBatchEvent event = (LineBatchEvent) batchEvent;
+
+        if(!end(event))
+            return;
+
+        event.errorStream = errorStream;
+        event.lines = readLines;
+        event.bytes = readBytes;
+        event.commit();
+    }
+
+    /**
+     * Begins the event of bytes, which are written to the standard input stream of a process.
+     * @return The begun event, or null if the event isn't recorded.
+     */
+    static Object beginStdinWrite() {
+        return begin(new StdinWriteEvent());
+    }
+
+    /**
+     * Emits the event about bytes, which were written to the standard input stream of a process. The duration of the
+     * event covers the write.
+     * @param writeEvent The event returned by {@link #beginStdinWrite()}.
+     * @param writtenBytes The amount of written bytes.
+     */
+    static void stdinWritten(Object writeEvent, int writtenBytes) {
+        StdinWriteEvent event = (StdinWriteEvent) writeEvent;
+
+        if(!end(event))
+            return;
+
+        event.bytes = writtenBytes;
+        event.commit();
+    }
+
+    /**
+     * Begins the event of a flush of the standard input stream of a process.
+     * @return The begun event, or null if the event isn't recorded.
+     */
+    static Object beginStdinFlush() {
+        return begin(new StdinFlushEvent());
+    }
+
+    /**
+     * Emits the event about a flush of the standard input stream of a process. The duration of the event covers the
+     * flush.
+     * @param flushEvent The event returned by {@link #beginStdinFlush()}.
+     */
+    static void stdinFlushed(Object flushEvent) {
+        StdinFlushEvent event = (StdinFlushEvent) flushEvent;
+
+        if(end(event))
+            event.commit();
+    }
+
+    private static Event begin(Event event) {
+        if(!event.isEnabled())
+            return null;
+
+        event.begin();
+
+        return event;
+    }
+
+    //Ends the timing of the event. The threshold of the recording is applied to the measured duration.
+    private static boolean end(Event event) {
+        if(event == null)
+            return false;
+
+        event.end();
+
+        return event.shouldCommit();
+    }
+
+    private static void updateRecording() {
+        boolean runningRecording = false;
+
+        for(Recording existingRecording : FlightRecorder.getFlightRecorder().getRecordings()) {
+            if(existingRecording.getState() == RecordingState.RUNNING) {
+                runningRecording = true;
+
+                break;
+            }
+        }
+
+        recording = runningRecording;
+    }
+
+    @Name("eu.dgs_development.code.epi.ProcessStart")
+    @Label("Process Start")
+    @Description("A process was started. The duration covers the spawn of the process.")
+    @Category(CATEGORY)
+    static final class ProcessStartEvent extends Event {
+        @Label("Command")
+        String command;
+
+        @Label("Working Directory")
+        String workingDirectory;
+    }
+
+    @Name("eu.dgs_development.code.epi.ProcessExit")
+    @Label("Process Exit")
+    @Description("The termination of a process was detected. The duration covers the lifetime of the process.")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class ProcessExitEvent extends Event {
+        @Label("Command")
+        String command;
+
+        @Label("Exit Code")
+        int exitCode;
+    }
+
+    @Name("eu.dgs_development.code.epi.StreamChunkRead")
+    @Label("Stream Chunk Read")
+    @Description("Bytes were read from an output stream and passed to the process handler. The duration covers " +
+            "the handler callback.")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class StreamChunkReadEvent extends Event {
+        @Label("Error Stream")
+        boolean errorStream;
+
+        @Label("Bytes")
+        @DataAmount
+        int bytes;
+    }
+
+    @Name("eu.dgs_development.code.epi.LineBatch")
+    @Label("Line Batch")
+    @Description("Lines were read from an output stream and passed to the process handler, until the stream was " +
+            "idle. The duration covers the whole batch.")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class LineBatchEvent extends Event {
+        @Label("Error Stream")
+        boolean errorStream;
+
+        @Label("Lines")
+        int lines;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("eu.dgs_development.code.epi.StdinWrite")
+    @Label("Stdin Write")
+    @Description("Bytes were written to the standard input stream of a process. The duration covers the write.")
+    @Category(CATEGORY)
+    static final class StdinWriteEvent extends Event {
+        @Label("Bytes")
+        @DataAmount
+        int bytes;
+    }
+
+    @Name("eu.dgs_development.code.epi.StdinFlush")
+    @Label("Stdin Flush")
+    @Description("The standard input stream of a process was flushed. The duration covers the flush.")
+    @Category(CATEGORY)
+    static final class StdinFlushEvent extends Event {
+        //The event has no fields apart from its timing.
+    }
+}
@@ -0,0 +1,51 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The default {@link ThreadFactory}, which creates the reader and termination detection threads of the
+ * thread-per-stream {@link IoEngine}. This Java 21 variant creates virtual threads, unless the system property
+ * {@value #VIRTUAL_THREADS_PROPERTY} is set to "false".
+ */
+final class DefaultThreadFactory implements ThreadFactory {
+    /**
+     * The name of the system property, which disables virtual threads on Java 21 or newer, if set to "false".
+     */
+    static final String VIRTUAL_THREADS_PROPERTY = "eu.dgs_development.code.epi.virtualThreads";
+
+    static final DefaultThreadFactory INSTANCE = new DefaultThreadFactory();
+
+    private final ThreadFactory virtualThreadFactory;
+
+    private DefaultThreadFactory() {
+        if(Boolean.parseBoolean(System.getProperty(VIRTUAL_THREADS_PROPERTY, "true"))) {
+            virtualThreadFactory = Thread.ofVirtual().name("epi-virtual-", 0).factory();
+        }
+        else {
+            virtualThreadFactory = null;
+        }
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+        if(virtualThreadFactory == null)
+            return new Thread(runnable);
+
+        return virtualThreadFactory.newThread(runnable);
+    }
+}
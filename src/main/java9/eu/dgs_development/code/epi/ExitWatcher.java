@@ -0,0 +1,95 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Helper class to detect the termination of processes with a single thread. This Java 9 variant gets notified by
+ * {@link Process#onExit()}, so no polling is required. The notifications are passed to the watcher thread, which only
+ * runs while processes are watched.
+ */
+final class ExitWatcher {
+    private final Consumer<Process> exitListener;
+    private final BlockingQueue<Process> exitedProcesses = new LinkedBlockingQueue<>();
+
+    private int watchedProcessCount;
+    private Thread watcherThread;
+
+    /**
+     * Creates a new {@link ExitWatcher} instance.
+     * @param exitListener The listener to notify if a watched process terminated.
+     */
+    ExitWatcher(Consumer<Process> exitListener) {
+        this.exitListener = exitListener;
+    }
+
+    /**
+     * Starts the termination detection for the given process.
+     * @param process The process to watch.
+     */
+    void watch(Process process) {
+        synchronized (this) {
+            watchedProcessCount++;
+
+            if(watcherThread == null) {
+                watcherThread = new Thread(ThreadCounter.track(this::run), "epi-process-reaper");
+                watcherThread.start();
+            }
+        }
+
+        onExit(process).thenRun(() -> exitedProcesses.add(process));
+    }
+
+    private static CompletableFuture<?> onExit(Process process) {
+        //A pipeline terminates after all of its stages terminated. Only the stages provide native notifications.
+        if(process instanceof PipelineProcess) {
+            return CompletableFuture.allOf(((PipelineProcess) process).getStages().stream()
+                    .map(Process::onExit)
+                    .toArray(CompletableFuture[]::new));
+        }
+
+        return process.onExit();
+    }
+
+    private void run() {
+        while (true) {
+            Process exitedProcess;
+
+            try {
+                exitedProcess = exitedProcesses.take();
+            }
+            catch (InterruptedException interruptedException) {
+                //The watcher thread must not stop, while processes are watched.
+                continue;
+            }
+
+            exitListener.accept(exitedProcess);
+
+            synchronized (this) {
+                watchedProcessCount--;
+
+                if(watchedProcessCount == 0) {
+                    watcherThread = null;
+                    return;
+                }
+            }
+        }
+    }
+}
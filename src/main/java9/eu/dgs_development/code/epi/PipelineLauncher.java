@@ -0,0 +1,40 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Helper class to start the processes of a pipeline. This Java 9 variant uses
+ * {@link ProcessBuilder#startPipeline(List)}, which connects the stages with OS pipes. No data is copied by the JVM.
+ */
+final class PipelineLauncher {
+    private PipelineLauncher() {
+        //Ignore...
+    }
+
+    /**
+     * Starts all processes of a pipeline and connects the standard output stream of every stage to the standard input
+     * stream of the next stage.
+     * @param processBuilders The builders of all stages, in the order of the pipeline.
+     * @return The started processes.
+     * @throws IOException Exception if a process couldn't be started. Already started processes are destroyed.
+     */
+    static List<Process> start(List<ProcessBuilder> processBuilders) throws IOException {
+        return ProcessBuilder.startPipeline(processBuilders);
+    }
+}
@@ -0,0 +1,231 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A started process, whose output streams are exposed as {@link Flow.Publisher} instances (Java 9 or newer). An output
+ * stream is only read while its subscriber has outstanding demand, therefore a slow subscriber throttles the process
+ * through the OS pipe, instead of buffering its output in the JVM. Every output stream can be subscribed once, either
+ * as bytes or as lines. Output streams without a subscriber aren't read and should be redirected with the
+ * {@link ProcessOptions}, to prevent the process from blocking on a full pipe.
+ */
+public final class ProcessPublisher {
+    private final Process process;
+    private final OutputStreamPublisher standardOutput;
+    private final OutputStreamPublisher errorOutput;
+
+    private ProcessPublisher(Process process, int bufferSize) {
+        this.process = process;
+
+        standardOutput = new OutputStreamPublisher(process.getInputStream(), bufferSize);
+        errorOutput = new OutputStreamPublisher(process.getErrorStream(), bufferSize);
+    }
+
+    /**
+     * Starts a new process, whose output streams are read by subscribers. Unless an input source is set, the standard
+     * input stream of the process can be written by using {@link Process#getOutputStream()}.
+     * @param processFile The process executable.
+     * @param workingDirectory The working directory of the process to start.
+     * @param arguments The arguments to start the process with.
+     * @param processOptions The options to start the process with, or null to use the default options.
+     * @return The {@link ProcessPublisher} of the started process.
+     * @throws IOException Exception if the process couldn't be started.
+     */
+    public static ProcessPublisher start(File processFile, File workingDirectory, List<String> arguments,
+                                         ProcessOptions processOptions) throws IOException {
+        return start(processFile, workingDirectory, arguments, processOptions, DemandReader.BUFFER_SIZE);
+    }
+
+    /**
+     * Starts a new process, whose output streams are read by subscribers. Unless an input source is set, the standard
+     * input stream of the process can be written by using {@link Process#getOutputStream()}.
+     * @param processFile The process executable.
+     * @param workingDirectory The working directory of the process to start.
+     * @param arguments The arguments to start the process with.
+     * @param processOptions The options to start the process with, or null to use the default options.
+     * @param bufferSize The maximum amount of bytes per emitted {@link ByteBuffer}.
+     * @return The {@link ProcessPublisher} of the started process.
+     * @throws IOException Exception if the process couldn't be started.
+     */
+    public static ProcessPublisher start(File processFile, File workingDirectory, List<String> arguments,
+                                         ProcessOptions processOptions, int bufferSize) throws IOException {
+        ValidationUtil.checkFileIsValid(processFile, "processFile");
+
+        if(bufferSize <= 0)
+            throw new IllegalArgumentException("The parameter \"bufferSize\" must be greater than zero.");
+
+        if(processOptions == null)
+            processOptions = new ProcessOptions();
+
+        Process process = ProcessCreator.createProcessBuilder(processFile, workingDirectory, arguments,
+                processOptions).start();
+
+        if(processOptions.getInputSource() != null) {
+            processOptions.getInputSource().transfer(process.getOutputStream(),
+                    processOptions.getIoEngine().getThreadFactory(), ioException -> {
+                        //Ignore, because the process notices the closed input stream...
+                    });
+        }
+
+        return new ProcessPublisher(process, bufferSize);
+    }
+
+    /**
+     * Returns the started process.
+     * @return The {@link Process}.
+     */
+    public Process getProcess() {
+        return process;
+    }
+
+    /**
+     * Returns a publisher of the standard output stream, which emits the read bytes.
+     * @return The {@link Flow.Publisher}, which accepts a single subscriber.
+     */
+    public Flow.Publisher<ByteBuffer> getStandardOutput() {
+        return standardOutput::subscribeBuffers;
+    }
+
+    /**
+     * Returns a publisher of the standard output stream, which emits the read lines without line separators.
+     * @return The {@link Flow.Publisher}, which accepts a single subscriber.
+     */
+    public Flow.Publisher<String> getStandardOutputLines() {
+        return standardOutput::subscribeLines;
+    }
+
+    /**
+     * Returns a publisher of the error output stream, which emits the read bytes.
+     * @return The {@link Flow.Publisher}, which accepts a single subscriber.
+     */
+    public Flow.Publisher<ByteBuffer> getErrorOutput() {
+        return errorOutput::subscribeBuffers;
+    }
+
+    /**
+     * Returns a publisher of the error output stream, which emits the read lines without line separators.
+     * @return The {@link Flow.Publisher}, which accepts a single subscriber.
+     */
+    public Flow.Publisher<String> getErrorOutputLines() {
+        return errorOutput::subscribeLines;
+    }
+
+    /**
+     * An output stream of the process, which can be subscribed once.
+     */
+    private static final class OutputStreamPublisher {
+        private final InputStream inputStream;
+        private final int bufferSize;
+        private final AtomicBoolean subscribed = new AtomicBoolean();
+
+        private OutputStreamPublisher(InputStream inputStream, int bufferSize) {
+            this.inputStream = inputStream;
+            this.bufferSize = bufferSize;
+        }
+
+        private void subscribeBuffers(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            if(checkSubscription(subscriber)) {
+                subscribe(subscriber, new DemandBufferReader(inputStream, bufferSize, new ForwardingSubscriber<>(
+                        subscriber), DefaultThreadFactory.INSTANCE));
+            }
+        }
+
+        private void subscribeLines(Flow.Subscriber<? super String> subscriber) {
+            if(checkSubscription(subscriber)) {
+                subscribe(subscriber, new DemandLineReader(inputStream, new ForwardingSubscriber<>(subscriber),
+                        DefaultThreadFactory.INSTANCE));
+            }
+        }
+
+        private boolean checkSubscription(Flow.Subscriber<?> subscriber) {
+            ValidationUtil.checkParameterNotNull(subscriber, "subscriber");
+
+            if(subscribed.compareAndSet(false, true))
+                return true;
+
+            subscriber.onSubscribe(CancelledSubscription.INSTANCE);
+            subscriber.onError(new IllegalStateException("The output stream was already subscribed."));
+
+            return false;
+        }
+
+        private static void subscribe(Flow.Subscriber<?> subscriber, DemandReader<?> demandReader) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long items) {
+                    demandReader.request(items);
+                }
+
+                @Override
+                public void cancel() {
+                    demandReader.cancel();
+                }
+            });
+        }
+    }
+
+    /**
+     * Forwards the items of a {@link DemandReader} to a {@link Flow.Subscriber}.
+     * @param <T> The type of the emitted items.
+     */
+    private static final class ForwardingSubscriber<T> implements DemandReader.Subscriber<T> {
+        private final Flow.Subscriber<? super T> subscriber;
+
+        private ForwardingSubscriber(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void onNext(T item) {
+            subscriber.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            subscriber.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            subscriber.onComplete();
+        }
+    }
+
+    /**
+     * The subscription passed to rejected subscribers, before they are notified about the rejection.
+     */
+    private static final class CancelledSubscription implements Flow.Subscription {
+        private static final CancelledSubscription INSTANCE = new CancelledSubscription();
+
+        @Override
+        public void request(long items) {
+            //Ignore...
+        }
+
+        @Override
+        public void cancel() {
+            //Ignore...
+        }
+    }
+}
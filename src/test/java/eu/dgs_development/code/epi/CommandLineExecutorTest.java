@@ -15,6 +15,7 @@ limitations under the License.
 
 package eu.dgs_development.code.epi;
 
+import eu.dgs_development.code.epi.handlers.base.TimeoutReason;
 import eu.dgs_development.code.epi.handlers.text.TextProcessCallback;
 import eu.dgs_development.code.epi.handlers.text.TextProcessHandler;
 import org.junit.jupiter.api.*;
@@ -23,7 +24,17 @@ import org.junit.jupiter.api.condition.OS;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
@@ -61,6 +72,379 @@ public class CommandLineExecutorTest {
         readWhoamiUsername(CommandLineExecutor.CommandLineType.WINDOWS_POWERSHELL_64BIT);
     }
 
+    @Test
+    @Order(3)
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    public void readLineViewsUnixTest() {
+        AtomicBoolean testCompleted = new AtomicBoolean(false);
+
+        List<String> readLines = new ArrayList<>();
+
+        final Throwable[] throwable = {null};
+
+        //Print lines with mixed line terminators, a multibyte UTF-8 line ("\u00e4\u20ac") and an unterminated last line.
+        CommandLineExecutor.executeCommand(CommandLineExecutor.CommandLineType.UNIX_SH,
+                "printf 'ascii\\r\\n\\303\\244\\342\\202\\254\\r\\nlast'", new TextProcessHandler() {
+            @Override
+            public void onInitialized(TextProcessCallback textProcessCallback) {
+                //Ignore, because we don't need to send data or kill the process...
+            }
+
+            @Override
+            public void onStdLineViewRead(TextProcessCallback textProcessCallback, CharSequence readLine) {
+                readLines.add(readLine.toString());
+            }
+
+            @Override
+            public void onStdLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                try {
+                    Assertions.fail("Read unexpected line instead of a line view: " + readLine);
+                }
+                catch (Throwable unexpectedThrowable) {
+                    throwable[0] = unexpectedThrowable;
+                }
+            }
+
+            @Override
+            public void onErrorLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                try {
+                    Assertions.fail("Read unexpected line from stderr: " + readLine);
+                }
+                catch (Throwable unexpectedThrowable) {
+                    throwable[0] = unexpectedThrowable;
+                }
+            }
+
+            @Override
+            public void onProcessExited(int exitCode) {
+                try {
+                    Assertions.assertEquals(0, exitCode, "Unexpected exit code.");
+                }
+                catch (Throwable unexpectedThrowable) {
+                    throwable[0] = unexpectedThrowable;
+                }
+
+                testCompleted.set(true);
+            }
+
+            @Override
+            public void onIOException(IOException ioException) {
+                throwable[0] = ioException;
+            }
+        });
+
+        while (!testCompleted.get()) {
+            try {
+                Thread.sleep(1000);
+            }
+            catch (InterruptedException interruptedException) {
+                Assertions.fail("Unexpected interrupted exception.", interruptedException);
+            }
+        }
+
+        if(throwable[0] != null) {
+            Assertions.fail("Unexpected assertion-exception.", throwable[0]);
+        }
+
+        Assertions.assertEquals(Arrays.asList("ascii", "\u00e4\u20ac", "last"), readLines, "Unexpected lines.");
+    }
+
+    @Test
+    @Order(4)
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    public void redirectOutputUnixTest() throws IOException {
+        AtomicBoolean testCompleted = new AtomicBoolean(false);
+
+        final Throwable[] throwable = {null};
+
+        File outputFile = File.createTempFile("epi-redirect", ".txt");
+        outputFile.deleteOnExit();
+
+        //Merge stderr into stdout and let the operating system write both into the file.
+        ProcessOptions processOptions = new ProcessOptions()
+                .setStandardOutputRedirect(ProcessBuilder.Redirect.to(outputFile))
+                .setRedirectErrorStream(true);
+
+        CommandLineExecutor.executeCommand(CommandLineExecutor.CommandLineType.UNIX_SH, null,
+                "echo out; echo err 1>&2", null, processOptions, new TextProcessHandler() {
+            @Override
+            public void onInitialized(TextProcessCallback textProcessCallback) {
+                //Ignore, because we don't need to send data or kill the process...
+            }
+
+            @Override
+            public void onStdLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                try {
+                    Assertions.fail("Read unexpected line from redirected stdout: " + readLine);
+                }
+                catch (Throwable unexpectedThrowable) {
+                    throwable[0] = unexpectedThrowable;
+                }
+            }
+
+            @Override
+            public void onErrorLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                try {
+                    Assertions.fail("Read unexpected line from merged stderr: " + readLine);
+                }
+                catch (Throwable unexpectedThrowable) {
+                    throwable[0] = unexpectedThrowable;
+                }
+            }
+
+            @Override
+            public void onProcessExited(int exitCode) {
+                try {
+                    Assertions.assertEquals(0, exitCode, "Unexpected exit code.");
+                }
+                catch (Throwable unexpectedThrowable) {
+                    throwable[0] = unexpectedThrowable;
+                }
+
+                testCompleted.set(true);
+            }
+
+            @Override
+            public void onIOException(IOException ioException) {
+                throwable[0] = ioException;
+            }
+        });
+
+        while (!testCompleted.get()) {
+            try {
+                Thread.sleep(1000);
+            }
+            catch (InterruptedException interruptedException) {
+                Assertions.fail("Unexpected interrupted exception.", interruptedException);
+            }
+        }
+
+        if(throwable[0] != null) {
+            Assertions.fail("Unexpected assertion-exception.", throwable[0]);
+        }
+
+        Assertions.assertEquals(Arrays.asList("out", "err"),
+                Files.readAllLines(outputFile.toPath(), StandardCharsets.UTF_8), "Unexpected redirected lines.");
+    }
+
+    @Test
+    @Order(5)
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    public void scheduledCommandsUnixTest() {
+        AtomicInteger exitedProcesses = new AtomicInteger();
+        List<String> startOrder = Collections.synchronizedList(new ArrayList<>());
+
+        final Throwable[] throwable = {null};
+
+        //Only a single "sleep" process may run, so the waiting processes are started by their priority.
+        ProcessScheduler processScheduler = new ProcessScheduler(new ProcessSchedulerOptions()
+                .setMaxRunningProcesses(2)
+                .setTagLimit("sleep", 1));
+
+        int[] priorities = {0, 1, 5, 3};
+
+        for(int priority : priorities) {
+            processScheduler.executeCommand("sleep", priority, CommandLineExecutor.CommandLineType.UNIX_SH, null,
+                    "sleep 0.2", null, null, new TextProcessHandler() {
+                @Override
+                public void onInitialized(TextProcessCallback textProcessCallback) {
+                    if(processScheduler.getRunningProcessCount("sleep") > 1)
+                        throwable[0] = new AssertionError("The limit of the tag was exceeded.");
+
+                    startOrder.add("sleep-" + priority);
+                }
+
+                @Override
+                public void onStdLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                    //Ignore...
+                }
+
+                @Override
+                public void onErrorLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                    //Ignore...
+                }
+
+                @Override
+                public void onProcessExited(int exitCode) {
+                    exitedProcesses.incrementAndGet();
+                }
+
+                @Override
+                public void onIOException(IOException ioException) {
+                    throwable[0] = ioException;
+                }
+            });
+        }
+
+        Assertions.assertEquals(3, processScheduler.getQueuedProcessCount(), "Unexpected amount of queued processes.");
+
+        while (exitedProcesses.get() < priorities.length || processScheduler.getRunningProcessCount() > 0) {
+            try {
+                Thread.sleep(1000);
+            }
+            catch (InterruptedException interruptedException) {
+                Assertions.fail("Unexpected interrupted exception.", interruptedException);
+            }
+        }
+
+        if(throwable[0] != null) {
+            Assertions.fail("Unexpected assertion-exception.", throwable[0]);
+        }
+
+        Assertions.assertEquals(Arrays.asList("sleep-0", "sleep-5", "sleep-3", "sleep-1"), startOrder,
+                "Unexpected start order.");
+        Assertions.assertEquals(4, processScheduler.getStartedProcessCount(),
+                "Unexpected amount of started processes.");
+        Assertions.assertTrue(processScheduler.getMaxQueueWaitMillis() >= 400, "Unexpected maximum queue wait time.");
+    }
+
+    @Test
+    @Order(6)
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    public void executeCommandAsyncUnixTest() throws Exception {
+        List<CompletableFuture<ProcessResult>> futures = new ArrayList<>();
+
+        for(int i = 0; i < 3; i++) {
+            futures.add(CommandLineExecutor.executeCommandAsync(CommandLineExecutor.CommandLineType.UNIX_SH, null,
+                    "echo out" + i + "; echo err" + i + " 1>&2; exit " + i, null, null));
+        }
+
+        //The captured output is limited to two bytes per stream.
+        CompletableFuture<ProcessResult> truncatedFuture = CommandLineExecutor.executeCommandAsync(
+                CommandLineExecutor.CommandLineType.UNIX_SH, null, "echo truncated", null,
+                new ProcessOptions().setMaxCapturedBytes(2));
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+
+        for(int i = 0; i < futures.size(); i++) {
+            ProcessResult processResult = futures.get(i).get();
+
+            Assertions.assertEquals(i, processResult.getExitCode(), "Unexpected exit code.");
+            Assertions.assertEquals("out" + i + "\n", processResult.getStandardOutput(), "Unexpected stdout.");
+            Assertions.assertEquals("err" + i + "\n", processResult.getErrorOutput(), "Unexpected stderr.");
+            Assertions.assertFalse(processResult.isStandardOutputTruncated(), "Unexpected truncated stdout.");
+        }
+
+        ProcessResult truncatedResult = truncatedFuture.get(30, TimeUnit.SECONDS);
+
+        Assertions.assertEquals("tr", truncatedResult.getStandardOutput(), "Unexpected truncated stdout.");
+        Assertions.assertTrue(truncatedResult.isStandardOutputTruncated(), "The stdout should be truncated.");
+    }
+
+    @Test
+    @Order(7)
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    public void shellSessionUnixTest() throws Exception {
+        try (ShellSession shellSession = ShellSession.start(CommandLineExecutor.CommandLineType.UNIX_SH, null,
+                new ShellSessionOptions().setCommandTimeoutMillis(2000))) {
+            //The unterminated line is followed by the marker on the same line.
+            ProcessResult partialResult = shellSession.executeAsync("cd /; printf partial").get(30, TimeUnit.SECONDS);
+
+            Assertions.assertEquals(0, partialResult.getExitCode(), "Unexpected exit code.");
+            Assertions.assertEquals("partial\n", partialResult.getStandardOutput(), "Unexpected stdout.");
+
+            //The working directory of the previous command is kept by the shell.
+            ProcessResult stateResult = shellSession.executeAsync("pwd; echo err 1>&2; false")
+                    .get(30, TimeUnit.SECONDS);
+
+            Assertions.assertEquals(1, stateResult.getExitCode(), "Unexpected exit code.");
+            Assertions.assertEquals("/\n", stateResult.getStandardOutput(), "Unexpected stdout.");
+            Assertions.assertEquals("err\n", stateResult.getErrorOutput(), "Unexpected stderr.");
+
+            //The wedged command kills the session, so the following command fails.
+            CompletableFuture<ProcessResult> wedgedFuture = shellSession.executeAsync("sleep 30");
+            CompletableFuture<ProcessResult> failedFuture = shellSession.executeAsync("echo unreachable");
+
+            Assertions.assertEquals(TimeoutReason.LIFETIME, wedgedFuture.get(30, TimeUnit.SECONDS).getTimeoutReason(),
+                    "Unexpected timeout reason.");
+
+            ExecutionException executionException = Assertions.assertThrows(ExecutionException.class,
+                    () -> failedFuture.get(30, TimeUnit.SECONDS));
+
+            Assertions.assertTrue(executionException.getCause() instanceof IOException, "Unexpected exception.");
+            Assertions.assertFalse(shellSession.isAlive(), "The session should be terminated.");
+        }
+
+        try (ShellSessionPool shellSessionPool = new ShellSessionPool(CommandLineExecutor.CommandLineType.UNIX_SH,
+                null, new ShellSessionOptions().setMaxSessions(2))) {
+            List<CompletableFuture<ProcessResult>> futures = new ArrayList<>();
+
+            for(int i = 0; i < 6; i++)
+                futures.add(shellSessionPool.executeAsync("echo out" + i + "; (exit " + i + ")"));
+
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+
+            for(int i = 0; i < futures.size(); i++) {
+                ProcessResult processResult = futures.get(i).get();
+
+                Assertions.assertEquals(i, processResult.getExitCode(), "Unexpected exit code.");
+                Assertions.assertEquals("out" + i + "\n", processResult.getStandardOutput(), "Unexpected stdout.");
+            }
+
+            Assertions.assertEquals(2, shellSessionPool.getSessionCount(), "Unexpected amount of sessions.");
+        }
+    }
+
+    @Test
+    @Order(8)
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    public void processResultCacheUnixTest() throws Exception {
+        ProcessResultCache processResultCache = new ProcessResultCache(null);
+
+        //The concurrent calls share a single shell, so all callers receive the same process id.
+        List<CompletableFuture<ProcessResult>> futures = new ArrayList<>();
+
+        for(int i = 0; i < 4; i++)
+            futures.add(processResultCache.executeCommandAsync(CommandLineExecutor.CommandLineType.UNIX_SH, null,
+                    "sleep 1; echo $$", null, null, null));
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+
+        String processId = futures.get(0).get().getStandardOutput();
+
+        for(CompletableFuture<ProcessResult> future : futures)
+            Assertions.assertEquals(processId, future.get().getStandardOutput(), "Unexpected stdout.");
+
+        Assertions.assertEquals(1, processResultCache.getMissCount(), "Unexpected amount of misses.");
+        Assertions.assertEquals(3, processResultCache.getCoalescedCount(), "Unexpected amount of coalesced calls.");
+
+        ProcessResult cachedResult = processResultCache.executeCommandAsync(CommandLineExecutor.CommandLineType.UNIX_SH,
+                null, "sleep 1; echo $$", null, null, null).get(30, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(processId, cachedResult.getStandardOutput(), "Unexpected stdout.");
+        Assertions.assertEquals(1, processResultCache.getHitCount(), "Unexpected amount of hits.");
+
+        //A changed input file results in a different key.
+        File inputFile = Files.createTempFile("epi-cache", ".txt").toFile();
+
+        try {
+            List<String> arguments = Collections.singletonList(inputFile.getAbsolutePath());
+
+            Files.write(inputFile.toPath(), "first".getBytes(StandardCharsets.UTF_8));
+
+            Assertions.assertEquals("first", processResultCache.executeCommandAsync(
+                    CommandLineExecutor.CommandLineType.UNIX_SH, null, "cat", arguments, null,
+                    Collections.singletonList(inputFile)).get(30, TimeUnit.SECONDS).getStandardOutput(),
+                    "Unexpected stdout.");
+
+            Files.write(inputFile.toPath(), "second".getBytes(StandardCharsets.UTF_8));
+
+            Assertions.assertEquals("second", processResultCache.executeCommandAsync(
+                    CommandLineExecutor.CommandLineType.UNIX_SH, null, "cat", arguments, null,
+                    Collections.singletonList(inputFile)).get(30, TimeUnit.SECONDS).getStandardOutput(),
+                    "Unexpected stdout.");
+        }
+        finally {
+            Files.delete(inputFile.toPath());
+        }
+
+        Assertions.assertEquals(3, processResultCache.getEntryCount(), "Unexpected amount of entries.");
+
+        processResultCache.invalidateAll();
+
+        Assertions.assertEquals(0, processResultCache.getSizeBytes(), "Unexpected cache size.");
+    }
+
     public static void readWhoamiUsername(CommandLineExecutor.CommandLineType commandLineType) {
         AtomicBoolean testCompleted = new AtomicBoolean(false);
 
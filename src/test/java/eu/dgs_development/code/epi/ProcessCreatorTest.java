@@ -15,21 +15,40 @@ limitations under the License.
 
 package eu.dgs_development.code.epi;
 
+import eu.dgs_development.code.epi.handlers.base.TimeoutReason;
 import eu.dgs_development.code.epi.handlers.binary.BinaryProcessCallback;
 import eu.dgs_development.code.epi.handlers.binary.BinaryProcessHandler;
+import eu.dgs_development.code.epi.handlers.binary.BufferPool;
+import eu.dgs_development.code.epi.handlers.binary.PooledBinaryProcessHandler;
+import eu.dgs_development.code.epi.handlers.binary.PooledBuffer;
+import eu.dgs_development.code.epi.handlers.nio.ByteBufferProcessCallback;
+import eu.dgs_development.code.epi.handlers.nio.ByteBufferProcessHandler;
 import eu.dgs_development.code.epi.handlers.text.TextProcessCallback;
 import eu.dgs_development.code.epi.handlers.text.TextProcessHandler;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
@@ -533,4 +552,1445 @@ public class ProcessCreatorTest {
         Assertions.assertArrayEquals(outMessageDigest.digest(), inMessageDigest.digest(),
                 "Unexpected hash value: The received data is not equal to the transmitted data.");
     }
+
+    @Test
+    @Order(6)
+    public void stringStdoutEchoSharedIoEngineTest() throws NoSuchAlgorithmException {
+        final String testString = "This is a test string to echo from the started process!";
+        final String exitString = "EXIT";
+
+        MessageDigest outMessageDigest = MessageDigest.getInstance("SHA-256");
+        MessageDigest inMessageDigest = MessageDigest.getInstance("SHA-256");
+
+        List<String> arguments = new ArrayList<>();
+        arguments.add("echo-string");
+
+        IoEngine ioEngine = IoEngine.shared(1);
+
+        ProcessOptions processOptions = new ProcessOptions().setIoEngine(ioEngine);
+
+        AtomicBoolean testCompleted = new AtomicBoolean(false);
+
+        final Throwable[] throwable = {null};
+
+        ProcessCreator.startProcess(executableFile, executableFile.getParentFile(), arguments, processOptions,
+                new TextProcessHandler() {
+            @Override
+            public void onInitialized(TextProcessCallback textProcessCallback) {
+                try {
+                    //Send three test strings.
+
+                    for(int i = 0; i < 3; i++) {
+                        textProcessCallback.writeLine(testString + "\n");
+                        outMessageDigest.update(testString.getBytes(StandardCharsets.UTF_8));
+                    }
+
+                    //Send exit string to terminate the process.
+
+                    textProcessCallback.writeLine(exitString + "\n");
+                }
+                catch (IOException ioException) {
+                    throwable[0] = ioException;
+                }
+            }
+
+            @Override
+            public void onStdLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                inMessageDigest.update(readLine.getBytes(StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public void onErrorLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                try {
+                    Assertions.fail("Read unexpected line from stderr: " + readLine);
+                }
+                catch (Throwable unexpectedThrowable) {
+                    throwable[0] = unexpectedThrowable;
+                }
+            }
+
+            @Override
+            public void onProcessExited(int exitCode) {
+                try {
+                    Assertions.assertEquals(0, exitCode, "Unexpected exit code.");
+                }
+                catch (Throwable unexpectedThrowable) {
+                    throwable[0] = unexpectedThrowable;
+                }
+
+                testCompleted.set(true);
+            }
+
+            @Override
+            public void onIOException(IOException ioException) {
+                throwable[0] = ioException;
+            }
+        });
+
+        while (!testCompleted.get()) {
+            try {
+                Thread.sleep(1000);
+            }
+            catch (InterruptedException interruptedException) {
+                Assertions.fail("Unexpected interrupted exception.", interruptedException);
+            }
+        }
+
+        if(throwable[0] != null) {
+            Assertions.fail("Unexpected assertion-exception.", throwable[0]);
+        }
+
+        ioEngine.close();
+
+        Assertions.assertArrayEquals(outMessageDigest.digest(), inMessageDigest.digest(),
+                "Unexpected hash value: The received data is not equal to the transmitted data.");
+    }
+
+    @Test
+    @Order(7)
+    public void stringStdoutBatchedEchoTest() throws NoSuchAlgorithmException {
+        final String testString = "This is a test string to echo from the started process!";
+        final String exitString = "EXIT";
+        final int lineCount = 100;
+        final int lineBatchSize = 16;
+
+        MessageDigest outMessageDigest = MessageDigest.getInstance("SHA-256");
+        MessageDigest inMessageDigest = MessageDigest.getInstance("SHA-256");
+
+        List<String> arguments = new ArrayList<>();
+        arguments.add("echo-string");
+
+        AtomicBoolean testCompleted = new AtomicBoolean(false);
+        AtomicInteger readLineCount = new AtomicInteger();
+
+        final Throwable[] throwable = {null};
+
+        ProcessCreator.startProcessInProcessDirectory(executableFile, arguments, new TextProcessHandler() {
+            @Override
+            public void onInitialized(TextProcessCallback textProcessCallback) {
+                try {
+                    StringBuilder linesStringBuilder = new StringBuilder();
+
+                    for(int i = 0; i < lineCount; i++) {
+                        linesStringBuilder.append(testString).append(i).append("\n");
+                        outMessageDigest.update((testString + i).getBytes(StandardCharsets.UTF_8));
+                    }
+
+                    //Send all test strings at once, followed by the exit string to terminate the process.
+
+                    textProcessCallback.writeLine(linesStringBuilder.toString());
+                    textProcessCallback.writeLine(exitString + "\n");
+                }
+                catch (IOException ioException) {
+                    throwable[0] = ioException;
+                }
+            }
+
+            @Override
+            public void onStdLinesRead(TextProcessCallback textProcessCallback, List<String> readLines) {
+                try {
+                    Assertions.assertTrue(readLines.size() <= lineBatchSize, "Unexpected batch size.");
+                }
+                catch (Throwable unexpectedThrowable) {
+                    throwable[0] = unexpectedThrowable;
+                }
+
+                for(String readLine : readLines) {
+                    inMessageDigest.update(readLine.getBytes(StandardCharsets.UTF_8));
+                    readLineCount.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void onStdLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                try {
+                    Assertions.fail("Read unbatched line from stdout: " + readLine);
+                }
+                catch (Throwable unexpectedThrowable) {
+                    throwable[0] = unexpectedThrowable;
+                }
+            }
+
+            @Override
+            public void onErrorLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                try {
+                    Assertions.fail("Read unexpected line from stderr: " + readLine);
+                }
+                catch (Throwable unexpectedThrowable) {
+                    throwable[0] = unexpectedThrowable;
+                }
+            }
+
+            @Override
+            public void onProcessExited(int exitCode) {
+                try {
+                    Assertions.assertEquals(0, exitCode, "Unexpected exit code.");
+                }
+                catch (Throwable unexpectedThrowable) {
+                    throwable[0] = unexpectedThrowable;
+                }
+
+                testCompleted.set(true);
+            }
+
+            @Override
+            public void onIOException(IOException ioException) {
+                throwable[0] = ioException;
+            }
+
+            @Override
+            public int getLineBatchSize() {
+                return lineBatchSize;
+            }
+        });
+
+        while (!testCompleted.get()) {
+            try {
+                Thread.sleep(1000);
+            }
+            catch (InterruptedException interruptedException) {
+                Assertions.fail("Unexpected interrupted exception.", interruptedException);
+            }
+        }
+
+        if(throwable[0] != null) {
+            Assertions.fail("Unexpected assertion-exception.", throwable[0]);
+        }
+
+        Assertions.assertEquals(lineCount, readLineCount.get(), "Unexpected amount of read lines.");
+        Assertions.assertArrayEquals(outMessageDigest.digest(), inMessageDigest.digest(),
+                "Unexpected hash value: The received data is not equal to the transmitted data.");
+    }
+
+    @Test
+    @Order(8)
+    public void pooledBytesStdoutEchoTest() throws Exception {
+        final byte[] testBytes = {2, 4, 6, 8};
+        final byte[] exitBytes = {69, 88, 73, 84};
+
+        MessageDigest outMessageDigest = MessageDigest.getInstance("SHA-256");
+        MessageDigest inMessageDigest = MessageDigest.getInstance("SHA-256");
+
+        List<String> arguments = new ArrayList<>();
+        arguments.add("echo-bytes");
+
+        //Each output stream holds a single lease, because the handler releases a buffer before the next read.
+        BufferPool bufferPool = new BufferPool(16, 4, 2, true);
+
+        AtomicBoolean testCompleted = new AtomicBoolean(false);
+
+        final Throwable[] throwable = {null};
+
+        ProcessCreator.startProcess(executableFile, executableFile.getParentFile(), arguments, null,
+                new PooledBinaryProcessHandler() {
+            {
+                Thread.currentThread().setUncaughtExceptionHandler((thread, unexpectedThrowable) ->
+                        throwable[0] = unexpectedThrowable);
+            }
+
+            @Override
+            public void onInitialized(BinaryProcessCallback binaryProcessCallback) {
+                try {
+                    //Send three test arrays.
+
+                    binaryProcessCallback.writeBytes(testBytes);
+                    outMessageDigest.update(testBytes);
+
+                    binaryProcessCallback.writeBytes(testBytes);
+                    outMessageDigest.update(testBytes);
+
+                    binaryProcessCallback.writeBytes(testBytes);
+                    outMessageDigest.update(testBytes);
+
+                    //Send exit bytes to terminate the process.
+
+                    binaryProcessCallback.writeBytes(exitBytes);
+                }
+                catch (IOException ioException) {
+                    throwable[0] = ioException;
+                }
+            }
+
+            @Override
+            public void onStdBufferRead(BinaryProcessCallback binaryProcessCallback, PooledBuffer pooledBuffer) {
+                inMessageDigest.update(pooledBuffer.getByteBuffer());
+
+                pooledBuffer.release();
+            }
+
+            @Override
+            public void onErrorBufferRead(BinaryProcessCallback binaryProcessCallback, PooledBuffer pooledBuffer) {
+                pooledBuffer.release();
+
+                try {
+                    Assertions.fail("Read unexpected bytes from stderr.");
+                }
+                catch (Throwable unexpectedThrowable) {
+                    throwable[0] = unexpectedThrowable;
+                }
+            }
+
+            @Override
+            public void onProcessExited(int exitCode) {
+                try {
+                    Assertions.assertEquals(0, exitCode, "Unexpected exit code.");
+                }
+                catch (Throwable unexpectedThrowable) {
+                    throwable[0] = unexpectedThrowable;
+                }
+
+                testCompleted.set(true);
+            }
+
+            @Override
+            public void onIOException(IOException ioException) {
+                throwable[0] = ioException;
+            }
+
+            @Override
+            public BufferPool getBufferPool() {
+                return bufferPool;
+            }
+        });
+
+        while (!testCompleted.get()) {
+            try {
+                Thread.sleep(1000);
+            }
+            catch (InterruptedException interruptedException) {
+                Assertions.fail("Unexpected interrupted exception.", interruptedException);
+            }
+        }
+
+        if(throwable[0] != null) {
+            Assertions.fail("Unexpected assertion-exception.", throwable[0]);
+        }
+
+        Assertions.assertArrayEquals(outMessageDigest.digest(), inMessageDigest.digest(),
+                "Unexpected hash value: The received data is not equal to the transmitted data.");
+
+        //Every leased buffer was released again.
+        Assertions.assertEquals(bufferPool.getMissCount() - bufferPool.getDiscardCount(),
+                bufferPool.getAvailableBufferCount(), "Unexpected amount of pooled buffers.");
+        Assertions.assertEquals(0, bufferPool.getLeasedBufferCount(), "Unexpected amount of leased buffers.");
+
+        //A lease beyond the limit waits, until a buffer was released.
+        List<PooledBuffer> leasedBuffers = new ArrayList<>();
+
+        for(int i = 0; i < bufferPool.getMaxLeasedBuffers(); i++)
+            leasedBuffers.add(bufferPool.acquire());
+
+        CompletableFuture<PooledBuffer> waitingLease = CompletableFuture.supplyAsync(bufferPool::acquire);
+
+        long deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+
+        while (bufferPool.getWaitCount() == 0 && System.nanoTime() < deadlineNanos)
+            Thread.sleep(10);
+
+        Assertions.assertEquals(1, bufferPool.getWaitCount(), "Unexpected amount of waiting leases.");
+        Assertions.assertFalse(waitingLease.isDone(), "The lease didn't wait.");
+
+        leasedBuffers.get(0).release();
+
+        waitingLease.get(30, TimeUnit.SECONDS).release();
+
+        for(int i = 1; i < leasedBuffers.size(); i++)
+            leasedBuffers.get(i).release();
+
+        Assertions.assertEquals(0, bufferPool.getLeasedBufferCount(), "Unexpected amount of leased buffers.");
+    }
+
+    @Test
+    @Order(9)
+    public void byteBufferStdoutEchoSharedIoEngineTest() throws NoSuchAlgorithmException {
+        final byte[] testBytes = {2, 4, 6, 8};
+        final byte[] exitBytes = {0, 69, 88, 73, 84, 0};
+
+        MessageDigest outMessageDigest = MessageDigest.getInstance("SHA-256");
+        MessageDigest inMessageDigest = MessageDigest.getInstance("SHA-256");
+
+        List<String> arguments = new ArrayList<>();
+        arguments.add("echo-bytes");
+
+        IoEngine ioEngine = IoEngine.shared(1);
+
+        //The buffers are written through the input writer of the process, like the bytes of the other handlers.
+        ProcessOptions processOptions = new ProcessOptions()
+                .setIoEngine(ioEngine)
+                .setInputWriter(InputWriter.dedicated(4, FlushPolicy.everyBytes(256)));
+
+        AtomicBoolean testCompleted = new AtomicBoolean(false);
+
+        final Throwable[] throwable = {null};
+        final ByteBufferProcessCallback[] processCallback = {null};
+
+        ProcessCreator.startProcess(executableFile, executableFile.getParentFile(), arguments, processOptions,
+                new ByteBufferProcessHandler() {
+            {
+                Thread.currentThread().setUncaughtExceptionHandler((thread, unexpectedThrowable) ->
+                        throwable[0] = unexpectedThrowable);
+            }
+
+            @Override
+            public void onInitialized(ByteBufferProcessCallback byteBufferProcessCallback) {
+                processCallback[0] = byteBufferProcessCallback;
+
+                try {
+                    //Send three test arrays with a single gathering write, using heap and direct buffers.
+
+                    ByteBuffer directBuffer = ByteBuffer.allocateDirect(testBytes.length);
+                    directBuffer.put(testBytes).flip();
+
+                    byteBufferProcessCallback.write(new ByteBuffer[] {
+                            ByteBuffer.wrap(testBytes),
+                            directBuffer,
+                            ByteBuffer.wrap(testBytes)
+                    });
+
+                    outMessageDigest.update(testBytes);
+                    outMessageDigest.update(testBytes);
+                    outMessageDigest.update(testBytes);
+
+                    //Send exit bytes to terminate the process.
+
+                    byteBufferProcessCallback.write(exitBytes, 1, 4);
+                    byteBufferProcessCallback.flush();
+                }
+                catch (IOException ioException) {
+                    throwable[0] = ioException;
+                }
+            }
+
+            @Override
+            public void onStdBufferRead(ByteBufferProcessCallback byteBufferProcessCallback, ByteBuffer buffer) {
+                if(!buffer.isDirect())
+                    throwable[0] = new AssertionError("Read bytes into an unexpected heap buffer.");
+
+                inMessageDigest.update(buffer);
+            }
+
+            @Override
+            public void onErrorBufferRead(ByteBufferProcessCallback byteBufferProcessCallback, ByteBuffer buffer) {
+                try {
+                    Assertions.fail("Read unexpected bytes from stderr.");
+                }
+                catch (Throwable unexpectedThrowable) {
+                    throwable[0] = unexpectedThrowable;
+                }
+            }
+
+            @Override
+            public void onProcessExited(int exitCode) {
+                try {
+                    Assertions.assertEquals(0, exitCode, "Unexpected exit code.");
+                }
+                catch (Throwable unexpectedThrowable) {
+                    throwable[0] = unexpectedThrowable;
+                }
+
+                testCompleted.set(true);
+            }
+
+            @Override
+            public void onIOException(IOException ioException) {
+                throwable[0] = ioException;
+            }
+
+            @Override
+            public boolean isDirectBuffer() {
+                return true;
+            }
+        });
+
+        while (!testCompleted.get()) {
+            try {
+                Thread.sleep(1000);
+            }
+            catch (InterruptedException interruptedException) {
+                Assertions.fail("Unexpected interrupted exception.", interruptedException);
+            }
+        }
+
+        if(throwable[0] != null) {
+            Assertions.fail("Unexpected assertion-exception.", throwable[0]);
+        }
+
+        ioEngine.close();
+
+        Assertions.assertArrayEquals(outMessageDigest.digest(), inMessageDigest.digest(),
+                "Unexpected hash value: The received data is not equal to the transmitted data.");
+        Assertions.assertEquals(testBytes.length * 3 + 4, processCallback[0].getWrittenBytes(),
+                "Unexpected amount of written bytes.");
+    }
+
+    @Test
+    @Order(10)
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    public void pipelineUnixTest() {
+        File shellFile = new File("/bin/sh");
+
+        //Equal to: (printf 'a\nb\n'; exit 3) | tr a-z A-Z
+        ProcessPipeline processPipeline = new ProcessPipeline()
+                .addStage(shellFile, Arrays.asList("-c", "printf 'a\\nb\\n'; exit 3"))
+                .addStage(shellFile, Arrays.asList("-c", "tr a-z A-Z"));
+
+        List<String> readLines = new ArrayList<>();
+        final int[][] stageExitCodes = {null};
+
+        processPipeline.setPipelineExitListener(exitCodes -> stageExitCodes[0] = exitCodes);
+
+        AtomicBoolean testCompleted = new AtomicBoolean(false);
+
+        final Throwable[] throwable = {null};
+
+        ProcessCreator.startPipeline(processPipeline, null, new TextProcessHandler() {
+            @Override
+            public void onInitialized(TextProcessCallback textProcessCallback) {
+                //Ignore, because we don't need to send data or kill the process...
+            }
+
+            @Override
+            public void onStdLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                readLines.add(readLine);
+            }
+
+            @Override
+            public void onErrorLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                try {
+                    Assertions.fail("Read unexpected line from stderr: " + readLine);
+                }
+                catch (Throwable unexpectedThrowable) {
+                    throwable[0] = unexpectedThrowable;
+                }
+            }
+
+            @Override
+            public void onProcessExited(int exitCode) {
+                try {
+                    Assertions.assertEquals(0, exitCode, "Unexpected exit code of the last stage.");
+                }
+                catch (Throwable unexpectedThrowable) {
+                    throwable[0] = unexpectedThrowable;
+                }
+
+                testCompleted.set(true);
+            }
+
+            @Override
+            public void onIOException(IOException ioException) {
+                throwable[0] = ioException;
+            }
+        });
+
+        while (!testCompleted.get()) {
+            try {
+                Thread.sleep(1000);
+            }
+            catch (InterruptedException interruptedException) {
+                Assertions.fail("Unexpected interrupted exception.", interruptedException);
+            }
+        }
+
+        if(throwable[0] != null) {
+            Assertions.fail("Unexpected assertion-exception.", throwable[0]);
+        }
+
+        Assertions.assertEquals(Arrays.asList("A", "B"), readLines, "Unexpected lines.");
+        Assertions.assertArrayEquals(new int[] {3, 0}, stageExitCodes[0], "Unexpected stage exit codes.");
+    }
+
+    @Test
+    @Order(11)
+    public void stringStdoutEchoQueuedInputWriterTest() throws NoSuchAlgorithmException {
+        final String testString = "This is a test string to echo from the started process!";
+        final String exitString = "EXIT";
+        final int lineCount = 100;
+
+        MessageDigest outMessageDigest = MessageDigest.getInstance("SHA-256");
+        MessageDigest inMessageDigest = MessageDigest.getInstance("SHA-256");
+
+        List<String> arguments = new ArrayList<>();
+        arguments.add("echo-string");
+
+        //A small queue blocks the writing thread, while the writer thread flushes every 256 bytes.
+        ProcessOptions processOptions = new ProcessOptions()
+                .setInputWriter(InputWriter.dedicated(4, FlushPolicy.everyBytes(256)));
+
+        long expectedWrittenBytes = (long) (testString.length() + 1) * lineCount + exitString.length() + 1;
+        final long[] writtenBytes = {0};
+
+        AtomicBoolean testCompleted = new AtomicBoolean(false);
+
+        final Throwable[] throwable = {null};
+
+        ProcessCreator.startProcess(executableFile, executableFile.getParentFile(), arguments, processOptions,
+                new TextProcessHandler() {
+            private TextProcessCallback textProcessCallback;
+
+            {
+                Thread.currentThread().setUncaughtExceptionHandler((thread, unexpectedThrowable) ->
+                        throwable[0] = unexpectedThrowable);
+            }
+
+            @Override
+            public void onInitialized(TextProcessCallback textProcessCallback) {
+                this.textProcessCallback = textProcessCallback;
+
+                try {
+                    for(int i = 0; i < lineCount; i++) {
+                        textProcessCallback.writeLine(testString + "\n");
+                        outMessageDigest.update(testString.getBytes(StandardCharsets.UTF_8));
+                    }
+
+                    //Send exit string to terminate the process and flush the remaining bytes explicitly.
+
+                    textProcessCallback.writeLine(exitString + "\n");
+                    textProcessCallback.flush();
+                }
+                catch (IOException ioException) {
+                    throwable[0] = ioException;
+                }
+            }
+
+            @Override
+            public void onStdLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                inMessageDigest.update(readLine.getBytes(StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public void onErrorLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                try {
+                    Assertions.fail("Read unexpected line from stderr: " + readLine);
+                }
+                catch (Throwable unexpectedThrowable) {
+                    throwable[0] = unexpectedThrowable;
+                }
+            }
+
+            @Override
+            public void onProcessExited(int exitCode) {
+                try {
+                    Assertions.assertEquals(0, exitCode, "Unexpected exit code.");
+                }
+                catch (Throwable unexpectedThrowable) {
+                    throwable[0] = unexpectedThrowable;
+                }
+
+                writtenBytes[0] = textProcessCallback.getWrittenBytes();
+
+                testCompleted.set(true);
+            }
+
+            @Override
+            public void onIOException(IOException ioException) {
+                throwable[0] = ioException;
+            }
+        });
+
+        while (!testCompleted.get()) {
+            try {
+                Thread.sleep(1000);
+            }
+            catch (InterruptedException interruptedException) {
+                Assertions.fail("Unexpected interrupted exception.", interruptedException);
+            }
+        }
+
+        if(throwable[0] != null) {
+            Assertions.fail("Unexpected assertion-exception.", throwable[0]);
+        }
+
+        Assertions.assertEquals(expectedWrittenBytes, writtenBytes[0], "Unexpected amount of written bytes.");
+        Assertions.assertArrayEquals(outMessageDigest.digest(), inMessageDigest.digest(),
+                "Unexpected hash value: The received data is not equal to the transmitted data.");
+    }
+
+    @Test
+    @Order(12)
+    public void stringStdoutEchoHandoffDropNewestTest() {
+        final String testString = "This is a test string to echo from the started process!";
+        final int lineCount = 200;
+
+        List<String> arguments = new ArrayList<>();
+        arguments.add("echo-string");
+
+        //The slow handler lets the small queue overflow, so the reader drops the newest lines instead of blocking.
+        ProcessOptions processOptions = new ProcessOptions()
+                .setHandoffCapacity(4)
+                .setHandoffPolicy(HandoffPolicy.DROP_NEWEST);
+
+        AtomicInteger readLineCount = new AtomicInteger();
+        final long[] droppedOutputs = {0};
+        final int[] linesAtExit = {0};
+
+        AtomicBoolean testCompleted = new AtomicBoolean(false);
+
+        final Throwable[] throwable = {null};
+
+        ProcessCreator.startProcess(executableFile, executableFile.getParentFile(), arguments, processOptions,
+                new TextProcessHandler() {
+            private TextProcessCallback textProcessCallback;
+
+            @Override
+            public void onInitialized(TextProcessCallback textProcessCallback) {
+                this.textProcessCallback = textProcessCallback;
+
+                try {
+                    for(int i = 0; i < lineCount; i++)
+                        textProcessCallback.writeLine(testString + "\n");
+
+                    textProcessCallback.writeLine("EXIT\n");
+                }
+                catch (IOException ioException) {
+                    throwable[0] = ioException;
+                }
+            }
+
+            @Override
+            public void onStdLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                try {
+                    Assertions.assertEquals(testString, readLine, "Unexpected line.");
+
+                    if(readLineCount.incrementAndGet() == 1)
+                        Thread.sleep(1000);
+                }
+                catch (Throwable unexpectedThrowable) {
+                    throwable[0] = unexpectedThrowable;
+                }
+            }
+
+            @Override
+            public void onErrorLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                throwable[0] = new AssertionError("Read unexpected line from stderr: " + readLine);
+            }
+
+            @Override
+            public void onProcessExited(int exitCode) {
+                linesAtExit[0] = readLineCount.get();
+                droppedOutputs[0] = textProcessCallback.getDroppedOutputs();
+
+                testCompleted.set(true);
+            }
+
+            @Override
+            public void onIOException(IOException ioException) {
+                throwable[0] = ioException;
+            }
+        });
+
+        while (!testCompleted.get()) {
+            try {
+                Thread.sleep(1000);
+            }
+            catch (InterruptedException interruptedException) {
+                Assertions.fail("Unexpected interrupted exception.", interruptedException);
+            }
+        }
+
+        if(throwable[0] != null) {
+            Assertions.fail("Unexpected assertion-exception.", throwable[0]);
+        }
+
+        Assertions.assertTrue(droppedOutputs[0] > 0, "No lines were dropped.");
+        Assertions.assertEquals(lineCount, linesAtExit[0] + droppedOutputs[0],
+                "Every line must be either passed to the handler or counted as dropped.");
+    }
+
+    @Test
+    @Order(13)
+    public void stringStdoutEchoCallbackExecutorTest() {
+        final String testString = "This is a test string to echo from the started process!";
+        final int lineCount = 50;
+
+        List<String> arguments = new ArrayList<>();
+        arguments.add("echo-string");
+
+        //A shared pool calls the handler. The callbacks of the process must be serialized and in order.
+        ExecutorService callbackExecutor = Executors.newFixedThreadPool(4, runnable ->
+                new Thread(runnable, "test-callback-executor"));
+
+        ProcessOptions processOptions = new ProcessOptions().setCallbackExecutor(callbackExecutor);
+
+        List<String> callbacks = new ArrayList<>();
+
+        AtomicBoolean testCompleted = new AtomicBoolean(false);
+
+        final Throwable[] throwable = {null};
+
+        ProcessCreator.startProcess(executableFile, executableFile.getParentFile(), arguments, processOptions,
+                new TextProcessHandler() {
+            private void onCallback(String callback) {
+                if(!Thread.currentThread().getName().equals("test-callback-executor"))
+                    throwable[0] = new AssertionError("Callback called by an unexpected thread: " + callback);
+
+                callbacks.add(callback);
+            }
+
+            @Override
+            public void onInitialized(TextProcessCallback textProcessCallback) {
+                onCallback("init");
+
+                try {
+                    for(int i = 0; i < lineCount; i++)
+                        textProcessCallback.writeLine(testString + i + "\n");
+
+                    textProcessCallback.writeLine("EXIT\n");
+                }
+                catch (IOException ioException) {
+                    throwable[0] = ioException;
+                }
+            }
+
+            @Override
+            public void onStdLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                onCallback(readLine);
+            }
+
+            @Override
+            public void onErrorLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                throwable[0] = new AssertionError("Read unexpected line from stderr: " + readLine);
+            }
+
+            @Override
+            public void onProcessExited(int exitCode) {
+                onCallback("exit");
+
+                testCompleted.set(true);
+            }
+
+            @Override
+            public void onIOException(IOException ioException) {
+                throwable[0] = ioException;
+            }
+        });
+
+        while (!testCompleted.get()) {
+            try {
+                Thread.sleep(1000);
+            }
+            catch (InterruptedException interruptedException) {
+                Assertions.fail("Unexpected interrupted exception.", interruptedException);
+            }
+        }
+
+        callbackExecutor.shutdown();
+
+        if(throwable[0] != null) {
+            Assertions.fail("Unexpected assertion-exception.", throwable[0]);
+        }
+
+        List<String> expectedCallbacks = new ArrayList<>();
+        expectedCallbacks.add("init");
+
+        for(int i = 0; i < lineCount; i++)
+            expectedCallbacks.add(testString + i);
+
+        expectedCallbacks.add("exit");
+
+        Assertions.assertEquals(expectedCallbacks, callbacks, "Unexpected callbacks.");
+    }
+
+    @Test
+    @Order(14)
+    public void bytesStdoutEchoInputSourceTest() throws NoSuchAlgorithmException {
+        final byte[] testBytes = {2, 4, 6, 8};
+        final byte[] exitBytes = {69, 88, 73, 84};
+        final int blockCount = 10000;
+
+        MessageDigest outMessageDigest = MessageDigest.getInstance("SHA-256");
+        MessageDigest inMessageDigest = MessageDigest.getInstance("SHA-256");
+
+        ByteArrayOutputStream inputBytes = new ByteArrayOutputStream();
+
+        for(int i = 0; i < blockCount; i++) {
+            inputBytes.write(testBytes, 0, testBytes.length);
+            outMessageDigest.update(testBytes);
+        }
+
+        inputBytes.write(exitBytes, 0, exitBytes.length);
+
+        List<String> arguments = new ArrayList<>();
+        arguments.add("echo-bytes");
+
+        //The input is transferred by the pump thread, so the handler doesn't write to the process.
+        ProcessOptions processOptions = new ProcessOptions()
+                .setInputSource(InputSource.stream(new ByteArrayInputStream(inputBytes.toByteArray())));
+
+        AtomicBoolean testCompleted = new AtomicBoolean(false);
+
+        final Throwable[] throwable = {null};
+
+        ProcessCreator.startProcess(executableFile, executableFile.getParentFile(), arguments, processOptions,
+                new BinaryProcessHandler() {
+            @Override
+            public void onInitialized(BinaryProcessCallback binaryProcessCallback) {
+                //Ignore...
+            }
+
+            @Override
+            public void onStdBytesRead(BinaryProcessCallback binaryProcessCallback, int readBytes, byte[] byteArray) {
+                inMessageDigest.update(byteArray, 0, readBytes);
+            }
+
+            @Override
+            public void onErrorBytesRead(BinaryProcessCallback binaryProcessCallback, int readBytes, byte[] byteArray) {
+                throwable[0] = new AssertionError("Read unexpected bytes from stderr.");
+            }
+
+            @Override
+            public void onProcessExited(int exitCode) {
+                try {
+                    Assertions.assertEquals(0, exitCode, "Unexpected exit code.");
+                }
+                catch (Throwable unexpectedThrowable) {
+                    throwable[0] = unexpectedThrowable;
+                }
+
+                testCompleted.set(true);
+            }
+
+            @Override
+            public void onIOException(IOException ioException) {
+                throwable[0] = ioException;
+            }
+        });
+
+        while (!testCompleted.get()) {
+            try {
+                Thread.sleep(1000);
+            }
+            catch (InterruptedException interruptedException) {
+                Assertions.fail("Unexpected interrupted exception.", interruptedException);
+            }
+        }
+
+        if(throwable[0] != null) {
+            Assertions.fail("Unexpected assertion-exception.", throwable[0]);
+        }
+
+        Assertions.assertArrayEquals(outMessageDigest.digest(), inMessageDigest.digest(),
+                "Unexpected hash value: The received data is not equal to the transmitted data.");
+    }
+
+    @Test
+    @Order(15)
+    public void stringStdoutEchoDemandReaderTest() throws IOException {
+        final int lineCount = 1000;
+
+        StringBuilder inputText = new StringBuilder();
+
+        for(int i = 0; i < lineCount; i++)
+            inputText.append("Line ").append(i).append('\n');
+
+        inputText.append("EXIT\n");
+
+        List<String> arguments = new ArrayList<>();
+        arguments.add("echo-string");
+
+        ProcessOptions processOptions = new ProcessOptions()
+                .setErrorOutputRedirect(ProcessOptions.DISCARD)
+                .setInputSource(InputSource.stream(new ByteArrayInputStream(
+                        inputText.toString().getBytes(StandardCharsets.UTF_8))));
+
+        Process process = ProcessCreator.createProcessBuilder(executableFile, executableFile.getParentFile(),
+                arguments, processOptions).start();
+
+        processOptions.getInputSource().transfer(process.getOutputStream(), DefaultThreadFactory.INSTANCE,
+                ioException -> {
+                    //Ignore...
+                });
+
+        List<String> receivedLines = new ArrayList<>();
+        AtomicBoolean testCompleted = new AtomicBoolean(false);
+
+        final Throwable[] throwable = {null};
+        final DemandReader<?>[] demandReader = {null};
+
+        //Every line is requested after the previous line was received.
+        demandReader[0] = new DemandLineReader(process.getInputStream(), new DemandReader.Subscriber<String>() {
+            @Override
+            public void onNext(String item) {
+                receivedLines.add(item);
+
+                demandReader[0].request(1);
+            }
+
+            @Override
+            public void onError(Throwable unexpectedThrowable) {
+                throwable[0] = unexpectedThrowable;
+
+                testCompleted.set(true);
+            }
+
+            @Override
+            public void onComplete() {
+                testCompleted.set(true);
+            }
+        }, DefaultThreadFactory.INSTANCE);
+
+        demandReader[0].request(1);
+
+        while (!testCompleted.get()) {
+            try {
+                Thread.sleep(1000);
+            }
+            catch (InterruptedException interruptedException) {
+                Assertions.fail("Unexpected interrupted exception.", interruptedException);
+            }
+        }
+
+        if(throwable[0] != null) {
+            Assertions.fail("Unexpected assertion-exception.", throwable[0]);
+        }
+
+        Assertions.assertEquals(lineCount, receivedLines.size(), "Unexpected amount of received lines.");
+
+        for(int i = 0; i < lineCount; i++)
+            Assertions.assertEquals("Line " + i, receivedLines.get(i), "Unexpected line.");
+    }
+
+    @Test
+    @Order(16)
+    public void bytesStdoutEchoProcessMetricsTest() throws Exception {
+        final byte[] testBytes = {2, 4, 6, 8};
+        final byte[] exitBytes = {69, 88, 73, 84};
+
+        List<String> arguments = new ArrayList<>();
+        arguments.add("echo-bytes");
+
+        JmxProcessMetrics processMetrics = new JmxProcessMetrics();
+        processMetrics.register("bytesStdoutEchoProcessMetricsTest");
+
+        ProcessOptions processOptions = new ProcessOptions().setProcessMetrics(processMetrics);
+
+        AtomicBoolean testCompleted = new AtomicBoolean(false);
+
+        final Throwable[] throwable = {null};
+
+        ProcessCreator.startProcess(executableFile, executableFile.getParentFile(), arguments, processOptions,
+                new BinaryProcessHandler() {
+            @Override
+            public void onInitialized(BinaryProcessCallback binaryProcessCallback) {
+                try {
+                    binaryProcessCallback.writeBytes(testBytes);
+                    binaryProcessCallback.writeBytes(testBytes);
+
+                    //Send exit bytes to terminate the process.
+                    binaryProcessCallback.writeBytes(exitBytes);
+                }
+                catch (IOException ioException) {
+                    throwable[0] = ioException;
+                }
+            }
+
+            @Override
+            public void onStdBytesRead(BinaryProcessCallback binaryProcessCallback, int readBytes, byte[] byteArray) {
+                //Ignore...
+            }
+
+            @Override
+            public void onErrorBytesRead(BinaryProcessCallback binaryProcessCallback, int readBytes, byte[] byteArray) {
+                throwable[0] = new AssertionError("Read unexpected bytes from stderr.");
+            }
+
+            @Override
+            public void onProcessExited(int exitCode) {
+                testCompleted.set(true);
+            }
+
+            @Override
+            public void onIOException(IOException ioException) {
+                throwable[0] = ioException;
+            }
+        });
+
+        while (!testCompleted.get()) {
+            try {
+                Thread.sleep(1000);
+            }
+            catch (InterruptedException interruptedException) {
+                Assertions.fail("Unexpected interrupted exception.", interruptedException);
+            }
+        }
+
+        processMetrics.unregister();
+
+        if(throwable[0] != null) {
+            Assertions.fail("Unexpected assertion-exception.", throwable[0]);
+        }
+
+        Assertions.assertEquals(1, processMetrics.getStartedProcesses(), "Unexpected amount of started processes.");
+        Assertions.assertEquals(0, processMetrics.getRunningProcesses(), "Unexpected amount of running processes.");
+        Assertions.assertEquals(Collections.singletonMap(0, 1L), processMetrics.getExitCodeCounts(),
+                "Unexpected exit codes.");
+        Assertions.assertEquals(testBytes.length * 2, processMetrics.getStandardOutputBytes(),
+                "Unexpected amount of read bytes.");
+        Assertions.assertEquals(testBytes.length * 2 + exitBytes.length, processMetrics.getWrittenBytes(),
+                "Unexpected amount of written bytes.");
+        Assertions.assertEquals(3, processMetrics.getFlushes(), "Unexpected amount of flushes.");
+        Assertions.assertEquals(1, Arrays.stream(processMetrics.getSpawnLatencyHistogram()).sum(),
+                "Unexpected amount of recorded spawn latencies.");
+    }
+
+    @Test
+    @Order(17)
+    public void stringStdoutEchoIdleTimeoutTest() {
+        List<String> arguments = new ArrayList<>();
+        arguments.add("echo-string");
+
+        //The process waits for input, which is never written.
+        ProcessOptions processOptions = new ProcessOptions().setIdleTimeoutMillis(1000).setDestroyGraceMillis(1000);
+
+        AtomicBoolean testCompleted = new AtomicBoolean(false);
+
+        final Throwable[] throwable = {null};
+        final TimeoutReason[] receivedTimeoutReason = {null};
+
+        ProcessCreator.startProcess(executableFile, executableFile.getParentFile(), arguments, processOptions,
+                new TextProcessHandler() {
+            @Override
+            public void onInitialized(TextProcessCallback textProcessCallback) {
+                //Ignore...
+            }
+
+            @Override
+            public void onStdLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                throwable[0] = new AssertionError("Read unexpected line from stdout.");
+            }
+
+            @Override
+            public void onErrorLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                throwable[0] = new AssertionError("Read unexpected line from stderr.");
+            }
+
+            @Override
+            public void onTimeout(TimeoutReason timeoutReason) {
+                receivedTimeoutReason[0] = timeoutReason;
+            }
+
+            @Override
+            public void onProcessExited(int exitCode) {
+                testCompleted.set(true);
+            }
+
+            @Override
+            public void onIOException(IOException ioException) {
+                throwable[0] = ioException;
+            }
+        });
+
+        while (!testCompleted.get()) {
+            try {
+                Thread.sleep(1000);
+            }
+            catch (InterruptedException interruptedException) {
+                Assertions.fail("Unexpected interrupted exception.", interruptedException);
+            }
+        }
+
+        if(throwable[0] != null) {
+            Assertions.fail("Unexpected assertion-exception.", throwable[0]);
+        }
+
+        Assertions.assertEquals(TimeoutReason.IDLE, receivedTimeoutReason[0], "Unexpected timeout reason.");
+    }
+
+    @Test
+    @Order(18)
+    public void stringStdoutEchoTailCaptureTest() {
+        final String[] testLines = {"first-line", "second-line", "third-line", "fourth-line"};
+
+        List<String> arguments = new ArrayList<>();
+        arguments.add("echo-string");
+
+        //The capture keeps the separator before "third-line" and drops the beginning of "second-line".
+        TailCapture tailCapture = new TailCapture(24, 3);
+
+        ProcessOptions processOptions = new ProcessOptions().setOutputCapture(tailCapture);
+
+        AtomicBoolean testCompleted = new AtomicBoolean(false);
+
+        final Throwable[] throwable = {null};
+
+        ProcessCreator.startProcess(executableFile, executableFile.getParentFile(), arguments, processOptions,
+                new TextProcessHandler() {
+            @Override
+            public void onInitialized(TextProcessCallback textProcessCallback) {
+                try {
+                    for(String testLine : testLines)
+                        textProcessCallback.writeLine(testLine + "\n");
+
+                    //Send exit line to terminate the process.
+                    textProcessCallback.writeLine("EXIT\n");
+                }
+                catch (IOException ioException) {
+                    throwable[0] = ioException;
+                }
+            }
+
+            @Override
+            public void onStdLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                //Ignore...
+            }
+
+            @Override
+            public void onErrorLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                throwable[0] = new AssertionError("Read unexpected line from stderr.");
+            }
+
+            @Override
+            public void onProcessExited(int exitCode) {
+                testCompleted.set(true);
+            }
+
+            @Override
+            public void onIOException(IOException ioException) {
+                throwable[0] = ioException;
+            }
+        });
+
+        while (!testCompleted.get()) {
+            try {
+                Thread.sleep(1000);
+            }
+            catch (InterruptedException interruptedException) {
+                Assertions.fail("Unexpected interrupted exception.", interruptedException);
+            }
+        }
+
+        if(throwable[0] != null) {
+            Assertions.fail("Unexpected assertion-exception.", throwable[0]);
+        }
+
+        Assertions.assertEquals(Arrays.asList("third-line", "fourth-line"), tailCapture.getStandardOutputLines(),
+                "Unexpected captured lines.");
+        Assertions.assertEquals(24, tailCapture.getStandardOutputBytes().length,
+                "Unexpected amount of captured bytes.");
+        Assertions.assertEquals(46, tailCapture.getStandardOutputReadBytes(), "Unexpected amount of read bytes.");
+        Assertions.assertEquals(Collections.emptyList(), tailCapture.getErrorOutputLines(),
+                "Unexpected captured error lines.");
+    }
+
+    @Test
+    @Order(19)
+    public void stringStdoutEchoSpillCaptureTest() throws IOException {
+        final String[] testLines = {"first-line", "second-line", "third-line", "fourth-line"};
+
+        List<String> arguments = new ArrayList<>();
+        arguments.add("echo-string");
+
+        //Small segments, so lines are split across segment files.
+        SpillCapture spillCapture = new SpillCapture(null, 16, StandardCharsets.UTF_8);
+
+        ProcessOptions processOptions = new ProcessOptions().setOutputCapture(spillCapture);
+
+        AtomicBoolean testCompleted = new AtomicBoolean(false);
+
+        final Throwable[] throwable = {null};
+
+        ProcessCreator.startProcess(executableFile, executableFile.getParentFile(), arguments, processOptions,
+                new TextProcessHandler() {
+            @Override
+            public void onInitialized(TextProcessCallback textProcessCallback) {
+                try {
+                    for(String testLine : testLines)
+                        textProcessCallback.writeLine(testLine + "\n");
+
+                    //Send exit line to terminate the process.
+                    textProcessCallback.writeLine("EXIT\n");
+                }
+                catch (IOException ioException) {
+                    throwable[0] = ioException;
+                }
+            }
+
+            @Override
+            public void onStdLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                //Ignore...
+            }
+
+            @Override
+            public void onErrorLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                throwable[0] = new AssertionError("Read unexpected line from stderr.");
+            }
+
+            @Override
+            public void onProcessExited(int exitCode) {
+                testCompleted.set(true);
+            }
+
+            @Override
+            public void onIOException(IOException ioException) {
+                throwable[0] = ioException;
+            }
+        });
+
+        while (!testCompleted.get()) {
+            try {
+                Thread.sleep(1000);
+            }
+            catch (InterruptedException interruptedException) {
+                Assertions.fail("Unexpected interrupted exception.", interruptedException);
+            }
+        }
+
+        if(throwable[0] != null) {
+            Assertions.fail("Unexpected assertion-exception.", throwable[0]);
+        }
+
+        try {
+            SpilledOutput standardOutput = spillCapture.getStandardOutput();
+
+            Assertions.assertEquals(46, standardOutput.getSize(), "Unexpected amount of captured bytes.");
+            Assertions.assertEquals(testLines.length, standardOutput.getLineCount(),
+                    "Unexpected amount of captured lines.");
+            Assertions.assertEquals(Arrays.asList(testLines), standardOutput.getLines(0, testLines.length),
+                    "Unexpected captured lines.");
+            Assertions.assertEquals("third-line", standardOutput.getLine(2), "Unexpected captured line.");
+            Assertions.assertEquals(3, standardOutput.findLine("rth", 0), "Unexpected found line.");
+            Assertions.assertEquals(-1, standardOutput.findLine("first", 1), "Unexpected found line.");
+            Assertions.assertEquals("second", StandardCharsets.UTF_8.decode(standardOutput.getBytes(11, 6)).toString(),
+                    "Unexpected captured bytes.");
+            Assertions.assertEquals(0, spillCapture.getErrorOutput().getLineCount(),
+                    "Unexpected amount of captured error lines.");
+        }
+        finally {
+            spillCapture.close();
+        }
+    }
+
+    @Test
+    @Order(20)
+    @EnabledOnOs(OS.LINUX)
+    public void sharedIoEngineCloseTest() throws Exception {
+        Set<Thread> previousThreads = getIoEngineThreads();
+
+        IoEngine ioEngine = IoEngine.shared(2);
+
+        byte[] inputBytes = "first-line\nEXIT\n".getBytes(StandardCharsets.UTF_8);
+        JmxProcessMetrics processMetrics = new JmxProcessMetrics();
+
+        ProcessOptions processOptions = new ProcessOptions()
+                .setIoEngine(ioEngine)
+                .setProcessMetrics(processMetrics)
+                .setInputSource(InputSource.stream(new ByteArrayInputStream(inputBytes)));
+
+        ProcessResult processResult = ProcessCreator.startProcessAsync(executableFile, executableFile.getParentFile(),
+                Collections.singletonList("echo-string"), processOptions).get(30, TimeUnit.SECONDS);
+
+        Assertions.assertEquals("first-line", processResult.getStandardOutput().trim(), "Unexpected stdout.");
+
+        ioEngine.close();
+
+        //The idle workers and drain threads of the closed engine terminate.
+        long deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        Set<Thread> engineThreads = getIoEngineThreads();
+        engineThreads.removeAll(previousThreads);
+
+        while (!engineThreads.isEmpty() && System.nanoTime() < deadlineNanos) {
+            Thread.sleep(100);
+
+            engineThreads.removeIf(thread -> !thread.isAlive());
+        }
+
+        Assertions.assertEquals(Collections.emptySet(), engineThreads, "The engine threads are still running.");
+
+        Assertions.assertThrows(IllegalStateException.class, () -> ProcessCreator.startProcessAsync(executableFile,
+                executableFile.getParentFile(), Collections.singletonList("echo-string"), processOptions));
+
+        //The closed engine is rejected before the process is spawned.
+        Assertions.assertEquals(1, processMetrics.getStartedProcesses(), "Unexpected started processes.");
+        Assertions.assertEquals(0, processMetrics.getRunningProcesses(), "Unexpected running processes.");
+    }
+
+    @Test
+    @Order(21)
+    public void stringStdoutEchoThreadFactoryTest() throws Exception {
+        List<String> threadNames = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger threadCounter = new AtomicInteger();
+
+        IoEngine ioEngine = IoEngine.threadPerStream(runnable -> {
+            Thread thread = new Thread(runnable, "custom-reader-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        byte[] inputBytes = "first-line\nEXIT\n".getBytes(StandardCharsets.UTF_8);
+        JmxProcessMetrics processMetrics = new JmxProcessMetrics();
+
+        ProcessOptions processOptions = new ProcessOptions()
+                .setIoEngine(ioEngine)
+                .setProcessMetrics(processMetrics)
+                .setInputSource(InputSource.stream(new ByteArrayInputStream(inputBytes)));
+
+        AtomicBoolean testCompleted = new AtomicBoolean(false);
+
+        final Throwable[] throwable = {null};
+
+        ProcessCreator.startProcess(executableFile, executableFile.getParentFile(),
+                Collections.singletonList("echo-string"), processOptions, new TextProcessHandler() {
+            @Override
+            public void onInitialized(TextProcessCallback textProcessCallback) {
+                //Ignore...
+            }
+
+            @Override
+            public void onStdLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                threadNames.add(Thread.currentThread().getName());
+            }
+
+            @Override
+            public void onErrorLineRead(TextProcessCallback textProcessCallback, String readLine) {
+                throwable[0] = new AssertionError("Read unexpected line from stderr.");
+            }
+
+            @Override
+            public void onProcessExited(int exitCode) {
+                testCompleted.set(true);
+            }
+
+            @Override
+            public void onIOException(IOException ioException) {
+                throwable[0] = ioException;
+            }
+        });
+
+        while (!testCompleted.get()) {
+            try {
+                Thread.sleep(1000);
+            }
+            catch (InterruptedException interruptedException) {
+                Assertions.fail("Unexpected interrupted exception.", interruptedException);
+            }
+        }
+
+        if(throwable[0] != null) {
+            Assertions.fail("Unexpected assertion-exception.", throwable[0]);
+        }
+
+        //A reader thread for each output stream and the pump thread, the termination is detected by the shared reaper.
+        Assertions.assertEquals(3, threadCounter.get(), "Unexpected amount of created threads.");
+        Assertions.assertEquals(1, threadNames.size(), "Unexpected amount of read lines.");
+        Assertions.assertTrue(threadNames.get(0).startsWith("custom-reader-"), "Unexpected reader thread.");
+
+        //The pump writes through the instrumented standard input stream.
+        Assertions.assertEquals(inputBytes.length, processMetrics.getWrittenBytes(), "Unexpected amount of bytes.");
+
+        //The bytes of text handlers are counted before they are split into lines.
+        Assertions.assertEquals(1, processMetrics.getStandardOutputLines(), "Unexpected amount of read lines.");
+        Assertions.assertEquals("first-line\n".length(), processMetrics.getStandardOutputBytes(),
+                "Unexpected amount of read bytes.");
+    }
+
+    private static Set<Thread> getIoEngineThreads() {
+        Set<Thread> ioEngineThreads = new HashSet<>();
+
+        for(Thread thread : Thread.getAllStackTraces().keySet()) {
+            if(thread.getName().startsWith("epi-io-"))
+                ioEngineThreads.add(thread);
+        }
+
+        return ioEngineThreads;
+    }
 }
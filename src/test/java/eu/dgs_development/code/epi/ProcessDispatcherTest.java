@@ -0,0 +1,210 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ProcessDispatcherTest {
+    @Test
+    @Order(1)
+    public void dropOldestKeepsNotificationsTest() throws Exception {
+        final int capacity = 4;
+        final int floodedLines = 100;
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            ProcessDispatcher processDispatcher = new ProcessDispatcher(executor, capacity,
+                    HandoffPolicy.DROP_OLDEST, 1);
+
+            CountDownLatch handlerBlocked = new CountDownLatch(1);
+            CountDownLatch handlerReleased = new CountDownLatch(1);
+            CountDownLatch endOfStreamRead = new CountDownLatch(1);
+
+            List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+            StreamTextReader.StreamCallback streamCallback = processDispatcher.handOff(
+                    new StreamTextReader.StreamCallback() {
+                @Override
+                public void onIOException(IOException ioException) {
+                    events.add("error");
+                }
+
+                @Override
+                public void onLineRead(CharSequence line) {
+                    events.add(line.toString());
+
+                    if(handlerBlocked.getCount() > 0) {
+                        handlerBlocked.countDown();
+
+                        try {
+                            handlerReleased.await();
+                        }
+                        catch (InterruptedException interruptedException) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }
+
+                @Override
+                public void onStreamIdle() {
+                    events.add("idle");
+                }
+
+                @Override
+                public void onEndOfStream() {
+                    events.add("end");
+
+                    endOfStreamRead.countDown();
+                }
+            }, false);
+
+            //The first line blocks the handler, so the following outputs overflow the queue.
+            streamCallback.onLineRead("0");
+
+            Assertions.assertTrue(handlerBlocked.await(30, TimeUnit.SECONDS), "The handler wasn't called.");
+
+            for(int i = 1; i <= floodedLines; i++)
+                streamCallback.onLineRead(String.valueOf(i));
+
+            streamCallback.onStreamIdle();
+            streamCallback.onIOException(new IOException("Test exception"));
+
+            for(int i = floodedLines + 1; i <= floodedLines * 2; i++)
+                streamCallback.onLineRead(String.valueOf(i));
+
+            streamCallback.onEndOfStream();
+
+            handlerReleased.countDown();
+
+            Assertions.assertTrue(endOfStreamRead.await(30, TimeUnit.SECONDS), "The end of stream wasn't passed.");
+
+            //Only the newest lines are kept, but none of the notifications get dropped or reordered.
+            List<String> expectedEvents = new ArrayList<>();
+            expectedEvents.add("0");
+            expectedEvents.add("idle");
+            expectedEvents.add("error");
+
+            for(int i = floodedLines * 2 - capacity + 1; i <= floodedLines * 2; i++)
+                expectedEvents.add(String.valueOf(i));
+
+            expectedEvents.add("end");
+
+            Assertions.assertEquals(expectedEvents, events, "Unexpected events.");
+            Assertions.assertEquals(floodedLines * 2 - capacity, processDispatcher.getDroppedOutputs(),
+                    "Unexpected amount of dropped outputs.");
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @Order(2)
+    public void dropNewestCoalescesIdleTest() throws Exception {
+        assertIdleCoalesced(HandoffPolicy.DROP_NEWEST);
+    }
+
+    @Test
+    @Order(3)
+    public void dropOldestCoalescesIdleTest() throws Exception {
+        assertIdleCoalesced(HandoffPolicy.DROP_OLDEST);
+    }
+
+    private static void assertIdleCoalesced(HandoffPolicy handoffPolicy) throws Exception {
+        final int capacity = 4;
+        final int floodedLines = 100000;
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            ProcessDispatcher processDispatcher = new ProcessDispatcher(executor, capacity, handoffPolicy, 1);
+
+            CountDownLatch handlerBlocked = new CountDownLatch(1);
+            CountDownLatch handlerReleased = new CountDownLatch(1);
+            CountDownLatch endOfStreamRead = new CountDownLatch(1);
+            AtomicInteger idleCount = new AtomicInteger();
+
+            StreamTextReader.StreamCallback streamCallback = processDispatcher.handOff(
+                    new StreamTextReader.StreamCallback() {
+                @Override
+                public void onIOException(IOException ioException) {
+                    //Ignore...
+                }
+
+                @Override
+                public void onLineRead(CharSequence line) {
+                    if(handlerBlocked.getCount() > 0) {
+                        handlerBlocked.countDown();
+
+                        try {
+                            handlerReleased.await();
+                        }
+                        catch (InterruptedException interruptedException) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }
+
+                @Override
+                public void onStreamIdle() {
+                    idleCount.incrementAndGet();
+                }
+
+                @Override
+                public void onEndOfStream() {
+                    endOfStreamRead.countDown();
+                }
+            }, false);
+
+            streamCallback.onLineRead("0");
+
+            Assertions.assertTrue(handlerBlocked.await(30, TimeUnit.SECONDS), "The handler wasn't called.");
+
+            //A child writing line by line makes the reader report an idle stream after every line.
+            for(int i = 1; i <= floodedLines; i++) {
+                streamCallback.onLineRead(String.valueOf(i));
+                streamCallback.onStreamIdle();
+            }
+
+            //Every queued line is surrounded by at most one idle notification on each side.
+            Assertions.assertTrue(processDispatcher.getQueuedOutputs() <= capacity * 2 + 1,
+                    "The queue isn't bounded: " + processDispatcher.getQueuedOutputs());
+
+            streamCallback.onEndOfStream();
+
+            handlerReleased.countDown();
+
+            Assertions.assertTrue(endOfStreamRead.await(30, TimeUnit.SECONDS), "The end of stream wasn't passed.");
+            Assertions.assertTrue(idleCount.get() >= 1 && idleCount.get() <= capacity + 1,
+                    "Unexpected amount of idle notifications: " + idleCount.get());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+}
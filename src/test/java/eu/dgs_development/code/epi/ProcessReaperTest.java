@@ -0,0 +1,166 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ProcessReaperTest {
+    private static File executableFile;
+
+    private static String getExecutablePathOrNull() {
+        String osName = System.getProperty("os.name").toLowerCase();
+
+        if(osName.contains("win")) {
+            return "go-echo/bin/go-echo-amd64.exe";
+        }
+        else if(osName.contains("nix") || osName.contains("nux") || osName.contains("aix")) {
+            return "go-echo/bin/go-echo-amd64-linux";
+        }
+        else if(osName.contains("mac")) {
+            return "go-echo/bin/go-echo-amd64-darwin";
+        }
+
+        return null;
+    }
+
+    @BeforeAll
+    public static void setup(){
+        //Check if native tests should be performed.
+        File testTriggerFile = new File("TRIGGER_TESTS");
+
+        Assumptions.assumeTrue(testTriggerFile.isFile(), "Unable to find test trigger file: Invalid path \"" +
+                testTriggerFile.getAbsolutePath() + "\".");
+
+        //Try to set the correct executable.
+        String executablePath = getExecutablePathOrNull();
+
+        if(executablePath == null) {
+            Assertions.fail("Unknown OS: Unable to detect the correct executable.");
+        }
+
+        executableFile = new File(getExecutablePathOrNull());
+
+        Assumptions.assumeTrue(executableFile.isFile(), "Unable to find test executable: Invalid path \"" +
+                executableFile.getAbsolutePath() + "\".");
+    }
+
+    @Test
+    @Order(1)
+    public void slowListenerTest() throws Exception {
+        CountDownLatch slowListenerStarted = new CountDownLatch(1);
+        CountDownLatch fastListenerNotified = new CountDownLatch(1);
+        AtomicReference<String> notificationThreadName = new AtomicReference<>();
+
+        Process slowProcess = startEchoProcess();
+
+        ProcessReaper.INSTANCE.watch(slowProcess, process -> {
+            slowListenerStarted.countDown();
+
+            try {
+                Thread.sleep(3000);
+            }
+            catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        stopEchoProcess(slowProcess);
+
+        Assertions.assertTrue(slowListenerStarted.await(30, TimeUnit.SECONDS), "The slow listener wasn't notified.");
+
+        //The slow listener must not delay the termination detection of other processes.
+        Process fastProcess = startEchoProcess();
+
+        ProcessReaper.INSTANCE.watch(fastProcess, process -> {
+            notificationThreadName.set(Thread.currentThread().getName());
+            fastListenerNotified.countDown();
+        });
+
+        stopEchoProcess(fastProcess);
+
+        Assertions.assertTrue(fastListenerNotified.await(2, TimeUnit.SECONDS), "The fast listener was delayed.");
+        Assertions.assertNotEquals("epi-process-reaper", notificationThreadName.get(),
+                "The listener was notified by the watcher thread.");
+    }
+
+    @Test
+    @Order(2)
+    public void processListenerTest() throws Exception {
+        AtomicInteger removedListenerCount = new AtomicInteger();
+        CountDownLatch addedListenerNotified = new CountDownLatch(1);
+
+        ProcessReaper.ProcessListenerCallback removedListener = process -> removedListenerCount.incrementAndGet();
+        ProcessReaper.ProcessListenerCallback addedListener = process -> addedListenerNotified.countDown();
+
+        Process process = startEchoProcess();
+
+        ProcessReaper.INSTANCE.watch(process, removedListener);
+
+        Assertions.assertTrue(ProcessReaper.INSTANCE.addProcessListener(process, addedListener),
+                "The listener wasn't added.");
+        Assertions.assertTrue(ProcessReaper.INSTANCE.removeProcessListener(process, removedListener),
+                "The listener wasn't removed.");
+
+        stopEchoProcess(process);
+
+        Assertions.assertTrue(addedListenerNotified.await(30, TimeUnit.SECONDS), "The added listener wasn't notified.");
+        Assertions.assertEquals(0, removedListenerCount.get(), "The removed listener was notified.");
+
+        //The process isn't watched anymore, after its termination was notified.
+        Assertions.assertFalse(ProcessReaper.INSTANCE.addProcessListener(process, removedListener),
+                "A listener was added to a terminated process.");
+        Assertions.assertFalse(ProcessReaper.INSTANCE.removeProcessListener(process, addedListener),
+                "A listener was removed from a terminated process.");
+    }
+
+    @Test
+    @Order(3)
+    public void terminatedProcessTest() throws Exception {
+        CountDownLatch listenerNotified = new CountDownLatch(1);
+
+        Process process = startEchoProcess();
+
+        stopEchoProcess(process);
+
+        Assertions.assertTrue(process.waitFor(30, TimeUnit.SECONDS), "The process didn't terminate.");
+
+        ProcessReaper.INSTANCE.watch(process, terminatedProcess -> listenerNotified.countDown());
+
+        Assertions.assertTrue(listenerNotified.await(30, TimeUnit.SECONDS), "The listener wasn't notified.");
+    }
+
+    private static Process startEchoProcess() throws IOException {
+        return new ProcessBuilder(executableFile.getAbsolutePath(), "echo-string")
+                .redirectOutput(ProcessOptions.DISCARD)
+                .start();
+    }
+
+    private static void stopEchoProcess(Process process) throws IOException {
+        try (OutputStream outputStream = process.getOutputStream()) {
+            outputStream.write("EXIT\n".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+Copyright 2023 DGS-Development (https://github.com/DGS-Development)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package eu.dgs_development.code.epi;
+
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class WorkerPoolTest {
+    private static File executableFile;
+
+    private static String getExecutablePathOrNull() {
+        String osName = System.getProperty("os.name").toLowerCase();
+
+        if(osName.contains("win")) {
+            return "go-echo/bin/go-echo-amd64.exe";
+        }
+        else if(osName.contains("nix") || osName.contains("nux") || osName.contains("aix")) {
+            return "go-echo/bin/go-echo-amd64-linux";
+        }
+        else if(osName.contains("mac")) {
+            return "go-echo/bin/go-echo-amd64-darwin";
+        }
+
+        return null;
+    }
+
+    @BeforeAll
+    public static void setup(){
+        //Check if native tests should be performed.
+        File testTriggerFile = new File("TRIGGER_TESTS");
+
+        Assumptions.assumeTrue(testTriggerFile.isFile(), "Unable to find test trigger file: Invalid path \"" +
+                testTriggerFile.getAbsolutePath() + "\".");
+
+        //Try to set the correct executable.
+        String executablePath = getExecutablePathOrNull();
+
+        if(executablePath == null) {
+            Assertions.fail("Unknown OS: Unable to detect the correct executable.");
+        }
+
+        executableFile = new File(getExecutablePathOrNull());
+
+        Assumptions.assumeTrue(executableFile.isFile(), "Unable to find test executable: Invalid path \"" +
+                executableFile.getAbsolutePath() + "\".");
+    }
+
+    @Test
+    @Order(1)
+    public void stringEchoWorkerPoolTest() throws Exception {
+        final String testString = "This is a test request for a pooled worker ";
+        final int requestCount = 20;
+
+        List<String> arguments = new ArrayList<>();
+        arguments.add("echo-string");
+
+        //Every worker gets replaced after 5 requests, so the requests are handled by several generations of workers.
+        WorkerPoolOptions workerPoolOptions = new WorkerPoolOptions()
+                .setMinWorkers(1)
+                .setMaxWorkers(2)
+                .setMaxRequestsPerWorker(5);
+
+        try (WorkerPool workerPool = new WorkerPool(executableFile, executableFile.getParentFile(), arguments,
+                MessageFraming.delimited((byte) '\n'), workerPoolOptions)) {
+            List<CompletableFuture<byte[]>> responses = new ArrayList<>();
+
+            for(int i = 0; i < requestCount; i++)
+                responses.add(workerPool.submit((testString + i).getBytes(StandardCharsets.UTF_8)));
+
+            for(int i = 0; i < requestCount; i++) {
+                Assertions.assertEquals(testString + i, new String(responses.get(i).get(30, TimeUnit.SECONDS),
+                        StandardCharsets.UTF_8), "Unexpected response.");
+            }
+
+            //The exit request terminates the worker without a response, so the request fails and the worker is
+            //replaced.
+            CompletableFuture<byte[]> exitResponse = workerPool.submit("EXIT".getBytes(StandardCharsets.UTF_8));
+
+            ExecutionException executionException = Assertions.assertThrows(ExecutionException.class,
+                    () -> exitResponse.get(30, TimeUnit.SECONDS));
+
+            Assertions.assertInstanceOf(IOException.class, executionException.getCause(),
+                    "Unexpected failure of the exit request.");
+
+            Assertions.assertEquals(testString, new String(workerPool.submit(testString.getBytes(
+                    StandardCharsets.UTF_8)).get(30, TimeUnit.SECONDS), StandardCharsets.UTF_8),
+                    "Unexpected response of the replaced worker.");
+        }
+    }
+
+    @Test
+    @Order(2)
+    public void cancelWaitingRequestTest() throws Exception {
+        final String testString = "This is a test request for a pooled worker ";
+        final int requestCount = 10;
+
+        List<String> arguments = new ArrayList<>();
+        arguments.add("echo-string");
+
+        WorkerPoolOptions workerPoolOptions = new WorkerPoolOptions()
+                .setMinWorkers(1)
+                .setMaxWorkers(1);
+
+        try (WorkerPool workerPool = new WorkerPool(executableFile, executableFile.getParentFile(), arguments,
+                MessageFraming.delimited((byte) '\n'), workerPoolOptions)) {
+            List<CompletableFuture<byte[]>> responses = new ArrayList<>();
+
+            //The requests wait while the single worker is starting.
+            for(int i = 0; i < requestCount; i++)
+                responses.add(workerPool.submit((testString + i).getBytes(StandardCharsets.UTF_8)));
+
+            for(int i = requestCount / 2; i < requestCount; i++)
+                responses.get(i).cancel(false);
+
+            //The cancelled requests left the queue immediately.
+            Assertions.assertTrue(workerPool.getPendingRequestCount() <= requestCount / 2,
+                    "Unexpected amount of waiting requests.");
+
+            for(int i = 0; i < requestCount / 2; i++) {
+                Assertions.assertEquals(testString + i, new String(responses.get(i).get(30, TimeUnit.SECONDS),
+                        StandardCharsets.UTF_8), "Unexpected response.");
+            }
+
+            Assertions.assertEquals(0, workerPool.getPendingRequestCount(), "Unexpected amount of waiting requests.");
+        }
+    }
+}